@@ -0,0 +1,120 @@
+package com.example.be.config;
+
+import com.example.be.exception.BadRequestException;
+import com.example.be.exception.UnprocessableEntityException;
+import com.example.be.service.IdempotencyService;
+import com.example.be.service.IdempotencyService.StoredResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Applies {@link Idempotent} to handler methods. The response body is captured
+ * by {@link IdempotencyFilter}, which wraps requests carrying the header. A key
+ * reused with a different request body is rejected with 422 instead of replayed.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyInterceptor implements HandlerInterceptor {
+
+    public static final String HEADER = "Idempotency-Key";
+    private static final String KEY_ATTRIBUTE = IdempotencyInterceptor.class.getName() + ".key";
+
+    private final IdempotencyService idempotencyService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        Idempotent idempotent = method.getMethodAnnotation(Idempotent.class);
+        if (idempotent == null) {
+            return true;
+        }
+        String header = request.getHeader(HEADER);
+        if (header == null || header.isBlank()) {
+            if (idempotent.required()) {
+                throw new BadRequestException("Missing " + HEADER + " header");
+            }
+            return true;
+        }
+        if (header.length() > 255) {
+            throw new BadRequestException(HEADER + " must be at most 255 characters");
+        }
+
+        // Scope keys per user and endpoint so clients cannot collide with each other
+        String key = currentUser() + "|" + request.getMethod() + "|" + request.getRequestURI() + "|" + header;
+        String bodyHash = (String) request.getAttribute(IdempotencyFilter.BODY_HASH_ATTRIBUTE);
+        while (true) {
+            StoredResponse stored = idempotencyService.getResponse(key);
+            if (stored != null) {
+                replay(stored, bodyHash, response);
+                return false;
+            }
+            try {
+                if (idempotencyService.tryAcquire(key)) {
+                    break;
+                }
+            } catch (IllegalStateException e) {
+                response.sendError(HttpStatus.CONFLICT.value(), e.getMessage());
+                return false;
+            }
+        }
+        // Another request may have stored the response between our lookup and acquire
+        StoredResponse stored = idempotencyService.getResponse(key);
+        if (stored != null) {
+            idempotencyService.complete(key, null);
+            replay(stored, bodyHash, response);
+            return false;
+        }
+        request.setAttribute(KEY_ATTRIBUTE, key);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        String key = (String) request.getAttribute(KEY_ATTRIBUTE);
+        if (key == null) {
+            return;
+        }
+        StoredResponse stored = null;
+        ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response,
+                ContentCachingResponseWrapper.class);
+        if (ex == null && wrapper != null && response.getStatus() < 500) {
+            String bodyHash = (String) request.getAttribute(IdempotencyFilter.BODY_HASH_ATTRIBUTE);
+            stored = idempotencyService.newResponse(bodyHash, response.getStatus(), response.getContentType(),
+                    wrapper.getContentAsByteArray());
+        }
+        idempotencyService.complete(key, stored);
+    }
+
+    private void replay(StoredResponse stored, String bodyHash, HttpServletResponse response) throws IOException {
+        if (!Objects.equals(stored.requestHash(), bodyHash)) {
+            throw new UnprocessableEntityException(HEADER + " was already used with a different request body");
+        }
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        response.setHeader("Idempotent-Replayed", "true");
+        response.getOutputStream().write(stored.body());
+    }
+
+    private String currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.isAuthenticated() ? auth.getName() : "anonymous";
+    }
+}
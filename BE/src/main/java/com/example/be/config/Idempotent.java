@@ -0,0 +1,19 @@
+package com.example.be.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller method as safe to retry with an {@code Idempotency-Key}
+ * header: the first response for a (user, endpoint, key) is stored and replayed
+ * for later requests with the same key, and concurrent duplicates wait for the
+ * first one to finish instead of executing again.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Idempotent {
+    /** Reject requests without the header instead of executing them unprotected. */
+    boolean required() default false;
+}
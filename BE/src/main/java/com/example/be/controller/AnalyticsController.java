@@ -0,0 +1,78 @@
+package com.example.be.controller;
+
+import com.example.be.dto.MarginReportDTO;
+import com.example.be.dto.SalesCubeQueryDTO;
+import com.example.be.dto.SalesCubeResultDTO;
+import com.example.be.service.MarginReportService;
+import com.example.be.service.PersonalizedRecommendationService;
+import com.example.be.service.SalesCubeService;
+import com.example.be.service.SimilarProductsService;
+import com.example.be.service.TrendingService;
+import com.example.be.util.SpaceSavingSketch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+    @Autowired
+    private SalesCubeService salesCubeService;
+    @Autowired
+    private TrendingService trendingService;
+    @Autowired
+    private SimilarProductsService similarProductsService;
+    @Autowired
+    private PersonalizedRecommendationService personalizedRecommendationService;
+    @Autowired
+    private MarginReportService marginReportService;
+
+    @PostMapping("/sales-cube/query")
+    public ResponseEntity<SalesCubeResultDTO> querySalesCube(@RequestBody SalesCubeQueryDTO query) {
+        if (!salesCubeService.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "30").build();
+        }
+        return ResponseEntity.ok(salesCubeService.query(query));
+    }
+
+    // Raw sketch counters with their error bounds, for checking the trending list
+    @GetMapping("/trending")
+    public ResponseEntity<List<SpaceSavingSketch.Entry>> getTrendingCounters(
+            @RequestParam(defaultValue = "24h") String window,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(trendingService.top(window, limit));
+    }
+
+    @PostMapping("/trending/reset")
+    public ResponseEntity<Void> resetTrending() {
+        trendingService.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/similar-products/rebuild")
+    public ResponseEntity<Void> rebuildSimilarProducts() {
+        CompletableFuture.runAsync(similarProductsService::rebuild);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+
+    @PostMapping("/for-you/retrain")
+    public ResponseEntity<Void> retrainForYou() {
+        CompletableFuture.runAsync(personalizedRecommendationService::train);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+
+    @GetMapping("/margins")
+    public ResponseEntity<MarginReportDTO> getMargins(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "product") String groupBy,
+            @RequestParam(defaultValue = "TOTAL") String granularity) {
+        return ResponseEntity.ok(marginReportService.report(groupBy, granularity, from, to));
+    }
+}
@@ -1,12 +1,16 @@
 package com.example.be.controller;
 
 import com.example.be.dto.CouponDTO;
+import com.example.be.dto.CursorPageDTO;
 import com.example.be.service.CouponService;
+import com.example.be.util.CursorPageUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
@@ -21,6 +25,9 @@ public class CouponController {
 
     private final CouponService couponService;
 
+    // Sort keys allowed in cursor mode; each is backed by an index ending in id
+    private static final Map<String, Class<?>> SCROLL_KEYS = Map.of("id", Long.class, "code", String.class);
+
     @GetMapping
     public ResponseEntity<Page<CouponDTO>> getAllCoupons(
             @RequestParam(defaultValue = "0") int page,
@@ -32,6 +39,18 @@ public class CouponController {
         return ResponseEntity.ok(couponService.getCoupons(pageable));
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<CouponDTO>> scrollCoupons(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "desc") String direction) {
+        Sort sort = CursorPageUtil.keysetSort(sortBy, direction, SCROLL_KEYS);
+        ScrollPosition position = CursorPageUtil.decodeCursor(cursor, sort, SCROLL_KEYS);
+        Window<CouponDTO> window = couponService.scrollCoupons(position, sort, CursorPageUtil.limit(size));
+        return ResponseEntity.ok(CursorPageUtil.toCursorPage(window, sort, window.getContent()));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<Page<CouponDTO>> searchCoupons(
             @RequestParam(required = false) String keyword,
@@ -1,19 +1,69 @@
 package com.example.be.controller;
 
 import com.example.be.dto.DashboardDTO;
+import com.example.be.dto.LowStockItemDTO;
+import com.example.be.dto.TimeSeriesDTO;
+import com.example.be.service.DashboardRollupService;
 import com.example.be.service.DashboardService;
+import com.example.be.service.LowStockService;
+import com.example.be.service.RevenueTimeSeriesService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/dashboard")
 public class DashboardController {
     @Autowired
     private DashboardService dashboardService;
+    @Autowired
+    private DashboardRollupService dashboardRollupService;
+    @Autowired
+    private RevenueTimeSeriesService revenueTimeSeriesService;
+    @Autowired
+    private LowStockService lowStockService;
 
     @GetMapping("/stats")
     public ResponseEntity<DashboardDTO> getStats() {
         return ResponseEntity.ok(dashboardService.getStats());
     }
+
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<Void> rebuildRollups() {
+        CompletableFuture.runAsync(dashboardRollupService::rebuild);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).build();
+    }
+
+    @GetMapping("/revenue-series")
+    public ResponseEntity<TimeSeriesDTO> getRevenueSeries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "DAY") String granularity,
+            @RequestParam(required = false) String zone,
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String paymentMethod,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long brandId) {
+        // The series only reads the rollups, which are incomplete until the (re)build finishes
+        if (!dashboardRollupService.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "30").build();
+        }
+        return ResponseEntity.ok(revenueTimeSeriesService.revenueSeries(from, to, granularity, zone,
+                status, paymentMethod, categoryId, brandId));
+    }
+
+    @GetMapping("/low-stock")
+    public ResponseEntity<Page<LowStockItemDTO>> getLowStock(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(lowStockService.getLowStock(
+                PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, 100)))));
+    }
 }
@@ -1,22 +1,27 @@
 package com.example.be.controller;
 
+import com.example.be.dto.CursorPageDTO;
 import com.example.be.dto.DiscountDTO;
 import com.example.be.entity.Discount;
 import com.example.be.entity.Product;
 import com.example.be.exception.ResourceNotFoundException;
 import com.example.be.service.DiscountService;
 import com.example.be.service.ProductService;
+import com.example.be.util.CursorPageUtil;
 import com.example.be.util.DtoMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -27,6 +32,9 @@ public class DiscountController {
     private final ProductService productService;
     private final DtoMapper dtoMapper;
 
+    // Sort keys allowed in cursor mode; each is backed by an index ending in id
+    private static final Map<String, Class<?>> SCROLL_KEYS = Map.of("id", Long.class);
+
     @GetMapping
     public ResponseEntity<Page<DiscountDTO>> getAllDiscounts(
             @RequestParam(defaultValue = "0") int page,
@@ -39,6 +47,20 @@ public class DiscountController {
                 .map(dtoMapper::toDiscountDTO));
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<DiscountDTO>> scrollDiscounts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "desc") String direction) {
+        Sort sort = CursorPageUtil.keysetSort(sortBy, direction, SCROLL_KEYS);
+        ScrollPosition position = CursorPageUtil.decodeCursor(cursor, sort, SCROLL_KEYS);
+        Window<Discount> window = discountService.scrollDiscounts(position, sort, CursorPageUtil.limit(size));
+        return ResponseEntity.ok(CursorPageUtil.toCursorPage(window, sort, window.getContent().stream()
+                .map(dtoMapper::toDiscountDTO)
+                .collect(Collectors.toList())));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<Page<DiscountDTO>> searchDiscounts(
             @RequestParam(required = false) String keyword,
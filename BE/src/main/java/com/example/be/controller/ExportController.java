@@ -1,11 +1,7 @@
 package com.example.be.controller;
 
 import com.example.be.entity.Order;
-import com.example.be.entity.Product;
-import com.example.be.entity.User;
 import com.example.be.repository.OrderRepository;
-import com.example.be.repository.ProductRepository;
-import com.example.be.repository.UserRepository;
 import com.example.be.service.ExcelExportService;
 import com.example.be.service.OrderService;
 import com.example.be.service.PdfExportService;
@@ -19,10 +15,10 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/export")
@@ -32,34 +28,19 @@ public class ExportController {
     private final ExcelExportService excelExportService;
     private final PdfExportService pdfExportService;
     private final OrderService orderService;
-    private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
-    private final UserRepository userRepository;
 
-    @GetMapping("/products/excel")
-    public ResponseEntity<InputStreamResource> exportProductsExcel() throws IOException {
-        List<Product> products = productRepository.findAll();
-        ByteArrayInputStream in = excelExportService.exportProducts(products);
-        HttpHeaders headers = new HttpHeaders();
-        headers.add("Content-Disposition", "attachment; filename=products.xlsx");
+    private static final MediaType XLSX =
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
 
-        return ResponseEntity.ok()
-                .headers(headers)
-                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(new InputStreamResource(in));
+    @GetMapping("/products/excel")
+    public ResponseEntity<StreamingResponseBody> exportProductsExcel() {
+        return excel("products.xlsx", excelExportService::exportProducts);
     }
 
     @GetMapping("/orders/excel")
-    public ResponseEntity<InputStreamResource> exportOrdersExcel() throws IOException {
-        List<Order> orders = orderRepository.findAll();
-        ByteArrayInputStream in = excelExportService.exportOrders(orders);
-        HttpHeaders headers = new HttpHeaders();
-        headers.add("Content-Disposition", "attachment; filename=orders.xlsx");
-
-        return ResponseEntity.ok()
-                .headers(headers)
-                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(new InputStreamResource(in));
+    public ResponseEntity<StreamingResponseBody> exportOrdersExcel() {
+        return excel("orders.xlsx", excelExportService::exportOrders);
     }
 
     @GetMapping("/orders/pdf")
@@ -78,15 +59,18 @@ public class ExportController {
     }
 
     @GetMapping("/users/excel")
-    public ResponseEntity<InputStreamResource> exportUsersExcel() throws IOException {
-        List<User> users = userRepository.findAll();
-        ByteArrayInputStream in = excelExportService.exportUsers(users);
+    public ResponseEntity<StreamingResponseBody> exportUsersExcel() {
+        return excel("users.xlsx", excelExportService::exportUsers);
+    }
+
+    // The workbook is written to the response as it is produced, never buffered
+    private ResponseEntity<StreamingResponseBody> excel(String fileName, StreamingResponseBody body) {
         HttpHeaders headers = new HttpHeaders();
-        headers.add("Content-Disposition", "attachment; filename=users.xlsx");
+        headers.add("Content-Disposition", "attachment; filename=" + fileName);
 
         return ResponseEntity.ok()
                 .headers(headers)
-                .contentType(MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
-                .body(new InputStreamResource(in));
+                .contentType(XLSX)
+                .body(body);
     }
 }
@@ -0,0 +1,59 @@
+package com.example.be.controller;
+
+import com.example.be.dto.FlashSaleDTO;
+import com.example.be.dto.FlashSalePurchaseResultDTO;
+import com.example.be.service.FlashSaleService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/flash-sales")
+@RequiredArgsConstructor
+public class FlashSaleController {
+    private final FlashSaleService flashSaleService;
+
+    @GetMapping("/active")
+    public ResponseEntity<List<FlashSaleDTO>> getActiveFlashSales() {
+        return ResponseEntity.ok(flashSaleService.getActiveFlashSales());
+    }
+
+    @GetMapping("/upcoming")
+    public ResponseEntity<List<FlashSaleDTO>> getUpcomingFlashSales() {
+        return ResponseEntity.ok(flashSaleService.getUpcomingFlashSales());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<FlashSaleDTO> getFlashSale(@PathVariable Long id) {
+        return ResponseEntity.ok(flashSaleService.getFlashSale(id));
+    }
+
+    @PostMapping
+    public ResponseEntity<FlashSaleDTO> createFlashSale(@RequestBody FlashSaleDTO flashSaleDTO) {
+        return ResponseEntity.ok(flashSaleService.createFlashSale(flashSaleDTO));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deactivateFlashSale(@PathVariable Long id) {
+        flashSaleService.deactivate(id);
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/{id}/purchase")
+    public ResponseEntity<FlashSalePurchaseResultDTO> purchase(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "1") int quantity) {
+        String username = SecurityContextHolder.getContext().getAuthentication().getName();
+        FlashSalePurchaseResultDTO result = flashSaleService.purchase(id, username, quantity);
+        HttpStatus status = switch (result.getStatus()) {
+            case "ADMITTED" -> HttpStatus.OK;
+            case "NOT_FOUND" -> HttpStatus.NOT_FOUND;
+            default -> HttpStatus.CONFLICT;
+        };
+        return ResponseEntity.status(status).body(result);
+    }
+}
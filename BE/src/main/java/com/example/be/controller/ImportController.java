@@ -1,105 +1,97 @@
 package com.example.be.controller;
 
-import com.example.be.service.ExcelImportService;
+import com.example.be.dto.ImportJobDTO;
+import com.example.be.exception.ErrorResponse;
+import com.example.be.exception.ResourceNotFoundException;
+import com.example.be.service.ImportJobService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Spreadsheet uploads run as background jobs: POST /api/import/{type} answers 202
+ * with a job id right away. Progress is pushed to /topic/import-jobs/{jobId} and can
+ * be polled via /jobs/{jobId}; rejected rows are listed in /jobs/{jobId}/errors.
+ * Products and variants also take mode=upsert, and /{type}/dry-run reports the
+ * upsert diff (in the finished job) without writing.
+ */
 @RestController
 @RequestMapping("/api/import")
 @RequiredArgsConstructor
 public class ImportController {
 
-    private final ExcelImportService excelImportService;
+    private final ImportJobService importJobService;
 
-    @PostMapping("/brands")
-    public ResponseEntity<String> importBrands(@RequestParam("file") MultipartFile file) {
-        try {
-            excelImportService.importBrands(file);
-            return ResponseEntity.ok("Brands imported successfully");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Import failed: " + e.getMessage());
-        }
-    }
-
-    @PostMapping("/categories")
-    public ResponseEntity<String> importCategories(@RequestParam("file") MultipartFile file) {
-        try {
-            excelImportService.importCategories(file);
-            return ResponseEntity.ok("Categories imported successfully");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Import failed: " + e.getMessage());
-        }
+    /**
+     * type is one of brands, categories, colors, sizes, users, products,
+     * product-variants, coupons, discounts; mode is insert (default) or upsert.
+     */
+    @PostMapping("/{type}")
+    public ResponseEntity<?> importFile(@PathVariable String type, @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "insert") String mode) throws IOException {
+        return submit(type, mode, file);
     }
 
-    @PostMapping("/colors")
-    public ResponseEntity<String> importColors(@RequestParam("file") MultipartFile file) {
-        try {
-            excelImportService.importColors(file);
-            return ResponseEntity.ok("Colors imported successfully");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Import failed: " + e.getMessage());
-        }
+    @PostMapping("/{type}/dry-run")
+    public ResponseEntity<?> dryRun(@PathVariable String type, @RequestParam("file") MultipartFile file)
+            throws IOException {
+        return submit(type, "dry-run", file);
     }
 
-    @PostMapping("/sizes")
-    public ResponseEntity<String> importSizes(@RequestParam("file") MultipartFile file) {
-        try {
-            excelImportService.importSizes(file);
-            return ResponseEntity.ok("Sizes imported successfully");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Import failed: " + e.getMessage());
+    private ResponseEntity<?> submit(String type, String mode, MultipartFile file) throws IOException {
+        ImportJobDTO job = importJobService.submit(type, mode, file, currentUser());
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "30")
+                    .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                            "Too many imports queued, please retry shortly"));
         }
+        return ResponseEntity.accepted().body(job);
     }
 
-    @PostMapping("/users")
-    public ResponseEntity<String> importUsers(@RequestParam("file") MultipartFile file) {
-        try {
-            excelImportService.importUsers(file);
-            return ResponseEntity.ok("Users imported successfully");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Import failed: " + e.getMessage());
-        }
+    @GetMapping("/jobs")
+    public ResponseEntity<List<ImportJobDTO>> getMyJobs() {
+        return ResponseEntity.ok(importJobService.getJobs(currentUser()));
     }
 
-    @PostMapping("/products")
-    public ResponseEntity<String> importProducts(@RequestParam("file") MultipartFile file) {
-        try {
-            excelImportService.importProducts(file);
-            return ResponseEntity.ok("Products imported successfully");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Import failed: " + e.getMessage());
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ImportJobDTO> getJob(@PathVariable String jobId) {
+        ImportJobDTO job = importJobService.getJob(jobId, currentUser());
+        if (job == null) {
+            throw new ResourceNotFoundException("Import job not found: " + jobId);
         }
+        return ResponseEntity.ok(job);
     }
 
-    @PostMapping("/product-variants")
-    public ResponseEntity<String> importProductVariants(@RequestParam("file") MultipartFile file) {
-        try {
-            excelImportService.importProductVariants(file);
-            return ResponseEntity.ok("Variants imported successfully");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Import failed: " + e.getMessage());
+    @GetMapping("/jobs/{jobId}/errors")
+    public ResponseEntity<Resource> getErrorReport(@PathVariable String jobId) {
+        Path report = importJobService.getErrorReport(jobId, currentUser());
+        if (report == null) {
+            throw new ResourceNotFoundException("No error report for import job: " + jobId);
         }
-    }
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Content-Disposition", "attachment; filename=import_" + jobId + "_errors.csv");
 
-    @PostMapping("/coupons")
-    public ResponseEntity<String> importCoupons(@RequestParam("file") MultipartFile file) {
-        try {
-            excelImportService.importCoupons(file);
-            return ResponseEntity.ok("Coupons imported successfully");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Import failed: " + e.getMessage());
-        }
+        return ResponseEntity.ok()
+                .headers(headers)
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .body(new FileSystemResource(report));
     }
 
-    @PostMapping("/discounts")
-    public ResponseEntity<String> importDiscounts(@RequestParam("file") MultipartFile file) {
-        try {
-            excelImportService.importDiscounts(file);
-            return ResponseEntity.ok("Discounts imported successfully");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Import failed: " + e.getMessage());
-        }
+    private String currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.isAuthenticated() ? auth.getName() : "anonymous";
     }
 }
@@ -1,27 +1,39 @@
 package com.example.be.controller;
 
+import com.example.be.config.Idempotent;
+import com.example.be.dto.CursorPageDTO;
 import com.example.be.dto.OrderDTO;
+import com.example.be.dto.OrderIntakeStatusDTO;
 import com.example.be.dto.OrderItemDTO;
 import com.example.be.dto.OrderRequestDTO;
 import com.example.be.entity.*;
+import com.example.be.exception.ErrorResponse;
 import com.example.be.exception.ResourceNotFoundException;
 import com.example.be.service.CouponService;
+import com.example.be.service.OrderEnrichmentService;
+import com.example.be.service.OrderIntakeService;
 import com.example.be.service.OrderService;
 import com.example.be.service.ProductVariantService;
 import com.example.be.service.UserService;
+import com.example.be.util.CursorPageUtil;
 import com.example.be.util.DtoMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -34,6 +46,11 @@ public class OrderController {
     private final ProductVariantService productVariantService;
     private final com.example.be.service.ShippingService shippingService;
     private final DtoMapper dtoMapper;
+    private final OrderIntakeService orderIntakeService;
+    private final OrderEnrichmentService orderEnrichmentService;
+
+    // Sort keys allowed in cursor mode; each is backed by an index ending in id
+    private static final Map<String, Class<?>> SCROLL_KEYS = Map.of("id", Long.class, "createdAt", LocalDateTime.class);
 
     @GetMapping
     @Transactional(readOnly = true)
@@ -44,8 +61,21 @@ public class OrderController {
             @RequestParam(defaultValue = "desc") String direction) {
         Sort sort = direction.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
-        return ResponseEntity.ok(orderService.getAllOrders(pageable)
-                .map(this::enrichOrderDTO));
+        return ResponseEntity.ok(orderEnrichmentService.enrichPage(orderService.getAllOrders(pageable)));
+    }
+
+    @GetMapping("/scroll")
+    @Transactional(readOnly = true)
+    public ResponseEntity<CursorPageDTO<OrderDTO>> scrollOrders(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "desc") String direction) {
+        Sort sort = CursorPageUtil.keysetSort(sortBy, direction, SCROLL_KEYS);
+        ScrollPosition position = CursorPageUtil.decodeCursor(cursor, sort, SCROLL_KEYS);
+        Window<Order> window = orderService.scrollOrders(position, sort, CursorPageUtil.limit(size));
+        return ResponseEntity.ok(CursorPageUtil.toCursorPage(window, sort,
+                orderEnrichmentService.enrich(window.getContent())));
     }
 
     @GetMapping("/search")
@@ -59,15 +89,21 @@ public class OrderController {
             @RequestParam(defaultValue = "desc") String direction) {
         Sort sort = direction.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
-        return ResponseEntity.ok(orderService.searchOrders(keyword, status, pageable)
-                .map(this::enrichOrderDTO));
+        return ResponseEntity.ok(orderEnrichmentService.enrichPage(
+                orderService.searchOrders(keyword, status, pageable)));
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<OrderDTO>> getOrdersByUser(@PathVariable Long userId) {
-        return ResponseEntity.ok(orderService.getOrdersByUserId(userId).stream()
-                .map(this::enrichOrderDTO)
-                .collect(Collectors.toList()));
+    @Transactional(readOnly = true)
+    public ResponseEntity<Page<OrderDTO>> getOrdersByUser(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "desc") String direction) {
+        Sort sort = direction.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        Pageable pageable = PageRequest.of(page, size, sort);
+        return ResponseEntity.ok(orderEnrichmentService.enrichPage(orderService.getOrdersByUserId(userId, pageable)));
     }
 
     @GetMapping("/{id}")
@@ -88,6 +124,7 @@ public class OrderController {
     }
 
     @PostMapping
+    @Idempotent
     public ResponseEntity<OrderDTO> createOrder(@Valid @RequestBody OrderRequestDTO orderRequest) {
         if (orderRequest.getItems() == null || orderRequest.getItems().isEmpty()) {
             throw new IllegalArgumentException("Order must have at least one item");
@@ -143,6 +180,32 @@ public class OrderController {
         return ResponseEntity.ok(enrichOrderDTO(savedOrder));
     }
 
+    /**
+     * Queue the order and return 202 with a token; the result is pushed to
+     * /queue/notifications/{userId} and can also be polled via /intake/{token}.
+     */
+    @PostMapping("/async")
+    @Idempotent
+    public ResponseEntity<?> createOrderAsync(@Valid @RequestBody OrderRequestDTO orderRequest) {
+        OrderIntakeStatusDTO status = orderIntakeService.submit(orderRequest);
+        if (status == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header("Retry-After", "5")
+                    .body(new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE.value(),
+                            "Too many orders in progress, please retry shortly"));
+        }
+        return ResponseEntity.accepted().body(status);
+    }
+
+    @GetMapping("/intake/{token}")
+    public ResponseEntity<OrderIntakeStatusDTO> getOrderIntakeStatus(@PathVariable String token) {
+        OrderIntakeStatusDTO status = orderIntakeService.getStatus(token);
+        if (status == null) {
+            throw new ResourceNotFoundException("Order request not found: " + token);
+        }
+        return ResponseEntity.ok(status);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<OrderDTO> updateOrder(@PathVariable Long id, @Valid @RequestBody OrderDTO orderDTO) {
         Order existingOrder = orderService.getOrderById(id)
@@ -187,11 +250,6 @@ public class OrderController {
     }
 
     private OrderDTO enrichOrderDTO(Order order) {
-        OrderDTO dto = dtoMapper.toOrderDTO(order);
-        List<OrderItem> items = orderService.getOrderItems(order.getId());
-        dto.setItems(items.stream()
-                .map(dtoMapper::toOrderItemDTO)
-                .collect(Collectors.toList()));
-        return dto;
+        return orderEnrichmentService.enrich(order);
     }
 }
@@ -1,5 +1,6 @@
 package com.example.be.controller;
 
+import com.example.be.config.Idempotent;
 import com.example.be.dto.PaymentDTO;
 import com.example.be.dto.PaymentResponseDTO;
 import com.example.be.service.VNPayService;
@@ -18,6 +19,7 @@ public class PaymentController {
     private final VNPayService vnPayService;
 
     @PostMapping("/create-payment")
+    @Idempotent
     public ResponseEntity<?> createPayment(@RequestBody PaymentDTO paymentDTO) throws UnsupportedEncodingException {
         String paymentUrl = vnPayService.createPaymentUrl(paymentDTO.getAmount(), paymentDTO.getOrderInfo(), null);
         return ResponseEntity.ok(PaymentResponseDTO.builder()
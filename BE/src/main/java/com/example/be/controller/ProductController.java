@@ -1,28 +1,41 @@
 package com.example.be.controller;
 
+import com.example.be.dto.CursorPageDTO;
 import com.example.be.dto.ProductDTO;
 import com.example.be.dto.ProductImageDTO;
+import com.example.be.dto.ProductSearchPageDTO;
 import com.example.be.entity.Brand;
 import com.example.be.entity.Category;
 import com.example.be.entity.Product;
 import com.example.be.entity.ProductImage;
+import com.example.be.entity.User;
 import com.example.be.exception.ResourceNotFoundException;
 import com.example.be.service.BrandService;
+import com.example.be.service.CatalogFacetService;
 import com.example.be.service.CategoryService;
+import com.example.be.service.ProductCacheService;
+import com.example.be.service.ProductEnrichmentService;
 import com.example.be.service.ProductService;
-import com.example.be.service.ProductVariantService;
+import com.example.be.service.UserService;
+import com.example.be.util.CursorPageUtil;
 import com.example.be.util.DtoMapper;
 import com.example.be.util.SlugUtil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -30,11 +43,18 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ProductController {
     private final ProductService productService;
-    private final ProductVariantService variantService;
     private final CategoryService categoryService;
     private final BrandService brandService;
     private final DtoMapper dtoMapper;
     private final com.example.be.service.RecommendationService recommendationService;
+    private final com.example.be.service.TrendingService trendingService;
+    private final ProductEnrichmentService productEnrichmentService;
+    private final ProductCacheService productCacheService;
+    private final CatalogFacetService catalogFacetService;
+    private final UserService userService;
+
+    // Sort keys allowed in cursor mode; each is backed by an index ending in id
+    private static final Map<String, Class<?>> SCROLL_KEYS = Map.of("id", Long.class, "name", String.class);
 
     @GetMapping
     public ResponseEntity<Page<ProductDTO>> getAllProducts(
@@ -44,8 +64,20 @@ public class ProductController {
             @RequestParam(defaultValue = "desc") String direction) {
         Sort sort = direction.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
-        return ResponseEntity.ok(productService.getAllProducts(pageable)
-                .map(this::enrichProductDTO));
+        return ResponseEntity.ok(productEnrichmentService.enrichPage(productService.getAllProducts(pageable)));
+    }
+
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<ProductDTO>> scrollProducts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "desc") String direction) {
+        Sort sort = CursorPageUtil.keysetSort(sortBy, direction, SCROLL_KEYS);
+        ScrollPosition position = CursorPageUtil.decodeCursor(cursor, sort, SCROLL_KEYS);
+        Window<Product> window = productService.scrollProducts(position, sort, CursorPageUtil.limit(size));
+        return ResponseEntity.ok(CursorPageUtil.toCursorPage(window, sort,
+                productEnrichmentService.enrich(window.getContent())));
     }
 
     @GetMapping("/search")
@@ -59,47 +91,82 @@ public class ProductController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "5") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "desc") String direction) {
+            @RequestParam(defaultValue = "desc") String direction,
+            @RequestParam(defaultValue = "false") boolean facets) {
         Sort sort = direction.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
-        return ResponseEntity.ok(productService.searchProducts(keyword, categoryId, brandId, minPrice, maxPrice, active, pageable)
-                .map(this::enrichProductDTO));
+        Page<ProductDTO> result = productEnrichmentService.enrichPage(
+                productService.searchProducts(keyword, categoryId, brandId, minPrice, maxPrice, active, pageable));
+        if (facets) {
+            return ResponseEntity.ok(new ProductSearchPageDTO(result,
+                    catalogFacetService.getFacets(keyword, categoryId, brandId, minPrice, maxPrice, active)));
+        }
+        return ResponseEntity.ok(result);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ProductDTO> getProductById(@PathVariable Long id) {
+        ProductDTO cached = productCacheService.getById(id);
+        if (cached != null) {
+            trendingService.recordView(id);
+            return ResponseEntity.ok(cached);
+        }
+        long stamp = productCacheService.stamp();
         Product product = productService.getProductById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
-        return ResponseEntity.ok(enrichProductDTO(product));
+        trendingService.recordView(id);
+        ProductDTO dto = enrichProductDTO(product);
+        productCacheService.put(dto, stamp);
+        return ResponseEntity.ok(dto);
     }
 
     @GetMapping("/slug/{slug}")
     public ResponseEntity<ProductDTO> getProductBySlug(@PathVariable String slug) {
+        ProductDTO cached = productCacheService.getBySlug(slug);
+        if (cached != null) {
+            trendingService.recordView(cached.getId());
+            return ResponseEntity.ok(cached);
+        }
+        long stamp = productCacheService.stamp();
         Product product = productService.getProductBySlug(slug)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with slug: " + slug));
-        return ResponseEntity.ok(enrichProductDTO(product));
+        trendingService.recordView(product.getId());
+        ProductDTO dto = enrichProductDTO(product);
+        productCacheService.put(dto, stamp);
+        return ResponseEntity.ok(dto);
     }
 
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<List<ProductDTO>> getProductsByCategory(@PathVariable Long categoryId) {
-        return ResponseEntity.ok(productService.getProductsByCategory(categoryId).stream()
-                .map(this::enrichProductDTO)
-                .collect(Collectors.toList()));
+        return ResponseEntity.ok(productEnrichmentService.enrich(productService.getProductsByCategory(categoryId)));
     }
 
     @GetMapping("/brand/{brandId}")
     public ResponseEntity<List<ProductDTO>> getProductsByBrand(@PathVariable Long brandId) {
-        return ResponseEntity.ok(productService.getProductsByBrand(brandId).stream()
-                .map(this::enrichProductDTO)
-                .collect(Collectors.toList()));
+        return ResponseEntity.ok(productEnrichmentService.enrich(productService.getProductsByBrand(brandId)));
     }
 
+    @GetMapping("/trending")
+    public ResponseEntity<List<ProductDTO>> getTrending(
+            @RequestParam(defaultValue = "24h") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(recommendationService.getTrending(window, Math.max(1, Math.min(limit, 50))));
+    }
+
+    // "foryou" is personalized for the logged-in user only; anonymous visitors get trending
     @GetMapping("/recommendations")
     public ResponseEntity<List<ProductDTO>> getRecommendations(
             @RequestParam String type,
-            @RequestParam(required = false) Long userId,
             @RequestParam(required = false) Long productId) {
-        return ResponseEntity.ok(recommendationService.getRecommendations(type, userId, productId));
+        return ResponseEntity.ok(recommendationService.getRecommendations(type, currentUserId(), productId));
+    }
+
+    private Long currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated() || auth instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return userService.getUserByUsername(auth.getName()).map(User::getId).orElse(null);
     }
 
     @PostMapping
@@ -168,14 +235,7 @@ public class ProductController {
 
     // Helper to add variants and images
     private ProductDTO enrichProductDTO(Product product) {
-        ProductDTO dto = dtoMapper.toProductDTO(product);
-        dto.setImages(productService.getProductImages(product.getId()).stream()
-                .map(dtoMapper::toProductImageDTO)
-                .collect(Collectors.toList()));
-        dto.setVariants(variantService.getVariantsByProductId(product.getId()).stream()
-                .map(dtoMapper::toProductVariantDTO)
-                .collect(Collectors.toList()));
-        return dto;
+        return productEnrichmentService.enrich(product);
     }
 
     // Product Image endpoints
@@ -76,6 +76,9 @@ public class ProductVariantController {
         variant.setPrice(dto.getPrice());
         variant.setStockQuantity(dto.getStockQuantity());
         variant.setSku(dto.getSku());
+        if (dto.getReorderThreshold() != null) {
+            variant.setReorderThreshold(dto.getReorderThreshold());
+        }
 
         if (dto.getProductId() != null) {
             Product product = productService.getProductById(dto.getProductId())
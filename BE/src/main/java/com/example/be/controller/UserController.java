@@ -1,20 +1,27 @@
 package com.example.be.controller;
 
+import com.example.be.dto.CursorPageDTO;
 import com.example.be.dto.UserDTO;
 import com.example.be.entity.User;
 import com.example.be.exception.ResourceNotFoundException;
 import com.example.be.service.FirebaseService;
 import com.example.be.service.UserService;
+import com.example.be.util.CursorPageUtil;
 import com.example.be.util.DtoMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
@@ -23,6 +30,9 @@ public class UserController {
     private final FirebaseService firebaseService;
     private final DtoMapper dtoMapper;
 
+    // Sort keys allowed in cursor mode; each is backed by an index ending in id
+    private static final Map<String, Class<?>> SCROLL_KEYS = Map.of("id", Long.class, "username", String.class);
+
     @GetMapping
     public ResponseEntity<Page<UserDTO>> getAllUsers(
             @RequestParam(defaultValue = "0") int page,
@@ -35,6 +45,20 @@ public class UserController {
                 .map(dtoMapper::toUserDTO));
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<UserDTO>> scrollUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "5") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "desc") String direction) {
+        Sort sort = CursorPageUtil.keysetSort(sortBy, direction, SCROLL_KEYS);
+        ScrollPosition position = CursorPageUtil.decodeCursor(cursor, sort, SCROLL_KEYS);
+        Window<User> window = userService.scrollUsers(position, sort, CursorPageUtil.limit(size));
+        return ResponseEntity.ok(CursorPageUtil.toCursorPage(window, sort, window.getContent().stream()
+                .map(dtoMapper::toUserDTO)
+                .collect(Collectors.toList())));
+    }
+
     @GetMapping("/search")
     public ResponseEntity<Page<UserDTO>> searchUsers(
             @RequestParam(required = false) String keyword,
@@ -0,0 +1,20 @@
+package com.example.be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetCountDTO {
+    private Long id;
+    private String name;
+    private BigDecimal from; // price buckets only
+    private BigDecimal to; // price buckets only, null = open-ended
+    private long count;
+}
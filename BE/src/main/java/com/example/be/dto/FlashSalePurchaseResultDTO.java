@@ -0,0 +1,18 @@
+package com.example.be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlashSalePurchaseResultDTO {
+    private Long flashSaleId;
+    private String status; // ADMITTED, SOLD_OUT, NOT_STARTED, ENDED, NOT_FOUND
+    private Integer quantity;
+    private BigDecimal salePrice;
+    private Integer remainingQuantity;
+}
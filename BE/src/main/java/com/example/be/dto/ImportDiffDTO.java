@@ -0,0 +1,22 @@
+package com.example.be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportDiffDTO {
+    private boolean dryRun;
+    private long inserted;
+    private long updated;
+    private long unchanged;
+    @Builder.Default
+    private List<ImportDiffSampleDTO> samples = new ArrayList<>(); // First few inserts and updates
+}
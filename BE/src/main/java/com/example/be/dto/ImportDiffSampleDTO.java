@@ -0,0 +1,19 @@
+package com.example.be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportDiffSampleDTO {
+    private int row; // 1-based, as shown in Excel
+    private String key; // slug or SKU
+    private String action; // INSERT, UPDATE
+    private Map<String, String> changes; // column -> "old -> new" (new value only for inserts)
+}
@@ -0,0 +1,29 @@
+package com.example.be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportJobDTO {
+    private String jobId;
+    private String type; // brands, categories, products, product-variants, ...
+    private String mode; // insert, upsert, dry-run
+    private String fileName;
+    private String status; // QUEUED, RUNNING, COMPLETED, FAILED
+    private long rowsRead;
+    private long rowsWritten;
+    private long rowsRejected;
+    private String message;
+    private boolean errorReportAvailable;
+    private ImportDiffDTO diff; // upsert and dry-run jobs, once finished
+    private String submittedBy;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
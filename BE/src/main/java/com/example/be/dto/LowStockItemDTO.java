@@ -0,0 +1,19 @@
+package com.example.be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LowStockItemDTO {
+    private Long variantId;
+    private Long productId;
+    private String productName;
+    private String sku;
+    private int stockQuantity;
+    private int threshold;
+}
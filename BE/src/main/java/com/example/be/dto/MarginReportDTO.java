@@ -0,0 +1,22 @@
+package com.example.be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MarginReportDTO {
+    private String groupBy;
+    private String granularity;
+    private LocalDate from;
+    private LocalDate to;
+    private MarginRowDTO total;
+    private List<MarginRowDTO> rows;
+}
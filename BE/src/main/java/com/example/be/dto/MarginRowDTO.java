@@ -0,0 +1,24 @@
+package com.example.be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MarginRowDTO {
+    private Long id; // product / variant / category / brand id, null when not grouped
+    private String label;
+    private LocalDate periodStart; // null for TOTAL granularity
+    private long quantity;
+    private BigDecimal revenue;
+    private BigDecimal cost;
+    private BigDecimal grossMargin;
+    private Double marginPercent; // null when there is no revenue
+}
@@ -0,0 +1,20 @@
+package com.example.be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderIntakeStatusDTO {
+    private String token;
+    private String status; // QUEUED, PROCESSING, COMPLETED, FAILED
+    private Long orderId;
+    private String message;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,20 @@
+package com.example.be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductFacetsDTO {
+    private List<FacetCountDTO> categories;
+    private List<FacetCountDTO> brands;
+    private List<FacetCountDTO> sizes;
+    private List<FacetCountDTO> colors;
+    private List<FacetCountDTO> priceRanges;
+}
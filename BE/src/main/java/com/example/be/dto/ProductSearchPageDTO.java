@@ -0,0 +1,21 @@
+package com.example.be.dto;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+/**
+ * A normal product page with facet counts attached, so existing clients that read
+ * the page fields keep working.
+ */
+public class ProductSearchPageDTO extends PageImpl<ProductDTO> {
+    private final ProductFacetsDTO facets;
+
+    public ProductSearchPageDTO(Page<ProductDTO> page, ProductFacetsDTO facets) {
+        super(page.getContent(), page.getPageable(), page.getTotalElements());
+        this.facets = facets;
+    }
+
+    public ProductFacetsDTO getFacets() {
+        return facets;
+    }
+}
@@ -22,4 +22,6 @@ public class ProductVariantDTO {
     @jakarta.validation.constraints.PositiveOrZero(message = "Stock quantity must be non-negative")
     private Integer stockQuantity;
     private String sku;
+    @jakarta.validation.constraints.PositiveOrZero(message = "Reorder threshold must be non-negative")
+    private Integer reorderThreshold;
 }
@@ -0,0 +1,21 @@
+package com.example.be.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dimensions: product, variant, category, brand, day, status.
+ * Filter values are ids for product/variant/category/brand, ISO dates for day
+ * and status names for status.
+ */
+@Data
+public class SalesCubeQueryDTO {
+    private List<String> groupBy;
+    private Map<String, List<String>> filters;
+    private LocalDate from; // inclusive, server-local day
+    private LocalDate to; // inclusive
+    private Integer limit; // top rows by revenue, default 1000
+}
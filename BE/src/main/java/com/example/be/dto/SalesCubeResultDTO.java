@@ -0,0 +1,20 @@
+package com.example.be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesCubeResultDTO {
+    private List<SalesCubeRowDTO> rows;
+    private long groups; // before the limit was applied
+    private long scannedLines;
+    private boolean truncated; // the cube hit app.sales-cube.max-lines, newer lines are missing
+    private long tookMs;
+}
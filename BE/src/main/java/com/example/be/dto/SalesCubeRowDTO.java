@@ -0,0 +1,22 @@
+package com.example.be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesCubeRowDTO {
+    private Map<String, Object> dimensions;
+    private long lines;
+    private long quantity;
+    private BigDecimal revenue;
+    private BigDecimal cost; // cost of goods sold captured at the time of sale
+    private BigDecimal grossMargin;
+}
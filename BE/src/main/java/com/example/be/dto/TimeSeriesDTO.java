@@ -0,0 +1,25 @@
+package com.example.be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TimeSeriesDTO {
+    private String granularity;
+    private String zone;
+    private LocalDate from;
+    private LocalDate to;
+    private Long totalOrders;
+    private Long totalQuantity;
+    private BigDecimal totalRevenue;
+    private List<TimeSeriesPointDTO> points;
+}
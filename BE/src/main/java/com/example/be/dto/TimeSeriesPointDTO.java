@@ -0,0 +1,20 @@
+package com.example.be.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TimeSeriesPointDTO {
+    private OffsetDateTime start; // bucket start in the requested zone
+    private Long orders; // null when filtered by category or brand
+    private Long quantity; // units sold, only when filtered by category or brand
+    private BigDecimal revenue;
+}
@@ -0,0 +1,34 @@
+package com.example.be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "flash_sale_purchases", indexes = @Index(name = "idx_flash_sale_purchases_sale", columnList = "flash_sale_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FlashSalePurchase {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "flash_sale_id", nullable = false)
+    private FlashSale flashSale;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    private int quantity;
+
+    @Column(name = "unit_price")
+    private BigDecimal unitPrice;
+
+    @Column(name = "purchased_at")
+    private LocalDateTime purchasedAt; // Admission time, not the time the row was flushed
+}
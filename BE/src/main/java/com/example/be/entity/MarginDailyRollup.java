@@ -0,0 +1,41 @@
+package com.example.be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Units, revenue and cost of goods sold per server-local day and variant, over
+ * orders that are not cancelled. Maintained incrementally by DashboardRollupService.
+ */
+@Entity
+@Table(name = "margin_daily_rollups", uniqueConstraints = @UniqueConstraint(name = "uk_margin_daily_rollup",
+        columnNames = {"bucket_day", "variant_id"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MarginDailyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_day", nullable = false)
+    private LocalDate bucketDay;
+
+    @Column(name = "variant_id", nullable = false)
+    private Long variantId;
+
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(nullable = false)
+    private long quantity;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal cost;
+}
@@ -25,4 +25,7 @@ public class OrderItem {
 
     private Integer quantity;
     private BigDecimal price;
+
+    @Column(name = "cost_price")
+    private BigDecimal costPrice; // Variant moving-average cost at the time of sale
 }
@@ -0,0 +1,24 @@
+package com.example.be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "order_lookup_terms",
+        uniqueConstraints = @UniqueConstraint(name = "uk_order_lookup_term", columnNames = {"term", "order_id"}),
+        indexes = @Index(name = "idx_order_lookup_order", columnList = "order_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderLookupTerm {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String term; // Folded lowercase; prefix lookups use the (term, order_id) index
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+}
@@ -0,0 +1,77 @@
+package com.example.be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "order_outbox", indexes = {
+        @Index(name = "idx_order_outbox_status", columnList = "delivery_status, id"),
+        @Index(name = "idx_order_outbox_order", columnList = "order_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderOutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id; // Delivery order
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId; // Plain column so events survive order deletion
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType; // ORDER_CREATED, ORDER_STATUS_CHANGED, ORDER_UPDATED, ORDER_DELETED
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    private String status;
+
+    @Column(name = "previous_status")
+    private String previousStatus;
+
+    @Column(name = "final_total")
+    private BigDecimal finalTotal;
+
+    @Column(name = "payment_method")
+    private String paymentMethod;
+
+    @Column(name = "previous_final_total")
+    private BigDecimal previousFinalTotal; // Stored values before an ORDER_STATUS_CHANGED / ORDER_UPDATED
+
+    @Column(name = "previous_payment_method")
+    private String previousPaymentMethod;
+
+    @Column(name = "order_created_at")
+    private LocalDateTime orderCreatedAt;
+
+    @Column(name = "delivery_status", nullable = false)
+    @Builder.Default
+    private String deliveryStatus = "PENDING"; // PENDING, PUBLISHED, FAILED
+
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt; // Null until the first failure; retries back off exponentially
+
+    @Column(name = "delivered_to", length = 1000)
+    private String deliveredTo; // Comma-separated subscribers that already handled this event
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Order count and revenue per server-local hour, status and payment method.
+ * Maintained incrementally by DashboardRollupService.
+ */
+@Entity
+@Table(name = "order_rollups", uniqueConstraints = @UniqueConstraint(name = "uk_order_rollup",
+        columnNames = {"bucket_hour", "status", "payment_method"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_hour", nullable = false)
+    private LocalDateTime bucketHour;
+
+    @Column(nullable = false, length = 50)
+    private String status;
+
+    @Column(name = "payment_method", nullable = false, length = 50)
+    private String paymentMethod;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+}
@@ -0,0 +1,27 @@
+package com.example.be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+
+/**
+ * All-time order count and revenue per status; a handful of rows that the
+ * dashboard reads instead of counting orders.
+ */
+@Entity
+@Table(name = "order_status_totals")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderStatusTotal {
+    @Id
+    @Column(length = 50)
+    private String status;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+}
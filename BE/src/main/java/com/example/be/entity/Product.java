@@ -1,11 +1,15 @@
 package com.example.be.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_name", columnList = "name, id"),
+        @Index(name = "idx_products_slug", columnList = "slug")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -34,6 +38,15 @@ public class Product {
     @Column(name = "price")
     private BigDecimal price;
 
+    @JsonIgnore
+    @Column(name = "import_hash")
+    private Long importHash; // Content hash of the last upsert import; cleared by any other update
+
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private java.util.List<ProductVariant> variants;
+
+    @PreUpdate
+    protected void onPreUpdate() {
+        importHash = null;
+    }
 }
@@ -0,0 +1,42 @@
+package com.example.be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Units sold and line revenue per server-local hour, product, order status and
+ * payment method. Maintained incrementally by DashboardRollupService.
+ */
+@Entity
+@Table(name = "product_rollups", uniqueConstraints = @UniqueConstraint(name = "uk_product_rollup",
+        columnNames = {"bucket_hour", "product_id", "status", "payment_method"}),
+        indexes = @Index(name = "idx_product_rollups_product", columnList = "product_id, bucket_hour"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "bucket_hour", nullable = false)
+    private LocalDateTime bucketHour;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false, length = 50)
+    private String status;
+
+    @Column(name = "payment_method", nullable = false, length = 50)
+    private String paymentMethod;
+
+    @Column(nullable = false)
+    private long quantity;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+}
@@ -0,0 +1,38 @@
+package com.example.be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Top-K co-purchase neighbours of a product, ranked by cosine similarity of the
+ * sets of orders that contain them. Written by SimilarProductsService.
+ */
+@Entity
+@Table(name = "product_similarities", uniqueConstraints = @UniqueConstraint(name = "uk_product_similarity",
+        columnNames = {"product_id", "neighbour_id"}), indexes = {
+        @Index(name = "idx_product_similarity_rank", columnList = "product_id, neighbour_rank")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSimilarity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "neighbour_id", nullable = false)
+    private Long neighbourId;
+
+    @Column(name = "neighbour_rank", nullable = false)
+    private int rank;
+
+    @Column(nullable = false)
+    private double score;
+
+    @Column(name = "co_purchases", nullable = false)
+    private int coPurchases;
+}
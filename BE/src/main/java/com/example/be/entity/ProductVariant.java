@@ -1,11 +1,12 @@
 package com.example.be.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "product_variants")
+@Table(name = "product_variants", indexes = @Index(name = "idx_product_variants_sku", columnList = "sku"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,5 +36,17 @@ public class ProductVariant {
     @Column(name = "stock_quantity")
     private Integer stockQuantity;
 
+    @Column(name = "reorder_threshold")
+    private Integer reorderThreshold; // Low-stock alert below this; null = app.low-stock.default-threshold
+
     private String sku;
+
+    @JsonIgnore
+    @Column(name = "import_hash")
+    private Long importHash; // Content hash of the last upsert import; cleared by any other update
+
+    @PreUpdate
+    protected void onPreUpdate() {
+        importHash = null;
+    }
 }
@@ -0,0 +1,24 @@
+package com.example.be.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+/**
+ * Outbox event ids already folded into the rollups, so a redelivered event is
+ * not counted twice.
+ */
+@Entity
+@Table(name = "rollup_applied_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RollupAppliedEvent {
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+}
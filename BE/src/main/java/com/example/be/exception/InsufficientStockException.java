@@ -0,0 +1,16 @@
+package com.example.be.exception;
+
+import java.util.List;
+
+public class InsufficientStockException extends BadRequestException {
+    private final List<String> skus;
+
+    public InsufficientStockException(String message, List<String> skus) {
+        super(message);
+        this.skus = skus;
+    }
+
+    public List<String> getSkus() {
+        return skus;
+    }
+}
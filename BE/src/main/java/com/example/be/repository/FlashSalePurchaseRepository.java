@@ -0,0 +1,15 @@
+package com.example.be.repository;
+
+import com.example.be.entity.FlashSalePurchase;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FlashSalePurchaseRepository extends JpaRepository<FlashSalePurchase, Long> {
+
+    @Query("SELECT p.flashSale.id, SUM(p.quantity) FROM FlashSalePurchase p GROUP BY p.flashSale.id")
+    List<Object[]> sumQuantityByFlashSale();
+}
@@ -2,8 +2,11 @@ package com.example.be.repository;
 
 import com.example.be.entity.FlashSale;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,4 +25,11 @@ public interface FlashSaleRepository extends JpaRepository<FlashSale, Long> {
     @Query("SELECT f FROM FlashSale f WHERE f.product.id = :productId " +
             "AND f.isActive = true AND f.endTime >= :now")
     List<FlashSale> findActiveFlashSalesByProduct(Long productId, LocalDateTime now);
+
+    // Sold counts only ever move forward, so a late or repeated flush cannot undo a newer one
+    @Modifying
+    @Transactional
+    @Query("UPDATE FlashSale f SET f.soldQuantity = :sold, f.version = COALESCE(f.version, 0) + 1 " +
+            "WHERE f.id = :id AND f.soldQuantity < :sold")
+    int advanceSoldQuantity(@Param("id") Long id, @Param("sold") int sold);
 }
@@ -8,4 +8,6 @@ import java.util.List;
 @Repository
 public interface LoyaltyLogRepository extends JpaRepository<LoyaltyLog, Long> {
     List<LoyaltyLog> findByUserIdOrderByCreatedAtDesc(Long userId);
+
+    boolean existsByOrderIdAndPointsGreaterThan(Long orderId, int points);
 }
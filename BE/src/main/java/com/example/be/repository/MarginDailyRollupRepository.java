@@ -0,0 +1,59 @@
+package com.example.be.repository;
+
+import com.example.be.entity.MarginDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MarginDailyRollupRepository extends JpaRepository<MarginDailyRollup, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO margin_daily_rollups (bucket_day, variant_id, product_id, quantity, revenue, cost) " +
+            "VALUES (:bucketDay, :variantId, :productId, :quantity, :revenue, :cost) " +
+            "ON DUPLICATE KEY UPDATE quantity = quantity + :quantity, revenue = revenue + :revenue, cost = cost + :cost",
+            nativeQuery = true)
+    int increment(@Param("bucketDay") LocalDate bucketDay, @Param("variantId") Long variantId,
+            @Param("productId") Long productId, @Param("quantity") long quantity,
+            @Param("revenue") BigDecimal revenue, @Param("cost") BigDecimal cost);
+
+    // Lines sold before cost capture existed fall back to the variant's current cost
+    @Modifying
+    @Query(value = "INSERT INTO margin_daily_rollups (bucket_day, variant_id, product_id, quantity, revenue, cost) " +
+            "SELECT DATE(o.created_at), i.product_variant_id, MAX(v.product_id), SUM(i.quantity), " +
+            "COALESCE(SUM(i.price * i.quantity), 0), " +
+            "COALESCE(SUM(COALESCE(i.cost_price, v.cost_price, 0) * i.quantity), 0) " +
+            "FROM order_items i JOIN orders o ON o.id = i.order_id " +
+            "JOIN product_variants v ON v.id = i.product_variant_id " +
+            "WHERE o.created_at IS NOT NULL AND (o.status IS NULL OR o.status <> 'CANCELLED') " +
+            "AND o.id >= :fromId AND o.id < :toId " +
+            "GROUP BY DATE(o.created_at), i.product_variant_id " +
+            "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), revenue = revenue + VALUES(revenue), " +
+            "cost = cost + VALUES(cost)",
+            nativeQuery = true)
+    int backfill(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    // Non-null when backfill() would insert at least one row
+    @Query(value = "SELECT 1 FROM order_items i JOIN orders o ON o.id = i.order_id " +
+            "JOIN product_variants v ON v.id = i.product_variant_id " +
+            "WHERE o.created_at IS NOT NULL AND (o.status IS NULL OR o.status <> 'CANCELLED') LIMIT 1",
+            nativeQuery = true)
+    Integer findAnyBackfillLine();
+
+    @Modifying
+    @Query(value = "DELETE FROM margin_daily_rollups", nativeQuery = true)
+    int deleteAllRows();
+
+    // Report rows: day, variant, product, category, brand, quantity, revenue, cost
+    @Query("SELECT m.bucketDay, m.variantId, m.productId, c.id, b.id, m.quantity, m.revenue, m.cost " +
+            "FROM MarginDailyRollup m LEFT JOIN Product p ON p.id = m.productId " +
+            "LEFT JOIN p.category c LEFT JOIN p.brand b " +
+            "WHERE m.bucketDay >= :from AND m.bucketDay <= :to")
+    List<Object[]> findReportRows(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,12 +1,68 @@
 package com.example.be.repository;
 
 import com.example.be.entity.OrderItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
+
+    @Query("SELECT i FROM OrderItem i " +
+            "LEFT JOIN FETCH i.productVariant v " +
+            "LEFT JOIN FETCH v.product " +
+            "WHERE i.order.id IN :orderIds")
+    List<OrderItem> findWithVariantAndProductByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    // Sales cube load: one flat row per line, keyset-paged by (order id, item id). Lines sold before
+    // cost capture fall back to the variant's current cost, as in the margin rollup backfill.
+    @Query("SELECT i.id, o.id, v.id, p.id, c.id, b.id, o.createdAt, o.status, i.quantity, i.price, " +
+            "COALESCE(i.costPrice, v.costPrice, 0BD) " +
+            "FROM OrderItem i JOIN i.order o " +
+            "LEFT JOIN i.productVariant v LEFT JOIN v.product p " +
+            "LEFT JOIN p.category c LEFT JOIN p.brand b " +
+            "WHERE o.id > :afterOrderId OR (o.id = :afterOrderId AND i.id > :afterItemId) " +
+            "ORDER BY o.id, i.id")
+    List<Object[]> findFactRowsAfter(@Param("afterOrderId") Long afterOrderId,
+            @Param("afterItemId") Long afterItemId, Pageable pageable);
+
+    // Co-purchase counts for one product: other product -> number of shared non-cancelled orders.
+    // Orders with more than maxBasketProducts distinct products are skipped, as in the full rebuild.
+    @Query(value = "SELECT v2.product_id, COUNT(DISTINCT i1.order_id) FROM order_items i1 " +
+            "JOIN product_variants v1 ON v1.id = i1.product_variant_id " +
+            "JOIN orders o ON o.id = i1.order_id " +
+            "JOIN order_items i2 ON i2.order_id = i1.order_id " +
+            "JOIN product_variants v2 ON v2.id = i2.product_variant_id " +
+            "WHERE v1.product_id = :productId AND v2.product_id <> :productId " +
+            "AND (o.status IS NULL OR o.status <> 'CANCELLED') " +
+            "AND (SELECT COUNT(DISTINCT vb.product_id) FROM order_items ib " +
+            "JOIN product_variants vb ON vb.id = ib.product_variant_id WHERE ib.order_id = o.id) <= :maxBasketProducts " +
+            "GROUP BY v2.product_id",
+            nativeQuery = true)
+    List<Object[]> countCoPurchases(@Param("productId") Long productId,
+            @Param("maxBasketProducts") int maxBasketProducts);
+
+    @Query(value = "SELECT v.product_id, COUNT(DISTINCT i.order_id) FROM order_items i " +
+            "JOIN product_variants v ON v.id = i.product_variant_id " +
+            "JOIN orders o ON o.id = i.order_id " +
+            "WHERE v.product_id IN (:productIds) AND (o.status IS NULL OR o.status <> 'CANCELLED') " +
+            "AND (SELECT COUNT(DISTINCT vb.product_id) FROM order_items ib " +
+            "JOIN product_variants vb ON vb.id = ib.product_variant_id WHERE ib.order_id = o.id) <= :maxBasketProducts " +
+            "GROUP BY v.product_id",
+            nativeQuery = true)
+    List<Object[]> countOrdersByProductIdIn(@Param("productIds") Collection<Long> productIds,
+            @Param("maxBasketProducts") int maxBasketProducts);
+
+    // Implicit feedback for the "for you" model: units bought per user and product
+    @Query("SELECT o.user.id, v.product.id, SUM(i.quantity) FROM OrderItem i " +
+            "JOIN i.order o JOIN i.productVariant v " +
+            "WHERE o.user IS NOT NULL AND v.product IS NOT NULL AND (o.status IS NULL OR o.status <> 'CANCELLED') " +
+            "GROUP BY o.user.id, v.product.id")
+    List<Object[]> sumQuantityByUserAndProduct();
 }
@@ -0,0 +1,28 @@
+package com.example.be.repository;
+
+import com.example.be.entity.OrderLookupTerm;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderLookupTermRepository extends JpaRepository<OrderLookupTerm, Long> {
+
+    @Modifying
+    @Query("DELETE FROM OrderLookupTerm t WHERE t.orderId = :orderId")
+    int deleteByOrderId(@Param("orderId") Long orderId);
+
+    @Modifying
+    @Query("DELETE FROM OrderLookupTerm t WHERE t.orderId IN :orderIds")
+    int deleteByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query("SELECT o.id FROM Order o WHERE o.id > :afterId " +
+            "AND NOT EXISTS (SELECT 1 FROM OrderLookupTerm t WHERE t.orderId = o.id) ORDER BY o.id")
+    List<Long> findUnindexedOrderIds(@Param("afterId") Long afterId, Pageable pageable);
+}
@@ -0,0 +1,44 @@
+package com.example.be.repository;
+
+import com.example.be.entity.OrderOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+
+    @Query("SELECT e FROM OrderOutboxEvent e WHERE e.deliveryStatus = 'PENDING' " +
+            "AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now) ORDER BY e.id")
+    List<OrderOutboxEvent> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT DISTINCT e.orderId FROM OrderOutboxEvent e WHERE e.deliveryStatus = 'PENDING' " +
+            "AND e.nextAttemptAt > :now AND e.orderId IN :orderIds")
+    Set<Long> findOrderIdsWaitingForRetry(@Param("orderIds") Collection<Long> orderIds,
+            @Param("now") LocalDateTime now);
+
+    long countByDeliveryStatus(String deliveryStatus);
+
+    @Query("SELECT MIN(e.orderId), MAX(e.orderId) FROM OrderOutboxEvent e")
+    List<Object[]> findOrderIdRange();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderOutboxEvent e SET e.deliveryStatus = 'PUBLISHED', e.publishedAt = :now, " +
+            "e.attempts = e.attempts + 1 WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OrderOutboxEvent e WHERE e.deliveryStatus = 'PUBLISHED' AND e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
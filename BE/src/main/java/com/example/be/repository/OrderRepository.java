@@ -1,23 +1,69 @@
 package com.example.be.repository;
 
 import com.example.be.entity.Order;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order> {
     List<Order> findByUserId(Long userId);
 
+    @EntityGraph(attributePaths = {"user", "coupon"})
+    Page<Order> findByUserId(Long userId, Pageable pageable);
+
+    @Query("SELECT o.id FROM Order o WHERE o.user.id = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+
+    @Override
+    @EntityGraph(attributePaths = {"user", "coupon"})
+    Page<Order> findAll(Pageable pageable);
+
+    // COMMIT flush mode: return the stored value even if the managed entity has pending changes
+    // Stored status, final total and payment method, ignoring unflushed changes to the managed entity
+    @Query("SELECT o.status, o.finalTotal, o.paymentMethod FROM Order o WHERE o.id = :id")
+    @QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "COMMIT"))
+    List<Object[]> findStoredStateById(@Param("id") Long id);
+
+    @Query("SELECT MIN(o.id), MAX(o.id) FROM Order o")
+    List<Object[]> findIdRange();
+
+    @EntityGraph(attributePaths = {"user", "coupon"})
     @Query("SELECT o FROM Order o WHERE " +
             "(:keyword IS NULL OR CAST(o.id AS string) LIKE CONCAT('%', :keyword, '%') OR " +
             "LOWER(o.user.username) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(o.user.fullName) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
             "AND (:status IS NULL OR o.status = :status)")
     Page<Order> searchOrders(@Param("keyword") String keyword, @Param("status") String status, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"user", "coupon"})
+    @Query(value = "SELECT o FROM Order o WHERE o.id IN (SELECT t.orderId FROM OrderLookupTerm t " +
+            "WHERE t.term LIKE :pattern ESCAPE '!' OR t.term LIKE :altPattern ESCAPE '!') " +
+            "AND (:status IS NULL OR o.status = :status)",
+            countQuery = "SELECT COUNT(o) FROM Order o WHERE o.id IN (SELECT t.orderId FROM OrderLookupTerm t " +
+            "WHERE t.term LIKE :pattern ESCAPE '!' OR t.term LIKE :altPattern ESCAPE '!') " +
+            "AND (:status IS NULL OR o.status = :status)")
+    Page<Order> searchOrdersByLookupTerm(@Param("pattern") String pattern, @Param("altPattern") String altPattern,
+            @Param("status") String status, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"user"})
+    @Query("SELECT o FROM Order o WHERE o.id IN :ids")
+    List<Order> findWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Dashboard fallback while the rollup tables are being built
+    @Query("SELECT o.status, COUNT(o), COALESCE(SUM(o.finalTotal), 0) FROM Order o GROUP BY o.status")
+    List<Object[]> countAndSumByStatus();
+
+    @Query("SELECT o.createdAt, o.finalTotal FROM Order o WHERE o.createdAt >= :from")
+    List<Object[]> findCreatedAtAndFinalTotalSince(@Param("from") java.time.LocalDateTime from);
 }
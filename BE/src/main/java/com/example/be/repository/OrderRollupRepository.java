@@ -0,0 +1,50 @@
+package com.example.be.repository;
+
+import com.example.be.entity.OrderRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO order_rollups (bucket_hour, status, payment_method, order_count, revenue) " +
+            "VALUES (:bucketHour, :status, :paymentMethod, :orderCount, :revenue) " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + :orderCount, revenue = revenue + :revenue",
+            nativeQuery = true)
+    int increment(@Param("bucketHour") LocalDateTime bucketHour, @Param("status") String status,
+            @Param("paymentMethod") String paymentMethod, @Param("orderCount") long orderCount,
+            @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @Query(value = "INSERT INTO order_rollups (bucket_hour, status, payment_method, order_count, revenue) " +
+            "SELECT DATE_FORMAT(o.created_at, '%Y-%m-%d %H:00:00'), COALESCE(o.status, 'UNKNOWN'), " +
+            "COALESCE(o.payment_method, 'UNKNOWN'), COUNT(*), COALESCE(SUM(o.final_total), 0) " +
+            "FROM orders o WHERE o.created_at IS NOT NULL AND o.id >= :fromId AND o.id < :toId GROUP BY 1, 2, 3 " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), " +
+            "revenue = revenue + VALUES(revenue)",
+            nativeQuery = true)
+    int backfill(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_rollups", nativeQuery = true)
+    int deleteAllRows();
+
+    @Query("SELECT r.bucketHour, SUM(r.revenue) FROM OrderRollup r WHERE r.bucketHour >= :from GROUP BY r.bucketHour")
+    List<Object[]> sumRevenueByHourSince(@Param("from") LocalDateTime from);
+
+    @Query("SELECT r.bucketHour, SUM(r.orderCount), SUM(r.revenue) FROM OrderRollup r " +
+            "WHERE r.bucketHour >= :from AND r.bucketHour < :to " +
+            "AND (:status IS NULL OR r.status = :status) " +
+            "AND (:paymentMethod IS NULL OR r.paymentMethod = :paymentMethod) " +
+            "GROUP BY r.bucketHour")
+    List<Object[]> sumByHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("status") String status, @Param("paymentMethod") String paymentMethod);
+}
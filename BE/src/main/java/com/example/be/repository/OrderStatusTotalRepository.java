@@ -0,0 +1,35 @@
+package com.example.be.repository;
+
+import com.example.be.entity.OrderStatusTotal;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+
+@Repository
+public interface OrderStatusTotalRepository extends JpaRepository<OrderStatusTotal, String> {
+
+    @Modifying
+    @Query(value = "INSERT INTO order_status_totals (status, order_count, revenue) " +
+            "VALUES (:status, :orderCount, :revenue) " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + :orderCount, revenue = revenue + :revenue",
+            nativeQuery = true)
+    int increment(@Param("status") String status, @Param("orderCount") long orderCount,
+            @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @Query(value = "INSERT INTO order_status_totals (status, order_count, revenue) " +
+            "SELECT COALESCE(o.status, 'UNKNOWN'), COUNT(*), COALESCE(SUM(o.final_total), 0) FROM orders o " +
+            "WHERE o.id >= :fromId AND o.id < :toId GROUP BY 1 " +
+            "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), " +
+            "revenue = revenue + VALUES(revenue)",
+            nativeQuery = true)
+    int backfill(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Modifying
+    @Query(value = "DELETE FROM order_status_totals", nativeQuery = true)
+    int deleteAllRows();
+}
@@ -3,24 +3,51 @@ package com.example.be.repository;
 import com.example.be.entity.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
+    @Override
+    @EntityGraph(attributePaths = { "category", "brand" })
+    Page<Product> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = { "category", "brand" })
     Optional<Product> findBySlug(String slug);
 
+    @EntityGraph(attributePaths = { "category", "brand" })
     List<Product> findByCategoryId(Long categoryId);
 
+    @EntityGraph(attributePaths = { "category", "brand" })
     List<Product> findByBrandId(Long brandId);
 
     List<Product> findByActiveTrue();
 
+    List<Product> findByCategoryIdAndIdNotAndActiveTrue(Long categoryId, Long id, Pageable pageable);
+
+    List<Product> findByBrandIdAndIdNotAndActiveTrue(Long brandId, Long id, Pageable pageable);
+
+    @Query("SELECT p.id, c.id, b.id, p.active FROM Product p " +
+            "LEFT JOIN p.category c LEFT JOIN p.brand b")
+    List<Object[]> findAllFacetRows();
+
+    @Query("SELECT p.id, c.id, b.id, p.active FROM Product p " +
+            "LEFT JOIN p.category c LEFT JOIN p.brand b WHERE p.id = :id")
+    List<Object[]> findFacetRowById(@Param("id") Long id);
+
+    @EntityGraph(attributePaths = { "category", "brand" })
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids")
+    List<Product> findWithCategoryAndBrandByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = { "category", "brand" })
     @Query("SELECT DISTINCT p FROM Product p " +
             "LEFT JOIN p.category c " +
             "LEFT JOIN p.brand b " +
@@ -0,0 +1,52 @@
+package com.example.be.repository;
+
+import com.example.be.entity.ProductRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductRollupRepository extends JpaRepository<ProductRollup, Long> {
+
+    @Modifying
+    @Query(value = "INSERT INTO product_rollups (bucket_hour, product_id, status, payment_method, quantity, revenue) " +
+            "VALUES (:bucketHour, :productId, :status, :paymentMethod, :quantity, :revenue) " +
+            "ON DUPLICATE KEY UPDATE quantity = quantity + :quantity, revenue = revenue + :revenue",
+            nativeQuery = true)
+    int increment(@Param("bucketHour") LocalDateTime bucketHour, @Param("productId") Long productId,
+            @Param("status") String status, @Param("paymentMethod") String paymentMethod,
+            @Param("quantity") long quantity, @Param("revenue") BigDecimal revenue);
+
+    @Modifying
+    @Query(value = "INSERT INTO product_rollups (bucket_hour, product_id, status, payment_method, quantity, revenue) " +
+            "SELECT DATE_FORMAT(o.created_at, '%Y-%m-%d %H:00:00'), v.product_id, COALESCE(o.status, 'UNKNOWN'), " +
+            "COALESCE(o.payment_method, 'UNKNOWN'), SUM(i.quantity), COALESCE(SUM(i.price * i.quantity), 0) " +
+            "FROM order_items i JOIN orders o ON o.id = i.order_id " +
+            "JOIN product_variants v ON v.id = i.product_variant_id " +
+            "WHERE o.created_at IS NOT NULL AND v.product_id IS NOT NULL AND o.id >= :fromId AND o.id < :toId " +
+            "GROUP BY 1, 2, 3, 4 " +
+            "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity), revenue = revenue + VALUES(revenue)",
+            nativeQuery = true)
+    int backfill(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Modifying
+    @Query(value = "DELETE FROM product_rollups", nativeQuery = true)
+    int deleteAllRows();
+
+    @Query("SELECT r.bucketHour, SUM(r.quantity), SUM(r.revenue) FROM ProductRollup r, Product p " +
+            "WHERE p.id = r.productId AND r.bucketHour >= :from AND r.bucketHour < :to " +
+            "AND (:status IS NULL OR r.status = :status) " +
+            "AND (:paymentMethod IS NULL OR r.paymentMethod = :paymentMethod) " +
+            "AND (:categoryId IS NULL OR p.category.id = :categoryId) " +
+            "AND (:brandId IS NULL OR p.brand.id = :brandId) " +
+            "GROUP BY r.bucketHour")
+    List<Object[]> sumByHour(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("status") String status, @Param("paymentMethod") String paymentMethod,
+            @Param("categoryId") Long categoryId, @Param("brandId") Long brandId);
+}
@@ -0,0 +1,15 @@
+package com.example.be.repository;
+
+import com.example.be.entity.ProductSimilarity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductSimilarityRepository extends JpaRepository<ProductSimilarity, Long> {
+
+    @Query("SELECT s.productId, s.neighbourId FROM ProductSimilarity s ORDER BY s.productId, s.rank")
+    List<Object[]> findAllNeighbourPairs();
+}
@@ -2,13 +2,42 @@ package com.example.be.repository;
 
 import com.example.be.entity.ProductVariant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProductVariantRepository extends JpaRepository<ProductVariant, Long> {
     List<ProductVariant> findByProductId(Long productId);
 
+    @Query("SELECT v FROM ProductVariant v " +
+            "LEFT JOIN FETCH v.size " +
+            "LEFT JOIN FETCH v.color " +
+            "WHERE v.product.id IN :productIds")
+    List<ProductVariant> findWithSizeAndColorByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT v.product.id, v.price FROM ProductVariant v WHERE v.price IS NOT NULL")
+    List<Object[]> findAllProductIdAndPrice();
+
+    @Query("SELECT v.product.id, s.id, c.id, v.price FROM ProductVariant v " +
+            "LEFT JOIN v.size s LEFT JOIN v.color c")
+    List<Object[]> findAllFacetRows();
+
+    @Query("SELECT v.product.id, s.id, c.id, v.price FROM ProductVariant v " +
+            "LEFT JOIN v.size s LEFT JOIN v.color c WHERE v.product.id = :productId")
+    List<Object[]> findFacetRowsByProductId(@Param("productId") Long productId);
+
     Long countByStockQuantityLessThan(int threshold);
+
+    // Low-stock watcher rows: variant id, product id, product name, sku, stock, threshold
+    @Query("SELECT v.id, p.id, p.name, v.sku, v.stockQuantity, v.reorderThreshold FROM ProductVariant v " +
+            "LEFT JOIN v.product p WHERE v.id IN :ids")
+    List<Object[]> findStockLevelsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT v.id, p.id, p.name, v.sku, v.stockQuantity, v.reorderThreshold FROM ProductVariant v " +
+            "LEFT JOIN v.product p WHERE v.stockQuantity < COALESCE(v.reorderThreshold, :defaultThreshold)")
+    List<Object[]> findStockLevelsBelowThreshold(@Param("defaultThreshold") int defaultThreshold);
 }
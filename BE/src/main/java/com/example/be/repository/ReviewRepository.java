@@ -2,6 +2,7 @@ package com.example.be.repository;
 
 import com.example.be.entity.Review;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,4 +10,8 @@ import java.util.List;
 @Repository
 public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByProductIdOrderByCreatedAtDesc(Long productId);
+
+    // Implicit feedback for the "for you" model
+    @Query("SELECT r.user.id, r.product.id, r.rating FROM Review r WHERE r.user IS NOT NULL AND r.product IS NOT NULL")
+    List<Object[]> findAllUserProductRatings();
 }
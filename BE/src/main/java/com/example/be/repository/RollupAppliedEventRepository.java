@@ -0,0 +1,26 @@
+package com.example.be.repository;
+
+import com.example.be.entity.RollupAppliedEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RollupAppliedEventRepository extends JpaRepository<RollupAppliedEvent, Long> {
+
+    // Events already in the outbox for these orders are covered by a back-fill of the same id range
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO rollup_applied_events (event_id, applied_at) " +
+            "SELECT id, NOW() FROM order_outbox WHERE order_id >= :fromId AND order_id < :toId", nativeQuery = true)
+    int markOutboxEventsApplied(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RollupAppliedEvent e WHERE e.appliedAt < :before")
+    int deleteAppliedBefore(@Param("before") LocalDateTime before);
+}
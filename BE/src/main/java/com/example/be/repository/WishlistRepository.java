@@ -20,4 +20,8 @@ public interface WishlistRepository extends JpaRepository<Wishlist, Long> {
 
     @Query("SELECT COUNT(w) FROM Wishlist w WHERE w.user.id = :userId")
     long countByUserId(Long userId);
+
+    // Implicit feedback for the "for you" model
+    @Query("SELECT w.user.id, w.product.id FROM Wishlist w")
+    List<Object[]> findAllUserProductPairs();
 }
@@ -0,0 +1,445 @@
+package com.example.be.service;
+
+import com.example.be.dto.FacetCountDTO;
+import com.example.be.dto.ProductFacetsDTO;
+import com.example.be.repository.BrandRepository;
+import com.example.be.repository.CategoryRepository;
+import com.example.be.repository.ColorRepository;
+import com.example.be.repository.ProductRepository;
+import com.example.be.repository.ProductVariantRepository;
+import com.example.be.repository.SizeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Facet counts (category, brand, size, color, price range) for the storefront
+ * filter sidebar, computed in one pass over a columnar snapshot of the catalog.
+ * Counts are disjunctive: each facet ignores its own filter, so the sidebar
+ * still shows the alternatives to the selected value. Price works like the price
+ * filter: a product counts in every range one of its variants is priced in.
+ */
+@Service
+@Slf4j
+public class CatalogFacetService {
+    private static final int ANY = -1;
+    private static final int NO_MATCH = -2;
+
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final CategoryRepository categoryRepository;
+    private final BrandRepository brandRepository;
+    private final SizeRepository sizeRepository;
+    private final ColorRepository colorRepository;
+    private final ProductSearchService productSearchService;
+    private final BigDecimal[] priceBuckets;
+
+    // Row-oriented source of truth, updated per product; the columnar snapshot is rebuilt from it
+    private final Map<Long, ProductRow> rows = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private volatile Names names = new Names();
+    private volatile ColumnarSnapshot snapshot;
+
+    public CatalogFacetService(ProductRepository productRepository,
+            ProductVariantRepository productVariantRepository,
+            CategoryRepository categoryRepository,
+            BrandRepository brandRepository,
+            SizeRepository sizeRepository,
+            ColorRepository colorRepository,
+            ProductSearchService productSearchService,
+            @Value("${app.catalog.facets.price-buckets:100000,200000,500000,1000000}") BigDecimal[] priceBuckets) {
+        this.productRepository = productRepository;
+        this.productVariantRepository = productVariantRepository;
+        this.categoryRepository = categoryRepository;
+        this.brandRepository = brandRepository;
+        this.sizeRepository = sizeRepository;
+        this.colorRepository = colorRepository;
+        this.productSearchService = productSearchService;
+        this.priceBuckets = priceBuckets.clone();
+        Arrays.sort(this.priceBuckets);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /**
+     * Full reload from the database. Also picks up renamed categories, brands,
+     * sizes and colors.
+     */
+    @Scheduled(fixedDelayString = "${app.catalog.facets.full-reload-ms:600000}",
+            initialDelayString = "${app.catalog.facets.full-reload-ms:600000}")
+    public synchronized void reload() {
+        try {
+            long start = System.currentTimeMillis();
+            Map<Long, ProductRow> fresh = new HashMap<>();
+            for (Object[] row : productRepository.findAllFacetRows()) {
+                fresh.put((Long) row[0], toProductRow(row));
+            }
+            for (Object[] row : productVariantRepository.findAllFacetRows()) {
+                ProductRow product = fresh.get((Long) row[0]);
+                if (product != null) {
+                    product.variants.add(toVariantRow(row));
+                }
+            }
+            Names freshNames = new Names();
+            categoryRepository.findAll().forEach(c -> freshNames.categories.put(c.getId(), c.getName()));
+            brandRepository.findAll().forEach(b -> freshNames.brands.put(b.getId(), b.getName()));
+            sizeRepository.findAll().forEach(s -> freshNames.sizes.put(s.getId(), s.getSizeValue()));
+            colorRepository.findAll().forEach(c -> freshNames.colors.put(c.getId(), c.getColorName()));
+
+            rows.keySet().retainAll(fresh.keySet());
+            rows.putAll(fresh);
+            names = freshNames;
+            dirty.set(false);
+            snapshot = build();
+            log.info("Catalog facet index loaded: {} products in {} ms", fresh.size(),
+                    System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.error("Catalog facet index reload failed", e);
+        }
+    }
+
+    public void reloadAsync() {
+        CompletableFuture.runAsync(this::reload);
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.facets.refresh-ms:2000}")
+    public synchronized void rebuildIfDirty() {
+        if (dirty.getAndSet(false)) {
+            snapshot = build();
+        }
+    }
+
+    /**
+     * Re-read one product's facet row; it becomes visible after commit and the next
+     * snapshot rebuild.
+     */
+    public void refresh(Long productId) {
+        if (productId == null) {
+            return;
+        }
+        ProductRow row = productRepository.findFacetRowById(productId).stream()
+                .findFirst()
+                .map(this::toProductRow)
+                .orElse(null);
+        if (row != null) {
+            for (Object[] variant : productVariantRepository.findFacetRowsByProductId(productId)) {
+                row.variants.add(toVariantRow(variant));
+            }
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyRow(productId, row);
+                }
+            });
+        } else {
+            applyRow(productId, row);
+        }
+    }
+
+    /**
+     * Facets for the current search. A keyword restricts the base set to the search
+     * index matches; returns null when that index is not available yet.
+     */
+    public ProductFacetsDTO getFacets(String keyword, Long categoryId, Long brandId, BigDecimal minPrice,
+            BigDecimal maxPrice, Boolean active) {
+        Collection<Long> candidates = null;
+        if (keyword != null && !keyword.isBlank()) {
+            if (!productSearchService.isReady()) {
+                return null;
+            }
+            // null when the keyword has no searchable tokens: same as no keyword
+            candidates = productSearchService.match(keyword);
+        }
+        return computeFacets(candidates, categoryId, brandId, minPrice, maxPrice, active);
+    }
+
+    public ProductFacetsDTO computeFacets(Collection<Long> candidateIds, Long categoryId, Long brandId,
+            BigDecimal minPrice, BigDecimal maxPrice, Boolean active) {
+        ColumnarSnapshot s = snapshot;
+        if (s == null) {
+            return null;
+        }
+        int categoryFilter = categoryId == null ? ANY : s.categoryOrdinals.getOrDefault(categoryId, NO_MATCH);
+        int brandFilter = brandId == null ? ANY : s.brandOrdinals.getOrDefault(brandId, NO_MATCH);
+        boolean priceFiltered = minPrice != null || maxPrice != null;
+        long minCents = minPrice == null ? Long.MIN_VALUE
+                : minPrice.movePointRight(2).setScale(0, RoundingMode.CEILING).longValueExact();
+        long maxCents = maxPrice == null ? Long.MAX_VALUE
+                : maxPrice.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValueExact();
+
+        long[] categoryCounts = new long[s.categoryIds.length];
+        long[] brandCounts = new long[s.brandIds.length];
+        long[] sizeCounts = new long[s.sizeIds.length];
+        long[] colorCounts = new long[s.colorIds.length];
+        long[] priceCounts = new long[priceBuckets.length + 1];
+        // Last product ordinal that counted each size/color, so a product is counted once per value
+        int[] sizeSeen = new int[s.sizeIds.length];
+        int[] colorSeen = new int[s.colorIds.length];
+        int[] priceSeen = new int[priceCounts.length];
+        Arrays.fill(sizeSeen, -1);
+        Arrays.fill(colorSeen, -1);
+        Arrays.fill(priceSeen, -1);
+
+        int size = candidateIds == null ? s.productIds.length : candidateIds.size();
+        Iterator<Long> ids = candidateIds == null ? null : candidateIds.iterator();
+        for (int i = 0; i < size; i++) {
+            int p;
+            if (ids == null) {
+                p = i;
+            } else {
+                Integer ordinal = s.productOrdinals.get(ids.next());
+                if (ordinal == null) {
+                    continue;
+                }
+                p = ordinal;
+            }
+            if (active != null && s.active.get(p) != active) {
+                continue;
+            }
+            boolean categoryOk = categoryFilter == ANY || s.categoryOrd[p] == categoryFilter;
+            boolean brandOk = brandFilter == ANY || s.brandOrd[p] == brandFilter;
+            boolean priceOk = !priceFiltered || hasVariantInRange(s, p, minCents, maxCents);
+
+            if (brandOk && priceOk && s.categoryOrd[p] >= 0) {
+                categoryCounts[s.categoryOrd[p]]++;
+            }
+            if (categoryOk && priceOk && s.brandOrd[p] >= 0) {
+                brandCounts[s.brandOrd[p]]++;
+            }
+            if (categoryOk && brandOk) {
+                for (int v = s.variantOffsets[p]; v < s.variantOffsets[p + 1]; v++) {
+                    int bucket = s.variantPriceBucket[v];
+                    if (bucket >= 0 && priceSeen[bucket] != p) {
+                        priceSeen[bucket] = p;
+                        priceCounts[bucket]++;
+                    }
+                }
+            }
+            if (categoryOk && brandOk && priceOk) {
+                for (int v = s.variantOffsets[p]; v < s.variantOffsets[p + 1]; v++) {
+                    int sizeOrd = s.variantSizeOrd[v];
+                    if (sizeOrd >= 0 && sizeSeen[sizeOrd] != p) {
+                        sizeSeen[sizeOrd] = p;
+                        sizeCounts[sizeOrd]++;
+                    }
+                    int colorOrd = s.variantColorOrd[v];
+                    if (colorOrd >= 0 && colorSeen[colorOrd] != p) {
+                        colorSeen[colorOrd] = p;
+                        colorCounts[colorOrd]++;
+                    }
+                }
+            }
+        }
+
+        Names n = names;
+        List<FacetCountDTO> priceRanges = new ArrayList<>();
+        for (int b = 0; b < priceCounts.length; b++) {
+            if (priceCounts[b] == 0) {
+                continue;
+            }
+            BigDecimal from = b == 0 ? BigDecimal.ZERO : priceBuckets[b - 1];
+            BigDecimal to = b < priceBuckets.length ? priceBuckets[b] : null;
+            priceRanges.add(FacetCountDTO.builder()
+                    .name(to == null ? from.toPlainString() + "+" : from.toPlainString() + " - " + to.toPlainString())
+                    .from(from)
+                    .to(to)
+                    .count(priceCounts[b])
+                    .build());
+        }
+        return ProductFacetsDTO.builder()
+                .categories(toFacetCounts(s.categoryIds, categoryCounts, n.categories))
+                .brands(toFacetCounts(s.brandIds, brandCounts, n.brands))
+                .sizes(toFacetCounts(s.sizeIds, sizeCounts, n.sizes))
+                .colors(toFacetCounts(s.colorIds, colorCounts, n.colors))
+                .priceRanges(priceRanges)
+                .build();
+    }
+
+    private boolean hasVariantInRange(ColumnarSnapshot s, int p, long minCents, long maxCents) {
+        for (int v = s.variantOffsets[p]; v < s.variantOffsets[p + 1]; v++) {
+            long price = s.variantPriceCents[v];
+            if (price != Long.MIN_VALUE && price >= minCents && price <= maxCents) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<FacetCountDTO> toFacetCounts(long[] ids, long[] counts, Map<Long, String> labels) {
+        List<FacetCountDTO> result = new ArrayList<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (counts[i] > 0) {
+                result.add(FacetCountDTO.builder()
+                        .id(ids[i])
+                        .name(labels.get(ids[i]))
+                        .count(counts[i])
+                        .build());
+            }
+        }
+        result.sort(Comparator.comparingLong(FacetCountDTO::getCount).reversed());
+        return result;
+    }
+
+    private void applyRow(Long productId, ProductRow row) {
+        if (row == null) {
+            rows.remove(productId);
+        } else {
+            rows.put(productId, row);
+        }
+        dirty.set(true);
+    }
+
+    private ColumnarSnapshot build() {
+        List<ProductRow> products = new ArrayList<>(rows.values());
+        int n = products.size();
+        int variantCount = products.stream().mapToInt(p -> p.variants.size()).sum();
+
+        ColumnarSnapshot s = new ColumnarSnapshot();
+        s.productIds = new long[n];
+        s.categoryOrd = new int[n];
+        s.brandOrd = new int[n];
+        s.active = new BitSet(n);
+        s.variantOffsets = new int[n + 1];
+        s.variantSizeOrd = new int[variantCount];
+        s.variantColorOrd = new int[variantCount];
+        s.variantPriceCents = new long[variantCount];
+        s.variantPriceBucket = new int[variantCount];
+        Map<Long, Integer> sizeOrdinals = new HashMap<>();
+        Map<Long, Integer> colorOrdinals = new HashMap<>();
+
+        int v = 0;
+        for (int p = 0; p < n; p++) {
+            ProductRow row = products.get(p);
+            s.productIds[p] = row.id;
+            s.productOrdinals.put(row.id, p);
+            s.categoryOrd[p] = ordinal(s.categoryOrdinals, row.categoryId);
+            s.brandOrd[p] = ordinal(s.brandOrdinals, row.brandId);
+            s.active.set(p, Boolean.TRUE.equals(row.active));
+
+            s.variantOffsets[p] = v;
+            for (VariantRow variant : row.variants) {
+                s.variantSizeOrd[v] = ordinal(sizeOrdinals, variant.sizeId);
+                s.variantColorOrd[v] = ordinal(colorOrdinals, variant.colorId);
+                s.variantPriceCents[v] = variant.price == null ? Long.MIN_VALUE
+                        : variant.price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+                s.variantPriceBucket[v] = bucketOf(variant.price);
+                v++;
+            }
+        }
+        s.variantOffsets[n] = v;
+        s.categoryIds = keysByOrdinal(s.categoryOrdinals);
+        s.brandIds = keysByOrdinal(s.brandOrdinals);
+        s.sizeIds = keysByOrdinal(sizeOrdinals);
+        s.colorIds = keysByOrdinal(colorOrdinals);
+        return s;
+    }
+
+    private int bucketOf(BigDecimal price) {
+        if (price == null) {
+            return -1;
+        }
+        for (int b = 0; b < priceBuckets.length; b++) {
+            if (price.compareTo(priceBuckets[b]) < 0) {
+                return b;
+            }
+        }
+        return priceBuckets.length;
+    }
+
+    private static int ordinal(Map<Long, Integer> ordinals, Long id) {
+        return id == null ? -1 : ordinals.computeIfAbsent(id, k -> ordinals.size());
+    }
+
+    private static long[] keysByOrdinal(Map<Long, Integer> ordinals) {
+        long[] ids = new long[ordinals.size()];
+        ordinals.forEach((id, ordinal) -> ids[ordinal] = id);
+        return ids;
+    }
+
+    private ProductRow toProductRow(Object[] row) {
+        return new ProductRow((Long) row[0], (Long) row[1], (Long) row[2], (Boolean) row[3]);
+    }
+
+    private VariantRow toVariantRow(Object[] row) {
+        return new VariantRow((Long) row[1], (Long) row[2], (BigDecimal) row[3]);
+    }
+
+    private static final class ColumnarSnapshot {
+        private final Map<Long, Integer> productOrdinals = new HashMap<>();
+        private final Map<Long, Integer> categoryOrdinals = new HashMap<>();
+        private final Map<Long, Integer> brandOrdinals = new HashMap<>();
+        private long[] productIds;
+        private int[] categoryOrd;
+        private int[] brandOrd;
+        private BitSet active;
+        // Variants in CSR layout: product p owns variant slots [variantOffsets[p], variantOffsets[p + 1])
+        private int[] variantOffsets;
+        private int[] variantSizeOrd;
+        private int[] variantColorOrd;
+        private long[] variantPriceCents;
+        private int[] variantPriceBucket;
+        private long[] categoryIds;
+        private long[] brandIds;
+        private long[] sizeIds;
+        private long[] colorIds;
+    }
+
+    private static final class Names {
+        private final Map<Long, String> categories = new HashMap<>();
+        private final Map<Long, String> brands = new HashMap<>();
+        private final Map<Long, String> sizes = new HashMap<>();
+        private final Map<Long, String> colors = new HashMap<>();
+    }
+
+    private static final class ProductRow {
+        private final Long id;
+        private final Long categoryId;
+        private final Long brandId;
+        private final Boolean active;
+        private final List<VariantRow> variants = new ArrayList<>();
+
+        private ProductRow(Long id, Long categoryId, Long brandId, Boolean active) {
+            this.id = id;
+            this.categoryId = categoryId;
+            this.brandId = brandId;
+            this.active = active;
+        }
+    }
+
+    private static final class VariantRow {
+        private final Long sizeId;
+        private final Long colorId;
+        private final BigDecimal price;
+
+        private VariantRow(Long sizeId, Long colorId, BigDecimal price) {
+            this.sizeId = sizeId;
+            this.colorId = colorId;
+            this.price = price;
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package com.example.be.service;
+
+import com.example.be.dto.ImportDiffDTO;
+import com.example.be.dto.ImportDiffSampleDTO;
+import com.example.be.service.ExcelImportService.RowRejectedException;
+import com.example.be.service.ImportReferenceResolver.Ref;
+import com.example.be.util.LongLongMap;
+import com.example.be.util.SheetRow;
+import com.example.be.util.SlugUtil;
+import com.example.be.util.XlsxStreamReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.function.Consumer;
+
+import static com.example.be.service.ExcelImportService.decimal;
+import static com.example.be.service.ExcelImportService.integer;
+import static com.example.be.service.ExcelImportService.required;
+import static com.example.be.service.ExcelImportService.rootMessage;
+
+/**
+ * Upsert imports for the catalog: products are matched by slug and variants by
+ * SKU, so re-importing a supplier file updates rows instead of duplicating them.
+ *
+ * Each written row stores a 64-bit hash of its imported values in import_hash
+ * (any other update clears it: the entities' @PreUpdate, and any raw SQL writing
+ * a hashed column sets import_hash = NULL itself). Per chunk, one IN
+ * query fetches id + hash for the chunk's keys; rows whose hash matches are
+ * unchanged and cost nothing more. Only the remaining matches are loaded in full
+ * and compared column by column, and the changed columns are written with one
+ * batched UPDATE per distinct column set. Blank cells keep the stored value.
+ *
+ * In dry-run mode the same diff is computed and returned without writing.
+ */
+@Slf4j
+@Service
+public class CatalogUpsertService {
+    private static final int MAX_SAMPLES = 20;
+
+    private static final UpsertSpec PRODUCTS = new UpsertSpec("products", "slug",
+            new String[]{"name", "description", "category_id", "brand_id", "active"});
+    private static final UpsertSpec VARIANTS = new UpsertSpec("product_variants", "sku",
+            new String[]{"product_id", "size_id", "color_id", "price", "stock_quantity"});
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductCacheService productCacheService;
+    private final ProductSearchService productSearchService;
+    private final CatalogFacetService catalogFacetService;
+    private final LowStockService lowStockService;
+    private final int batchSize;
+    private final int queueCapacity;
+
+    public CatalogUpsertService(JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedJdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ProductCacheService productCacheService,
+            ProductSearchService productSearchService,
+            CatalogFacetService catalogFacetService,
+            LowStockService lowStockService,
+            @Value("${app.import.batch-size:1000}") int batchSize,
+            @Value("${app.import.queue-capacity:5000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productCacheService = productCacheService;
+        this.productSearchService = productSearchService;
+        this.catalogFacetService = catalogFacetService;
+        this.lowStockService = lowStockService;
+        this.batchSize = Math.max(batchSize, 1);
+        this.queueCapacity = queueCapacity;
+    }
+
+    public ImportDiffDTO upsertProducts(Path file, ImportListener listener, boolean dryRun) throws IOException {
+        // Name, Slug (defaults to the slugified name), Desc, Category (id or name), Brand (id or name), Active
+        ImportDiffDTO diff = upsertRows(file, PRODUCTS, listener, dryRun, (row, refs) -> {
+            refs.collect(Ref.CATEGORY, row.getString(3));
+            refs.collect(Ref.BRAND, row.getString(4));
+        }, (row, refs) -> {
+            String name = required(row, 0, "Name");
+            String slug = row.getString(1) != null ? row.getString(1).trim() : SlugUtil.toSlug(name);
+            return new UpsertRow(row, slug, new Object[]{
+                    name,
+                    row.getString(2),
+                    reference(refs, Ref.CATEGORY, row, 3, "category"),
+                    reference(refs, Ref.BRAND, row, 4, "brand"),
+                    row.getBoolean(5)
+            });
+        }, (row, values) -> {
+            if (values[4] == null) {
+                values[4] = Boolean.TRUE; // New products are active unless the file says otherwise
+            }
+        }, ids -> {
+        });
+        if (!dryRun && diff.getInserted() + diff.getUpdated() > 0) {
+            productCacheService.evictAll();
+            productSearchService.rebuildAsync();
+            catalogFacetService.reloadAsync();
+        }
+        return diff;
+    }
+
+    public ImportDiffDTO upsertProductVariants(Path file, ImportListener listener, boolean dryRun)
+            throws IOException {
+        // Product (id, slug or SKU; needed for new SKUs), Size, Color, Price, Stock, SKU
+        ImportDiffDTO diff = upsertRows(file, VARIANTS, listener, dryRun, (row, refs) -> {
+            refs.collect(Ref.PRODUCT, row.getString(0));
+            refs.collect(Ref.SIZE, row.getString(1));
+            refs.collect(Ref.COLOR, row.getString(2));
+        }, (row, refs) -> new UpsertRow(row, required(row, 5, "SKU").trim(), new Object[]{
+                reference(refs, Ref.PRODUCT, row, 0, "product"),
+                reference(refs, Ref.SIZE, row, 1, "size"),
+                reference(refs, Ref.COLOR, row, 2, "color"),
+                decimal(row, 3, "Price"),
+                integer(row, 4, "Stock")
+        }), (row, values) -> {
+            if (values[0] == null) {
+                throw new RowRejectedException("Product is required for new SKU " + row.key());
+            }
+            if (values[4] == null) {
+                throw new RowRejectedException("Stock is required for new SKU " + row.key());
+            }
+        }, lowStockService::stockChanged);
+        if (!dryRun && diff.getInserted() + diff.getUpdated() > 0) {
+            productCacheService.evictAll();
+            productSearchService.rebuildAsync();
+            catalogFacetService.reloadAsync();
+        }
+        return diff;
+    }
+
+    // Unknown references reject the row here: with blank = keep, silently dropping them would hide mistakes
+    private static Long reference(ImportReferenceResolver refs, Ref ref, SheetRow row, int col, String label) {
+        String raw = row.getString(col);
+        if (raw == null) {
+            return null;
+        }
+        Long id = refs.resolve(ref, raw);
+        if (id == null) {
+            throw new RowRejectedException("Unknown " + label + ": " + raw);
+        }
+        return id;
+    }
+
+    private ImportDiffDTO upsertRows(Path file, UpsertSpec spec, ImportListener listener, boolean dryRun,
+            Collector collector, Mapper mapper, InsertCheck insertCheck, Consumer<List<Long>> afterWrite)
+            throws IOException {
+        long started = System.currentTimeMillis();
+        ImportDiffDTO diff = ImportDiffDTO.builder().dryRun(dryRun).build();
+        long[] totals = new long[3]; // read, written, rejected
+        ImportReferenceResolver refs = new ImportReferenceResolver(namedJdbcTemplate);
+        LongLongMap seenKeys = new LongLongMap(batchSize * 4); // key hash -> first row number
+        try {
+            XlsxStreamReader.read(file, queueCapacity, batchSize, chunk -> {
+                totals[0] += chunk.size();
+                chunk.forEach(row -> collector.collect(row, refs));
+                refs.load();
+
+                List<UpsertRow> rows = new ArrayList<>(chunk.size());
+                for (SheetRow source : chunk) {
+                    try {
+                        UpsertRow row = mapper.map(source, refs);
+                        long keyHash = hash(row.key().toLowerCase(Locale.ROOT));
+                        long firstRow = seenKeys.get(keyHash);
+                        if (firstRow != 0) {
+                            throw new RowRejectedException("Duplicate " + spec.keyColumn() + " " + row.key()
+                                    + ", first seen on row " + firstRow);
+                        }
+                        seenKeys.put(keyHash, source.rowNum() + 1);
+                        rows.add(row);
+                    } catch (RowRejectedException e) {
+                        totals[2]++;
+                        listener.rejected(source.rowNum(), source.cells(), e.getMessage());
+                    }
+                }
+
+                List<Op> ops = diffChunk(spec, rows, insertCheck, diff, listener, totals);
+                if (!dryRun && !ops.isEmpty()) {
+                    totals[1] += apply(spec, ops, afterWrite, listener, totals);
+                }
+                listener.progress(totals[0], totals[1], totals[2]);
+            });
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Upsert failed after " + totals[0] + " " + spec.table() + " rows: "
+                    + e.getMessage(), e);
+        }
+        log.info("{} {} upsert: {} inserted, {} updated, {} unchanged, {} rejected in {} ms",
+                dryRun ? "Dry-run" : "Applied", spec.table(), diff.getInserted(), diff.getUpdated(),
+                diff.getUnchanged(), totals[2], System.currentTimeMillis() - started);
+        return diff;
+    }
+
+    /**
+     * Classify the chunk against the database: insert, update (with the changed
+     * columns), unchanged, or unchanged but missing its hash.
+     */
+    private List<Op> diffChunk(UpsertSpec spec, List<UpsertRow> rows, InsertCheck insertCheck, ImportDiffDTO diff,
+            ImportListener listener, long[] totals) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        // 1. id + stored hash for every key in the chunk
+        Map<String, long[]> existing = new HashMap<>();
+        namedJdbcTemplate.query("SELECT id, " + spec.keyColumn() + ", import_hash FROM " + spec.table()
+                        + " WHERE " + spec.keyColumn() + " IN (:keys) ORDER BY id",
+                new MapSqlParameterSource("keys", rows.stream().map(UpsertRow::key).toList()), rs -> {
+                    long storedHash = rs.getLong(3);
+                    existing.putIfAbsent(rs.getString(2).toLowerCase(Locale.ROOT),
+                            new long[]{rs.getLong(1), rs.wasNull() ? 0 : storedHash});
+                });
+
+        List<Op> ops = new ArrayList<>();
+        List<UpsertRow> toCompare = new ArrayList<>();
+        Map<UpsertRow, Long> ids = new IdentityHashMap<>();
+        for (UpsertRow row : rows) {
+            long rowHash = hash(row.values());
+            long[] match = existing.get(row.key().toLowerCase(Locale.ROOT));
+            if (match == null) {
+                try {
+                    insertCheck.check(row, row.values());
+                } catch (RowRejectedException e) {
+                    totals[2]++;
+                    listener.rejected(row.source().rowNum(), row.source().cells(), e.getMessage());
+                    continue;
+                }
+                ops.add(new Op(row, 0, rowHash, null));
+                diff.setInserted(diff.getInserted() + 1);
+                sample(diff, row, "INSERT", null, spec);
+            } else if (match[1] == rowHash) {
+                diff.setUnchanged(diff.getUnchanged() + 1);
+            } else {
+                toCompare.add(row);
+                ids.put(row, match[0]);
+            }
+        }
+        if (toCompare.isEmpty()) {
+            return ops;
+        }
+
+        // 2. full values only for rows whose hash differs
+        Map<Long, Object[]> current = new HashMap<>();
+        namedJdbcTemplate.query("SELECT id, " + String.join(", ", spec.columns()) + " FROM " + spec.table()
+                        + " WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", new HashSet<>(ids.values())), rs -> {
+                    Object[] values = new Object[spec.columns().length];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = rs.getObject(i + 2);
+                    }
+                    current.put(rs.getLong(1), values);
+                });
+        for (UpsertRow row : toCompare) {
+            long id = ids.get(row);
+            Object[] stored = current.get(id);
+            if (stored == null) {
+                // Deleted since the first query; inserting it now could clash with whatever deleted it
+                totals[2]++;
+                listener.rejected(row.source().rowNum(), row.source().cells(),
+                        spec.keyColumn() + " " + row.key() + " was deleted during the import; "
+                                + "import it again to re-create it");
+                continue;
+            }
+            List<Integer> changed = new ArrayList<>();
+            for (int i = 0; i < spec.columns().length; i++) {
+                Object value = row.values()[i];
+                if (value != null && !sameValue(stored[i], value)) {
+                    changed.add(i);
+                }
+            }
+            long rowHash = hash(row.values());
+            ops.add(new Op(row, id, rowHash, changed));
+            if (changed.isEmpty()) {
+                diff.setUnchanged(diff.getUnchanged() + 1);
+            } else {
+                diff.setUpdated(diff.getUpdated() + 1);
+                sample(diff, row, "UPDATE", stored, spec);
+            }
+        }
+        return ops;
+    }
+
+    // Whole chunk in one transaction; if that fails, retry op by op to isolate the bad rows
+    private int apply(UpsertSpec spec, List<Op> ops, Consumer<List<Long>> afterWrite, ImportListener listener,
+            long[] totals) {
+        try {
+            Integer count = transactionTemplate.execute(status -> write(spec, ops, afterWrite));
+            return count != null ? count : 0;
+        } catch (RuntimeException batchFailure) {
+            log.debug("Upsert batch failed, retrying {} rows one by one: {}", ops.size(), batchFailure.getMessage());
+        }
+        int written = 0;
+        for (Op op : ops) {
+            try {
+                Integer count = transactionTemplate.execute(status -> write(spec, List.of(op), afterWrite));
+                written += count != null ? count : 0;
+            } catch (RuntimeException e) {
+                totals[2]++;
+                listener.rejected(op.row().source().rowNum(), op.row().source().cells(), rootMessage(e));
+            }
+        }
+        return written;
+    }
+
+    /** Returns the rows inserted or updated; hash-only refreshes are not counted. */
+    private int write(UpsertSpec spec, List<Op> ops, Consumer<List<Long>> afterWrite) {
+        List<Op> inserts = new ArrayList<>();
+        Map<List<Integer>, List<Op>> updatesByColumns = new LinkedHashMap<>();
+        List<Op> hashOnly = new ArrayList<>();
+        for (Op op : ops) {
+            if (op.id() == 0) {
+                inserts.add(op);
+            } else if (op.changed().isEmpty()) {
+                hashOnly.add(op);
+            } else {
+                updatesByColumns.computeIfAbsent(op.changed(), c -> new ArrayList<>()).add(op);
+            }
+        }
+
+        List<Long> touched = new ArrayList<>();
+        if (!inserts.isEmpty()) {
+            touched.addAll(insert(spec, inserts));
+        }
+        for (Map.Entry<List<Integer>, List<Op>> group : updatesByColumns.entrySet()) {
+            List<Integer> columns = group.getKey();
+            StringBuilder sql = new StringBuilder("UPDATE ").append(spec.table()).append(" SET ");
+            for (int column : columns) {
+                sql.append(spec.columns()[column]).append(" = ?, ");
+            }
+            sql.append("import_hash = ? WHERE id = ?");
+            jdbcTemplate.batchUpdate(sql.toString(), group.getValue(), group.getValue().size(), (ps, op) -> {
+                int p = 1;
+                for (int column : columns) {
+                    ps.setObject(p++, op.row().values()[column]);
+                }
+                ps.setLong(p++, op.hash());
+                ps.setLong(p, op.id());
+            });
+            group.getValue().forEach(op -> touched.add(op.id()));
+        }
+        if (!hashOnly.isEmpty()) {
+            // Same content, just remember the hash so the next import skips the row cheaply
+            jdbcTemplate.batchUpdate("UPDATE " + spec.table() + " SET import_hash = ? WHERE id = ?",
+                    hashOnly, hashOnly.size(), (ps, op) -> {
+                        ps.setLong(1, op.hash());
+                        ps.setLong(2, op.id());
+                    });
+        }
+        afterWrite.accept(touched);
+        return touched.size();
+    }
+
+    private List<Long> insert(UpsertSpec spec, List<Op> inserts) {
+        String[] columns = spec.columns();
+        String sql = "INSERT INTO " + spec.table() + " (" + spec.keyColumn() + ", " + String.join(", ", columns)
+                + ", import_hash) VALUES (?" + ", ?".repeat(columns.length + 1) + ")";
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Op op = inserts.get(i);
+                        ps.setString(1, op.row().key());
+                        for (int c = 0; c < columns.length; c++) {
+                            ps.setObject(c + 2, op.row().values()[c]);
+                        }
+                        ps.setLong(columns.length + 2, op.hash());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return inserts.size();
+                    }
+                }, keys);
+        List<Long> ids = new ArrayList<>(inserts.size());
+        for (Map<String, Object> key : keys.getKeyList()) {
+            Object id = key.values().stream().findFirst().orElse(null);
+            if (id instanceof Number number) {
+                ids.add(number.longValue());
+            }
+        }
+        return ids;
+    }
+
+    private static void sample(ImportDiffDTO diff, UpsertRow row, String action, Object[] stored, UpsertSpec spec) {
+        if (diff.getSamples().size() >= MAX_SAMPLES) {
+            return;
+        }
+        Map<String, String> changes = new LinkedHashMap<>();
+        for (int i = 0; i < spec.columns().length; i++) {
+            Object value = row.values()[i];
+            if (stored == null) {
+                changes.put(spec.columns()[i], display(value));
+            } else if (value != null && !sameValue(stored[i], value)) {
+                changes.put(spec.columns()[i], display(stored[i]) + " -> " + display(value));
+            }
+        }
+        diff.getSamples().add(ImportDiffSampleDTO.builder()
+                .row(row.source().rowNum() + 1)
+                .key(row.key())
+                .action(action)
+                .changes(changes)
+                .build());
+    }
+
+    // DECIMAL(…,2) 100.00 equals 100, BIGINT equals Integer, BIT(1) equals Boolean
+    private static boolean sameValue(Object stored, Object value) {
+        if (stored == null || value == null) {
+            return stored == value;
+        }
+        if (stored instanceof Number a && value instanceof Number b) {
+            return new BigDecimal(a.toString()).compareTo(new BigDecimal(b.toString())) == 0;
+        }
+        if (value instanceof Boolean b && stored instanceof Number n) {
+            return b == (n.intValue() != 0);
+        }
+        return stored.equals(value);
+    }
+
+    private static String display(Object value) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.stripTrailingZeros().toPlainString();
+        }
+        return value.toString();
+    }
+
+    // 64-bit FNV-1a over the display form, so 100 and 100.00 hash alike
+    private static long hash(Object... values) {
+        long h = 0xcbf29ce484222325L;
+        for (Object value : values) {
+            String text = value == null ? "\u0000" : display(value);
+            for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+                h ^= b;
+                h *= 0x100000001b3L;
+            }
+            h ^= 0x1f;
+            h *= 0x100000001b3L;
+        }
+        return h == 0 ? 1 : h; // 0 means "no hash" in the table and in LongLongMap
+    }
+
+    private record UpsertSpec(String table, String keyColumn, String[] columns) {
+    }
+
+    private record UpsertRow(SheetRow source, String key, Object[] values) {
+    }
+
+    /** id 0 = insert; otherwise update the changed column indexes (empty = refresh the hash only). */
+    private record Op(UpsertRow row, long id, long hash, List<Integer> changed) {
+    }
+
+    @FunctionalInterface
+    private interface Collector {
+        void collect(SheetRow row, ImportReferenceResolver refs);
+    }
+
+    @FunctionalInterface
+    private interface Mapper {
+        UpsertRow map(SheetRow row, ImportReferenceResolver refs);
+    }
+
+    /** Extra rules for rows that will be inserted; may fill defaults or reject. */
+    @FunctionalInterface
+    private interface InsertCheck {
+        void check(UpsertRow row, Object[] values);
+    }
+}
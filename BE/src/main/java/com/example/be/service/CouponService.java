@@ -3,6 +3,9 @@ package com.example.be.service;
 import com.example.be.dto.CouponDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import java.math.BigDecimal;
 
 public interface CouponService {
@@ -21,4 +24,6 @@ public interface CouponService {
     Page<CouponDTO> getCoupons(Pageable pageable);
 
     Page<CouponDTO> searchCoupons(String keyword, Boolean isActive, Pageable pageable);
+
+    Window<CouponDTO> scrollCoupons(ScrollPosition position, Sort sort, int limit);
 }
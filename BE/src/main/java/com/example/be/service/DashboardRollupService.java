@@ -0,0 +1,332 @@
+package com.example.be.service;
+
+import com.example.be.entity.OrderItem;
+import com.example.be.entity.OrderOutboxEvent;
+import com.example.be.entity.ProductVariant;
+import com.example.be.entity.RollupAppliedEvent;
+import com.example.be.repository.MarginDailyRollupRepository;
+import com.example.be.repository.OrderItemRepository;
+import com.example.be.repository.OrderOutboxRepository;
+import com.example.be.repository.OrderRepository;
+import com.example.be.repository.OrderRollupRepository;
+import com.example.be.repository.OrderStatusTotalRepository;
+import com.example.be.repository.ProductRollupRepository;
+import com.example.be.repository.RollupAppliedEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps the dashboard aggregates up to date from the order outbox instead of
+ * re-reading every order on each request:
+ *  - order_rollups: order count and revenue per hour, status and payment method
+ *  - product_rollups: quantity and line revenue per hour, product, status and payment method
+ *  - order_status_totals: all-time order count and revenue per status
+ *  - margin_daily_rollups: units, revenue and cost per day and variant, non-cancelled orders only
+ *
+ * Each outbox event is applied in one transaction together with a marker row in
+ * rollup_applied_events, so a redelivered event is skipped. Status changes and
+ * updates carry the previous total and payment method, so the old values are taken
+ * out and the new ones added.
+ *
+ * A full rebuild from the orders table runs at startup when the totals are empty
+ * and on demand. It works through order id ranges of REBUILD_CHUNK_SIZE, each in
+ * its own transaction that only locks the orders in that range, and marks the
+ * outbox events of those orders as applied in the same transaction. While it runs,
+ * events for orders no chunk has reached yet are left to the chunk; everything
+ * else is applied as usual.
+ */
+@Slf4j
+@Service
+public class DashboardRollupService implements OrderEventSubscriber {
+    public static final String UNKNOWN = "UNKNOWN";
+    private static final long REBUILD_CHUNK_SIZE = 20_000;
+
+    private final OrderRepository orderRepository;
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderRollupRepository orderRollupRepository;
+    private final ProductRollupRepository productRollupRepository;
+    private final OrderStatusTotalRepository orderStatusTotalRepository;
+    private final RollupAppliedEventRepository rollupAppliedEventRepository;
+    private final MarginDailyRollupRepository marginDailyRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long appliedRetentionDays;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private volatile boolean ready = false;
+
+    // Held for reading while an event is applied and for writing while a rebuild chunk runs.
+    // Orders with ids in [rebuiltBelow, rebuildEnd) are still waiting for their chunk.
+    private final ReentrantReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private long rebuiltBelow = Long.MAX_VALUE;
+    private long rebuildEnd = Long.MAX_VALUE;
+
+    public DashboardRollupService(OrderRepository orderRepository,
+            OrderOutboxRepository orderOutboxRepository,
+            OrderItemRepository orderItemRepository,
+            OrderRollupRepository orderRollupRepository,
+            ProductRollupRepository productRollupRepository,
+            OrderStatusTotalRepository orderStatusTotalRepository,
+            RollupAppliedEventRepository rollupAppliedEventRepository,
+            MarginDailyRollupRepository marginDailyRollupRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.dashboard.rollup.applied-retention-days:30}") long appliedRetentionDays) {
+        this.orderRepository = orderRepository;
+        this.orderOutboxRepository = orderOutboxRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.orderRollupRepository = orderRollupRepository;
+        this.productRollupRepository = productRollupRepository;
+        this.orderStatusTotalRepository = orderStatusTotalRepository;
+        this.rollupAppliedEventRepository = rollupAppliedEventRepository;
+        this.marginDailyRollupRepository = marginDailyRollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.appliedRetentionDays = appliedRetentionDays;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        CompletableFuture.runAsync(() -> {
+            boolean totalsMissing = orderStatusTotalRepository.count() == 0 && orderRepository.count() > 0;
+            // No margin rows is the correct state when every order line is cancelled
+            boolean marginsMissing = marginDailyRollupRepository.count() == 0
+                    && marginDailyRollupRepository.findAnyBackfillLine() != null;
+            if (totalsMissing || marginsMissing) {
+                rebuild();
+            } else {
+                ready = true;
+            }
+        });
+    }
+
+    /**
+     * Recompute every rollup from the orders table. Returns false if a rebuild is
+     * already running. The rollups are not ready (dashboards use the GROUP BY
+     * fallback) until the last chunk is in.
+     */
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            // Cover every order id the outbox still mentions, including deleted orders
+            long from = Long.MAX_VALUE;
+            long to = 0;
+            for (List<Object[]> range : List.of(orderRepository.findIdRange(), orderOutboxRepository.findOrderIdRange())) {
+                Object[] row = range.isEmpty() ? null : range.get(0);
+                if (row != null && row[0] != null) {
+                    from = Math.min(from, ((Number) row[0]).longValue());
+                    to = Math.max(to, ((Number) row[1]).longValue() + 1);
+                }
+            }
+            long firstId = Math.min(from, to);
+            long endId = to;
+            ready = false;
+            underRebuildLock(() -> {
+                orderRollupRepository.deleteAllRows();
+                productRollupRepository.deleteAllRows();
+                orderStatusTotalRepository.deleteAllRows();
+                marginDailyRollupRepository.deleteAllRows();
+            }, firstId, endId);
+            for (long chunk = firstId; chunk < endId; chunk += REBUILD_CHUNK_SIZE) {
+                long chunkFrom = chunk;
+                long chunkTo = Math.min(chunk + REBUILD_CHUNK_SIZE, endId);
+                underRebuildLock(() -> {
+                    orderRollupRepository.backfill(chunkFrom, chunkTo);
+                    productRollupRepository.backfill(chunkFrom, chunkTo);
+                    orderStatusTotalRepository.backfill(chunkFrom, chunkTo);
+                    marginDailyRollupRepository.backfill(chunkFrom, chunkTo);
+                    rollupAppliedEventRepository.markOutboxEventsApplied(chunkFrom, chunkTo);
+                }, chunkTo, endId);
+            }
+            ready = true;
+            log.info("Rebuilt dashboard rollups in {} ms", System.currentTimeMillis() - started);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Dashboard rollup rebuild failed; dashboards stay on the GROUP BY fallback", e);
+            throw e;
+        } finally {
+            rebuildLock.writeLock().lock();
+            try {
+                rebuiltBelow = Long.MAX_VALUE;
+                rebuildEnd = Long.MAX_VALUE;
+            } finally {
+                rebuildLock.writeLock().unlock();
+            }
+            rebuilding.set(false);
+        }
+    }
+
+    // Runs one rebuild step in its own transaction, then moves the pending range on
+    private void underRebuildLock(Runnable step, long pendingFrom, long pendingTo) {
+        rebuildLock.writeLock().lock();
+        try {
+            transactionTemplate.executeWithoutResult(status -> step.run());
+            rebuiltBelow = pendingFrom;
+            rebuildEnd = pendingTo;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onOrderEvent(OrderOutboxEvent event) {
+        rebuildLock.readLock().lock();
+        try {
+            if (event.getOrderId() >= rebuiltBelow && event.getOrderId() < rebuildEnd) {
+                // Already committed, so the chunk for this order will count it and mark it applied
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> applyEvent(event));
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private void applyEvent(OrderOutboxEvent event) {
+        if (rollupAppliedEventRepository.existsById(event.getId())) {
+            return;
+        }
+        OrderState current = new OrderState(event.getStatus(), event.getFinalTotal(), event.getPaymentMethod());
+        switch (event.getEventType()) {
+            case "ORDER_CREATED" -> apply(event, current, 1, true);
+            case "ORDER_STATUS_CHANGED" -> {
+                // Margins only move when the order enters or leaves CANCELLED
+                boolean margin = "CANCELLED".equals(event.getPreviousStatus()) != "CANCELLED".equals(event.getStatus());
+                apply(event, previousState(event), -1, margin);
+                apply(event, current, 1, margin);
+            }
+            case "ORDER_UPDATED" -> {
+                OrderState previous = previousState(event);
+                if (!Objects.equals(previous.paymentMethod(), current.paymentMethod())) {
+                    // Product rollups are keyed by payment method too
+                    apply(event, previous, -1, false);
+                    apply(event, current, 1, false);
+                } else if (compare(previous.finalTotal(), current.finalTotal()) != 0) {
+                    applyOrderOnly(event, previous, -1);
+                    applyOrderOnly(event, current, 1);
+                }
+            }
+            case "ORDER_DELETED" -> applyOrderOnly(event, current, -1);
+            default -> {
+            }
+        }
+        rollupAppliedEventRepository.save(RollupAppliedEvent.builder()
+                .eventId(event.getId())
+                .appliedAt(LocalDateTime.now())
+                .build());
+    }
+
+    // Events recorded before previous values were captured carry neither; assume only the status moved
+    private static OrderState previousState(OrderOutboxEvent event) {
+        if (event.getPreviousFinalTotal() == null && event.getPreviousPaymentMethod() == null) {
+            return new OrderState(event.getPreviousStatus(), event.getFinalTotal(), event.getPaymentMethod());
+        }
+        return new OrderState(event.getPreviousStatus(), event.getPreviousFinalTotal(),
+                event.getPreviousPaymentMethod());
+    }
+
+    private static int compare(BigDecimal a, BigDecimal b) {
+        return (a != null ? a : BigDecimal.ZERO).compareTo(b != null ? b : BigDecimal.ZERO);
+    }
+
+    private void apply(OrderOutboxEvent event, OrderState state, int sign, boolean margin) {
+        applyOrderOnly(event, state, sign);
+        String status = state.status();
+        LocalDateTime hour = bucketHour(event);
+        if (hour == null) {
+            return;
+        }
+        // Merge lines of the same product so each rollup row is touched once
+        Map<Long, long[]> quantities = new LinkedHashMap<>();
+        Map<Long, BigDecimal> revenues = new LinkedHashMap<>();
+        List<OrderItem> items = orderItemRepository.findWithVariantAndProductByOrderIdIn(List.of(event.getOrderId()));
+        boolean countsForMargin = margin && !"CANCELLED".equals(status);
+        for (OrderItem item : items) {
+            if (item.getProductVariant() == null) {
+                continue;
+            }
+            Long productId = item.getProductVariant().getProduct() != null
+                    ? item.getProductVariant().getProduct().getId() : null;
+            int quantity = item.getQuantity() != null ? item.getQuantity() : 0;
+            BigDecimal price = item.getPrice() != null ? item.getPrice() : BigDecimal.ZERO;
+            BigDecimal lineRevenue = price.multiply(BigDecimal.valueOf(quantity));
+            if (countsForMargin) {
+                BigDecimal cost = unitCost(item);
+                marginDailyRollupRepository.increment(hour.toLocalDate(), item.getProductVariant().getId(), productId,
+                        (long) sign * quantity, lineRevenue.multiply(BigDecimal.valueOf(sign)),
+                        cost.multiply(BigDecimal.valueOf((long) sign * quantity)));
+            }
+            if (productId != null) {
+                quantities.computeIfAbsent(productId, k -> new long[1])[0] += quantity;
+                revenues.merge(productId, lineRevenue, BigDecimal::add);
+            }
+        }
+        for (Map.Entry<Long, long[]> entry : quantities.entrySet()) {
+            Long productId = entry.getKey();
+            productRollupRepository.increment(hour, productId, normalize(status), normalize(state.paymentMethod()),
+                    sign * entry.getValue()[0], revenues.get(productId).multiply(BigDecimal.valueOf(sign)));
+        }
+    }
+
+    private void applyOrderOnly(OrderOutboxEvent event, OrderState state, int sign) {
+        BigDecimal total = state.finalTotal() != null ? state.finalTotal() : BigDecimal.ZERO;
+        BigDecimal revenue = total.multiply(BigDecimal.valueOf(sign));
+        orderStatusTotalRepository.increment(normalize(state.status()), sign, revenue);
+        LocalDateTime hour = bucketHour(event);
+        if (hour != null) {
+            orderRollupRepository.increment(hour, normalize(state.status()), normalize(state.paymentMethod()), sign,
+                    revenue);
+        }
+    }
+
+    // Lines sold before cost capture fall back to the variant's current cost, like COALESCE(i.cost_price, v.cost_price, 0)
+    static BigDecimal unitCost(OrderItem item) {
+        if (item.getCostPrice() != null) {
+            return item.getCostPrice();
+        }
+        ProductVariant variant = item.getProductVariant();
+        return variant != null && variant.getCostPrice() != null ? variant.getCostPrice() : BigDecimal.ZERO;
+    }
+
+    private static LocalDateTime bucketHour(OrderOutboxEvent event) {
+        return event.getOrderCreatedAt() != null ? event.getOrderCreatedAt().truncatedTo(ChronoUnit.HOURS) : null;
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? UNKNOWN : value;
+    }
+
+    @Scheduled(cron = "${app.dashboard.rollup.cleanup-cron:0 45 3 * * *}")
+    public void purgeAppliedMarkers() {
+        int deleted = rollupAppliedEventRepository.deleteAppliedBefore(
+                LocalDateTime.now().minusDays(appliedRetentionDays));
+        if (deleted > 0) {
+            log.info("Purged {} applied rollup markers", deleted);
+        }
+    }
+
+    private record OrderState(String status, BigDecimal finalTotal, String paymentMethod) {
+    }
+}
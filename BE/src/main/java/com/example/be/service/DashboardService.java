@@ -1,13 +1,17 @@
 package com.example.be.service;
 
 import com.example.be.dto.DashboardDTO;
+import com.example.be.entity.OrderStatusTotal;
 import com.example.be.repository.*;
-import com.example.be.entity.Order;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 public class DashboardService {
@@ -19,51 +23,76 @@ public class DashboardService {
     private UserRepository userRepository;
     @Autowired
     private ProductVariantRepository productVariantRepository;
+    @Autowired
+    private OrderStatusTotalRepository orderStatusTotalRepository;
+    @Autowired
+    private OrderRollupRepository orderRollupRepository;
+    @Autowired
+    private DashboardRollupService dashboardRollupService;
+    @Autowired
+    private LowStockService lowStockService;
 
     public DashboardDTO getStats() {
-        long totalOrders = orderRepository.count();
         long totalProducts = productRepository.count();
         long totalUsers = userRepository.count();
-        long lowStockCount = productVariantRepository.countByStockQuantityLessThan(10); // Threshold 10
-
-        List<Order> orders = orderRepository.findAll();
-        double totalRevenue = orders.stream()
-                .map(Order::getFinalTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .doubleValue();
+        long lowStockCount = lowStockService.isReady() ? lowStockService.count()
+                : productVariantRepository.countByStockQuantityLessThan(10);
 
         // --- Chart Data ---
         // 1. Revenue Last 7 Days
-        java.util.Map<String, Double> revenueMap = new java.util.TreeMap<>();
-        java.time.LocalDate today = java.time.LocalDate.now();
+        Map<String, Double> revenueMap = new TreeMap<>();
+        LocalDate today = LocalDate.now();
         // Initialize last 7 days with 0
         for (int i = 6; i >= 0; i--) {
             revenueMap.put(today.minusDays(i).toString(), 0.0);
         }
+        LocalDateTime from = today.minusDays(6).atStartOfDay();
+
+        // 2. Order Status Counts
+        Map<String, Long> statusMap = new TreeMap<>();
+        long totalOrders = 0;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
 
-        for (Order order : orders) {
-            if (order.getCreatedAt() != null) {
-                String dateStr = order.getCreatedAt().toLocalDate().toString();
-                if (revenueMap.containsKey(dateStr)) {
-                    double current = revenueMap.get(dateStr);
-                    revenueMap.put(dateStr, current + order.getFinalTotal().doubleValue());
+        if (dashboardRollupService.isReady()) {
+            for (OrderStatusTotal total : orderStatusTotalRepository.findAll()) {
+                if (total.getOrderCount() != 0) {
+                    statusMap.put(total.getStatus(), total.getOrderCount());
                 }
+                totalOrders += total.getOrderCount();
+                totalRevenue = totalRevenue.add(total.getRevenue());
+            }
+            for (Object[] row : orderRollupRepository.sumRevenueByHourSince(from)) {
+                addRevenue(revenueMap, (LocalDateTime) row[0], (BigDecimal) row[1]);
+            }
+        } else {
+            // Rollups not built yet: aggregate in the database rather than loading every order
+            for (Object[] row : orderRepository.countAndSumByStatus()) {
+                String status = row[0] == null ? DashboardRollupService.UNKNOWN : (String) row[0];
+                long count = ((Number) row[1]).longValue();
+                statusMap.merge(status, count, Long::sum);
+                totalOrders += count;
+                totalRevenue = totalRevenue.add((BigDecimal) row[2]);
+            }
+            for (Object[] row : orderRepository.findCreatedAtAndFinalTotalSince(from)) {
+                addRevenue(revenueMap, (LocalDateTime) row[0], (BigDecimal) row[1]);
             }
         }
 
-        // 2. Order Status Counts
-        java.util.Map<String, Long> statusMap = orders.stream()
-                .collect(java.util.stream.Collectors.groupingBy(
-                        o -> o.getStatus() == null ? "UNKNOWN" : o.getStatus(),
-                        java.util.stream.Collectors.counting()));
-
         return DashboardDTO.builder()
                 .totalOrders(totalOrders)
                 .totalProducts(totalProducts)
                 .totalUsers(totalUsers)
-                .totalRevenue(totalRevenue)
+                .totalRevenue(totalRevenue.doubleValue())
+                .lowStockCount(lowStockCount)
                 .revenueLast7Days(revenueMap)
                 .orderStatusCounts(statusMap)
                 .build();
     }
+
+    private static void addRevenue(Map<String, Double> revenueMap, LocalDateTime at, BigDecimal amount) {
+        if (at == null || amount == null) {
+            return;
+        }
+        revenueMap.computeIfPresent(at.toLocalDate().toString(), (day, current) -> current + amount.doubleValue());
+    }
 }
@@ -3,6 +3,9 @@ package com.example.be.service;
 import com.example.be.entity.Discount;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,4 +21,6 @@ public interface DiscountService {
     void deleteDiscount(Long id);
 
     Page<Discount> searchDiscounts(String keyword, Long productId, Boolean active, Pageable pageable);
+
+    Window<Discount> scrollDiscounts(ScrollPosition position, Sort sort, int limit);
 }
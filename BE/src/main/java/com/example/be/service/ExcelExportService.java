@@ -1,103 +1,131 @@
 package com.example.be.service;
 
-import com.example.be.entity.Order;
-import com.example.be.entity.Product;
-import com.example.be.entity.User;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import javax.sql.DataSource;
+import java.math.BigDecimal;
 import java.io.IOException;
-import java.util.List;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 
+/**
+ * Excel exports that use constant memory regardless of row count.
+ *
+ * Rows are read with a forward-only streaming JDBC result set (fetch size
+ * Integer.MIN_VALUE makes MySQL Connector/J stream row by row instead of buffering
+ * the whole result) and written through an SXSSF workbook that keeps only the last
+ * {@code app.export.row-window} rows in heap and flushes the rest to a compressed
+ * temp file. The workbook is written straight to the caller's output stream.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class ExcelExportService {
+    private static final int MAX_CELL_LENGTH = SpreadsheetVersion.EXCEL2007.getMaxTextLength();
 
-    public ByteArrayInputStream exportProducts(List<Product> products) throws IOException {
-        String[] columns = {"ID", "Name", "Description", "Category", "Brand", "Active"};
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet("Products");
-
-            // Header
-            Row headerRow = sheet.createRow(0);
-            for (int i = 0; i < columns.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns[i]);
-            }
+    private static final String PRODUCTS_SQL = "SELECT p.id, p.name, p.description, c.name, b.name, p.active " +
+            "FROM products p LEFT JOIN categories c ON c.id = p.category_id " +
+            "LEFT JOIN brands b ON b.id = p.brand_id ORDER BY p.id";
+    private static final String ORDERS_SQL = "SELECT o.id, u.full_name, o.final_total, o.status, o.payment_method, " +
+            "o.created_at FROM orders o LEFT JOIN users u ON u.id = o.user_id ORDER BY o.id";
+    private static final String USERS_SQL = "SELECT id, username, email, full_name, phone_number, role, reward_points " +
+            "FROM users ORDER BY id";
 
-            // Data
-            int rowIdx = 1;
-            for (Product product : products) {
-                Row row = sheet.createRow(rowIdx++);
-                row.createCell(0).setCellValue(product.getId());
-                row.createCell(1).setCellValue(product.getName());
-                row.createCell(2).setCellValue(product.getDescription());
-                row.createCell(3).setCellValue(product.getCategory() != null ? product.getCategory().getName() : "");
-                row.createCell(4).setCellValue(product.getBrand() != null ? product.getBrand().getName() : "");
-                row.createCell(5).setCellValue(product.getActive() ? "Yes" : "No");
-            }
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final int rowWindow;
 
-            workbook.write(out);
-            return new ByteArrayInputStream(out.toByteArray());
-        }
+    public ExcelExportService(DataSource dataSource,
+            @Value("${app.export.row-window:100}") int rowWindow) {
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.rowWindow = rowWindow;
     }
 
-    public ByteArrayInputStream exportOrders(List<Order> orders) throws IOException {
-        String[] columns = {"ID", "Customer", "Total", "Status", "Payment Method", "Created At"};
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet("Orders");
-
-            Row headerRow = sheet.createRow(0);
-            for (int i = 0; i < columns.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(columns[i]);
-            }
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs, Row row) throws SQLException;
+    }
 
-            int rowIdx = 1;
-            for (Order order : orders) {
-                Row row = sheet.createRow(rowIdx++);
-                row.createCell(0).setCellValue(order.getId());
-                row.createCell(1).setCellValue(order.getUser() != null ? order.getUser().getFullName() : "N/A");
-                row.createCell(2).setCellValue(order.getFinalTotal().doubleValue());
-                row.createCell(3).setCellValue(order.getStatus());
-                row.createCell(4).setCellValue(order.getPaymentMethod());
-                row.createCell(5).setCellValue(order.getCreatedAt() != null ? order.getCreatedAt().toString() : "");
-            }
+    public void exportProducts(OutputStream out) throws IOException {
+        String[] columns = {"ID", "Name", "Description", "Category", "Brand", "Active"};
+        export(out, "Products", columns, PRODUCTS_SQL, (rs, row) -> {
+            row.createCell(0).setCellValue(rs.getLong(1));
+            row.createCell(1).setCellValue(text(rs.getString(2)));
+            row.createCell(2).setCellValue(text(rs.getString(3)));
+            row.createCell(3).setCellValue(text(rs.getString(4)));
+            row.createCell(4).setCellValue(text(rs.getString(5)));
+            row.createCell(5).setCellValue(rs.getBoolean(6) ? "Yes" : "No");
+        });
+    }
 
-            workbook.write(out);
-            return new ByteArrayInputStream(out.toByteArray());
-        }
+    public void exportOrders(OutputStream out) throws IOException {
+        String[] columns = {"ID", "Customer", "Total", "Status", "Payment Method", "Created At"};
+        export(out, "Orders", columns, ORDERS_SQL, (rs, row) -> {
+            row.createCell(0).setCellValue(rs.getLong(1));
+            String customer = rs.getString(2);
+            row.createCell(1).setCellValue(customer != null ? text(customer) : "N/A");
+            BigDecimal total = rs.getBigDecimal(3);
+            row.createCell(2).setCellValue(total != null ? total.doubleValue() : 0);
+            row.createCell(3).setCellValue(text(rs.getString(4)));
+            row.createCell(4).setCellValue(text(rs.getString(5)));
+            Timestamp createdAt = rs.getTimestamp(6);
+            row.createCell(5).setCellValue(createdAt != null ? createdAt.toLocalDateTime().toString() : "");
+        });
     }
 
-    public ByteArrayInputStream exportUsers(List<User> users) throws IOException {
+    public void exportUsers(OutputStream out) throws IOException {
         String[] columns = {"ID", "Username", "Email", "Full Name", "Phone", "Role", "Points"};
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet("Users");
+        export(out, "Users", columns, USERS_SQL, (rs, row) -> {
+            row.createCell(0).setCellValue(rs.getLong(1));
+            row.createCell(1).setCellValue(text(rs.getString(2)));
+            row.createCell(2).setCellValue(text(rs.getString(3)));
+            row.createCell(3).setCellValue(text(rs.getString(4)));
+            row.createCell(4).setCellValue(text(rs.getString(5)));
+            row.createCell(5).setCellValue(text(rs.getString(6)));
+            row.createCell(6).setCellValue(rs.getInt(7));
+        });
+    }
 
+    private void export(OutputStream out, String sheetName, String[] columns, String sql, RowWriter writer)
+            throws IOException {
+        long started = System.currentTimeMillis();
+        SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+        workbook.setCompressTempFiles(true);
+        try {
+            Sheet sheet = workbook.createSheet(sheetName);
+
+            // Header
             Row headerRow = sheet.createRow(0);
             for (int i = 0; i < columns.length; i++) {
                 Cell cell = headerRow.createCell(i);
                 cell.setCellValue(columns[i]);
             }
 
-            int rowIdx = 1;
-            for (User user : users) {
-                Row row = sheet.createRow(rowIdx++);
-                row.createCell(0).setCellValue(user.getId());
-                row.createCell(1).setCellValue(user.getUsername());
-                row.createCell(2).setCellValue(user.getEmail());
-                row.createCell(3).setCellValue(user.getFullName());
-                row.createCell(4).setCellValue(user.getPhoneNumber());
-                row.createCell(5).setCellValue(user.getRole());
-                //row.createCell(6).setCellValue(user.getRewardPoints() != null ? user.getRewardPoints() : 0);
-            }
+            // Data, one row at a time straight from the result set
+            int[] rowIdx = {1};
+            streamingJdbcTemplate.query(sql, rs -> {
+                writer.write(rs, sheet.createRow(rowIdx[0]++));
+            });
 
             workbook.write(out);
-            return new ByteArrayInputStream(out.toByteArray());
+            log.info("Exported {} {} rows in {} ms", rowIdx[0] - 1, sheetName, System.currentTimeMillis() - started);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static String text(String value) {
+        if (value == null) {
+            return "";
         }
+        return value.length() > MAX_CELL_LENGTH ? value.substring(0, MAX_CELL_LENGTH) : value;
     }
 }
@@ -1,331 +1,413 @@
 package com.example.be.service;
 
 import com.example.be.entity.*;
-import com.example.be.repository.*;
-import lombok.RequiredArgsConstructor;
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.example.be.service.ImportReferenceResolver.Ref;
+import com.example.be.util.SheetRow;
+import com.example.be.util.XlsxStreamReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Optional;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.function.Function;
 
+/**
+ * Spreadsheet imports. Files are parsed with the streaming SAX reader and written
+ * in chunks of {@code app.import.batch-size} rows, each chunk as one JDBC batch in
+ * its own transaction, so memory stays flat for catalogs of any size. Rows go in
+ * through plain JDBC and never enter the persistence context.
+ *
+ * A bad row never aborts the file: rows with missing or malformed cells are
+ * rejected while mapping, and when a chunk's batch fails the chunk is retried row
+ * by row so only the offending rows are rejected. Rejections and running totals go
+ * to the caller's {@link ImportListener}. Runs as a background job, see ImportJobService.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class ExcelImportService {
 
-    private final BrandRepository brandRepository;
-    private final CategoryRepository categoryRepository;
-    private final ColorRepository colorRepository;
-    private final SizeRepository sizeRepository;
-    private final ProductRepository productRepository;
-    private final ProductVariantRepository productVariantRepository;
-    private final UserRepository userRepository;
-    private final CouponRepository couponRepository;
-    private final DiscountRepository discountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductCacheService productCacheService;
+    private final ProductSearchService productSearchService;
+    private final CatalogFacetService catalogFacetService;
+    private final LowStockService lowStockService;
+    private final int batchSize;
+    private final int queueCapacity;
 
-    // In a real app, you might inject data types for password encoding
-    // private final PasswordEncoder passwordEncoder;
+    public ExcelImportService(JdbcTemplate jdbcTemplate,
+            NamedParameterJdbcTemplate namedJdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ProductCacheService productCacheService,
+            ProductSearchService productSearchService,
+            CatalogFacetService catalogFacetService,
+            LowStockService lowStockService,
+            @Value("${app.import.batch-size:1000}") int batchSize,
+            @Value("${app.import.queue-capacity:5000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productCacheService = productCacheService;
+        this.productSearchService = productSearchService;
+        this.catalogFacetService = catalogFacetService;
+        this.lowStockService = lowStockService;
+        this.batchSize = Math.max(batchSize, 1);
+        this.queueCapacity = queueCapacity;
+    }
 
-    public void importBrands(MultipartFile file) throws IOException {
-        List<Brand> brands = new ArrayList<>();
-        try (InputStream is = file.getInputStream(); Workbook workbook = new XSSFWorkbook(is)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0)
-                    continue; // Skip header
-                Cell nameCell = row.getCell(0);
-                if (nameCell != null) {
-                    brands.add(Brand.builder().name(nameCell.getStringCellValue()).build());
-                }
-            }
-        }
-        brandRepository.saveAll(brands);
+    public long importBrands(Path file, ImportListener listener) throws IOException {
+        return importRows(file, "brands", listener,
+                row -> Brand.builder().name(required(row, 0, "Name")).build(),
+                brands -> batchInsert("INSERT INTO brands (name) VALUES (?)", brands,
+                        (ps, b) -> ps.setString(1, b.getName())));
     }
 
-    public void importCategories(MultipartFile file) throws IOException {
-        List<Category> categories = new ArrayList<>();
-        try (InputStream is = file.getInputStream(); Workbook workbook = new XSSFWorkbook(is)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0)
-                    continue;
-                Cell nameCell = row.getCell(0);
-                if (nameCell != null) {
-                    categories.add(Category.builder().name(nameCell.getStringCellValue()).build());
-                }
-            }
-        }
-        categoryRepository.saveAll(categories);
+    public long importCategories(Path file, ImportListener listener) throws IOException {
+        return importRows(file, "categories", listener,
+                row -> Category.builder().name(required(row, 0, "Name")).build(),
+                categories -> batchInsert("INSERT INTO categories (name) VALUES (?)", categories,
+                        (ps, c) -> ps.setString(1, c.getName())));
     }
 
-    public void importColors(MultipartFile file) throws IOException {
-        List<com.example.be.entity.Color> colors = new ArrayList<>();
-        try (InputStream is = file.getInputStream(); Workbook workbook = new XSSFWorkbook(is)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0)
-                    continue;
-                String name = getStringValue(row.getCell(0));
-                String hex = getStringValue(row.getCell(1));
-                if (name != null) {
-                    colors.add(com.example.be.entity.Color.builder().colorName(name).hexCode(hex).build());
-                }
-            }
-        }
-        colorRepository.saveAll(colors);
+    public long importColors(Path file, ImportListener listener) throws IOException {
+        return importRows(file, "colors", listener, row -> com.example.be.entity.Color.builder()
+                .colorName(required(row, 0, "Name"))
+                .hexCode(row.getString(1))
+                .build(), colors -> batchInsert("INSERT INTO colors (color_name, hex_code) VALUES (?, ?)", colors,
+                (ps, c) -> {
+                    ps.setString(1, c.getColorName());
+                    ps.setString(2, c.getHexCode());
+                }));
     }
 
-    public void importSizes(MultipartFile file) throws IOException {
-        List<Size> sizes = new ArrayList<>();
-        try (InputStream is = file.getInputStream(); Workbook workbook = new XSSFWorkbook(is)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0)
-                    continue;
-                String val = getStringValue(row.getCell(0));
-                if (val != null) {
-                    sizes.add(Size.builder().sizeValue(val).build());
-                }
-            }
-        }
-        sizeRepository.saveAll(sizes);
+    public long importSizes(Path file, ImportListener listener) throws IOException {
+        return importRows(file, "sizes", listener,
+                row -> Size.builder().sizeValue(required(row, 0, "Size")).build(),
+                sizes -> batchInsert("INSERT INTO sizes (size_value) VALUES (?)", sizes,
+                        (ps, s) -> ps.setString(1, s.getSizeValue())));
     }
 
-    public void importUsers(MultipartFile file) throws IOException {
-        List<User> users = new ArrayList<>();
-        try (InputStream is = file.getInputStream(); Workbook workbook = new XSSFWorkbook(is)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0)
-                    continue; // Skip header
-                // Username, Password, Email
-                String username = getStringValue(row.getCell(0));
-                String password = getStringValue(row.getCell(1));
-                String email = getStringValue(row.getCell(2));
+    public long importUsers(Path file, ImportListener listener) throws IOException {
+        // Username, Password, Email
+        return importRows(file, "users", listener, row -> User.builder()
+                .username(required(row, 0, "Username"))
+                .password(row.getString(1)) // Plain text for now, should encode in real app
+                .email(row.getString(2))
+                .build(), users -> batchInsert("INSERT INTO users (username, password, email, membership_tier, " +
+                "role, reward_points) VALUES (?, ?, ?, 'SILVER', 'USER', 0)", users, (ps, u) -> {
+            ps.setString(1, u.getUsername());
+            ps.setString(2, u.getPassword());
+            ps.setString(3, u.getEmail());
+        }));
+    }
 
-                if (username != null) {
-                    users.add(User.builder()
-                            .username(username)
-                            .password(password) // Plain text for now, should encode in real app
-                            .email(email)
-                            .build());
-                }
-            }
-        }
-        userRepository.saveAll(users);
+    public long importCoupons(Path file, ImportListener listener) throws IOException {
+        // Code, DiscountAmount, MinOrder, Expiry
+        return importRows(file, "coupons", listener, row -> Coupon.builder()
+                .code(required(row, 0, "Code"))
+                .discountAmount(decimal(row, 1, "Discount amount"))
+                .minOrderValue(integer(row, 2, "Min order value"))
+                .expiryDate(dateTime(row, 3, "Expiry date"))
+                .build(), coupons -> batchInsert("INSERT INTO coupons (code, discount_amount, min_order_value, " +
+                "expiry_date, discount_type, current_usage, is_active) " +
+                "VALUES (?, ?, ?, ?, 'FIXED_AMOUNT', 0, TRUE)", coupons, (ps, c) -> {
+            ps.setString(1, c.getCode());
+            ps.setObject(2, c.getDiscountAmount());
+            ps.setObject(3, c.getMinOrderValue());
+            ps.setObject(4, c.getExpiryDate());
+        }));
     }
 
-    public void importCoupons(MultipartFile file) throws IOException {
-        List<Coupon> coupons = new ArrayList<>();
-        try (InputStream is = file.getInputStream(); Workbook workbook = new XSSFWorkbook(is)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0)
-                    continue;
-                // Code, DiscountAmount, MinOrder, Expiry
-                String code = getStringValue(row.getCell(0));
-                BigDecimal amount = getBigDecimalValue(row.getCell(1));
-                Integer minOrder = getIntegerValue(row.getCell(2));
-                LocalDateTime expiry = getDateValue(row.getCell(3));
+    public long importProducts(Path file, ImportListener listener) throws IOException {
+        // Name, Slug, Desc, Category (id or name), Brand (id or name), Active
+        long imported = importRows(file, "products", listener, (row, refs) -> {
+            refs.collect(Ref.CATEGORY, row.getString(3));
+            refs.collect(Ref.BRAND, row.getString(4));
+        }, (row, refs) -> {
+            String name = required(row, 0, "Name");
+            // Unknown categories / brands are left empty, as before
+            Long catId = refs.resolve(Ref.CATEGORY, row.getString(3));
+            Long brandId = refs.resolve(Ref.BRAND, row.getString(4));
+            Boolean active = row.getBoolean(5);
+            return Product.builder()
+                    .name(name)
+                    .slug(row.getString(1))
+                    .description(row.getString(2))
+                    .category(catId != null ? Category.builder().id(catId).build() : null)
+                    .brand(brandId != null ? Brand.builder().id(brandId).build() : null)
+                    .active(active != null ? active : true)
+                    .build();
+        }, products -> batchInsert("INSERT INTO products (name, slug, description, category_id, brand_id, active) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", products, (ps, p) -> {
+            ps.setString(1, p.getName());
+            ps.setString(2, p.getSlug());
+            ps.setString(3, p.getDescription());
+            ps.setObject(4, p.getCategory() != null ? p.getCategory().getId() : null);
+            ps.setObject(5, p.getBrand() != null ? p.getBrand().getId() : null);
+            ps.setBoolean(6, p.getActive());
+        }));
+        productCacheService.evictAll();
+        productSearchService.rebuildAsync();
+        catalogFacetService.reloadAsync();
+        return imported;
+    }
 
-                if (code != null) {
-                    coupons.add(Coupon.builder()
-                            .code(code)
-                            .discountAmount(amount)
-                            .minOrderValue(minOrder)
-                            .expiryDate(expiry)
-                            .build());
-                }
+    public long importProductVariants(Path file, ImportListener listener) throws IOException {
+        // Product (id, slug or sibling SKU), Size (id or value), Color (id or name), Price, Stock, SKU
+        long imported = importRows(file, "product variants", listener, (row, refs) -> {
+            refs.collect(Ref.PRODUCT, row.getString(0));
+            refs.collect(Ref.SIZE, row.getString(1));
+            refs.collect(Ref.COLOR, row.getString(2));
+        }, (row, refs) -> {
+            Long prodId = refs.resolve(Ref.PRODUCT, required(row, 0, "Product"));
+            if (prodId == null) {
+                throw new RowRejectedException("Unknown product: " + row.getString(0));
             }
-        }
-        couponRepository.saveAll(coupons);
+            Integer stock = integer(row, 4, "Stock");
+            if (stock == null) {
+                throw new RowRejectedException("Stock is required");
+            }
+            // Unknown sizes / colors are left empty
+            Long sizeId = refs.resolve(Ref.SIZE, row.getString(1));
+            Long colorId = refs.resolve(Ref.COLOR, row.getString(2));
+            return ProductVariant.builder()
+                    .product(Product.builder().id(prodId).build())
+                    .size(sizeId != null ? Size.builder().id(sizeId).build() : null)
+                    .color(colorId != null ? com.example.be.entity.Color.builder().id(colorId).build() : null)
+                    .price(decimal(row, 3, "Price"))
+                    .stockQuantity(stock)
+                    .sku(row.getString(5))
+                    .build();
+        }, variants -> {
+            lowStockService.stockChanged(insertVariants(variants));
+            return variants.size();
+        });
+        productCacheService.evictAll();
+        productSearchService.rebuildAsync();
+        catalogFacetService.reloadAsync();
+        return imported;
     }
 
-    public void importProducts(MultipartFile file) throws IOException {
-        List<Product> products = new ArrayList<>();
-        try (InputStream is = file.getInputStream(); Workbook workbook = new XSSFWorkbook(is)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0)
-                    continue;
-                // Name, Slug, Desc, CategoryID, BrandID, Active
-                String name = getStringValue(row.getCell(0));
-                String slug = getStringValue(row.getCell(1));
-                String desc = getStringValue(row.getCell(2));
-                Long catId = getLongValue(row.getCell(3));
-                Long brandId = getLongValue(row.getCell(4));
-                Boolean active = getBooleanValue(row.getCell(5));
+    public long importDiscounts(Path file, ImportListener listener) throws IOException {
+        // Product (id, slug or SKU), Percent, Start, End, Active
+        long imported = importRows(file, "discounts", listener,
+                (row, refs) -> refs.collect(Ref.PRODUCT, row.getString(0)),
+                (row, refs) -> {
+                    Long prodId = refs.resolve(Ref.PRODUCT, required(row, 0, "Product"));
+                    if (prodId == null) {
+                        throw new RowRejectedException("Unknown product: " + row.getString(0));
+                    }
+                    return Discount.builder()
+                            .product(Product.builder().id(prodId).build())
+                            .discountPercent(decimal(row, 1, "Percent"))
+                            .startDate(dateTime(row, 2, "Start date"))
+                            .endDate(dateTime(row, 3, "End date"))
+                            .active(row.getBoolean(4))
+                            .build();
+                }, discounts -> batchInsert("INSERT INTO discounts (product_id, discount_percent, start_date, " +
+                        "end_date, active) VALUES (?, ?, ?, ?, ?)", discounts, (ps, d) -> {
+                    ps.setLong(1, d.getProduct().getId());
+                    ps.setObject(2, d.getDiscountPercent());
+                    ps.setObject(3, d.getStartDate());
+                    ps.setObject(4, d.getEndDate());
+                    ps.setObject(5, d.getActive());
+                }));
+        productCacheService.evictAll();
+        return imported;
+    }
 
-                if (name != null) {
-                    Category cat = catId != null ? categoryRepository.findById(catId).orElse(null) : null;
-                    Brand brand = brandId != null ? brandRepository.findById(brandId).orElse(null) : null;
+    private <T> long importRows(Path file, String what, ImportListener listener, Function<SheetRow, T> mapper,
+            ChunkWriter<T> writer) throws IOException {
+        return importRows(file, what, listener, null, (row, refs) -> mapper.apply(row), writer);
+    }
 
-                    products.add(Product.builder()
-                            .name(name)
-                            .slug(slug)
-                            .description(desc)
-                            .category(cat)
-                            .brand(brand)
-                            .active(active != null ? active : true)
-                            .build());
+    /**
+     * Stream the file through the SAX reader and persist every chunk in its own
+     * transaction: collect the chunk's references, bulk-resolve them, map each row
+     * and write. Returns the rows written.
+     */
+    private <T> long importRows(Path file, String what, ImportListener listener, ReferenceCollector collector,
+            RowMapper<T> mapper, ChunkWriter<T> writer) throws IOException {
+        long started = System.currentTimeMillis();
+        long[] totals = new long[3]; // read, written, rejected
+        ImportReferenceResolver refs = new ImportReferenceResolver(namedJdbcTemplate);
+        try {
+            XlsxStreamReader.read(file, queueCapacity, batchSize, chunk -> {
+                totals[0] += chunk.size();
+                if (collector != null) {
+                    chunk.forEach(row -> collector.collect(row, refs));
+                    refs.load();
                 }
-            }
+                List<T> items = new ArrayList<>(chunk.size());
+                List<SheetRow> sources = new ArrayList<>(chunk.size());
+                for (SheetRow row : chunk) {
+                    try {
+                        T item = mapper.map(row, refs);
+                        if (item != null) {
+                            items.add(item);
+                            sources.add(row);
+                        }
+                    } catch (RowRejectedException e) {
+                        totals[2]++;
+                        listener.rejected(row.rowNum(), row.cells(), e.getMessage());
+                    }
+                }
+                if (!items.isEmpty()) {
+                    totals[1] += write(items, sources, writer, listener, totals);
+                }
+                listener.progress(totals[0], totals[1], totals[2]);
+            });
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Import failed after " + totals[1] + " " + what + ": " + e.getMessage(), e);
         }
-        productRepository.saveAll(products);
+        log.info("Imported {} {} ({} rejected) in {} ms", totals[1], what, totals[2],
+                System.currentTimeMillis() - started);
+        return totals[1];
     }
 
-    public void importProductVariants(MultipartFile file) throws IOException {
-        List<ProductVariant> variants = new ArrayList<>();
-        try (InputStream is = file.getInputStream(); Workbook workbook = new XSSFWorkbook(is)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0)
-                    continue;
-                // ProductID, SizeID, ColorID, Price, Stock, SKU
-                Long prodId = getLongValue(row.getCell(0));
-                Long sizeId = getLongValue(row.getCell(1));
-                Long colorId = getLongValue(row.getCell(2));
-                BigDecimal price = getBigDecimalValue(row.getCell(3));
-                Integer stock = getIntegerValue(row.getCell(4));
-                String sku = getStringValue(row.getCell(5));
+    // Whole chunk in one batch; if that fails, retry row by row to isolate the bad rows
+    private <T> int write(List<T> items, List<SheetRow> sources, ChunkWriter<T> writer, ImportListener listener,
+            long[] totals) {
+        try {
+            Integer count = transactionTemplate.execute(status -> writer.write(items));
+            return count != null ? count : 0;
+        } catch (RuntimeException batchFailure) {
+            log.debug("Import batch failed, retrying {} rows one by one: {}", items.size(), batchFailure.getMessage());
+        }
+        int written = 0;
+        for (int i = 0; i < items.size(); i++) {
+            List<T> single = List.of(items.get(i));
+            try {
+                Integer count = transactionTemplate.execute(status -> writer.write(single));
+                written += count != null ? count : 0;
+            } catch (RuntimeException e) {
+                totals[2]++;
+                SheetRow row = sources.get(i);
+                listener.rejected(row.rowNum(), row.cells(), rootMessage(e));
+            }
+        }
+        return written;
+    }
 
-                if (prodId != null && stock != null) {
-                    Product p = productRepository.findById(prodId).orElse(null);
-                    Size s = sizeId != null ? sizeRepository.findById(sizeId).orElse(null) : null;
-                    com.example.be.entity.Color c = colorId != null ? colorRepository.findById(colorId).orElse(null)
-                            : null;
+    static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+    }
 
-                    if (p != null) {
-                        variants.add(ProductVariant.builder()
-                                .product(p)
-                                .size(s)
-                                .color(c)
-                                .price(price)
-                                .stockQuantity(stock)
-                                .sku(sku)
-                                .build());
-                    }
-                }
-            }
+    static String required(SheetRow row, int col, String label) {
+        String value = row.getString(col);
+        if (value == null || value.isBlank()) {
+            throw new RowRejectedException(label + " is required");
         }
-        productVariantRepository.saveAll(variants);
+        return value;
     }
 
-    public void importDiscounts(MultipartFile file) throws IOException {
-        List<Discount> discounts = new ArrayList<>();
-        try (InputStream is = file.getInputStream(); Workbook workbook = new XSSFWorkbook(is)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                if (row.getRowNum() == 0)
-                    continue;
-                // ProductID, Percent, Start, End, Active
-                Long prodId = getLongValue(row.getCell(0));
-                BigDecimal percent = getBigDecimalValue(row.getCell(1));
-                LocalDateTime start = getDateValue(row.getCell(2));
-                LocalDateTime end = getDateValue(row.getCell(3));
-                Boolean active = getBooleanValue(row.getCell(4));
+    // A blank cell is null; a cell with something unparseable in it rejects the row
 
-                if (prodId != null) {
-                    Product p = productRepository.findById(prodId).orElse(null);
-                    if (p != null) {
-                        discounts.add(Discount.builder()
-                                .product(p)
-                                .discountPercent(percent)
-                                .startDate(start)
-                                .endDate(end)
-                                .active(active)
-                                .build());
-                    }
-                }
-            }
+    static BigDecimal decimal(SheetRow row, int col, String label) {
+        BigDecimal value = row.getBigDecimal(col);
+        if (value == null && row.getString(col) != null) {
+            throw new RowRejectedException(label + " is not a number: " + row.getString(col));
         }
-        discountRepository.saveAll(discounts);
+        return value;
     }
 
-    // Helper methods
-    private String getStringValue(Cell cell) {
-        if (cell == null)
-            return null;
-        CellType type = cell.getCellType();
-        if (type == CellType.STRING)
-            return cell.getStringCellValue();
-        if (type == CellType.NUMERIC)
-            return String.valueOf((long) cell.getNumericCellValue());
-        return null;
+    static Integer integer(SheetRow row, int col, String label) {
+        BigDecimal value = decimal(row, col, label);
+        return value != null ? value.intValue() : null;
     }
 
-    private Long getLongValue(Cell cell) {
-        if (cell == null)
-            return null;
-        if (cell.getCellType() == CellType.NUMERIC)
-            return (long) cell.getNumericCellValue();
-        if (cell.getCellType() == CellType.STRING) {
-            try {
-                return Long.parseLong(cell.getStringCellValue());
-            } catch (NumberFormatException e) {
-                return null;
-            }
+    static LocalDateTime dateTime(SheetRow row, int col, String label) {
+        LocalDateTime value = row.getDateTime(col);
+        if (value == null && row.getString(col) != null) {
+            throw new RowRejectedException(label + " is not a date: " + row.getString(col));
         }
-        return null;
+        return value;
     }
 
-    private Integer getIntegerValue(Cell cell) {
-        if (cell == null)
-            return null;
-        if (cell.getCellType() == CellType.NUMERIC)
-            return (int) cell.getNumericCellValue();
-        if (cell.getCellType() == CellType.STRING) {
-            try {
-                return Integer.parseInt(cell.getStringCellValue());
-            } catch (NumberFormatException e) {
-                return null;
-            }
+    /** Thrown while mapping a row to reject it with a reason; the import goes on. */
+    static class RowRejectedException extends RuntimeException {
+        RowRejectedException(String message) {
+            super(message);
         }
-        return null;
     }
 
-    private BigDecimal getBigDecimalValue(Cell cell) {
-        if (cell == null)
-            return null;
-        if (cell.getCellType() == CellType.NUMERIC)
-            return BigDecimal.valueOf(cell.getNumericCellValue());
-        if (cell.getCellType() == CellType.STRING) {
-            try {
-                return new BigDecimal(cell.getStringCellValue());
-            } catch (Exception e) {
-                return null;
-            }
-        }
-        return null;
+    @FunctionalInterface
+    private interface ReferenceCollector {
+        void collect(SheetRow row, ImportReferenceResolver refs);
+    }
+
+    @FunctionalInterface
+    private interface RowMapper<T> {
+        T map(SheetRow row, ImportReferenceResolver refs);
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        int write(List<T> items);
     }
 
-    private Boolean getBooleanValue(Cell cell) {
-        if (cell == null)
-            return null;
-        if (cell.getCellType() == CellType.BOOLEAN)
-            return cell.getBooleanCellValue();
-        if (cell.getCellType() == CellType.STRING)
-            return Boolean.parseBoolean(cell.getStringCellValue());
-        return null;
+    private <T> int batchInsert(String sql, List<T> items, ParameterizedPreparedStatementSetter<T> setter) {
+        if (!items.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, items, items.size(), setter);
+        }
+        return items.size();
     }
 
-    private LocalDateTime getDateValue(Cell cell) {
-        if (cell == null)
-            return null;
-        if (cell.getCellType() == CellType.NUMERIC && DateUtil.isCellDateFormatted(cell)) {
-            return cell.getDateCellValue().toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
+    private List<Long> insertVariants(List<ProductVariant> variants) {
+        if (variants.isEmpty()) {
+            return List.of();
+        }
+        // Generated ids feed the low-stock watcher
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(
+                "INSERT INTO product_variants (product_id, size_id, color_id, price, stock_quantity, sku) " +
+                        "VALUES (?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ProductVariant v = variants.get(i);
+                        ps.setLong(1, v.getProduct().getId());
+                        ps.setObject(2, v.getSize() != null ? v.getSize().getId() : null);
+                        ps.setObject(3, v.getColor() != null ? v.getColor().getId() : null);
+                        ps.setObject(4, v.getPrice());
+                        ps.setInt(5, v.getStockQuantity());
+                        ps.setString(6, v.getSku());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return variants.size();
+                    }
+                }, keys);
+        List<Long> ids = new ArrayList<>(variants.size());
+        for (Map<String, Object> key : keys.getKeyList()) {
+            Object id = key.values().stream().findFirst().orElse(null);
+            if (id instanceof Number number) {
+                ids.add(number.longValue());
+            }
         }
-        // Handle string dates if needed, e.g. ISO 8601
-        return null;
+        return ids;
     }
 }
@@ -0,0 +1,378 @@
+package com.example.be.service;
+
+import com.example.be.dto.FlashSaleDTO;
+import com.example.be.dto.FlashSalePurchaseResultDTO;
+import com.example.be.entity.FlashSale;
+import com.example.be.entity.FlashSalePurchase;
+import com.example.be.entity.Product;
+import com.example.be.entity.ProductImage;
+import com.example.be.entity.User;
+import com.example.be.exception.BadRequestException;
+import com.example.be.exception.ResourceNotFoundException;
+import com.example.be.repository.FlashSalePurchaseRepository;
+import com.example.be.repository.FlashSaleRepository;
+import com.example.be.repository.ProductImageRepository;
+import com.example.be.repository.ProductRepository;
+import com.example.be.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Flash sale purchase path. Remaining quantity for every live sale is held in an
+ * in-memory counter, so admitting or rejecting a buyer is a single CAS with no
+ * database round-trip. Admitted purchases are journaled to flash_sale_purchases
+ * and sold counts are written back on a short fixed delay (write-behind). On
+ * startup the counters are rebuilt from max(sold_quantity, journaled quantity).
+ */
+@Slf4j
+@Service
+public class FlashSaleService {
+
+    private final FlashSaleRepository flashSaleRepository;
+    private final FlashSalePurchaseRepository flashSalePurchaseRepository;
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+    private final UserRepository userRepository;
+
+    private final Map<Long, SaleCounter> counters = new ConcurrentHashMap<>();
+    private final Map<String, User> buyers;
+    private final Queue<FlashSalePurchase> pendingPurchases = new ConcurrentLinkedQueue<>();
+
+    public FlashSaleService(FlashSaleRepository flashSaleRepository,
+                            FlashSalePurchaseRepository flashSalePurchaseRepository,
+                            ProductRepository productRepository,
+                            ProductImageRepository productImageRepository,
+                            UserRepository userRepository,
+                            @Value("${app.flash-sale.user-cache-size:100000}") int userCacheSize) {
+        this.flashSaleRepository = flashSaleRepository;
+        this.flashSalePurchaseRepository = flashSalePurchaseRepository;
+        this.productRepository = productRepository;
+        this.productImageRepository = productImageRepository;
+        this.userRepository = userRepository;
+        // Buyers of a sale repeat within minutes; the LRU keeps them without growing with the user base
+        this.buyers = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, User> eldest) {
+                return size() > userCacheSize;
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        Map<Long, Integer> journaled = new HashMap<>();
+        for (Object[] row : flashSalePurchaseRepository.sumQuantityByFlashSale()) {
+            journaled.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<FlashSale> live = new ArrayList<>(flashSaleRepository.findActiveFlashSales(now));
+        live.addAll(flashSaleRepository.findUpcomingFlashSales(now));
+        for (FlashSale sale : live) {
+            int sold = Math.max(soldOf(sale), journaled.getOrDefault(sale.getId(), 0));
+            if (sold > soldOf(sale)) {
+                // The process stopped after journaling purchases but before the count was written back
+                flashSaleRepository.advanceSoldQuantity(sale.getId(), sold);
+            }
+            counters.put(sale.getId(), new SaleCounter(sale, sold, flashSaleRepository.getReferenceById(sale.getId())));
+        }
+        log.info("Flash sale counters reconciled for {} sales", counters.size());
+    }
+
+    public FlashSalePurchaseResultDTO purchase(Long flashSaleId, String username, int quantity) {
+        if (quantity <= 0) {
+            throw new BadRequestException("Quantity must be positive");
+        }
+        // Resolve the buyer before admitting, so an admitted purchase always has a valid user.
+        // The lookup runs outside the map lock; two racing misses just load the same user.
+        User buyer = buyers.get(username);
+        if (buyer == null) {
+            Long userId = userRepository.findByUsername(username)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with username: " + username))
+                    .getId();
+            buyer = userRepository.getReferenceById(userId);
+            buyers.put(username, buyer);
+        }
+        SaleCounter counter = counterFor(flashSaleId);
+        if (counter == null) {
+            return new FlashSalePurchaseResultDTO(flashSaleId, "NOT_FOUND", quantity, null, 0);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isBefore(counter.startTime)) {
+            return counter.result("NOT_STARTED", quantity);
+        }
+        if (!now.isBefore(counter.endTime)) {
+            return counter.result("ENDED", quantity);
+        }
+        if (!counter.tryAcquire(quantity)) {
+            return counter.result("SOLD_OUT", quantity);
+        }
+
+        // Cached references: getReferenceById runs in a repository transaction, too slow per attempt
+        pendingPurchases.add(FlashSalePurchase.builder()
+                .flashSale(counter.reference)
+                .user(buyer)
+                .quantity(quantity)
+                .unitPrice(counter.salePrice)
+                .purchasedAt(now)
+                .build());
+        return counter.result("ADMITTED", quantity);
+    }
+
+    /**
+     * Write-behind: journal admitted purchases and advance sold_quantity. A failed
+     * batch is re-queued and retried on the next tick. sold_quantity only ever
+     * advances to the journaled total, never to the in-memory count, so units that
+     * are admitted but not yet journaled (or later dropped) are never written back.
+     * Synchronized because the scheduler and shutdown() can call it at the same time.
+     */
+    @Scheduled(fixedDelayString = "${app.flash-sale.flush-ms:500}")
+    public synchronized void flush() {
+        List<FlashSalePurchase> batch = new ArrayList<>();
+        FlashSalePurchase purchase;
+        while ((purchase = pendingPurchases.poll()) != null) {
+            batch.add(purchase);
+        }
+        if (!batch.isEmpty()) {
+            try {
+                flashSalePurchaseRepository.saveAll(batch);
+                batch.forEach(this::journaled);
+            } catch (DataIntegrityViolationException e) {
+                saveIndividually(batch);
+            } catch (RuntimeException e) {
+                log.error("Failed to journal {} flash sale purchases, will retry", batch.size(), e);
+                batch.forEach(p -> p.setId(null));
+                pendingPurchases.addAll(batch);
+                return;
+            }
+        }
+
+        for (SaleCounter counter : counters.values()) {
+            int journaled = counter.journaled;
+            if (journaled > counter.persistedSold) {
+                flashSaleRepository.advanceSoldQuantity(counter.id, journaled);
+                counter.persistedSold = journaled;
+            }
+        }
+        // Ended sales have nothing left to admit; drop them once every admitted unit is
+        // journaled (or given back) and written to the row
+        LocalDateTime now = LocalDateTime.now();
+        counters.values().removeIf(c -> !now.isBefore(c.endTime)
+                && c.journaled == c.sold.get() && c.persistedSold == c.journaled);
+    }
+
+    private void saveIndividually(List<FlashSalePurchase> batch) {
+        for (FlashSalePurchase purchase : batch) {
+            // Ids handed out by the rolled-back batch insert would turn save() into a merge
+            purchase.setId(null);
+            try {
+                flashSalePurchaseRepository.save(purchase);
+                journaled(purchase);
+            } catch (DataIntegrityViolationException e) {
+                // e.g. the user was deleted after admission: give the units back to the sale
+                log.warn("Dropping flash sale purchase for user {}: {}", purchase.getUser().getId(), e.getMessage());
+                SaleCounter counter = counters.get(purchase.getFlashSale().getId());
+                if (counter != null) {
+                    counter.sold.addAndGet(-purchase.getQuantity());
+                }
+            }
+        }
+    }
+
+    private void journaled(FlashSalePurchase purchase) {
+        SaleCounter counter = counters.get(purchase.getFlashSale().getId());
+        if (counter != null) {
+            counter.journaled += purchase.getQuantity(); // only flush() writes it
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    @Transactional
+    public FlashSaleDTO createFlashSale(FlashSaleDTO dto) {
+        if (dto.getProductId() == null) {
+            throw new BadRequestException("Product is required");
+        }
+        if (dto.getTotalQuantity() == null || dto.getTotalQuantity() <= 0) {
+            throw new BadRequestException("Total quantity must be positive");
+        }
+        if (dto.getStartTime() == null || dto.getEndTime() == null || !dto.getEndTime().isAfter(dto.getStartTime())) {
+            throw new BadRequestException("End time must be after start time");
+        }
+        Product product = productRepository.findById(dto.getProductId())
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + dto.getProductId()));
+
+        FlashSale sale = flashSaleRepository.save(FlashSale.builder()
+                .product(product)
+                .salePrice(dto.getSalePrice())
+                .startTime(dto.getStartTime())
+                .endTime(dto.getEndTime())
+                .totalQuantity(dto.getTotalQuantity())
+                .build());
+        counters.put(sale.getId(), new SaleCounter(sale, 0, flashSaleRepository.getReferenceById(sale.getId())));
+        return toDTOs(List.of(sale)).get(0);
+    }
+
+    @Transactional
+    public void deactivate(Long id) {
+        FlashSale sale = flashSaleRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Flash sale not found with id: " + id));
+        sale.setIsActive(false);
+        flashSaleRepository.save(sale);
+        SaleCounter counter = counters.get(id);
+        if (counter != null) {
+            counter.endTime = LocalDateTime.now(); // stop admitting; flush() drops it once persisted
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public FlashSaleDTO getFlashSale(Long id) {
+        FlashSale sale = flashSaleRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Flash sale not found with id: " + id));
+        return toDTOs(List.of(sale)).get(0);
+    }
+
+    @Transactional(readOnly = true)
+    public List<FlashSaleDTO> getActiveFlashSales() {
+        return toDTOs(flashSaleRepository.findActiveFlashSales(LocalDateTime.now()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<FlashSaleDTO> getUpcomingFlashSales() {
+        return toDTOs(flashSaleRepository.findUpcomingFlashSales(LocalDateTime.now()));
+    }
+
+    private SaleCounter counterFor(Long flashSaleId) {
+        SaleCounter counter = counters.get(flashSaleId);
+        if (counter != null) {
+            return counter;
+        }
+        // Sale created outside this service (e.g. directly in the database) since startup
+        return flashSaleRepository.findById(flashSaleId)
+                .filter(sale -> Boolean.TRUE.equals(sale.getIsActive()))
+                .map(sale -> counters.computeIfAbsent(sale.getId(), k -> new SaleCounter(sale, soldOf(sale),
+                        flashSaleRepository.getReferenceById(sale.getId()))))
+                .orElse(null);
+    }
+
+    private List<FlashSaleDTO> toDTOs(List<FlashSale> sales) {
+        List<Long> productIds = sales.stream().map(s -> s.getProduct().getId()).distinct().collect(Collectors.toList());
+        Map<Long, String> imageByProduct = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            for (ProductImage image : productImageRepository.findByProductIdIn(productIds)) {
+                Long productId = image.getProduct().getId();
+                if (Boolean.TRUE.equals(image.getIsMain()) || !imageByProduct.containsKey(productId)) {
+                    imageByProduct.put(productId, image.getImageUrl());
+                }
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<FlashSaleDTO> result = new ArrayList<>(sales.size());
+        for (FlashSale sale : sales) {
+            FlashSaleDTO dto = new FlashSaleDTO();
+            dto.setId(sale.getId());
+            dto.setProductId(sale.getProduct().getId());
+            dto.setProductName(sale.getProduct().getName());
+            dto.setProductImage(imageByProduct.get(sale.getProduct().getId()));
+            dto.setOriginalPrice(sale.getProduct().getPrice());
+            dto.setSalePrice(sale.getSalePrice());
+            if (sale.getProduct().getPrice() != null && sale.getProduct().getPrice().signum() > 0
+                    && sale.getSalePrice() != null) {
+                dto.setDiscountPercent(BigDecimal.ONE
+                        .subtract(sale.getSalePrice().divide(sale.getProduct().getPrice(), 4, RoundingMode.HALF_UP))
+                        .multiply(BigDecimal.valueOf(100))
+                        .setScale(0, RoundingMode.HALF_UP)
+                        .intValue());
+            }
+            dto.setStartTime(sale.getStartTime());
+            dto.setEndTime(sale.getEndTime());
+            dto.setTotalQuantity(sale.getTotalQuantity());
+            // The in-memory counter is ahead of the row until the next flush
+            SaleCounter counter = counters.get(sale.getId());
+            int sold = counter != null ? Math.max(counter.sold.get(), soldOf(sale)) : soldOf(sale);
+            dto.setSoldQuantity(sold);
+            dto.setRemainingQuantity(Math.max(0, sale.getTotalQuantity() - sold));
+            dto.setIsActive(sale.getIsActive());
+            if (now.isBefore(sale.getStartTime())) {
+                dto.setStatus("UPCOMING");
+            } else if (now.isBefore(sale.getEndTime()) && Boolean.TRUE.equals(sale.getIsActive())) {
+                dto.setStatus("ONGOING");
+            } else {
+                dto.setStatus("ENDED");
+            }
+            result.add(dto);
+        }
+        return result;
+    }
+
+    private static int soldOf(FlashSale sale) {
+        return sale.getSoldQuantity() == null ? 0 : sale.getSoldQuantity();
+    }
+
+    private static final class SaleCounter {
+        private final Long id;
+        private final FlashSale reference;
+        private final int total;
+        private final BigDecimal salePrice;
+        private final LocalDateTime startTime;
+        private volatile LocalDateTime endTime;
+        private final AtomicInteger sold;
+        private volatile int journaled;
+        private volatile int persistedSold;
+
+        private SaleCounter(FlashSale sale, int sold, FlashSale reference) {
+            this.id = sale.getId();
+            this.reference = reference;
+            this.total = sale.getTotalQuantity();
+            this.salePrice = sale.getSalePrice();
+            this.startTime = sale.getStartTime();
+            this.endTime = sale.getEndTime();
+            this.sold = new AtomicInteger(sold);
+            this.journaled = sold;
+            this.persistedSold = sold;
+        }
+
+        private boolean tryAcquire(int quantity) {
+            while (true) {
+                int current = sold.get();
+                if (current + quantity > total) {
+                    return false;
+                }
+                if (sold.compareAndSet(current, current + quantity)) {
+                    return true;
+                }
+            }
+        }
+
+        private FlashSalePurchaseResultDTO result(String status, int quantity) {
+            return new FlashSalePurchaseResultDTO(id, status, quantity, salePrice, Math.max(0, total - sold.get()));
+        }
+    }
+}
@@ -31,6 +31,12 @@ public class GoodsReceiptService {
     @Autowired
     private DtoMapper dtoMapper;
 
+    @Autowired
+    private ProductCacheService productCacheService;
+
+    @Autowired
+    private LowStockService lowStockService;
+
     public List<GoodsReceiptDTO> getAllReceipts() {
         return goodsReceiptRepository.findAll().stream()
                 .map(dtoMapper::toGoodsReceiptDTO)
@@ -98,6 +104,10 @@ public class GoodsReceiptService {
             // Update Stock
             variant.setStockQuantity(variant.getStockQuantity() + detailDTO.getQuantity());
             productVariantRepository.save(variant);
+            lowStockService.stockChanged(List.of(variant.getId()));
+            if (variant.getProduct() != null) {
+                productCacheService.evict(variant.getProduct().getId());
+            }
 
             total += detail.getQuantity() * detail.getImportPrice().doubleValue(); // Assuming importPrice is BigDecimal
                                                                                    // now? Wait, in DTO it was Double or
@@ -0,0 +1,109 @@
+package com.example.be.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process store behind {@code @Idempotent}: completed responses with a TTL,
+ * plus a latch per key that is currently executing so duplicates can wait on it.
+ * Responses are kept in insertion order, which is also expiry order (one TTL for
+ * all), and the oldest are dropped once more than max-entries are held.
+ */
+@Service
+public class IdempotencyService {
+
+    private final Map<String, StoredResponse> responses;
+    private final Map<String, CountDownLatch> inFlight = new ConcurrentHashMap<>();
+
+    private final long ttlMillis;
+    private final long waitMillis;
+
+    public IdempotencyService(
+            @Value("${app.idempotency.ttl-seconds:86400}") long ttlSeconds,
+            @Value("${app.idempotency.wait-seconds:30}") long waitSeconds,
+            @Value("${app.idempotency.max-entries:100000}") int maxEntries) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.waitMillis = waitSeconds * 1000;
+        this.responses = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    public StoredResponse getResponse(String key) {
+        StoredResponse stored = responses.get(key);
+        if (stored != null && stored.isExpired()) {
+            responses.remove(key, stored);
+            return null;
+        }
+        return stored;
+    }
+
+    /**
+     * Try to become the executor for a key. Returns true if the caller owns the
+     * key and must call {@link #complete}; false if another request held it and
+     * has finished (or the wait timed out) - the caller should look up the
+     * stored response and try again.
+     */
+    public boolean tryAcquire(String key) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        CountDownLatch existing = inFlight.putIfAbsent(key, latch);
+        if (existing == null) {
+            return true;
+        }
+        if (!existing.await(waitMillis, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("A request with this Idempotency-Key is still in progress");
+        }
+        return false;
+    }
+
+    /**
+     * Release a key. A null response means the attempt failed with a server error
+     * and is not remembered, so the next retry executes again.
+     */
+    public void complete(String key, StoredResponse response) {
+        if (response != null) {
+            synchronized (responses) {
+                // Re-insert so the entry moves to the tail and the map stays in expiry order
+                responses.remove(key);
+                responses.put(key, response);
+            }
+        }
+        CountDownLatch latch = inFlight.remove(key);
+        if (latch != null) {
+            latch.countDown();
+        }
+    }
+
+    public StoredResponse newResponse(String requestHash, int status, String contentType, byte[] body) {
+        return new StoredResponse(requestHash, status, contentType, body, System.currentTimeMillis() + ttlMillis);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpired() {
+        synchronized (responses) {
+            Iterator<StoredResponse> it = responses.values().iterator();
+            while (it.hasNext() && it.next().isExpired()) {
+                it.remove();
+            }
+        }
+    }
+
+    /** requestHash is the SHA-256 of the request body, to spot a key reused for a different request. */
+    public record StoredResponse(String requestHash, int status, String contentType, byte[] body, long expiresAt) {
+        public boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package com.example.be.service;
+
+import com.example.be.dto.ImportDiffDTO;
+import com.example.be.dto.ImportJobDTO;
+import com.example.be.dto.NotificationDTO;
+import com.example.be.exception.BadRequestException;
+import com.example.be.exception.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs spreadsheet imports as background jobs. submit() spools the upload to a
+ * temp file and returns a job id at once; a small dedicated pool does the work.
+ *
+ * Progress (rows read / written / rejected) is pushed to /topic/import-jobs/{jobId}
+ * at most every {@link #PUSH_INTERVAL_MS} and can also be polled. Rejected rows are
+ * appended to a per-job CSV report that stays downloadable until the job expires.
+ *
+ * Products and variants can also be imported in "upsert" mode (match by slug / SKU,
+ * see CatalogUpsertService) or as a "dry-run" that only computes that diff.
+ *
+ * Imports run on low-priority threads, at most app.import.workers at a time and
+ * app.import.max-jobs-per-user per admin, and each job holds one pooled connection
+ * per chunk, so a large upload cannot take the connection pool away from API traffic.
+ */
+@Slf4j
+@Service
+public class ImportJobService {
+    public static final String TOPIC = "import-jobs";
+    private static final long PUSH_INTERVAL_MS = 500;
+    // Cells never copied into the error report, by import type (users: Password)
+    private static final Map<String, Set<Integer>> REDACTED_COLUMNS = Map.of("users", Set.of(1));
+
+    @FunctionalInterface
+    private interface Importer {
+        long run(Path file, ImportListener listener) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Upserter {
+        ImportDiffDTO run(Path file, ImportListener listener, boolean dryRun) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run(Job job) throws IOException;
+    }
+
+    private final NotificationService notificationService;
+    private final Map<String, Importer> importers = new LinkedHashMap<>();
+    private final Map<String, Upserter> upserters = new LinkedHashMap<>();
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> activeByUser = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final int maxJobsPerUser;
+    private final Duration jobTtl;
+
+    public ImportJobService(ExcelImportService excelImportService,
+            CatalogUpsertService catalogUpsertService,
+            NotificationService notificationService,
+            @Value("${app.import.workers:2}") int workers,
+            @Value("${app.import.max-queued-jobs:20}") int maxQueuedJobs,
+            @Value("${app.import.max-jobs-per-user:2}") int maxJobsPerUser,
+            @Value("${app.import.job-ttl-seconds:86400}") long jobTtlSeconds) {
+        this.notificationService = notificationService;
+        this.maxJobsPerUser = maxJobsPerUser;
+        this.jobTtl = Duration.ofSeconds(jobTtlSeconds);
+        importers.put("brands", excelImportService::importBrands);
+        importers.put("categories", excelImportService::importCategories);
+        importers.put("colors", excelImportService::importColors);
+        importers.put("sizes", excelImportService::importSizes);
+        importers.put("users", excelImportService::importUsers);
+        importers.put("products", excelImportService::importProducts);
+        importers.put("product-variants", excelImportService::importProductVariants);
+        importers.put("coupons", excelImportService::importCoupons);
+        importers.put("discounts", excelImportService::importDiscounts);
+        upserters.put("products", catalogUpsertService::upsertProducts);
+        upserters.put("product-variants", catalogUpsertService::upsertProductVariants);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxQueuedJobs)), r -> {
+                    Thread t = new Thread(r, "import-job-" + threadIndex.getAndIncrement());
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MIN_PRIORITY);
+                    return t;
+                });
+    }
+
+    /**
+     * Queue an import of the given type; mode is insert (default), upsert or
+     * dry-run. Returns null when the job queue is full so the caller can answer 503;
+     * throws when this admin already has too many jobs.
+     */
+    public ImportJobDTO submit(String type, String mode, MultipartFile file, String user) throws IOException {
+        Task task = task(type, mode);
+        if (file == null || file.isEmpty()) {
+            throw new BadRequestException("File is empty");
+        }
+        AtomicInteger active = activeByUser.computeIfAbsent(user, u -> new AtomicInteger());
+        if (active.incrementAndGet() > maxJobsPerUser) {
+            active.decrementAndGet();
+            throw new TooManyRequestsException("You already have " + maxJobsPerUser
+                    + " imports in progress, wait for one to finish");
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), type, mode, file.getOriginalFilename(), user);
+        try {
+            // The multipart temp file is gone once the request ends, so keep our own copy
+            job.spool = Files.createTempFile("import-" + job.id + "-", ".xlsx");
+            try (InputStream is = file.getInputStream()) {
+                Files.copy(is, job.spool, StandardCopyOption.REPLACE_EXISTING);
+            }
+            jobs.put(job.id, job);
+            executor.execute(() -> run(job, task));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            deleteQuietly(job.spool);
+            release(job);
+            return null;
+        } catch (IOException | RuntimeException e) {
+            jobs.remove(job.id);
+            deleteQuietly(job.spool);
+            release(job);
+            throw e;
+        }
+        return job.toDTO();
+    }
+
+    private Task task(String type, String mode) {
+        switch (mode) {
+            case "insert" -> {
+                Importer importer = importers.get(type);
+                if (importer == null) {
+                    throw new BadRequestException("Unknown import type: " + type + ", expected one of "
+                            + importers.keySet());
+                }
+                return job -> importer.run(job.spool, job);
+            }
+            case "upsert", "dry-run" -> {
+                Upserter upserter = upserters.get(type);
+                if (upserter == null) {
+                    throw new BadRequestException("Mode " + mode + " is only supported for " + upserters.keySet());
+                }
+                boolean dryRun = "dry-run".equals(mode);
+                return job -> job.diff = upserter.run(job.spool, job, dryRun);
+            }
+            default -> throw new BadRequestException("Unknown import mode: " + mode
+                    + ", expected insert, upsert or dry-run");
+        }
+    }
+
+    /** The job, or null when it is unknown or was submitted by another user. */
+    public ImportJobDTO getJob(String jobId, String user) {
+        Job job = ownJob(jobId, user);
+        return job != null ? job.toDTO() : null;
+    }
+
+    public List<ImportJobDTO> getJobs(String user) {
+        return jobs.values().stream()
+                .filter(job -> job.user.equals(user))
+                .sorted(Comparator.comparing((Job job) -> job.createdAt).reversed())
+                .map(Job::toDTO)
+                .toList();
+    }
+
+    /** CSV of the rejected rows, or null when the job is unknown, not the user's or rejected nothing. */
+    public Path getErrorReport(String jobId, String user) {
+        Job job = ownJob(jobId, user);
+        if (job == null || job.errorReport == null || job.rejected == 0 || !job.isFinished()) {
+            return null;
+        }
+        return job.errorReport;
+    }
+
+    private Job ownJob(String jobId, String user) {
+        Job job = jobs.get(jobId);
+        return job != null && job.user.equals(user) ? job : null;
+    }
+
+    private void run(Job job, Task task) {
+        job.update("RUNNING", null);
+        push(job);
+        try {
+            task.run(job);
+            job.closeReport();
+            job.update("COMPLETED", summary(job));
+        } catch (Exception e) {
+            log.warn("Import job {} ({}) failed", job.id, job.type, e);
+            job.closeReport();
+            job.update("FAILED", e.getMessage());
+        } finally {
+            deleteQuietly(job.spool);
+            release(job);
+            push(job);
+        }
+    }
+
+    private static String summary(Job job) {
+        ImportDiffDTO diff = job.diff;
+        if (diff == null) {
+            return job.written + " rows imported, " + job.rejected + " rejected";
+        }
+        return (diff.isDryRun() ? "Dry run: " + diff.getInserted() + " to insert, " + diff.getUpdated() + " to update, "
+                : diff.getInserted() + " inserted, " + diff.getUpdated() + " updated, ")
+                + diff.getUnchanged() + " unchanged, " + job.rejected + " rejected";
+    }
+
+    private void release(Job job) {
+        AtomicInteger active = activeByUser.get(job.user);
+        if (active != null) {
+            active.decrementAndGet();
+        }
+    }
+
+    private void push(Job job) {
+        job.lastPush = System.currentTimeMillis();
+        ImportJobDTO status = job.toDTO();
+        try {
+            notificationService.sendToTopic(TOPIC + "/" + job.id, NotificationDTO.builder()
+                    .type("IMPORT_PROGRESS")
+                    .title("Import " + job.type)
+                    .message(status.getStatus() + ": " + status.getRowsRead() + " read, "
+                            + status.getRowsWritten() + " written, " + status.getRowsRejected() + " rejected")
+                    .data(status)
+                    .timestamp(LocalDateTime.now())
+                    .build());
+        } catch (RuntimeException e) {
+            log.warn("Could not push progress of import job {}", job.id, e);
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(jobTtl);
+        jobs.values().removeIf(job -> {
+            if (job.isFinished() && job.updatedAt.isBefore(cutoff)) {
+                deleteQuietly(job.errorReport);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        for (Job job : jobs.values()) {
+            deleteQuietly(job.spool);
+            deleteQuietly(job.errorReport);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", path, e);
+        }
+    }
+
+    /** Job state; counters are written by the worker thread and read by requests. */
+    private final class Job implements ImportListener {
+        private final String id;
+        private final String type;
+        private final String mode;
+        private final String fileName;
+        private final String user;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private volatile LocalDateTime updatedAt = createdAt;
+        private volatile String status = "QUEUED";
+        private volatile String message;
+        private volatile long read;
+        private volatile long written;
+        private volatile long rejected;
+        private volatile long lastPush;
+        private Path spool;
+        private volatile Path errorReport;
+        private BufferedWriter reportWriter;
+        private volatile ImportDiffDTO diff;
+
+        Job(String id, String type, String mode, String fileName, String user) {
+            this.id = id;
+            this.type = type;
+            this.mode = mode;
+            this.fileName = fileName;
+            this.user = user;
+        }
+
+        boolean isFinished() {
+            return "COMPLETED".equals(status) || "FAILED".equals(status);
+        }
+
+        void update(String status, String message) {
+            this.status = status;
+            this.message = message;
+            this.updatedAt = LocalDateTime.now();
+        }
+
+        @Override
+        public void progress(long rowsRead, long rowsWritten, long rowsRejected) {
+            read = rowsRead;
+            written = rowsWritten;
+            rejected = rowsRejected;
+            updatedAt = LocalDateTime.now();
+            if (System.currentTimeMillis() - lastPush >= PUSH_INTERVAL_MS) {
+                push(this);
+            }
+        }
+
+        @Override
+        public void rejected(int rowNum, String[] cells, String reason) {
+            try {
+                if (reportWriter == null) {
+                    errorReport = Files.createTempFile("import-" + id + "-errors-", ".csv");
+                    reportWriter = Files.newBufferedWriter(errorReport, StandardCharsets.UTF_8);
+                    reportWriter.write('\uFEFF'); // BOM so Excel opens it as UTF-8
+                    reportWriter.write("Row,Reason,Values");
+                    reportWriter.newLine();
+                }
+                Set<Integer> redacted = REDACTED_COLUMNS.getOrDefault(type, Set.of());
+                StringBuilder line = new StringBuilder();
+                line.append(rowNum + 1).append(',').append(csv(reason));
+                for (int i = 0; i < cells.length; i++) {
+                    line.append(',').append(redacted.contains(i) ? "" : csv(cells[i]));
+                }
+                reportWriter.write(line.toString());
+                reportWriter.newLine();
+            } catch (IOException e) {
+                log.warn("Could not write error report line for import job {}", id, e);
+            }
+        }
+
+        void closeReport() {
+            if (reportWriter != null) {
+                try {
+                    reportWriter.close();
+                } catch (IOException e) {
+                    log.warn("Could not close error report of import job {}", id, e);
+                }
+                reportWriter = null;
+            }
+        }
+
+        ImportJobDTO toDTO() {
+            return ImportJobDTO.builder()
+                    .jobId(id)
+                    .type(type)
+                    .mode(mode)
+                    .fileName(fileName)
+                    .status(status)
+                    .rowsRead(read)
+                    .rowsWritten(written)
+                    .rowsRejected(rejected)
+                    .message(message)
+                    .errorReportAvailable(isFinished() && errorReport != null && rejected > 0)
+                    .diff(diff)
+                    .submittedBy(user)
+                    .createdAt(createdAt)
+                    .updatedAt(updatedAt)
+                    .build();
+        }
+
+        private static String csv(String value) {
+            if (value == null) {
+                return "";
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                    || value.indexOf('\r') >= 0) {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.be.service;
+
+/**
+ * Receives progress from {@link ExcelImportService} while a file is imported.
+ */
+public interface ImportListener {
+
+    ImportListener NONE = new ImportListener() {
+        @Override
+        public void progress(long rowsRead, long rowsWritten, long rowsRejected) {
+        }
+
+        @Override
+        public void rejected(int rowNum, String[] cells, String reason) {
+        }
+    };
+
+    /** Called after every chunk with the running totals. */
+    void progress(long rowsRead, long rowsWritten, long rowsRejected);
+
+    /** A row that was not imported; rowNum is zero-based as in the sheet. */
+    void rejected(int rowNum, String[] cells, String reason);
+}
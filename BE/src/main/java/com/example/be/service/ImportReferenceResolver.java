@@ -0,0 +1,167 @@
+package com.example.be.service;
+
+import com.example.be.util.LongLongMap;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.*;
+
+/**
+ * Resolves the foreign-key cells of an import. Each chunk is scanned once to
+ * {@link #collect} every referenced value, {@link #load} then fetches the ones not
+ * seen yet with one IN query per table, and rows are resolved from memory.
+ * Results are kept for the whole import, so a brand used on 50k rows is looked up once.
+ *
+ * A cell may hold a numeric id or a natural key: category / brand name, size value,
+ * color name, and for products the slug or the SKU of one of its variants. A numeric
+ * cell is tried as an id first, then as a natural key. Natural keys match
+ * case-insensitively (the column collation) and the lowest id wins on duplicates.
+ */
+public class ImportReferenceResolver {
+
+    public enum Ref {
+        CATEGORY("categories", "name"),
+        BRAND("brands", "name"),
+        SIZE("sizes", "size_value"),
+        COLOR("colors", "color_name"),
+        PRODUCT("products", "slug");
+
+        private final String table;
+        private final String keyColumn;
+
+        Ref(String table, String keyColumn) {
+            this.table = table;
+            this.keyColumn = keyColumn;
+        }
+    }
+
+    private static final long MISSING = -1;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    // id -> id if it exists, MISSING if it was looked up and not found
+    private final Map<Ref, LongLongMap> ids = new EnumMap<>(Ref.class);
+    // normalized natural key -> id, or MISSING
+    private final Map<Ref, Map<String, Long>> keys = new EnumMap<>(Ref.class);
+    private final Map<Ref, Set<Long>> pendingIds = new EnumMap<>(Ref.class);
+    private final Map<Ref, Set<String>> pendingKeys = new EnumMap<>(Ref.class);
+
+    public ImportReferenceResolver(NamedParameterJdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+        for (Ref ref : Ref.values()) {
+            ids.put(ref, new LongLongMap());
+            keys.put(ref, new HashMap<>());
+            pendingIds.put(ref, new HashSet<>());
+            pendingKeys.put(ref, new HashSet<>());
+        }
+    }
+
+    /** Note a referenced cell value; nothing is queried until {@link #load}. */
+    public void collect(Ref ref, String raw) {
+        String value = trim(raw);
+        if (value == null) {
+            return;
+        }
+        Long id = parseId(value);
+        if (id != null && !ids.get(ref).containsKey(id)) {
+            pendingIds.get(ref).add(id);
+        }
+        String key = normalize(value);
+        if (!keys.get(ref).containsKey(key)) {
+            pendingKeys.get(ref).add(key);
+        }
+    }
+
+    /** Bulk-load everything collected since the last call. */
+    public void load() {
+        for (Ref ref : Ref.values()) {
+            loadIds(ref);
+            loadKeys(ref);
+        }
+    }
+
+    /** The referenced id, or null when the cell is empty or matches nothing. */
+    public Long resolve(Ref ref, String raw) {
+        String value = trim(raw);
+        if (value == null) {
+            return null;
+        }
+        Long id = parseId(value);
+        if (id != null) {
+            long found = ids.get(ref).get(id);
+            if (found > 0) {
+                return found;
+            }
+        }
+        Long byKey = keys.get(ref).get(normalize(value));
+        return byKey != null && byKey > 0 ? byKey : null;
+    }
+
+    private void loadIds(Ref ref) {
+        Set<Long> pending = pendingIds.get(ref);
+        if (pending.isEmpty()) {
+            return;
+        }
+        LongLongMap known = ids.get(ref);
+        List<Long> found = jdbc.queryForList("SELECT id FROM " + ref.table + " WHERE id IN (:ids)",
+                new MapSqlParameterSource("ids", pending), Long.class);
+        for (Long id : found) {
+            known.put(id, id);
+        }
+        for (Long id : pending) {
+            if (!known.containsKey(id)) {
+                known.put(id, MISSING);
+            }
+        }
+        pending.clear();
+    }
+
+    private void loadKeys(Ref ref) {
+        Set<String> pending = pendingKeys.get(ref);
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, Long> known = keys.get(ref);
+        MapSqlParameterSource params = new MapSqlParameterSource("keys", pending);
+        jdbc.query("SELECT id, " + ref.keyColumn + " FROM " + ref.table + " WHERE " + ref.keyColumn
+                + " IN (:keys) ORDER BY id", params, rs -> {
+            known.putIfAbsent(normalize(rs.getString(2)), rs.getLong(1));
+        });
+        if (ref == Ref.PRODUCT) {
+            // A product can also be referenced by the SKU of any of its variants
+            jdbc.query("SELECT product_id, sku FROM product_variants WHERE sku IN (:keys) " +
+                    "AND product_id IS NOT NULL ORDER BY id", params, rs -> {
+                known.putIfAbsent(normalize(rs.getString(2)), rs.getLong(1));
+            });
+        }
+        for (String key : pending) {
+            known.putIfAbsent(key, MISSING);
+        }
+        pending.clear();
+    }
+
+    private static String trim(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        String value = raw.trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Long parseId(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return null;
+            }
+        }
+        try {
+            long id = Long.parseLong(value);
+            return id > 0 ? id : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String normalize(String key) {
+        return key == null ? "" : key.trim().toLowerCase(Locale.ROOT);
+    }
+}
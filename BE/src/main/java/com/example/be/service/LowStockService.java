@@ -0,0 +1,213 @@
+package com.example.be.service;
+
+import com.example.be.dto.LowStockItemDTO;
+import com.example.be.dto.NotificationDTO;
+import com.example.be.repository.ProductVariantRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * In-memory index of variants whose stock is below their reorder threshold.
+ *
+ * Every code path that changes stock (order reservation, goods receipts, manual
+ * edits, imports) calls stockChanged() with the affected variant ids; after the
+ * transaction commits their current stock is re-read by id and the index is
+ * updated. Crossing below the threshold, or running out completely, is pushed to
+ * admins on /topic/low-stock. The list is kept sorted by urgency (stock as a
+ * fraction of the threshold), so paging never scans product_variants.
+ *
+ * Refreshes that arrive while the startup snapshot is loading are held back and
+ * re-read once it has been applied, so the older snapshot never overwrites them.
+ */
+@Slf4j
+@Service
+public class LowStockService {
+    public static final String TOPIC = "low-stock";
+
+    private static final Comparator<LowStockItemDTO> BY_URGENCY = Comparator
+            .comparingDouble((LowStockItemDTO item) -> (double) item.getStockQuantity() / Math.max(item.getThreshold(), 1))
+            .thenComparingInt(LowStockItemDTO::getStockQuantity)
+            .thenComparing(LowStockItemDTO::getVariantId);
+
+    private final ProductVariantRepository productVariantRepository;
+    private final NotificationService notificationService;
+    private final int defaultThreshold;
+
+    private final Map<Long, LowStockItemDTO> below = new ConcurrentHashMap<>();
+    private final NavigableSet<LowStockItemDTO> byUrgency = new ConcurrentSkipListSet<>(BY_URGENCY);
+    private final Set<Long> heldBack = new HashSet<>(); // guarded by this until loaded
+    private boolean loaded = false;
+    private volatile boolean ready = false;
+
+    public LowStockService(ProductVariantRepository productVariantRepository,
+            NotificationService notificationService,
+            @Value("${app.low-stock.default-threshold:10}") int defaultThreshold) {
+        this.productVariantRepository = productVariantRepository;
+        this.notificationService = notificationService;
+        this.defaultThreshold = defaultThreshold;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        CompletableFuture.runAsync(this::load);
+    }
+
+    void load() {
+        boolean succeeded = false;
+        try {
+            for (Object[] row : productVariantRepository.findStockLevelsBelowThreshold(defaultThreshold)) {
+                apply(row, false);
+            }
+            succeeded = true;
+        } catch (RuntimeException e) {
+            log.error("Low-stock index load failed; only variants changed from now on are tracked", e);
+        }
+        Set<Long> changedDuringLoad;
+        synchronized (this) {
+            loaded = true;
+            changedDuringLoad = new HashSet<>(heldBack);
+            heldBack.clear();
+        }
+        if (!changedDuringLoad.isEmpty()) {
+            refresh(changedDuringLoad);
+        }
+        if (succeeded) {
+            ready = true;
+            log.info("Low-stock index loaded with {} variants", below.size());
+        }
+    }
+
+    /**
+     * Re-check these variants once the current transaction commits (or now, if
+     * there is none). Deleted variants drop out of the index.
+     */
+    public void stockChanged(Collection<Long> variantIds) {
+        if (variantIds == null || variantIds.isEmpty()) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>(variantIds);
+        ids.remove(null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(ids);
+                }
+            });
+        } else {
+            refresh(ids);
+        }
+    }
+
+    private void refresh(Set<Long> ids) {
+        synchronized (this) {
+            if (!loaded) {
+                heldBack.addAll(ids);
+                return;
+            }
+        }
+        try {
+            Set<Long> missing = new HashSet<>(ids);
+            for (Object[] row : productVariantRepository.findStockLevelsByIdIn(ids)) {
+                missing.remove((Long) row[0]);
+                apply(row, true);
+            }
+            missing.forEach(this::remove);
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh low-stock state for variants {}: {}", ids, e.getMessage());
+        }
+    }
+
+    private synchronized void apply(Object[] row, boolean notify) {
+        Long variantId = (Long) row[0];
+        int stock = row[4] != null ? (Integer) row[4] : 0;
+        int threshold = row[5] != null ? (Integer) row[5] : defaultThreshold;
+        LowStockItemDTO previous = below.get(variantId);
+        if (stock >= threshold) {
+            remove(variantId);
+            return;
+        }
+        LowStockItemDTO item = LowStockItemDTO.builder()
+                .variantId(variantId)
+                .productId((Long) row[1])
+                .productName((String) row[2])
+                .sku((String) row[3])
+                .stockQuantity(stock)
+                .threshold(threshold)
+                .build();
+        if (previous != null) {
+            byUrgency.remove(previous);
+        }
+        below.put(variantId, item);
+        byUrgency.add(item);
+        if (notify && (previous == null || (previous.getStockQuantity() > 0 && stock <= 0))) {
+            alert(item);
+        }
+    }
+
+    private synchronized void remove(Long variantId) {
+        LowStockItemDTO previous = below.remove(variantId);
+        if (previous != null) {
+            byUrgency.remove(previous);
+        }
+    }
+
+    private void alert(LowStockItemDTO item) {
+        boolean outOfStock = item.getStockQuantity() <= 0;
+        String label = item.getSku() != null ? item.getSku() : "variant #" + item.getVariantId();
+        Map<String, Object> data = new HashMap<>();
+        data.put("variantId", item.getVariantId());
+        data.put("productId", item.getProductId());
+        data.put("stockQuantity", item.getStockQuantity());
+        data.put("threshold", item.getThreshold());
+        data.put("level", outOfStock ? "OUT_OF_STOCK" : "LOW_STOCK");
+        notificationService.sendToTopic(TOPIC, NotificationDTO.builder()
+                .type("STOCK_ALERT")
+                .title(outOfStock ? label + " is out of stock" : label + " is running low")
+                .message((item.getProductName() != null ? item.getProductName() + ": " : "")
+                        + item.getStockQuantity() + " left (threshold " + item.getThreshold() + ")")
+                .data(data)
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+
+    public long count() {
+        return below.size();
+    }
+
+    /**
+     * Most urgent first: out-of-stock variants, then by stock relative to threshold.
+     */
+    public Page<LowStockItemDTO> getLowStock(Pageable pageable) {
+        List<LowStockItemDTO> content = byUrgency.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+        return new PageImpl<>(content, pageable, below.size());
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.be.service;
 
+import com.example.be.entity.LoyaltyLog;
 import com.example.be.entity.LoyaltyProgram;
+import com.example.be.entity.OrderOutboxEvent;
 import com.example.be.entity.User;
+import com.example.be.repository.LoyaltyLogRepository;
 import com.example.be.repository.LoyaltyRepository;
+import com.example.be.repository.OrderRepository;
 import com.example.be.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -12,13 +16,15 @@ import java.math.BigDecimal;
 
 @Service
 @RequiredArgsConstructor
-public class LoyaltyService {
+public class LoyaltyService implements OrderEventSubscriber {
 
     private final LoyaltyRepository loyaltyRepository;
     private final UserRepository userRepository;
+    private final LoyaltyLogRepository loyaltyLogRepository;
+    private final OrderRepository orderRepository;
 
     @Transactional
-    public void addPoints(Long userId, BigDecimal orderTotal) {
+    public int addPoints(Long userId, BigDecimal orderTotal) {
         LoyaltyProgram lp = loyaltyRepository.findByUserId(userId)
                 .orElseGet(() -> {
                     User user = userRepository.findById(userId).orElseThrow();
@@ -36,6 +42,7 @@ public class LoyaltyService {
         updateTier(lp);
 
         loyaltyRepository.save(lp);
+        return earnedPoints;
     }
 
     public void redeemPoints(User user, Integer points, com.example.be.entity.Order order) {
@@ -49,17 +56,36 @@ public class LoyaltyService {
         // Logic to apply discount to order is handled in OrderService before this
     }
 
+    @Transactional
     public void processOrderCompletion(com.example.be.entity.Order order) {
         if (order.getUser() != null) {
+            // Outbox events can be delivered more than once; award points only once per order
+            if (loyaltyLogRepository.existsByOrderIdAndPointsGreaterThan(order.getId(), 0)) {
+                return;
+            }
             java.math.BigDecimal total = order.getFinalTotal();
             if (total == null)
                 total = order.getSubtotal(); // Fallback
             if (total != null) {
-                addPoints(order.getUser().getId(), total);
+                int earned = addPoints(order.getUser().getId(), total);
+                loyaltyLogRepository.save(LoyaltyLog.builder()
+                        .user(order.getUser())
+                        .order(order)
+                        .points(earned)
+                        .reason("Order #" + order.getId())
+                        .build());
             }
         }
     }
 
+    @Override
+    @Transactional
+    public void onOrderEvent(OrderOutboxEvent event) {
+        if ("ORDER_STATUS_CHANGED".equals(event.getEventType()) && "DELIVERED".equals(event.getStatus())) {
+            orderRepository.findById(event.getOrderId()).ifPresent(this::processOrderCompletion);
+        }
+    }
+
     private void updateTier(LoyaltyProgram lp) {
         if (lp.getPoints() >= 10000)
             lp.setTierLevel("DIAMOND");
@@ -0,0 +1,168 @@
+package com.example.be.service;
+
+import com.example.be.dto.MarginReportDTO;
+import com.example.be.dto.MarginRowDTO;
+import com.example.be.entity.Brand;
+import com.example.be.entity.Category;
+import com.example.be.entity.Product;
+import com.example.be.entity.ProductVariant;
+import com.example.be.exception.BadRequestException;
+import com.example.be.repository.BrandRepository;
+import com.example.be.repository.CategoryRepository;
+import com.example.be.repository.MarginDailyRollupRepository;
+import com.example.be.repository.ProductRepository;
+import com.example.be.repository.ProductVariantRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * Gross margin (revenue - cost of goods sold) per product, variant, category or
+ * brand and per day, week or month.
+ *
+ * Reads the per-day, per-variant buckets in margin_daily_rollups, so a year of
+ * history is at most days x variants-sold rows, and folds them in parallel.
+ * Cost is the variant's moving-average cost frozen on each order line at the time
+ * of sale. Category and brand are the product's current ones.
+ */
+@Service
+@RequiredArgsConstructor
+public class MarginReportService {
+    private static final long MAX_DAYS = 3660;
+
+    private final MarginDailyRollupRepository marginDailyRollupRepository;
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final CategoryRepository categoryRepository;
+    private final BrandRepository brandRepository;
+
+    private record GroupKey(Long id, LocalDate periodStart) {
+    }
+
+    private static final class Totals {
+        long quantity;
+        BigDecimal revenue = BigDecimal.ZERO;
+        BigDecimal cost = BigDecimal.ZERO;
+
+        void add(Object[] row) {
+            quantity += ((Number) row[5]).longValue();
+            revenue = revenue.add((BigDecimal) row[6]);
+            cost = cost.add((BigDecimal) row[7]);
+        }
+
+        Totals merge(Totals other) {
+            quantity += other.quantity;
+            revenue = revenue.add(other.revenue);
+            cost = cost.add(other.cost);
+            return this;
+        }
+    }
+
+    public MarginReportDTO report(String groupBy, String granularity, LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new BadRequestException("'from' and 'to' are required and 'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_DAYS) {
+            throw new BadRequestException("Range must not exceed " + MAX_DAYS + " days");
+        }
+        String dimension = groupBy == null || groupBy.isBlank() ? "none" : groupBy.trim().toLowerCase(Locale.ROOT);
+        int column = switch (dimension) {
+            case "variant" -> 1;
+            case "product" -> 2;
+            case "category" -> 3;
+            case "brand" -> 4;
+            case "none" -> -1;
+            default -> throw new BadRequestException("Unknown groupBy: " + groupBy
+                    + " (expected product, variant, category, brand or none)");
+        };
+        String unit = granularity == null ? "TOTAL" : granularity.trim().toUpperCase(Locale.ROOT);
+        if (!List.of("DAY", "WEEK", "MONTH", "TOTAL").contains(unit)) {
+            throw new BadRequestException("Unknown granularity: " + granularity + " (expected DAY, WEEK, MONTH or TOTAL)");
+        }
+
+        List<Object[]> rows = marginDailyRollupRepository.findReportRows(from, to);
+        Collector<Object[], Totals, Totals> summing = Collector.of(Totals::new, Totals::add, Totals::merge,
+                Collector.Characteristics.UNORDERED);
+        ConcurrentMap<GroupKey, Totals> groups = rows.parallelStream().collect(Collectors.groupingByConcurrent(
+                row -> new GroupKey(column < 0 ? null : (Long) row[column], periodStart((LocalDate) row[0], unit)),
+                summing));
+        Totals total = groups.values().stream().reduce(new Totals(), Totals::merge);
+
+        Map<Long, String> labels = labels(dimension,
+                groups.keySet().stream().map(GroupKey::id).filter(Objects::nonNull).collect(Collectors.toSet()));
+        List<MarginRowDTO> result = new ArrayList<>(groups.size());
+        groups.forEach((key, totals) -> result.add(toRow(key.id(), key.id() != null ? labels.get(key.id()) : null,
+                key.periodStart(), totals)));
+        result.sort(Comparator.comparing(MarginRowDTO::getPeriodStart, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(MarginRowDTO::getGrossMargin, Comparator.reverseOrder()));
+
+        return MarginReportDTO.builder()
+                .groupBy(dimension)
+                .granularity(unit)
+                .from(from)
+                .to(to)
+                .total(toRow(null, null, null, total))
+                .rows(result)
+                .build();
+    }
+
+    private static LocalDate periodStart(LocalDate day, String unit) {
+        return switch (unit) {
+            case "DAY" -> day;
+            case "WEEK" -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case "MONTH" -> day.withDayOfMonth(1);
+            default -> null;
+        };
+    }
+
+    private static MarginRowDTO toRow(Long id, String label, LocalDate periodStart, Totals totals) {
+        BigDecimal margin = totals.revenue.subtract(totals.cost);
+        Double percent = totals.revenue.signum() == 0 ? null
+                : margin.multiply(BigDecimal.valueOf(100)).divide(totals.revenue, 2, RoundingMode.HALF_UP).doubleValue();
+        return MarginRowDTO.builder()
+                .id(id)
+                .label(label)
+                .periodStart(periodStart)
+                .quantity(totals.quantity)
+                .revenue(totals.revenue)
+                .cost(totals.cost)
+                .grossMargin(margin)
+                .marginPercent(percent)
+                .build();
+    }
+
+    private Map<Long, String> labels(String dimension, Set<Long> ids) {
+        Map<Long, String> labels = new HashMap<>();
+        if (ids.isEmpty()) {
+            return labels;
+        }
+        Set<Long> keys = new HashSet<>(ids);
+        switch (dimension) {
+            case "product" -> productRepository.findAllById(keys).forEach((Product p) -> labels.put(p.getId(), p.getName()));
+            case "variant" -> productVariantRepository.findAllById(keys).forEach((ProductVariant v) -> labels.put(v.getId(), v.getSku()));
+            case "category" -> categoryRepository.findAllById(keys).forEach((Category c) -> labels.put(c.getId(), c.getName()));
+            case "brand" -> brandRepository.findAllById(keys).forEach((Brand b) -> labels.put(b.getId(), b.getName()));
+            default -> {
+            }
+        }
+        return labels;
+    }
+}
@@ -1,13 +1,17 @@
 package com.example.be.service;
 
 import com.example.be.dto.NotificationDTO;
+import com.example.be.entity.OrderOutboxEvent;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+
 @Service
 @RequiredArgsConstructor
-public class NotificationService {
+public class NotificationService implements OrderEventSubscriber {
 
     private final SimpMessagingTemplate messagingTemplate;
 
@@ -29,6 +33,23 @@ public class NotificationService {
                 notification);
     }
 
+    /**
+     * Tell the buyer when their order changes status
+     */
+    @Override
+    public void onOrderEvent(OrderOutboxEvent event) {
+        if (!"ORDER_STATUS_CHANGED".equals(event.getEventType()) || event.getUserId() == null) {
+            return;
+        }
+        notifyUser(event.getUserId(), NotificationDTO.builder()
+                .type("ORDER_STATUS")
+                .title("Order #" + event.getOrderId() + " updated")
+                .message("Your order is now " + event.getStatus())
+                .data(Map.of("orderId", event.getOrderId(), "status", event.getStatus()))
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+
     /**
      * Send to specific topic
      */
@@ -0,0 +1,66 @@
+package com.example.be.service;
+
+import com.example.be.dto.OrderDTO;
+import com.example.be.dto.OrderItemDTO;
+import com.example.be.entity.Order;
+import com.example.be.entity.OrderItem;
+import com.example.be.repository.OrderItemRepository;
+import com.example.be.util.DtoMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Builds OrderDTOs with their items for a whole page of orders using one query
+ * for the items (variant and product fetched in the same row) instead of one
+ * query per order plus lazy loads per item.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderEnrichmentService {
+
+    private final OrderItemRepository orderItemRepository;
+    private final DtoMapper dtoMapper;
+
+    @Transactional(readOnly = true)
+    public List<OrderDTO> enrich(List<Order> orders) {
+        if (orders == null || orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> orderIds = orders.stream()
+                .map(Order::getId)
+                .distinct()
+                .collect(Collectors.toList());
+
+        Map<Long, List<OrderItemDTO>> itemsByOrder = new HashMap<>();
+        for (OrderItem item : orderItemRepository.findWithVariantAndProductByOrderIdIn(orderIds)) {
+            itemsByOrder.computeIfAbsent(item.getOrder().getId(), k -> new ArrayList<>())
+                    .add(dtoMapper.toOrderItemDTO(item));
+        }
+
+        List<OrderDTO> result = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            OrderDTO dto = dtoMapper.toOrderDTO(order);
+            dto.setItems(itemsByOrder.getOrDefault(order.getId(), new ArrayList<>()));
+            result.add(dto);
+        }
+        return result;
+    }
+
+    public OrderDTO enrich(Order order) {
+        return enrich(List.of(order)).get(0);
+    }
+
+    public Page<OrderDTO> enrichPage(Page<Order> page) {
+        return new PageImpl<>(enrich(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+}
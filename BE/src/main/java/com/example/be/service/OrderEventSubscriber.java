@@ -0,0 +1,13 @@
+package com.example.be.service;
+
+import com.example.be.entity.OrderOutboxEvent;
+
+/**
+ * In-process consumer of order lifecycle events relayed from the outbox.
+ * Delivery is at-least-once and in event order per order id. The relay tracks
+ * which subscribers handled an event, so a failing sibling does not cause a
+ * redelivery, but handlers must still tolerate seeing an event again after a crash.
+ */
+public interface OrderEventSubscriber {
+    void onOrderEvent(OrderOutboxEvent event);
+}
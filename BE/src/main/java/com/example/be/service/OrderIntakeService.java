@@ -0,0 +1,278 @@
+package com.example.be.service;
+
+import com.example.be.dto.NotificationDTO;
+import com.example.be.dto.OrderIntakeStatusDTO;
+import com.example.be.dto.OrderRequestDTO;
+import com.example.be.entity.Order;
+import com.example.be.entity.OrderItem;
+import com.example.be.entity.ProductVariant;
+import com.example.be.entity.User;
+import com.example.be.exception.BadRequestException;
+import com.example.be.repository.ProductVariantRepository;
+import com.example.be.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Asynchronous checkout. submit() only validates the request shape and enqueues
+ * it; a fixed pool of workers creates the orders and pushes the outcome to
+ * /queue/notifications/{userId}.
+ *
+ * Requests are sharded by their lowest variant id, so orders for the same SKU are
+ * handled by the same worker in arrival order instead of contending for the same
+ * stock rows across threads. Each worker drains its shard in batches and loads the
+ * variants and users for the whole batch with two IN queries.
+ */
+@Slf4j
+@Service
+public class OrderIntakeService {
+
+    private final OrderService orderService;
+    private final ProductVariantRepository productVariantRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+
+    private final List<BlockingQueue<PendingOrder>> shards = new ArrayList<>();
+    private final Map<String, OrderIntakeStatusDTO> statuses = new ConcurrentHashMap<>();
+    private final int batchSize;
+    private final Duration statusTtl;
+    private final ExecutorService workers;
+    private volatile boolean accepting = true;
+
+    public OrderIntakeService(OrderService orderService,
+            ProductVariantRepository productVariantRepository,
+            UserRepository userRepository,
+            NotificationService notificationService,
+            @Value("${app.order-intake.workers:4}") int workerCount,
+            @Value("${app.order-intake.queue-capacity:2000}") int queueCapacity,
+            @Value("${app.order-intake.batch-size:50}") int batchSize,
+            @Value("${app.order-intake.status-ttl-seconds:3600}") long statusTtlSeconds) {
+        this.orderService = orderService;
+        this.productVariantRepository = productVariantRepository;
+        this.userRepository = userRepository;
+        this.notificationService = notificationService;
+        this.batchSize = batchSize;
+        this.statusTtl = Duration.ofSeconds(statusTtlSeconds);
+        for (int i = 0; i < workerCount; i++) {
+            shards.add(new ArrayBlockingQueue<>(Math.max(1, queueCapacity / workerCount)));
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "order-intake-" + threadIndex.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        for (BlockingQueue<PendingOrder> shard : shards) {
+            workers.submit(() -> runWorker(shard));
+        }
+    }
+
+    /**
+     * Validate and enqueue an order. Returns null when the target shard is full so
+     * the caller can answer 503 instead of blocking the request thread.
+     */
+    public OrderIntakeStatusDTO submit(OrderRequestDTO request) {
+        Order requestOrder = request.getOrder();
+        if (requestOrder == null) {
+            throw new BadRequestException("Order details are missing");
+        }
+        if (requestOrder.getUser() == null || requestOrder.getUser().getId() == null) {
+            throw new BadRequestException("User is required for asynchronous orders");
+        }
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new BadRequestException("Order must have at least one item");
+        }
+        long shardKey = Long.MAX_VALUE;
+        for (OrderItem item : request.getItems()) {
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new BadRequestException("Item quantity must be positive");
+            }
+            if (item.getProductVariant() == null || item.getProductVariant().getId() == null) {
+                throw new BadRequestException("Product variant is required for each item");
+            }
+            shardKey = Math.min(shardKey, item.getProductVariant().getId());
+        }
+        if (!accepting) {
+            return null;
+        }
+
+        String token = UUID.randomUUID().toString();
+        OrderIntakeStatusDTO status = status(token, "QUEUED", null, null);
+        statuses.put(token, status);
+        BlockingQueue<PendingOrder> shard = shards.get(Math.floorMod(shardKey, shards.size()));
+        if (!shard.offer(new PendingOrder(token, requestOrder.getUser().getId(), request))) {
+            statuses.remove(token);
+            return null;
+        }
+        return status;
+    }
+
+    public OrderIntakeStatusDTO getStatus(String token) {
+        return statuses.get(token);
+    }
+
+    private void runWorker(BlockingQueue<PendingOrder> shard) {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (accepting || !shard.isEmpty()) {
+            try {
+                PendingOrder first = shard.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                shard.drainTo(batch, batchSize - 1);
+                processBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Order intake batch failed", e);
+                for (PendingOrder pending : batch) {
+                    fail(pending, "Order could not be processed");
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void processBatch(List<PendingOrder> batch) {
+        Set<Long> variantIds = new HashSet<>();
+        Set<Long> userIds = new HashSet<>();
+        for (PendingOrder pending : batch) {
+            userIds.add(pending.userId);
+            for (OrderItem item : pending.request.getItems()) {
+                variantIds.add(item.getProductVariant().getId());
+            }
+        }
+        Map<Long, ProductVariant> variants = productVariantRepository.findAllById(variantIds).stream()
+                .collect(Collectors.toMap(ProductVariant::getId, Function.identity()));
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        for (PendingOrder pending : batch) {
+            statuses.put(pending.token, status(pending.token, "PROCESSING", null, null));
+            try {
+                Order saved = orderService.createOrder(buildOrder(pending, users), buildItems(pending, variants));
+                OrderIntakeStatusDTO done = status(pending.token, "COMPLETED", saved.getId(), "Order created");
+                statuses.put(pending.token, done);
+                push(pending.userId, "ORDER_CREATED", "Order placed", "Order #" + saved.getId() + " was created", done);
+            } catch (RuntimeException e) {
+                fail(pending, e.getMessage());
+            }
+        }
+    }
+
+    private Order buildOrder(PendingOrder pending, Map<Long, User> users) {
+        Order requestOrder = pending.request.getOrder();
+        User user = users.get(pending.userId);
+        if (user == null) {
+            throw new BadRequestException("User not found");
+        }
+        Order order = new Order();
+        order.setSubtotal(requestOrder.getSubtotal());
+        order.setDiscountTotal(requestOrder.getDiscountTotal());
+        order.setFinalTotal(requestOrder.getFinalTotal());
+        order.setStatus("PENDING");
+        order.setShippingAddress(requestOrder.getShippingAddress());
+        order.setPaymentMethod(requestOrder.getPaymentMethod());
+        order.setPhoneNumber(requestOrder.getPhoneNumber());
+        order.setUser(user);
+        return order;
+    }
+
+    private List<OrderItem> buildItems(PendingOrder pending, Map<Long, ProductVariant> variants) {
+        List<OrderItem> items = new ArrayList<>();
+        for (OrderItem itemReq : pending.request.getItems()) {
+            ProductVariant variant = variants.get(itemReq.getProductVariant().getId());
+            if (variant == null) {
+                throw new BadRequestException("Variant not found: " + itemReq.getProductVariant().getId());
+            }
+            OrderItem item = new OrderItem();
+            item.setQuantity(itemReq.getQuantity());
+            item.setPrice(itemReq.getPrice());
+            item.setProductVariant(variant);
+            items.add(item);
+        }
+        return items;
+    }
+
+    private void fail(PendingOrder pending, String message) {
+        OrderIntakeStatusDTO failed = status(pending.token, "FAILED", null, message);
+        statuses.put(pending.token, failed);
+        push(pending.userId, "ORDER_FAILED", "Order failed", message, failed);
+    }
+
+    private void push(Long userId, String type, String title, String message, OrderIntakeStatusDTO status) {
+        try {
+            notificationService.notifyUser(userId, NotificationDTO.builder()
+                    .type(type)
+                    .title(title)
+                    .message(message)
+                    .data(status)
+                    .timestamp(LocalDateTime.now())
+                    .build());
+        } catch (RuntimeException e) {
+            log.warn("Could not push order intake result {} to user {}", status.getToken(), userId, e);
+        }
+    }
+
+    private static OrderIntakeStatusDTO status(String token, String status, Long orderId, String message) {
+        return OrderIntakeStatusDTO.builder()
+                .token(token)
+                .status(status)
+                .orderId(orderId)
+                .message(message)
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeStatuses() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(statusTtl);
+        statuses.values().removeIf(s -> ("COMPLETED".equals(s.getStatus()) || "FAILED".equals(s.getStatus()))
+                && s.getUpdatedAt().isBefore(cutoff));
+    }
+
+    /**
+     * Stop accepting and give queued orders a chance to finish before shutdown.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        accepting = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    private record PendingOrder(String token, Long userId, OrderRequestDTO request) {
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.be.service;
+
+import com.example.be.entity.Order;
+import com.example.be.entity.OrderLookupTerm;
+import com.example.be.entity.OrderOutboxEvent;
+import com.example.be.repository.OrderLookupTermRepository;
+import com.example.be.repository.OrderRepository;
+import com.example.be.util.VietnameseTextUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * Lookup index for the admin order search. Every order is stored as a handful of
+ * folded terms (id, normalized phone, tracking code, username, full name and each
+ * name suffix) in order_lookup_terms, so "0912", "GHN12", "nguyen van" or "van a"
+ * become a prefix range scan on the (term, order_id) index instead of a LIKE
+ * '%kw%' scan over orders joined to users.
+ *
+ * The table is maintained from the order outbox and back-filled in batches at
+ * startup; until the back-fill completes searches use the old LIKE query.
+ */
+@Slf4j
+@Service
+public class OrderLookupService implements OrderEventSubscriber {
+    private static final int MAX_TERM_LENGTH = 100;
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int BACKFILL_BATCH_SIZE = 500;
+    private static final Pattern PHONE_LIKE = Pattern.compile("[+0-9 .()-]+");
+    private static final Pattern NON_DIGIT = Pattern.compile("[^0-9]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final OrderRepository orderRepository;
+    private final OrderLookupTermRepository orderLookupTermRepository;
+    private final boolean enabled;
+    private volatile boolean ready = false;
+
+    public OrderLookupService(OrderRepository orderRepository,
+            OrderLookupTermRepository orderLookupTermRepository,
+            @Value("${app.order-lookup.enabled:true}") boolean enabled) {
+        this.orderRepository = orderRepository;
+        this.orderLookupTermRepository = orderLookupTermRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            CompletableFuture.runAsync(this::backfill);
+        }
+    }
+
+    /**
+     * Index every order that has no terms yet. Safe to run while the outbox keeps
+     * indexing new orders, since each order is replaced as a whole.
+     */
+    public void backfill() {
+        long started = System.currentTimeMillis();
+        long indexed = 0;
+        Long afterId = 0L;
+        int conflicts = 0;
+        try {
+            while (true) {
+                List<Long> ids = orderLookupTermRepository.findUnindexedOrderIds(afterId,
+                        PageRequest.of(0, BACKFILL_BATCH_SIZE));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                try {
+                    // These orders have no terms yet, so a plain insert is enough
+                    orderLookupTermRepository.saveAll(buildRows(ids));
+                } catch (DataIntegrityViolationException e) {
+                    // The outbox indexed one of them concurrently; re-query the batch
+                    if (++conflicts > 3) {
+                        throw e;
+                    }
+                    continue;
+                }
+                conflicts = 0;
+                indexed += ids.size();
+                afterId = ids.get(ids.size() - 1);
+            }
+            ready = true;
+            log.info("Order lookup index back-filled {} orders in {} ms", indexed,
+                    System.currentTimeMillis() - started);
+        } catch (RuntimeException e) {
+            log.error("Order lookup back-fill failed after {} orders; search stays on the LIKE query", indexed, e);
+        }
+    }
+
+    @Override
+    @Transactional
+    public void onOrderEvent(OrderOutboxEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if ("ORDER_DELETED".equals(event.getEventType())) {
+            orderLookupTermRepository.deleteByOrderId(event.getOrderId());
+        } else {
+            reindexAll(List.of(event.getOrderId()));
+        }
+    }
+
+    /**
+     * Replace the terms of the given orders with terms computed from their current
+     * state (e.g. after a customer renames themselves), one DELETE ... IN per
+     * batch of orders.
+     */
+    @Transactional
+    public void reindexAll(Collection<Long> orderIds) {
+        if (!enabled || orderIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(orderIds);
+        for (int from = 0; from < ids.size(); from += BACKFILL_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BACKFILL_BATCH_SIZE, ids.size()));
+            orderLookupTermRepository.deleteByOrderIdIn(batch);
+            orderLookupTermRepository.saveAll(buildRows(batch));
+        }
+    }
+
+    private List<OrderLookupTerm> buildRows(Collection<Long> orderIds) {
+        List<OrderLookupTerm> rows = new ArrayList<>();
+        for (Order order : orderRepository.findWithUserByIdIn(orderIds)) {
+            for (String term : termsFor(order)) {
+                rows.add(OrderLookupTerm.builder().term(term).orderId(order.getId()).build());
+            }
+        }
+        return rows;
+    }
+
+    public Page<Order> search(String keyword, String status, Pageable pageable) {
+        String folded = normalizeText(keyword);
+        String phone = PHONE_LIKE.matcher(keyword.trim()).matches() ? normalizePhone(keyword) : folded;
+        return orderRepository.searchOrdersByLookupTerm(pattern(folded), pattern(phone), status, pageable);
+    }
+
+    static Set<String> termsFor(Order order) {
+        Set<String> terms = new LinkedHashSet<>();
+        terms.add(String.valueOf(order.getId()));
+        addTerm(terms, normalizePhone(order.getPhoneNumber()));
+        addTerm(terms, normalizeText(order.getTrackingCode()));
+        if (order.getUser() != null) {
+            addTerm(terms, normalizeText(order.getUser().getUsername()));
+            addTerm(terms, normalizePhone(order.getUser().getPhoneNumber()));
+            // "nguyen van an" -> "nguyen van an", "van an", "an" so any trailing part is a prefix
+            List<String> tokens = VietnameseTextUtil.tokenize(order.getUser().getFullName());
+            for (int i = 0; i < tokens.size(); i++) {
+                addTerm(terms, String.join(" ", tokens.subList(i, tokens.size())));
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerm(Set<String> terms, String term) {
+        if (term != null && !term.isEmpty()) {
+            terms.add(term.length() > MAX_TERM_LENGTH ? term.substring(0, MAX_TERM_LENGTH) : term);
+        }
+    }
+
+    private static String normalizeText(String value) {
+        if (value == null) {
+            return null;
+        }
+        return WHITESPACE.matcher(VietnameseTextUtil.fold(value).trim()).replaceAll(" ");
+    }
+
+    // "+84 912-345-678" and "0912345678" both index as "0912345678"
+    private static String normalizePhone(String value) {
+        if (value == null) {
+            return null;
+        }
+        String digits = NON_DIGIT.matcher(value).replaceAll("");
+        if (value.trim().startsWith("+84") && digits.startsWith("84")) {
+            digits = "0" + digits.substring(2);
+        }
+        return digits;
+    }
+
+    // Very short keywords are matched exactly to keep the range scan small
+    private static String pattern(String term) {
+        String escaped = term.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        return term.length() < MIN_PREFIX_LENGTH ? escaped : escaped + "%";
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.be.service;
+
+import com.example.be.entity.Order;
+import com.example.be.entity.OrderOutboxEvent;
+import com.example.be.repository.OrderOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ClassUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactional outbox for order changes. record() writes the event in the same
+ * transaction as the order itself; relay() drains pending events in id order and
+ * hands them to every OrderEventSubscriber.
+ *
+ * Delivery is tracked per subscriber: if one throws, the others still get the
+ * event, and the retry only goes to the subscribers that have not handled it
+ * yet. Retries back off exponentially (backoffInitial doubling up to backoffMax),
+ * and later events for the same order are held back until the event goes
+ * through, so subscribers always see an order's events in sequence. After
+ * maxAttempts the event is parked as FAILED.
+ */
+@Slf4j
+@Service
+public class OrderOutboxService {
+
+    private final OrderOutboxRepository orderOutboxRepository;
+    private final List<OrderEventSubscriber> subscribers;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration backoffInitial;
+    private final Duration backoffMax;
+    private final Duration retention;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong oldestPendingAgeSeconds = new AtomicLong();
+    private final Counter delivered;
+    private final Counter failures;
+    private final Timer deliveryLag;
+
+    public OrderOutboxService(OrderOutboxRepository orderOutboxRepository,
+            List<OrderEventSubscriber> subscribers,
+            MeterRegistry meterRegistry,
+            @Value("${app.outbox.batch-size:200}") int batchSize,
+            @Value("${app.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${app.outbox.backoff-initial-ms:1000}") long backoffInitialMs,
+            @Value("${app.outbox.backoff-max-ms:300000}") long backoffMaxMs,
+            @Value("${app.outbox.retention-days:7}") long retentionDays) {
+        this.orderOutboxRepository = orderOutboxRepository;
+        this.subscribers = subscribers;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffInitial = Duration.ofMillis(backoffInitialMs);
+        this.backoffMax = Duration.ofMillis(backoffMaxMs);
+        this.retention = Duration.ofDays(retentionDays);
+        this.delivered = Counter.builder("order.outbox.delivered").register(meterRegistry);
+        this.failures = Counter.builder("order.outbox.failures").register(meterRegistry);
+        this.deliveryLag = Timer.builder("order.outbox.delivery.lag")
+                .description("Time from the order change to delivery to all subscribers")
+                .register(meterRegistry);
+        Gauge.builder("order.outbox.pending", pending, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("order.outbox.oldest.pending.seconds", oldestPendingAgeSeconds, AtomicLong::get)
+                .register(meterRegistry);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Order order, String eventType, String previousStatus) {
+        record(order, eventType, previousStatus, null, null);
+    }
+
+    /** For changes to an existing order: the previous values let subscribers apply deltas. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(Order order, String eventType, String previousStatus, BigDecimal previousFinalTotal,
+            String previousPaymentMethod) {
+        orderOutboxRepository.save(OrderOutboxEvent.builder()
+                .orderId(order.getId())
+                .eventType(eventType)
+                .userId(order.getUser() != null ? order.getUser().getId() : null)
+                .status(order.getStatus())
+                .previousStatus(previousStatus)
+                .finalTotal(order.getFinalTotal())
+                .paymentMethod(order.getPaymentMethod())
+                .previousFinalTotal(previousFinalTotal)
+                .previousPaymentMethod(previousPaymentMethod)
+                .orderCreatedAt(order.getCreatedAt())
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-ms:500}")
+    public void relay() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderOutboxEvent> batch = orderOutboxRepository.findDue(now, PageRequest.of(0, batchSize));
+        oldestPendingAgeSeconds.set(batch.isEmpty() ? 0
+                : Duration.between(batch.get(0).getCreatedAt(), now).getSeconds());
+        if (batch.isEmpty()) {
+            pending.set(orderOutboxRepository.countByDeliveryStatus("PENDING"));
+            return;
+        }
+
+        List<Long> published = new ArrayList<>(batch.size());
+        // An earlier event of these orders is waiting out its backoff
+        Set<Long> blockedOrders = new HashSet<>(orderOutboxRepository.findOrderIdsWaitingForRetry(
+                batch.stream().map(OrderOutboxEvent::getOrderId).distinct().toList(), now));
+        for (OrderOutboxEvent event : batch) {
+            if (blockedOrders.contains(event.getOrderId())) {
+                continue;
+            }
+            Set<String> deliveredTo = deliveredTo(event);
+            RuntimeException failure = null;
+            for (OrderEventSubscriber subscriber : subscribers) {
+                String name = subscriberName(subscriber);
+                if (deliveredTo.contains(name)) {
+                    continue;
+                }
+                try {
+                    subscriber.onOrderEvent(event);
+                    deliveredTo.add(name);
+                } catch (RuntimeException e) {
+                    failures.increment();
+                    if (failure == null) {
+                        failure = e;
+                    }
+                    log.warn("Outbox event {} for order {} failed in {}: {}",
+                            event.getId(), event.getOrderId(), name, e.getMessage());
+                }
+            }
+            if (failure == null) {
+                published.add(event.getId());
+                delivered.increment();
+                deliveryLag.record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+            } else {
+                blockedOrders.add(event.getOrderId());
+                markFailedAttempt(event, deliveredTo, failure);
+            }
+        }
+        if (!published.isEmpty()) {
+            orderOutboxRepository.markPublished(published, LocalDateTime.now());
+        }
+        pending.set(orderOutboxRepository.countByDeliveryStatus("PENDING"));
+    }
+
+    private void markFailedAttempt(OrderOutboxEvent event, Set<String> deliveredTo, RuntimeException e) {
+        event.setAttempts(event.getAttempts() + 1);
+        event.setDeliveredTo(deliveredTo.isEmpty() ? null : String.join(",", deliveredTo));
+        String message = e.getClass().getSimpleName() + ": " + e.getMessage();
+        event.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+        if (event.getAttempts() >= maxAttempts) {
+            event.setDeliveryStatus("FAILED");
+            log.error("Giving up on outbox event {} for order {} after {} attempts",
+                    event.getId(), event.getOrderId(), event.getAttempts(), e);
+        } else {
+            Duration delay = backoff(event.getAttempts());
+            event.setNextAttemptAt(LocalDateTime.now().plus(delay));
+            log.warn("Outbox event {} for order {} failed (attempt {}), retrying in {} s",
+                    event.getId(), event.getOrderId(), event.getAttempts(), delay.toSeconds());
+        }
+        orderOutboxRepository.save(event);
+    }
+
+    Duration backoff(int attempts) {
+        // 1, 2, 4, ... times the initial delay, capped
+        Duration delay = backoffInitial.multipliedBy(1L << Math.min(attempts - 1, 30));
+        return delay.compareTo(backoffMax) > 0 ? backoffMax : delay;
+    }
+
+    private static Set<String> deliveredTo(OrderOutboxEvent event) {
+        Set<String> names = new LinkedHashSet<>();
+        if (event.getDeliveredTo() != null && !event.getDeliveredTo().isEmpty()) {
+            names.addAll(Arrays.asList(event.getDeliveredTo().split(",")));
+        }
+        return names;
+    }
+
+    private static String subscriberName(OrderEventSubscriber subscriber) {
+        return ClassUtils.getUserClass(subscriber).getSimpleName();
+    }
+
+    @Scheduled(cron = "${app.outbox.cleanup-cron:0 30 3 * * *}")
+    public void purgePublished() {
+        int deleted = orderOutboxRepository.deletePublishedBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Purged {} published outbox events", deleted);
+        }
+    }
+}
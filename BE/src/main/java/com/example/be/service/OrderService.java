@@ -4,6 +4,9 @@ import com.example.be.entity.Order;
 import com.example.be.entity.OrderItem;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,6 +15,8 @@ public interface OrderService {
 
     List<Order> getOrdersByUserId(Long userId);
 
+    Page<Order> getOrdersByUserId(Long userId, Pageable pageable);
+
     Optional<Order> getOrderById(Long id);
 
     Order createOrder(Order order, List<OrderItem> items);
@@ -25,4 +30,6 @@ public interface OrderService {
     List<com.example.be.entity.OrderStatusHistory> getOrderHistory(Long orderId);
 
     Page<Order> searchOrders(String keyword, String status, Pageable pageable);
+
+    Window<Order> scrollOrders(ScrollPosition position, Sort sort, int limit);
 }
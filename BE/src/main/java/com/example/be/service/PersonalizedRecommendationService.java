@@ -0,0 +1,267 @@
+package com.example.be.service;
+
+import com.example.be.dto.ProductDTO;
+import com.example.be.entity.OrderOutboxEvent;
+import com.example.be.repository.OrderItemRepository;
+import com.example.be.repository.ReviewRepository;
+import com.example.be.repository.WishlistRepository;
+import com.example.be.util.ImplicitAls;
+import com.example.be.util.IvfIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * "For you" candidates from user and product embeddings.
+ *
+ * Embeddings are trained offline with implicit-feedback ALS over purchases
+ * (log-scaled units), wishlist entries and positive reviews. Product vectors go
+ * into an IVF index; a request looks up the user's vector and asks the index for
+ * the best inner-product matches, skipping products the user already has.
+ *
+ * Results are kept in an LRU cache bounded by app.foryou.cache-size and cleared
+ * whenever a new model is swapped in; a user's entry is also dropped when they
+ * place an order. Users without a vector get no candidates and the caller falls
+ * back to trending.
+ */
+@Slf4j
+@Service
+public class PersonalizedRecommendationService implements OrderEventSubscriber {
+    private static final long SEED = 42L;
+    private static final double WISHLIST_STRENGTH = 1.0;
+    private static final double REVIEW_STRENGTH_PER_STAR = 0.5; // above two stars
+
+    private final OrderItemRepository orderItemRepository;
+    private final WishlistRepository wishlistRepository;
+    private final ReviewRepository reviewRepository;
+    private final int factors;
+    private final int iterations;
+    private final double alpha;
+    private final double lambda;
+    private final int nprobe;
+    private final long cacheTtlMillis;
+
+    private final Map<Long, CachedResult> cache;
+    private final Timer latency;
+    private final AtomicBoolean training = new AtomicBoolean(false);
+    private volatile Model model;
+
+    public PersonalizedRecommendationService(OrderItemRepository orderItemRepository,
+            WishlistRepository wishlistRepository,
+            ReviewRepository reviewRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.foryou.factors:32}") int factors,
+            @Value("${app.foryou.iterations:10}") int iterations,
+            @Value("${app.foryou.alpha:10}") double alpha,
+            @Value("${app.foryou.lambda:0.1}") double lambda,
+            @Value("${app.foryou.nprobe:8}") int nprobe,
+            @Value("${app.foryou.cache-size:10000}") int cacheSize,
+            @Value("${app.foryou.cache-ttl-seconds:600}") long cacheTtlSeconds) {
+        this.orderItemRepository = orderItemRepository;
+        this.wishlistRepository = wishlistRepository;
+        this.reviewRepository = reviewRepository;
+        this.factors = factors;
+        this.iterations = iterations;
+        this.alpha = alpha;
+        this.lambda = lambda;
+        this.nprobe = nprobe;
+        this.cacheTtlMillis = cacheTtlSeconds * 1000;
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedResult> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        this.latency = Timer.builder("recommendations.foryou.latency")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("recommendations.foryou.cache.size", this, s -> s.cacheSize()).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        CompletableFuture.runAsync(this::train);
+    }
+
+    // Runs on the common pool so the scheduler thread is free for the other jobs
+    @Scheduled(cron = "${app.foryou.train-cron:0 30 4 * * *}")
+    public void scheduledTrain() {
+        CompletableFuture.runAsync(this::train);
+    }
+
+    /**
+     * Retrain the embeddings and rebuild the index. Returns false if training is
+     * already running.
+     */
+    public boolean train() {
+        if (!training.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            Map<Long, Integer> userIndex = new HashMap<>();
+            Map<Long, Integer> productIndex = new HashMap<>();
+            List<Map<Integer, Double>> strengths = new ArrayList<>();
+
+            for (Object[] row : orderItemRepository.sumQuantityByUserAndProduct()) {
+                double units = ((Number) row[2]).doubleValue();
+                addStrength(userIndex, productIndex, strengths, (Long) row[0], (Long) row[1], Math.log1p(units));
+            }
+            for (Object[] row : wishlistRepository.findAllUserProductPairs()) {
+                addStrength(userIndex, productIndex, strengths, (Long) row[0], (Long) row[1], WISHLIST_STRENGTH);
+            }
+            for (Object[] row : reviewRepository.findAllUserProductRatings()) {
+                int rating = row[2] != null ? (Integer) row[2] : 0;
+                if (rating > 2) {
+                    addStrength(userIndex, productIndex, strengths, (Long) row[0], (Long) row[1],
+                            (rating - 2) * REVIEW_STRENGTH_PER_STAR);
+                }
+            }
+            if (userIndex.isEmpty()) {
+                log.info("No interactions yet; personalized recommendations fall back to trending");
+                return true;
+            }
+
+            int users = userIndex.size();
+            int[][] userItems = new int[users][];
+            double[][] userStrengths = new double[users][];
+            long[][] seen = new long[users][];
+            long[] productIds = new long[productIndex.size()];
+            productIndex.forEach((id, index) -> productIds[index] = id);
+            for (int u = 0; u < users; u++) {
+                Map<Integer, Double> row = strengths.get(u);
+                userItems[u] = new int[row.size()];
+                userStrengths[u] = new double[row.size()];
+                seen[u] = new long[row.size()];
+                int k = 0;
+                for (Map.Entry<Integer, Double> entry : row.entrySet()) {
+                    userItems[u][k] = entry.getKey();
+                    userStrengths[u][k] = entry.getValue();
+                    seen[u][k] = productIds[entry.getKey()];
+                    k++;
+                }
+                Arrays.sort(seen[u]);
+            }
+
+            ImplicitAls.Factors trained = ImplicitAls.train(productIds.length, userItems, userStrengths,
+                    factors, alpha, lambda, iterations, SEED);
+            float[][] productVectors = toFloat(trained.items());
+            float[][] userVectors = toFloat(trained.users());
+            IvfIndex index = IvfIndex.build(productIds, productVectors,
+                    (int) Math.ceil(Math.sqrt(productIds.length)), SEED);
+
+            model = new Model(userIndex, userVectors, seen, index);
+            synchronized (cache) {
+                cache.clear();
+            }
+            log.info("Trained for-you model: {} users, {} products, {} ms",
+                    users, productIds.length, System.currentTimeMillis() - started);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("For-you model training failed; keeping the previous model", e);
+            return false;
+        } finally {
+            training.set(false);
+        }
+    }
+
+    private static void addStrength(Map<Long, Integer> userIndex, Map<Long, Integer> productIndex,
+            List<Map<Integer, Double>> strengths, Long userId, Long productId, double strength) {
+        if (userId == null || productId == null || strength <= 0) {
+            return;
+        }
+        int u = userIndex.computeIfAbsent(userId, id -> {
+            strengths.add(new HashMap<>());
+            return strengths.size() - 1;
+        });
+        int p = productIndex.computeIfAbsent(productId, id -> productIndex.size());
+        strengths.get(u).merge(p, strength, Double::sum);
+    }
+
+    private static float[][] toFloat(double[][] values) {
+        float[][] result = new float[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = new float[values[i].length];
+            for (int d = 0; d < values[i].length; d++) {
+                result[i][d] = (float) values[i][d];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Candidate product ids for a user, best first; empty for unknown users.
+     */
+    public List<Long> recommendProductIds(Long userId, int limit) {
+        Model current = model;
+        Integer u = current != null && userId != null ? current.userIndex().get(userId) : null;
+        if (u == null) {
+            return List.of();
+        }
+        long[] seen = current.seen()[u];
+        long[] ids = current.index().search(current.userVectors()[u], limit, nprobe,
+                id -> Arrays.binarySearch(seen, id) >= 0);
+        return Arrays.stream(ids).boxed().toList();
+    }
+
+    public List<ProductDTO> getCached(Long userId) {
+        synchronized (cache) {
+            CachedResult cached = cache.get(userId);
+            if (cached == null) {
+                return null;
+            }
+            if (cached.expiresAt() < System.currentTimeMillis()) {
+                cache.remove(userId);
+                return null;
+            }
+            return cached.products();
+        }
+    }
+
+    public void putCached(Long userId, List<ProductDTO> products) {
+        synchronized (cache) {
+            cache.put(userId, new CachedResult(List.copyOf(products), System.currentTimeMillis() + cacheTtlMillis));
+        }
+    }
+
+    private int cacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public void recordLatency(long nanos) {
+        latency.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void onOrderEvent(OrderOutboxEvent event) {
+        if ("ORDER_CREATED".equals(event.getEventType()) && event.getUserId() != null) {
+            synchronized (cache) {
+                cache.remove(event.getUserId());
+            }
+        }
+    }
+
+    private record Model(Map<Long, Integer> userIndex, float[][] userVectors, long[][] seen, IvfIndex index) {
+    }
+
+    private record CachedResult(List<ProductDTO> products, long expiresAt) {
+    }
+}
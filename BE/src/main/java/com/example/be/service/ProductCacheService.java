@@ -0,0 +1,185 @@
+package com.example.be.service;
+
+import com.example.be.dto.ProductDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-process LRU cache of fully enriched ProductDTOs, addressable by id
+ * and by slug. Entries expire after the configured TTL.
+ *
+ * A reader that misses takes a stamp() before loading from the database and hands
+ * it to put(); if any eviction happened in between, the loaded value may predate
+ * that write and is not cached.
+ */
+@Service
+public class ProductCacheService {
+
+    // Both maps are guarded by this; byId is in access order and drops its eldest entry past maxSize
+    private final LinkedHashMap<Long, CacheEntry> byId;
+    private final Map<String, Long> slugToId = new HashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final long ttlMillis;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public ProductCacheService(MeterRegistry meterRegistry,
+            @Value("${app.product-cache.enabled:true}") boolean enabled,
+            @Value("${app.product-cache.max-size:5000}") int maxSize,
+            @Value("${app.product-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.hits = Counter.builder("product.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("product.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("product.cache.evictions").register(meterRegistry);
+        this.byId = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CacheEntry> eldest) {
+                if (size() <= ProductCacheService.this.maxSize) {
+                    return false;
+                }
+                unlinkSlug(eldest.getKey(), eldest.getValue());
+                evictions.increment();
+                return true;
+            }
+        };
+        Gauge.builder("product.cache.size", this, ProductCacheService::size).register(meterRegistry);
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    /** Take before loading a product that missed; pass to put(). */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    public ProductDTO getById(Long id) {
+        if (!enabled || id == null) {
+            return null;
+        }
+        synchronized (this) {
+            CacheEntry entry = byId.get(id);
+            if (entry == null || entry.isExpired()) {
+                if (entry != null) {
+                    remove(id);
+                }
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.dto;
+        }
+    }
+
+    public ProductDTO getBySlug(String slug) {
+        if (!enabled || slug == null) {
+            return null;
+        }
+        synchronized (this) {
+            Long id = slugToId.get(slug);
+            if (id == null) {
+                misses.increment();
+                return null;
+            }
+            return getById(id);
+        }
+    }
+
+    /** Caches dto unless an eviction happened since stamp was taken. */
+    public void put(ProductDTO dto, long stamp) {
+        if (!enabled || dto == null || dto.getId() == null) {
+            return;
+        }
+        synchronized (this) {
+            if (invalidations.get() != stamp) {
+                return;
+            }
+            CacheEntry previous = byId.put(dto.getId(), new CacheEntry(dto, System.currentTimeMillis() + ttlMillis));
+            if (previous != null) {
+                unlinkSlug(dto.getId(), previous);
+            }
+            if (dto.getSlug() != null) {
+                slugToId.put(dto.getSlug(), dto.getId());
+            }
+        }
+    }
+
+    /**
+     * Drop a product now and again once the surrounding transaction commits, so a
+     * concurrent reader cannot re-populate the cache with pre-commit data.
+     */
+    public void evict(Long productId) {
+        if (!enabled || productId == null) {
+            return;
+        }
+        discard(productId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    discard(productId);
+                }
+            });
+        }
+    }
+
+    public void evictAll() {
+        synchronized (this) {
+            invalidations.incrementAndGet();
+            byId.clear();
+            slugToId.clear();
+        }
+    }
+
+    private synchronized void discard(Long id) {
+        invalidations.incrementAndGet();
+        remove(id);
+    }
+
+    // Caller holds the lock
+    private void remove(Long id) {
+        CacheEntry removed = byId.remove(id);
+        if (removed != null) {
+            unlinkSlug(id, removed);
+        }
+    }
+
+    // Caller holds the lock
+    private void unlinkSlug(Long id, CacheEntry entry) {
+        if (entry.dto.getSlug() != null) {
+            slugToId.remove(entry.dto.getSlug(), id);
+        }
+    }
+
+    private static final class CacheEntry {
+        private final ProductDTO dto;
+        private final long expiresAt;
+
+        private CacheEntry(ProductDTO dto, long expiresAt) {
+            this.dto = dto;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() > expiresAt;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.be.service;
+
+import com.example.be.dto.ProductDTO;
+import com.example.be.dto.ProductImageDTO;
+import com.example.be.dto.ProductVariantDTO;
+import com.example.be.entity.Product;
+import com.example.be.entity.ProductImage;
+import com.example.be.entity.ProductVariant;
+import com.example.be.repository.ProductImageRepository;
+import com.example.be.repository.ProductVariantRepository;
+import com.example.be.util.DtoMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Builds fully populated ProductDTOs (images + variants) for a whole page of
+ * products using a fixed number of IN queries instead of one pair per product.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductEnrichmentService {
+
+    private final ProductImageRepository productImageRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final DtoMapper dtoMapper;
+
+    @Transactional(readOnly = true)
+    public List<ProductDTO> enrich(List<Product> products) {
+        if (products == null || products.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> productIds = products.stream()
+                .map(Product::getId)
+                .distinct()
+                .collect(Collectors.toList());
+
+        // 1 query for images, 1 query for variants (size and color fetched in the same row)
+        Map<Long, List<ProductImageDTO>> imagesByProduct = new HashMap<>();
+        for (ProductImage image : productImageRepository.findByProductIdIn(productIds)) {
+            imagesByProduct.computeIfAbsent(image.getProduct().getId(), k -> new ArrayList<>())
+                    .add(dtoMapper.toProductImageDTO(image));
+        }
+
+        Map<Long, List<ProductVariantDTO>> variantsByProduct = new HashMap<>();
+        for (ProductVariant variant : productVariantRepository.findWithSizeAndColorByProductIdIn(productIds)) {
+            variantsByProduct.computeIfAbsent(variant.getProduct().getId(), k -> new ArrayList<>())
+                    .add(dtoMapper.toProductVariantDTO(variant));
+        }
+
+        List<ProductDTO> result = new ArrayList<>(products.size());
+        for (Product product : products) {
+            ProductDTO dto = dtoMapper.toProductDTO(product);
+            dto.setImages(imagesByProduct.getOrDefault(product.getId(), new ArrayList<>()));
+            dto.setVariants(variantsByProduct.getOrDefault(product.getId(), new ArrayList<>()));
+            result.add(dto);
+        }
+        return result;
+    }
+
+    public ProductDTO enrich(Product product) {
+        return enrich(List.of(product)).get(0);
+    }
+
+    public Page<ProductDTO> enrichPage(Page<Product> page) {
+        return new PageImpl<>(enrich(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+}
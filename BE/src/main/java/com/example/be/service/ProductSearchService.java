@@ -0,0 +1,448 @@
+package com.example.be.service;
+
+import com.example.be.entity.Product;
+import com.example.be.entity.ProductVariant;
+import com.example.be.repository.ProductRepository;
+import com.example.be.repository.ProductVariantRepository;
+import com.example.be.util.VietnameseTextUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over product name, description, brand and category.
+ * Text is accent-folded so "ao thun" matches "Áo thun", and hits are ranked with
+ * BM25. The index is rebuilt in parallel at startup and kept current by the
+ * product, variant, category and brand write paths.
+ */
+@Service
+@Slf4j
+public class ProductSearchService {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final float NAME_WEIGHT = 3f;
+    private static final float BRAND_WEIGHT = 2f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PHRASE_WEIGHT = 1f;
+    private static final double PREFIX_FACTOR = 0.8;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final int REBUILD_PAGE_SIZE = 1000;
+    private static final Set<String> SORTABLE = Set.of("relevance", "id", "name", "price");
+
+    private final ProductRepository productRepository;
+    private final ProductVariantRepository productVariantRepository;
+    private final boolean enabled;
+
+    private final Object writeLock = new Object();
+    private volatile Index index = new Index();
+    private volatile boolean ready = false;
+    // Updates that arrive while a rebuild is running; replayed onto the new index. Null value = removal.
+    private Map<Long, IndexedProduct> pendingDuringRebuild;
+
+    public ProductSearchService(ProductRepository productRepository,
+            ProductVariantRepository productVariantRepository,
+            @Value("${app.search.index.enabled:true}") boolean enabled) {
+        this.productRepository = productRepository;
+        this.productVariantRepository = productVariantRepository;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    public boolean supportsSort(Sort sort) {
+        return sort.stream().allMatch(order -> SORTABLE.contains(order.getProperty()));
+    }
+
+    public void rebuild() {
+        synchronized (writeLock) {
+            if (pendingDuringRebuild != null) {
+                return; // already rebuilding
+            }
+            pendingDuringRebuild = new LinkedHashMap<>();
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Map<Long, List<BigDecimal>> pricesByProduct = new HashMap<>();
+            for (Object[] row : productVariantRepository.findAllProductIdAndPrice()) {
+                pricesByProduct.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((BigDecimal) row[1]);
+            }
+
+            List<IndexedProduct> documents = new ArrayList<>();
+            Page<Product> page;
+            int pageNumber = 0;
+            do {
+                page = productRepository.findAll(PageRequest.of(pageNumber++, REBUILD_PAGE_SIZE, Sort.by("id")));
+                documents.addAll(page.getContent().parallelStream()
+                        .map(p -> toDocument(p, pricesByProduct.get(p.getId())))
+                        .collect(Collectors.toList()));
+            } while (page.hasNext());
+
+            Index fresh = new Index();
+            documents.parallelStream().forEach(fresh::add);
+
+            synchronized (writeLock) {
+                pendingDuringRebuild.forEach((id, doc) -> apply(fresh, id, doc));
+                index = fresh;
+                pendingDuringRebuild = null;
+                ready = true;
+            }
+            log.info("Product search index rebuilt: {} products in {} ms", documents.size(),
+                    System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                pendingDuringRebuild = null;
+            }
+            log.error("Product search index rebuild failed", e);
+        }
+    }
+
+    public void rebuildAsync() {
+        if (enabled) {
+            CompletableFuture.runAsync(this::rebuild);
+        }
+    }
+
+    /**
+     * Re-read one product (and its variant prices) and update the index once the
+     * current transaction commits, or immediately when there is none.
+     */
+    public void reindex(Long productId) {
+        if (!enabled || productId == null) {
+            return;
+        }
+        IndexedProduct doc = productRepository.findWithCategoryAndBrandByIdIn(List.of(productId)).stream()
+                .findFirst()
+                .map(p -> toDocument(p, productVariantRepository.findByProductId(productId).stream()
+                        .map(ProductVariant::getPrice)
+                        .collect(Collectors.toList())))
+                .orElse(null);
+        afterCommit(productId, doc);
+    }
+
+    public void remove(Long productId) {
+        if (!enabled || productId == null) {
+            return;
+        }
+        afterCommit(productId, null);
+    }
+
+    public void renameCategory(Long categoryId, String name) {
+        rename(doc -> categoryId != null && categoryId.equals(doc.categoryId),
+                doc -> doc.withNames(doc.brandName, name));
+    }
+
+    public void renameBrand(Long brandId, String name) {
+        rename(doc -> brandId != null && brandId.equals(doc.brandId),
+                doc -> doc.withNames(name, doc.categoryName));
+    }
+
+    /**
+     * Returns the ids of all matching products in result order, or null when the
+     * keyword has no searchable tokens.
+     */
+    public List<Long> search(String keyword, Long categoryId, Long brandId, BigDecimal minPrice,
+            BigDecimal maxPrice, Boolean active, Sort sort) {
+        List<String> terms = VietnameseTextUtil.tokenize(keyword);
+        if (terms.isEmpty()) {
+            return null;
+        }
+        Index idx = index;
+        int docCount = idx.docs.size();
+        if (docCount == 0) {
+            return new ArrayList<>();
+        }
+        double avgLength = Math.max(idx.totalLength.sum() / docCount, 1.0);
+
+        Map<Long, Double> scores = new HashMap<>();
+        Map<Long, Integer> matchedTerms = new HashMap<>();
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            Set<Long> matchedThisTerm = new HashSet<>();
+            Map<String, ConcurrentHashMap<Long, Float>> candidates = new LinkedHashMap<>();
+            if (i == terms.size() - 1) {
+                // Search-as-you-type: the last token also matches as a prefix
+                int expansions = 0;
+                for (Map.Entry<String, ConcurrentHashMap<Long, Float>> entry : idx.postings
+                        .subMap(term, true, term + Character.MAX_VALUE, true).entrySet()) {
+                    if (entry.getKey().indexOf('_') >= 0) {
+                        continue;
+                    }
+                    candidates.put(entry.getKey(), entry.getValue());
+                    if (++expansions >= MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                }
+            } else {
+                ConcurrentHashMap<Long, Float> postings = idx.postings.get(term);
+                if (postings != null) {
+                    candidates.put(term, postings);
+                }
+            }
+            for (Map.Entry<String, ConcurrentHashMap<Long, Float>> entry : candidates.entrySet()) {
+                double factor = entry.getKey().equals(term) ? 1.0 : PREFIX_FACTOR;
+                score(idx, entry.getValue(), docCount, avgLength, factor, scores);
+                matchedThisTerm.addAll(entry.getValue().keySet());
+            }
+            for (Long id : matchedThisTerm) {
+                matchedTerms.merge(id, 1, Integer::sum);
+            }
+        }
+        for (int i = 0; i + 1 < terms.size(); i++) {
+            ConcurrentHashMap<Long, Float> postings = idx.postings.get(terms.get(i) + "_" + terms.get(i + 1));
+            if (postings != null) {
+                score(idx, postings, docCount, avgLength, 1.0, scores);
+            }
+        }
+
+        List<IndexedProduct> hits = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : matchedTerms.entrySet()) {
+            if (entry.getValue() < terms.size()) {
+                continue;
+            }
+            IndexedProduct doc = idx.docs.get(entry.getKey());
+            if (doc != null && doc.matches(categoryId, brandId, minPrice, maxPrice, active)) {
+                hits.add(doc);
+            }
+        }
+        hits.sort(comparator(sort, scores));
+        return hits.stream().map(doc -> doc.id).collect(Collectors.toList());
+    }
+
+    /**
+     * All products matching the keyword, ignoring every other filter (used for facet counts).
+     */
+    public List<Long> match(String keyword) {
+        return search(keyword, null, null, null, null, null, Sort.unsorted());
+    }
+
+    private void score(Index idx, Map<Long, Float> postings, int docCount, double avgLength, double factor,
+            Map<Long, Double> scores) {
+        double idf = Math.log(1 + (docCount - postings.size() + 0.5) / (postings.size() + 0.5));
+        for (Map.Entry<Long, Float> posting : postings.entrySet()) {
+            IndexedProduct doc = idx.docs.get(posting.getKey());
+            if (doc == null) {
+                continue;
+            }
+            double tf = posting.getValue();
+            double norm = tf + K1 * (1 - B + B * doc.length / avgLength);
+            scores.merge(posting.getKey(), factor * idf * tf * (K1 + 1) / norm, Double::sum);
+        }
+    }
+
+    private Comparator<IndexedProduct> comparator(Sort sort, Map<Long, Double> scores) {
+        Comparator<IndexedProduct> byRelevance = Comparator
+                .comparingDouble((IndexedProduct doc) -> scores.getOrDefault(doc.id, 0.0)).reversed();
+        Comparator<IndexedProduct> result = null;
+        for (Sort.Order order : sort) {
+            Comparator<IndexedProduct> next;
+            switch (order.getProperty()) {
+                case "name":
+                    next = Comparator.comparing(doc -> doc.sortName);
+                    break;
+                case "price":
+                    next = Comparator.comparing(doc -> doc.price, Comparator.nullsFirst(Comparator.naturalOrder()));
+                    break;
+                case "relevance":
+                    next = byRelevance;
+                    break;
+                default:
+                    next = Comparator.comparing(doc -> doc.id);
+            }
+            if (!"relevance".equals(order.getProperty()) && order.isDescending()) {
+                next = next.reversed();
+            }
+            result = result == null ? next : result.thenComparing(next);
+        }
+        if (result == null) {
+            result = byRelevance;
+        }
+        return result.thenComparing(Comparator.comparing((IndexedProduct doc) -> doc.id).reversed());
+    }
+
+    private void rename(Predicate<IndexedProduct> affected,
+            Function<IndexedProduct, IndexedProduct> renamer) {
+        if (!enabled) {
+            return;
+        }
+        for (IndexedProduct doc : new ArrayList<>(index.docs.values())) {
+            if (affected.test(doc)) {
+                afterCommit(doc.id, renamer.apply(doc));
+            }
+        }
+    }
+
+    private void afterCommit(Long productId, IndexedProduct doc) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update(productId, doc);
+                }
+            });
+        } else {
+            update(productId, doc);
+        }
+    }
+
+    private void update(Long productId, IndexedProduct doc) {
+        synchronized (writeLock) {
+            apply(index, productId, doc);
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.put(productId, doc);
+            }
+        }
+    }
+
+    private void apply(Index target, Long productId, IndexedProduct doc) {
+        target.remove(productId);
+        if (doc != null) {
+            target.add(doc);
+        }
+    }
+
+    private IndexedProduct toDocument(Product product, List<BigDecimal> variantPrices) {
+        return new IndexedProduct(product.getId(), product.getName(), product.getDescription(),
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                product.getCategory() != null ? product.getCategory().getName() : null,
+                product.getBrand() != null ? product.getBrand().getId() : null,
+                product.getBrand() != null ? product.getBrand().getName() : null,
+                product.getActive(), product.getPrice(),
+                variantPrices == null ? new BigDecimal[0]
+                        : variantPrices.stream().filter(p -> p != null).toArray(BigDecimal[]::new));
+    }
+
+    private static final class Index {
+        private final ConcurrentHashMap<Long, IndexedProduct> docs = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<String, ConcurrentHashMap<Long, Float>> postings = new ConcurrentSkipListMap<>();
+        private final DoubleAdder totalLength = new DoubleAdder();
+
+        private void add(IndexedProduct doc) {
+            docs.put(doc.id, doc);
+            doc.termFrequencies.forEach((term, tf) -> postings
+                    .computeIfAbsent(term, k -> new ConcurrentHashMap<>())
+                    .put(doc.id, tf));
+            totalLength.add(doc.length);
+        }
+
+        private void remove(Long id) {
+            IndexedProduct doc = docs.remove(id);
+            if (doc == null) {
+                return;
+            }
+            for (String term : doc.termFrequencies.keySet()) {
+                postings.computeIfPresent(term, (k, ids) -> {
+                    ids.remove(id);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+            totalLength.add(-doc.length);
+        }
+    }
+
+    private static final class IndexedProduct {
+        private final Long id;
+        private final String name;
+        private final String description;
+        private final Long categoryId;
+        private final String categoryName;
+        private final Long brandId;
+        private final String brandName;
+        private final Boolean active;
+        private final BigDecimal price;
+        private final BigDecimal[] variantPrices;
+        private final String sortName;
+        private final Map<String, Float> termFrequencies = new HashMap<>();
+        private final float length;
+
+        private IndexedProduct(Long id, String name, String description, Long categoryId, String categoryName,
+                Long brandId, String brandName, Boolean active, BigDecimal price, BigDecimal[] variantPrices) {
+            this.id = id;
+            this.name = name;
+            this.description = description;
+            this.categoryId = categoryId;
+            this.categoryName = categoryName;
+            this.brandId = brandId;
+            this.brandName = brandName;
+            this.active = active;
+            this.price = price;
+            this.variantPrices = variantPrices;
+            this.sortName = VietnameseTextUtil.fold(name);
+            this.length = addField(name, NAME_WEIGHT) + addField(brandName, BRAND_WEIGHT)
+                    + addField(categoryName, CATEGORY_WEIGHT) + addField(description, DESCRIPTION_WEIGHT);
+        }
+
+        private IndexedProduct withNames(String newBrandName, String newCategoryName) {
+            return new IndexedProduct(id, name, description, categoryId, newCategoryName, brandId, newBrandName,
+                    active, price, variantPrices);
+        }
+
+        private float addField(String text, float weight) {
+            List<String> tokens = VietnameseTextUtil.tokenize(text);
+            for (int i = 0; i < tokens.size(); i++) {
+                termFrequencies.merge(tokens.get(i), weight, Float::sum);
+                if (i + 1 < tokens.size()) {
+                    termFrequencies.merge(tokens.get(i) + "_" + tokens.get(i + 1), weight * PHRASE_WEIGHT,
+                            Float::sum);
+                }
+            }
+            return tokens.size() * weight;
+        }
+
+        private boolean matches(Long categoryId, Long brandId, BigDecimal minPrice, BigDecimal maxPrice,
+                Boolean active) {
+            if (categoryId != null && !categoryId.equals(this.categoryId)) {
+                return false;
+            }
+            if (brandId != null && !brandId.equals(this.brandId)) {
+                return false;
+            }
+            if (active != null && !active.equals(this.active)) {
+                return false;
+            }
+            if (minPrice == null && maxPrice == null) {
+                return true;
+            }
+            for (BigDecimal variantPrice : variantPrices) {
+                if ((minPrice == null || variantPrice.compareTo(minPrice) >= 0)
+                        && (maxPrice == null || variantPrice.compareTo(maxPrice) <= 0)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -4,6 +4,9 @@ import com.example.be.entity.Product;
 import com.example.be.entity.ProductImage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,4 +33,6 @@ public interface ProductService {
 
     Page<Product> searchProducts(String keyword, Long categoryId, Long brandId, java.math.BigDecimal minPrice,
             java.math.BigDecimal maxPrice, Boolean active, Pageable pageable);
+
+    Window<Product> scrollProducts(ScrollPosition position, Sort sort, int limit);
 }
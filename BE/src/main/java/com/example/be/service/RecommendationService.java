@@ -5,9 +5,14 @@ import com.example.be.entity.Product;
 import com.example.be.repository.ProductRepository;
 import com.example.be.util.DtoMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -16,43 +21,127 @@ public class RecommendationService {
 
     private final ProductRepository productRepository;
     private final DtoMapper dtoMapper;
+    private final TrendingService trendingService;
+    private final SimilarProductsService similarProductsService;
+    private final PersonalizedRecommendationService personalizedRecommendationService;
 
     public List<ProductDTO> getRecommendations(String type, Long userId, Long productId) {
         List<Product> products;
         switch (type.toLowerCase()) {
             case "trending":
-                // Mock: Get top 10 products (in real app: join with order_items, group by
-                // product, order by count desc)
-                products = productRepository.findAll().stream().limit(10).collect(Collectors.toList());
+                products = trendingProducts(TrendingService.DEFAULT_WINDOW, 10);
                 break;
             case "similar":
-                if (productId != null) {
-                    Product p = productRepository.findById(productId).orElse(null);
-                    if (p != null && p.getCategory() != null) {
-                        // Find products in same category
-                        // This is a naive implementation. Should be repository method
-                        // findByCategoryId...
-                        products = productRepository.findAll().stream()
-                                .filter(prod -> prod.getCategory() != null
-                                        && prod.getCategory().getId().equals(p.getCategory().getId())
-                                        && !prod.getId().equals(productId))
-                                .limit(5)
-                                .collect(Collectors.toList());
-                    } else {
-                        products = List.of();
-                    }
-                } else {
-                    products = List.of();
-                }
+                products = productId != null ? similarProducts(productId, 5) : List.of();
                 break;
             case "foryou":
-                // Mock: Random or based on user history (if we had history tracking)
-                products = productRepository.findAll().stream().skip(5).limit(5).collect(Collectors.toList());
-                break;
+                return forYou(userId, 5);
             default:
                 products = List.of();
         }
 
         return products.stream().map(dtoMapper::toProductDTO).collect(Collectors.toList());
     }
+
+    /**
+     * Personalized picks from the embedding index, cached per user; trending for
+     * anonymous visitors (null userId) and users the model does not know yet.
+     */
+    private List<ProductDTO> forYou(Long userId, int limit) {
+        long started = System.nanoTime();
+        try {
+            if (userId == null) {
+                return getTrending(TrendingService.DEFAULT_WINDOW, limit);
+            }
+            List<ProductDTO> cached = personalizedRecommendationService.getCached(userId);
+            if (cached != null) {
+                return cached;
+            }
+            List<Long> ids = personalizedRecommendationService.recommendProductIds(userId, limit * 2);
+            if (ids.isEmpty()) {
+                return getTrending(TrendingService.DEFAULT_WINDOW, limit);
+            }
+            Map<Long, Product> byId = productRepository.findAllById(ids).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            List<ProductDTO> products = new ArrayList<>(limit);
+            for (Long id : ids) {
+                Product product = byId.get(id);
+                if (product != null && !Boolean.FALSE.equals(product.getActive()) && products.size() < limit) {
+                    products.add(dtoMapper.toProductDTO(product));
+                }
+            }
+            personalizedRecommendationService.putCached(userId, products);
+            return products;
+        } finally {
+            personalizedRecommendationService.recordLatency(System.nanoTime() - started);
+        }
+    }
+
+    public List<ProductDTO> getTrending(String window, int limit) {
+        return trendingProducts(window, limit).stream().map(dtoMapper::toProductDTO).collect(Collectors.toList());
+    }
+
+    /**
+     * Top products from the trending sketch, in rank order, skipping inactive ones.
+     * Topped up with the first catalog page while the sketch is still warming up.
+     */
+    private List<Product> trendingProducts(String window, int limit) {
+        // Over-fetch a little so deactivated products do not leave gaps
+        List<Long> ids = trendingService.topProductIds(window, limit * 2);
+        Map<Long, Product> byId = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> products = new ArrayList<>(limit);
+        for (Long id : ids) {
+            Product product = byId.get(id);
+            if (product != null && !Boolean.FALSE.equals(product.getActive()) && products.size() < limit) {
+                products.add(product);
+            }
+        }
+        if (products.size() < limit) {
+            for (Product product : productRepository.findAll(PageRequest.of(0, limit)).getContent()) {
+                if (products.size() < limit && !Boolean.FALSE.equals(product.getActive()) && !byId.containsKey(product.getId())) {
+                    products.add(product);
+                }
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Co-purchase neighbours first, then other active products from the same
+     * category and brand when there are not enough of them.
+     */
+    private List<Product> similarProducts(Long productId, int limit) {
+        List<Long> ids = similarProductsService.getNeighbours(productId, limit * 2);
+        Map<Long, Product> byId = productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        Map<Long, Product> products = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Product product = byId.get(id);
+            if (product != null && !Boolean.FALSE.equals(product.getActive()) && products.size() < limit) {
+                products.put(id, product);
+            }
+        }
+        if (products.size() < limit) {
+            Product p = productRepository.findById(productId).orElse(null);
+            if (p != null && p.getCategory() != null) {
+                addUntilFull(products, productRepository.findByCategoryIdAndIdNotAndActiveTrue(
+                        p.getCategory().getId(), productId, PageRequest.of(0, limit)), limit);
+            }
+            if (p != null && p.getBrand() != null && products.size() < limit) {
+                addUntilFull(products, productRepository.findByBrandIdAndIdNotAndActiveTrue(
+                        p.getBrand().getId(), productId, PageRequest.of(0, limit)), limit);
+            }
+        }
+        return new ArrayList<>(products.values());
+    }
+
+    private static void addUntilFull(Map<Long, Product> products, List<Product> candidates, int limit) {
+        for (Product candidate : candidates) {
+            if (products.size() >= limit) {
+                return;
+            }
+            products.putIfAbsent(candidate.getId(), candidate);
+        }
+    }
 }
@@ -0,0 +1,171 @@
+package com.example.be.service;
+
+import com.example.be.dto.TimeSeriesDTO;
+import com.example.be.dto.TimeSeriesPointDTO;
+import com.example.be.exception.BadRequestException;
+import com.example.be.repository.OrderRollupRepository;
+import com.example.be.repository.ProductRollupRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Revenue series at hour, day, week or month granularity over any date range.
+ *
+ * Reads the hourly buckets from order_rollups (or product_rollups when filtered by
+ * category or brand), so a year at daily granularity is at most ~8,800 rows and
+ * never touches the orders table. Buckets are stored in server-local time; each
+ * hour is converted to an instant and re-bucketed in the requested zone, so day
+ * and month boundaries follow the caller's calendar, including DST changes.
+ * Callers check DashboardRollupService.isReady() first; the controller answers
+ * 503 while the rollups are being (re)built.
+ */
+@Service
+public class RevenueTimeSeriesService {
+    private static final int MAX_POINTS = 10_000;
+
+    public enum Granularity { HOUR, DAY, WEEK, MONTH }
+
+    private final OrderRollupRepository orderRollupRepository;
+    private final ProductRollupRepository productRollupRepository;
+    private final ZoneId serverZone;
+
+    public RevenueTimeSeriesService(OrderRollupRepository orderRollupRepository,
+            ProductRollupRepository productRollupRepository,
+            @Value("${app.server-zone:}") String serverZone) {
+        this.orderRollupRepository = orderRollupRepository;
+        this.productRollupRepository = productRollupRepository;
+        this.serverZone = serverZone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(serverZone);
+    }
+
+    public TimeSeriesDTO revenueSeries(LocalDate from, LocalDate to, String granularity, String zone,
+            String status, String paymentMethod, Long categoryId, Long brandId) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new BadRequestException("'from' and 'to' are required and 'to' must not be before 'from'");
+        }
+        Granularity unit = parseGranularity(granularity);
+        ZoneId target = parseZone(zone);
+        boolean byProduct = categoryId != null || brandId != null;
+
+        ZonedDateTime rangeStart = from.atStartOfDay(target);
+        ZonedDateTime rangeEnd = to.plusDays(1).atStartOfDay(target);
+
+        // Pre-fill every bucket so gaps come back as zero
+        Map<Instant, long[]> counts = new TreeMap<>();
+        Map<Instant, BigDecimal> revenues = new TreeMap<>();
+        for (ZonedDateTime bucket = truncate(rangeStart, unit); bucket.isBefore(rangeEnd); bucket = next(bucket, unit)) {
+            if (counts.size() >= MAX_POINTS) {
+                throw new BadRequestException("Range too large for " + unit + " granularity (max " + MAX_POINTS + " points)");
+            }
+            counts.put(bucket.toInstant(), new long[1]);
+            revenues.put(bucket.toInstant(), BigDecimal.ZERO);
+        }
+
+        // Widen to whole server hours; hours outside the requested range are dropped below
+        LocalDateTime queryFrom = rangeStart.withZoneSameInstant(serverZone).toLocalDateTime().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime queryTo = rangeEnd.withZoneSameInstant(serverZone).toLocalDateTime().truncatedTo(ChronoUnit.HOURS).plusHours(1);
+        String statusFilter = blankToNull(status);
+        String paymentFilter = blankToNull(paymentMethod);
+        List<Object[]> rows = byProduct
+                ? productRollupRepository.sumByHour(queryFrom, queryTo, statusFilter, paymentFilter, categoryId, brandId)
+                : orderRollupRepository.sumByHour(queryFrom, queryTo, statusFilter, paymentFilter);
+
+        for (Object[] row : rows) {
+            ZonedDateTime hour = ((LocalDateTime) row[0]).atZone(serverZone).withZoneSameInstant(target);
+            if (hour.isBefore(rangeStart) || !hour.isBefore(rangeEnd)) {
+                continue;
+            }
+            Instant key = truncate(hour, unit).toInstant();
+            long[] count = counts.get(key);
+            if (count == null) {
+                continue;
+            }
+            count[0] += ((Number) row[1]).longValue();
+            revenues.merge(key, (BigDecimal) row[2], BigDecimal::add);
+        }
+
+        List<TimeSeriesPointDTO> points = new ArrayList<>(counts.size());
+        long totalCount = 0;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        for (Map.Entry<Instant, long[]> entry : counts.entrySet()) {
+            long count = entry.getValue()[0];
+            BigDecimal revenue = revenues.get(entry.getKey());
+            totalCount += count;
+            totalRevenue = totalRevenue.add(revenue);
+            points.add(TimeSeriesPointDTO.builder()
+                    .start(entry.getKey().atZone(target).toOffsetDateTime())
+                    .orders(byProduct ? null : count)
+                    .quantity(byProduct ? count : null)
+                    .revenue(revenue)
+                    .build());
+        }
+
+        return TimeSeriesDTO.builder()
+                .granularity(unit.name())
+                .zone(target.getId())
+                .from(from)
+                .to(to)
+                .totalOrders(byProduct ? null : totalCount)
+                .totalQuantity(byProduct ? totalCount : null)
+                .totalRevenue(totalRevenue)
+                .points(points)
+                .build();
+    }
+
+    private static ZonedDateTime truncate(ZonedDateTime time, Granularity unit) {
+        return switch (unit) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.toLocalDate().atStartOfDay(time.getZone());
+            case WEEK -> time.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                    .atStartOfDay(time.getZone());
+            case MONTH -> time.toLocalDate().withDayOfMonth(1).atStartOfDay(time.getZone());
+        };
+    }
+
+    private static ZonedDateTime next(ZonedDateTime bucket, Granularity unit) {
+        return switch (unit) {
+            case HOUR -> bucket.plusHours(1);
+            case DAY -> bucket.toLocalDate().plusDays(1).atStartOfDay(bucket.getZone());
+            case WEEK -> bucket.toLocalDate().plusWeeks(1).atStartOfDay(bucket.getZone());
+            case MONTH -> bucket.toLocalDate().plusMonths(1).atStartOfDay(bucket.getZone());
+        };
+    }
+
+    private static Granularity parseGranularity(String granularity) {
+        try {
+            return Granularity.valueOf(granularity == null ? "DAY" : granularity.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown granularity: " + granularity + " (expected HOUR, DAY, WEEK or MONTH)");
+        }
+    }
+
+    private ZoneId parseZone(String zone) {
+        if (zone == null || zone.isBlank()) {
+            return serverZone;
+        }
+        try {
+            return ZoneId.of(zone.trim());
+        } catch (DateTimeException e) {
+            throw new BadRequestException("Unknown time zone: " + zone);
+        }
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
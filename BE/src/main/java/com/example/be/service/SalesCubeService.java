@@ -0,0 +1,547 @@
+package com.example.be.service;
+
+import com.example.be.dto.SalesCubeQueryDTO;
+import com.example.be.dto.SalesCubeResultDTO;
+import com.example.be.dto.SalesCubeRowDTO;
+import com.example.be.entity.OrderItem;
+import com.example.be.entity.OrderOutboxEvent;
+import com.example.be.entity.Product;
+import com.example.be.exception.BadRequestException;
+import com.example.be.repository.OrderItemRepository;
+import com.example.be.util.LongLongMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process columnar store of order line facts for ad-hoc sales analysis.
+ *
+ * Lines are stored in fixed-size chunks of primitive arrays: one int column per
+ * dimension (product, variant, category, brand, day, status) plus quantity,
+ * revenue and cost of goods sold in cents and the order id. Id and status dimensions are dictionary
+ * encoded, day is the epoch day in server-local time. At ~52 bytes per line,
+ * memory is bounded by app.sales-cube.max-lines.
+ *
+ * The cube is loaded from the database at startup and then kept current from the
+ * order outbox: new orders are appended, status changes are patched in place and
+ * deleted orders are tombstoned. Events that arrive during the initial load are
+ * buffered and applied afterwards; all of them are idempotent. A failed load page
+ * is retried with backoff from where it stopped; if the load gives up, the cube
+ * stays disabled and stops buffering.
+ *
+ * Queries filter and group in parallel, one fork-join leaf per chunk, and merge
+ * the partial aggregates on the way up.
+ */
+@Slf4j
+@Service
+public class SalesCubeService implements OrderEventSubscriber {
+    public static final List<String> DIMENSIONS = List.of("product", "variant", "category", "brand", "day", "status");
+    private static final int PRODUCT = 0;
+    private static final int VARIANT = 1;
+    private static final int CATEGORY = 2;
+    private static final int BRAND = 3;
+    private static final int DAY = 4;
+    private static final int STATUS = 5;
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int LOAD_BATCH_SIZE = 5000;
+    private static final int LOAD_ATTEMPTS = 5;
+    private static final long LOAD_RETRY_MS = 1000;
+    private static final int DELETED = -1;
+    private static final int NO_DAY = Integer.MIN_VALUE;
+    private static final int DEFAULT_LIMIT = 1000;
+    private static final int MAX_LIMIT = 10_000;
+
+    private final OrderItemRepository orderItemRepository;
+    private final boolean enabled;
+    private final long maxLines;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Chunk> chunks = new ArrayList<>();
+    private final Dictionary[] dictionaries = new Dictionary[DIMENSIONS.size()];
+    private final LongLongMap orderFirstLine = new LongLongMap(1 << 15); // order id -> index of its first line
+    private final List<BufferedEvent> bufferedEvents = new ArrayList<>();
+    private int size;
+    private boolean full;
+    private boolean loadFailed;
+    private volatile boolean ready;
+    long loadRetryMs = LOAD_RETRY_MS; // first retry delay; tests shorten it
+
+    public SalesCubeService(OrderItemRepository orderItemRepository,
+            @Value("${app.sales-cube.enabled:true}") boolean enabled,
+            @Value("${app.sales-cube.max-lines:10000000}") long maxLines) {
+        this.orderItemRepository = orderItemRepository;
+        this.enabled = enabled;
+        this.maxLines = Math.min(maxLines, Integer.MAX_VALUE);
+        for (int d = 0; d < dictionaries.length; d++) {
+            if (d != DAY) {
+                dictionaries[d] = new Dictionary();
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            CompletableFuture.runAsync(this::load);
+        }
+    }
+
+    void load() {
+        long started = System.currentTimeMillis();
+        Long afterOrderId = 0L;
+        Long afterItemId = 0L;
+        try {
+            while (true) {
+                List<Object[]> rows = loadPage(afterOrderId, afterItemId);
+                if (rows.isEmpty()) {
+                    break;
+                }
+                lock.writeLock().lock();
+                try {
+                    for (Object[] row : rows) {
+                        append((Long) row[1], (Long) row[2], (Long) row[3], (Long) row[4], (Long) row[5],
+                                (LocalDateTime) row[6], (String) row[7], (Integer) row[8], (BigDecimal) row[9],
+                                (BigDecimal) row[10]);
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                Object[] last = rows.get(rows.size() - 1);
+                afterItemId = (Long) last[0];
+                afterOrderId = (Long) last[1];
+                if (full || rows.size() < LOAD_BATCH_SIZE) {
+                    break;
+                }
+            }
+        } catch (RuntimeException | InterruptedException e) {
+            log.error("Sales cube load failed after {} lines; cube stays disabled", size, e);
+            lock.writeLock().lock();
+            try {
+                loadFailed = true;
+                bufferedEvents.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (BufferedEvent buffered : bufferedEvents) {
+                apply(buffered.event(), buffered.items());
+            }
+            bufferedEvents.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded {} order lines into the sales cube in {} ms", size, System.currentTimeMillis() - started);
+    }
+
+    // One keyset page, retried with doubling delays; lines already loaded are kept
+    private List<Object[]> loadPage(Long afterOrderId, Long afterItemId) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return orderItemRepository.findFactRowsAfter(afterOrderId, afterItemId,
+                        PageRequest.of(0, LOAD_BATCH_SIZE));
+            } catch (RuntimeException e) {
+                if (attempt >= LOAD_ATTEMPTS) {
+                    throw e;
+                }
+                long delay = loadRetryMs << (attempt - 1);
+                log.warn("Sales cube load page after order {} failed (attempt {}), retrying in {} ms: {}",
+                        afterOrderId, attempt, delay, e.getMessage());
+                Thread.sleep(delay);
+            }
+        }
+    }
+
+    @Override
+    public void onOrderEvent(OrderOutboxEvent event) {
+        if (!enabled || loadFailed) {
+            return;
+        }
+        // Query outside the lock so cube readers never wait on the database
+        List<OrderItem> items = "ORDER_CREATED".equals(event.getEventType())
+                ? orderItemRepository.findWithVariantAndProductByOrderIdIn(List.of(event.getOrderId()))
+                : List.of();
+        lock.writeLock().lock();
+        try {
+            if (ready) {
+                apply(event, items);
+            } else if (!loadFailed) {
+                bufferedEvents.add(new BufferedEvent(event, items));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Caller holds the write lock; items are the order's lines for ORDER_CREATED, empty otherwise
+    private void apply(OrderOutboxEvent event, List<OrderItem> items) {
+        switch (event.getEventType()) {
+            case "ORDER_CREATED" -> {
+                if (orderFirstLine.containsKey(event.getOrderId())) {
+                    return;
+                }
+                for (OrderItem item : items) {
+                    Long variantId = item.getProductVariant() != null ? item.getProductVariant().getId() : null;
+                    Product product = item.getProductVariant() != null ? item.getProductVariant().getProduct() : null;
+                    append(event.getOrderId(), variantId,
+                            product != null ? product.getId() : null,
+                            product != null && product.getCategory() != null ? product.getCategory().getId() : null,
+                            product != null && product.getBrand() != null ? product.getBrand().getId() : null,
+                            event.getOrderCreatedAt(), event.getStatus(), item.getQuantity(), item.getPrice(),
+                            DashboardRollupService.unitCost(item));
+                }
+            }
+            case "ORDER_STATUS_CHANGED" -> setStatus(event.getOrderId(), dictionaries[STATUS].encode(event.getStatus()));
+            case "ORDER_DELETED" -> setStatus(event.getOrderId(), DELETED);
+            default -> {
+                // ORDER_UPDATED does not touch any dimension or measure
+            }
+        }
+    }
+
+    private void append(Long orderId, Long variantId, Long productId, Long categoryId, Long brandId,
+            LocalDateTime createdAt, String status, Integer quantity, BigDecimal price, BigDecimal costPrice) {
+        if (size >= maxLines) {
+            if (!full) {
+                full = true;
+                log.warn("Sales cube reached app.sales-cube.max-lines={}; further lines are not tracked", maxLines);
+            }
+            return;
+        }
+        if ((size & CHUNK_MASK) == 0) {
+            chunks.add(new Chunk());
+        }
+        Chunk chunk = chunks.get(size >>> CHUNK_BITS);
+        int i = size & CHUNK_MASK;
+        int qty = quantity != null ? quantity : 0;
+        chunk.orderIds[i] = orderId;
+        chunk.dims[PRODUCT][i] = dictionaries[PRODUCT].encode(productId);
+        chunk.dims[VARIANT][i] = dictionaries[VARIANT].encode(variantId);
+        chunk.dims[CATEGORY][i] = dictionaries[CATEGORY].encode(categoryId);
+        chunk.dims[BRAND][i] = dictionaries[BRAND].encode(brandId);
+        chunk.dims[DAY][i] = createdAt != null ? (int) createdAt.toLocalDate().toEpochDay() : NO_DAY;
+        chunk.dims[STATUS][i] = dictionaries[STATUS].encode(status);
+        chunk.quantity[i] = qty;
+        chunk.revenueCents[i] = cents(price, qty);
+        chunk.costCents[i] = cents(costPrice, qty);
+        if (!orderFirstLine.containsKey(orderId)) {
+            orderFirstLine.put(orderId, size);
+        }
+        size++;
+    }
+
+    private static long cents(BigDecimal unitAmount, int quantity) {
+        return unitAmount != null
+                ? unitAmount.multiply(BigDecimal.valueOf(quantity)).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue()
+                : 0L;
+    }
+
+    // Lines of an order are always appended contiguously
+    private void setStatus(Long orderId, int statusCode) {
+        if (!orderFirstLine.containsKey(orderId)) {
+            return;
+        }
+        for (int line = (int) orderFirstLine.get(orderId); line < size; line++) {
+            Chunk chunk = chunks.get(line >>> CHUNK_BITS);
+            int i = line & CHUNK_MASK;
+            if (chunk.orderIds[i] != orderId) {
+                break;
+            }
+            if (chunk.dims[STATUS][i] != DELETED) {
+                chunk.dims[STATUS][i] = statusCode;
+            }
+        }
+    }
+
+    public SalesCubeResultDTO query(SalesCubeQueryDTO query) {
+        long started = System.currentTimeMillis();
+        List<String> groupBy = query.getGroupBy() != null ? query.getGroupBy() : List.of();
+        int[] groupDims = new int[groupBy.size()];
+        for (int g = 0; g < groupDims.length; g++) {
+            groupDims[g] = dimension(groupBy.get(g));
+        }
+        int limit = Math.min(query.getLimit() != null && query.getLimit() > 0 ? query.getLimit() : DEFAULT_LIMIT, MAX_LIMIT);
+        int fromDay = query.getFrom() != null ? (int) query.getFrom().toEpochDay() : NO_DAY + 1;
+        int toDay = query.getTo() != null ? (int) query.getTo().toEpochDay() : Integer.MAX_VALUE;
+        boolean dayFiltered = query.getFrom() != null || query.getTo() != null;
+
+        lock.readLock().lock();
+        try {
+            BitSet[] filters = new BitSet[DIMENSIONS.size()];
+            if (query.getFilters() != null) {
+                for (Map.Entry<String, List<String>> filter : query.getFilters().entrySet()) {
+                    int d = dimension(filter.getKey());
+                    if (d == DAY) {
+                        throw new BadRequestException("Filter days with 'from' and 'to'");
+                    }
+                    filters[d] = resolve(d, filter.getValue());
+                }
+            }
+
+            int chunkCount = chunks.size();
+            Map<GroupKey, long[]> groups = chunkCount == 0 ? new HashMap<>()
+                    : ForkJoinPool.commonPool().invoke(new ScanTask(new ArrayList<>(chunks), size, 0, chunkCount,
+                            groupDims, filters, dayFiltered, fromDay, toDay));
+
+            List<Map.Entry<GroupKey, long[]>> sorted = new ArrayList<>(groups.entrySet());
+            sorted.sort((a, b) -> Long.compare(b.getValue()[2], a.getValue()[2]));
+            List<SalesCubeRowDTO> rows = new ArrayList<>(Math.min(limit, sorted.size()));
+            for (Map.Entry<GroupKey, long[]> entry : sorted.subList(0, Math.min(limit, sorted.size()))) {
+                Map<String, Object> dimensions = new LinkedHashMap<>();
+                for (int g = 0; g < groupDims.length; g++) {
+                    dimensions.put(DIMENSIONS.get(groupDims[g]), decode(groupDims[g], entry.getKey().codes[g]));
+                }
+                long[] measures = entry.getValue();
+                rows.add(SalesCubeRowDTO.builder()
+                        .dimensions(dimensions)
+                        .lines(measures[0])
+                        .quantity(measures[1])
+                        .revenue(BigDecimal.valueOf(measures[2], 2))
+                        .cost(BigDecimal.valueOf(measures[3], 2))
+                        .grossMargin(BigDecimal.valueOf(measures[2] - measures[3], 2))
+                        .build());
+            }
+            return SalesCubeResultDTO.builder()
+                    .rows(rows)
+                    .groups(groups.size())
+                    .scannedLines(size)
+                    .truncated(full)
+                    .tookMs(System.currentTimeMillis() - started)
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int dimension(String name) {
+        int d = name == null ? -1 : DIMENSIONS.indexOf(name.toLowerCase(Locale.ROOT));
+        if (d < 0) {
+            throw new BadRequestException("Unknown dimension: " + name + " (expected one of " + DIMENSIONS + ")");
+        }
+        return d;
+    }
+
+    // Values that never occur simply match nothing
+    private BitSet resolve(int dimension, List<String> values) {
+        BitSet allowed = new BitSet();
+        if (values == null) {
+            return allowed;
+        }
+        for (String value : values) {
+            Object key;
+            if (dimension == STATUS) {
+                key = value;
+            } else if (value == null || value.isBlank() || "null".equalsIgnoreCase(value)) {
+                key = null;
+            } else {
+                try {
+                    key = Long.parseLong(value.trim());
+                } catch (NumberFormatException e) {
+                    throw new BadRequestException("Invalid " + DIMENSIONS.get(dimension) + " id: " + value);
+                }
+            }
+            int code = dictionaries[dimension].lookup(key);
+            if (code >= 0) {
+                allowed.set(code);
+            }
+        }
+        return allowed;
+    }
+
+    private Object decode(int dimension, int code) {
+        if (dimension == DAY) {
+            return code == NO_DAY ? null : LocalDate.ofEpochDay(code);
+        }
+        return dictionaries[dimension].decode(code);
+    }
+
+    private static final class Chunk {
+        final long[] orderIds = new long[CHUNK_SIZE];
+        final int[][] dims = new int[DIMENSIONS.size()][CHUNK_SIZE];
+        final int[] quantity = new int[CHUNK_SIZE];
+        final long[] revenueCents = new long[CHUNK_SIZE];
+        final long[] costCents = new long[CHUNK_SIZE];
+    }
+
+    private static final class ScanTask extends RecursiveTask<Map<GroupKey, long[]>> {
+        private final List<Chunk> chunks;
+        private final int size;
+        private final int from;
+        private final int to;
+        private final int[] groupDims;
+        private final BitSet[] filters;
+        private final boolean dayFiltered;
+        private final int fromDay;
+        private final int toDay;
+
+        ScanTask(List<Chunk> chunks, int size, int from, int to, int[] groupDims, BitSet[] filters,
+                boolean dayFiltered, int fromDay, int toDay) {
+            this.chunks = chunks;
+            this.size = size;
+            this.from = from;
+            this.to = to;
+            this.groupDims = groupDims;
+            this.filters = filters;
+            this.dayFiltered = dayFiltered;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+        }
+
+        @Override
+        protected Map<GroupKey, long[]> compute() {
+            if (to - from == 1) {
+                return scan(from);
+            }
+            int mid = (from + to) >>> 1;
+            ScanTask left = new ScanTask(chunks, size, from, mid, groupDims, filters, dayFiltered, fromDay, toDay);
+            ScanTask right = new ScanTask(chunks, size, mid, to, groupDims, filters, dayFiltered, fromDay, toDay);
+            left.fork();
+            Map<GroupKey, long[]> merged = right.compute();
+            Map<GroupKey, long[]> other = left.join();
+            if (other.size() > merged.size()) {
+                Map<GroupKey, long[]> swap = merged;
+                merged = other;
+                other = swap;
+            }
+            for (Map.Entry<GroupKey, long[]> entry : other.entrySet()) {
+                long[] target = merged.get(entry.getKey());
+                if (target == null) {
+                    merged.put(entry.getKey(), entry.getValue());
+                } else {
+                    long[] source = entry.getValue();
+                    target[0] += source[0];
+                    target[1] += source[1];
+                    target[2] += source[2];
+                    target[3] += source[3];
+                }
+            }
+            return merged;
+        }
+
+        private Map<GroupKey, long[]> scan(int chunkIndex) {
+            Map<GroupKey, long[]> groups = new HashMap<>();
+            Chunk chunk = chunks.get(chunkIndex);
+            int lines = Math.min(CHUNK_SIZE, size - (chunkIndex << CHUNK_BITS));
+            int[] status = chunk.dims[STATUS];
+            int[] day = chunk.dims[DAY];
+            GroupKey probe = new GroupKey(new int[groupDims.length]);
+            rows:
+            for (int i = 0; i < lines; i++) {
+                if (status[i] == DELETED) {
+                    continue;
+                }
+                if (dayFiltered && (day[i] < fromDay || day[i] > toDay)) {
+                    continue;
+                }
+                for (int d = 0; d < filters.length; d++) {
+                    if (filters[d] != null && !filters[d].get(chunk.dims[d][i])) {
+                        continue rows;
+                    }
+                }
+                for (int g = 0; g < groupDims.length; g++) {
+                    probe.codes[g] = chunk.dims[groupDims[g]][i];
+                }
+                probe.rehash();
+                long[] measures = groups.get(probe);
+                if (measures == null) {
+                    measures = new long[4];
+                    groups.put(probe.copy(), measures);
+                }
+                measures[0]++;
+                measures[1] += chunk.quantity[i];
+                measures[2] += chunk.revenueCents[i];
+                measures[3] += chunk.costCents[i];
+            }
+            return groups;
+        }
+    }
+
+    // Event received while the cube was loading, with its lines already read
+    private record BufferedEvent(OrderOutboxEvent event, List<OrderItem> items) {
+    }
+
+    private static final class GroupKey {
+        final int[] codes;
+        private int hash;
+
+        GroupKey(int[] codes) {
+            this.codes = codes;
+            rehash();
+        }
+
+        void rehash() {
+            hash = Arrays.hashCode(codes);
+        }
+
+        GroupKey copy() {
+            return new GroupKey(codes.clone());
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof GroupKey other && hash == other.hash && Arrays.equals(codes, other.codes);
+        }
+    }
+
+    private static final class Dictionary {
+        private final Map<Object, Integer> codes = new HashMap<>();
+        private final List<Object> values = new ArrayList<>();
+
+        int encode(Object value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        int lookup(Object value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        Object decode(int code) {
+            return values.get(code);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.example.be.service;
+
+import com.example.be.entity.OrderItem;
+import com.example.be.entity.OrderOutboxEvent;
+import com.example.be.repository.OrderItemRepository;
+import com.example.be.repository.OrderRepository;
+import com.example.be.repository.ProductSimilarityRepository;
+import com.example.be.util.LongLongMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Item-to-item "bought together" neighbours.
+ *
+ * The full job reads every non-cancelled order as a basket of distinct products,
+ * counts product pairs in parallel (each shard owns a slice of the products and
+ * counts their pairs in primitive maps, so no partial counts are merged), scores each pair by cosine similarity co(a,b) / sqrt(n(a) * n(b))
+ * and keeps the top K per product in product_similarities and in memory.
+ *
+ * New orders mark their products dirty; a scheduled pass recomputes only those
+ * products' neighbour lists from order_items, so neighbours shift without a full
+ * recompute. The full job also runs nightly to pick up the small score drift of
+ * products that were not in any new order.
+ */
+@Slf4j
+@Service
+public class SimilarProductsService implements OrderEventSubscriber {
+    private static final int LOAD_BATCH_SIZE = 5000;
+    private static final int MAX_BASKET_PRODUCTS = 50; // bulk orders say little about similarity
+    private static final String INSERT_SQL = "INSERT INTO product_similarities " +
+            "(product_id, neighbour_id, neighbour_rank, score, co_purchases) VALUES (?, ?, ?, ?, ?)";
+
+    private final OrderItemRepository orderItemRepository;
+    private final OrderRepository orderRepository;
+    private final ProductSimilarityRepository productSimilarityRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int topK;
+    private final int minCoPurchases;
+
+    private final Map<Long, long[]> neighbours = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyProducts = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+
+    public SimilarProductsService(OrderItemRepository orderItemRepository,
+            OrderRepository orderRepository,
+            ProductSimilarityRepository productSimilarityRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.similar.top-k:20}") int topK,
+            @Value("${app.similar.min-co-purchases:1}") int minCoPurchases) {
+        this.orderItemRepository = orderItemRepository;
+        this.orderRepository = orderRepository;
+        this.productSimilarityRepository = productSimilarityRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.topK = topK;
+        this.minCoPurchases = minCoPurchases;
+    }
+
+    /**
+     * Neighbour ids of a product, best first. Empty if the product was never
+     * bought together with anything.
+     */
+    public List<Long> getNeighbours(Long productId, int limit) {
+        long[] ids = productId != null ? neighbours.get(productId) : null;
+        if (ids == null) {
+            return List.of();
+        }
+        List<Long> result = new ArrayList<>(Math.min(limit, ids.length));
+        for (int i = 0; i < ids.length && i < limit; i++) {
+            result.add(ids[i]);
+        }
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        CompletableFuture.runAsync(() -> {
+            Map<Long, List<Long>> stored = new HashMap<>();
+            for (Object[] row : productSimilarityRepository.findAllNeighbourPairs()) {
+                stored.computeIfAbsent((Long) row[0], k -> new ArrayList<>()).add((Long) row[1]);
+            }
+            stored.forEach((productId, ids) -> neighbours.put(productId, ids.stream().mapToLong(Long::longValue).toArray()));
+            if (stored.isEmpty() && orderRepository.count() > 0) {
+                rebuild();
+            } else {
+                log.info("Loaded similar products for {} products", stored.size());
+            }
+        });
+    }
+
+    @Override
+    public void onOrderEvent(OrderOutboxEvent event) {
+        if (!"ORDER_CREATED".equals(event.getEventType()) && !"ORDER_STATUS_CHANGED".equals(event.getEventType())) {
+            return;
+        }
+        // Cancelling an order removes it from the baskets as well
+        if ("ORDER_STATUS_CHANGED".equals(event.getEventType()) && !"CANCELLED".equals(event.getStatus())) {
+            return;
+        }
+        for (OrderItem item : orderItemRepository.findWithVariantAndProductByOrderIdIn(List.of(event.getOrderId()))) {
+            if (item.getProductVariant() != null && item.getProductVariant().getProduct() != null) {
+                dirtyProducts.add(item.getProductVariant().getProduct().getId());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.similar.refresh-ms:60000}")
+    public void refreshDirty() {
+        if (dirtyProducts.isEmpty() || rebuilding.get()) {
+            return;
+        }
+        List<Long> batch = new ArrayList<>(dirtyProducts);
+        dirtyProducts.removeAll(batch);
+        for (Long productId : batch) {
+            try {
+                refreshProduct(productId);
+            } catch (RuntimeException e) {
+                dirtyProducts.add(productId);
+                log.warn("Could not refresh similar products for {}: {}", productId, e.getMessage());
+            }
+        }
+    }
+
+    private void refreshProduct(Long productId) {
+        List<Object[]> coRows = orderItemRepository.countCoPurchases(productId, MAX_BASKET_PRODUCTS);
+        LongLongMap coCounts = new LongLongMap(coRows.size());
+        Set<Long> ids = new HashSet<>();
+        ids.add(productId);
+        for (Object[] row : coRows) {
+            long other = ((Number) row[0]).longValue();
+            coCounts.put(other, ((Number) row[1]).longValue());
+            ids.add(other);
+        }
+        LongLongMap orderCounts = new LongLongMap(ids.size());
+        for (Object[] row : orderItemRepository.countOrdersByProductIdIn(ids, MAX_BASKET_PRODUCTS)) {
+            orderCounts.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+        List<Neighbour> ranked = rank(coCounts, orderCounts.get(productId), orderCounts);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM product_similarities WHERE product_id = ?", productId);
+            insert(productId, ranked);
+        });
+        publish(productId, ranked);
+    }
+
+    // Runs on the common pool so the scheduler thread is free for the other jobs
+    @Scheduled(cron = "${app.similar.rebuild-cron:0 0 4 * * *}")
+    public void scheduledRebuild() {
+        CompletableFuture.runAsync(this::rebuild);
+    }
+
+    /**
+     * Recompute every product's neighbours from all orders. Returns false if a
+     * rebuild is already running.
+     */
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            dirtyProducts.clear();
+            List<long[]> baskets = loadBaskets();
+
+            // Orders per product
+            LongLongMap orderCounts = new LongLongMap();
+            for (long[] basket : baskets) {
+                for (long productId : basket) {
+                    orderCounts.add(productId, 1);
+                }
+            }
+
+            // Pair counts: each shard counts and ranks the pairs of its own products, so every
+            // pair is held once and a shard's counts are dropped as soon as it is ranked
+            int shards = ForkJoinPool.commonPool().getParallelism() * 4;
+            Map<Long, List<Neighbour>> ranked = new ConcurrentHashMap<>();
+            ForkJoinPool.commonPool().submit(() -> IntStream.range(0, shards).parallel().forEach(shard ->
+                    countPairs(baskets, shard, shards).forEach((productId, coCounts) ->
+                            ranked.put(productId, rank(coCounts, orderCounts.get(productId), orderCounts))))).join();
+
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM product_similarities");
+                ranked.forEach(this::insert);
+            });
+            neighbours.keySet().retainAll(ranked.keySet());
+            ranked.forEach(this::publish);
+            log.info("Rebuilt similar products for {} products from {} orders in {} ms",
+                    ranked.size(), baskets.size(), System.currentTimeMillis() - started);
+            return true;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    // Distinct products per non-cancelled order; lines arrive sorted by order id
+    private List<long[]> loadBaskets() {
+        List<long[]> baskets = new ArrayList<>();
+        Set<Long> current = new LinkedHashSet<>();
+        long currentOrderId = -1;
+        Long afterOrderId = 0L;
+        Long afterItemId = 0L;
+        while (true) {
+            List<Object[]> rows = orderItemRepository.findFactRowsAfter(afterOrderId, afterItemId,
+                    PageRequest.of(0, LOAD_BATCH_SIZE));
+            for (Object[] row : rows) {
+                long orderId = (Long) row[1];
+                if (orderId != currentOrderId) {
+                    addBasket(baskets, current);
+                    current.clear();
+                    currentOrderId = orderId;
+                }
+                if (row[3] != null && !"CANCELLED".equals(row[7])) {
+                    current.add((Long) row[3]);
+                }
+            }
+            if (rows.size() < LOAD_BATCH_SIZE) {
+                break;
+            }
+            Object[] last = rows.get(rows.size() - 1);
+            afterItemId = (Long) last[0];
+            afterOrderId = (Long) last[1];
+        }
+        addBasket(baskets, current);
+        return baskets;
+    }
+
+    private static void addBasket(List<long[]> baskets, Set<Long> products) {
+        if (!products.isEmpty() && products.size() <= MAX_BASKET_PRODUCTS) {
+            long[] basket = products.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(basket);
+            baskets.add(basket);
+        }
+    }
+
+    // Pair counts (a, b) for the products a of one shard, over all baskets
+    private static Map<Long, LongLongMap> countPairs(List<long[]> baskets, int shard, int shards) {
+        Map<Long, LongLongMap> counts = new HashMap<>();
+        for (long[] basket : baskets) {
+            for (int i = 0; i < basket.length; i++) {
+                if (basket[i] % shards != shard) {
+                    continue;
+                }
+                LongLongMap row = counts.computeIfAbsent(basket[i], k -> new LongLongMap(16));
+                for (int j = 0; j < basket.length; j++) {
+                    if (i != j) {
+                        row.add(basket[j], 1);
+                    }
+                }
+            }
+        }
+        return counts;
+    }
+
+    private List<Neighbour> rank(LongLongMap coCounts, long ownOrders, LongLongMap orderCounts) {
+        List<Neighbour> candidates = new ArrayList<>();
+        if (ownOrders == 0) {
+            return candidates;
+        }
+        coCounts.forEach((other, co) -> {
+            long otherOrders = orderCounts.get(other);
+            if (co >= minCoPurchases && otherOrders > 0) {
+                candidates.add(new Neighbour(other, co / Math.sqrt((double) ownOrders * otherOrders), (int) co));
+            }
+        });
+        candidates.sort((x, y) -> x.score() != y.score() ? Double.compare(y.score(), x.score())
+                : Integer.compare(y.coPurchases(), x.coPurchases()));
+        return candidates.size() > topK ? new ArrayList<>(candidates.subList(0, topK)) : candidates;
+    }
+
+    private void insert(Long productId, List<Neighbour> ranked) {
+        List<Object[]> batch = new ArrayList<>(ranked.size());
+        for (int i = 0; i < ranked.size(); i++) {
+            Neighbour n = ranked.get(i);
+            batch.add(new Object[]{productId, n.productId(), i, n.score(), n.coPurchases()});
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        }
+    }
+
+    private void publish(Long productId, List<Neighbour> ranked) {
+        if (ranked.isEmpty()) {
+            neighbours.remove(productId);
+        } else {
+            neighbours.put(productId, ranked.stream().mapToLong(Neighbour::productId).toArray());
+        }
+    }
+
+    private record Neighbour(long productId, double score, int coPurchases) {
+    }
+}
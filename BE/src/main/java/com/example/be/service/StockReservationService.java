@@ -0,0 +1,83 @@
+package com.example.be.service;
+
+import com.example.be.entity.OrderItem;
+import com.example.be.exception.InsufficientStockException;
+import com.example.be.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Decrements stock for every line of an order. The variant rows are first locked
+ * with one SELECT ... FOR UPDATE in ascending id order, so two concurrent checkouts
+ * always lock in the same order and cannot deadlock, and the quantities are checked
+ * against the locked stock. The decrements then go out as one JDBC batch whose
+ * update counts are not needed, so the driver may rewrite it (rewriteBatchedStatements).
+ * If any line cannot be satisfied the caller's transaction is rolled back as a whole.
+ * Stock is part of the upsert import hash, so the update clears import_hash the way
+ * ProductVariant's @PreUpdate would.
+ */
+@Service
+@RequiredArgsConstructor
+public class StockReservationService {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE product_variants SET stock_quantity = stock_quantity - ?, import_hash = NULL WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LowStockService lowStockService;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(List<OrderItem> items) {
+        // Merge duplicate lines for the same variant; TreeMap gives the lock order
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderItem item : items) {
+            if (item.getProductVariant() == null || item.getProductVariant().getId() == null) {
+                throw new IllegalArgumentException("Product variant is required for each item");
+            }
+            if (item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Item quantity must be positive");
+            }
+            quantities.merge(item.getProductVariant().getId(), item.getQuantity(), Integer::sum);
+        }
+        if (quantities.isEmpty()) {
+            return;
+        }
+
+        // Locked until the caller's transaction ends; nothing can change the stock checked below
+        String placeholders = String.join(",", quantities.keySet().stream().map(id -> "?").toList());
+        Map<Long, Object[]> current = new TreeMap<>();
+        jdbcTemplate.query("SELECT id, sku, stock_quantity FROM product_variants WHERE id IN (" + placeholders + ") "
+                + "ORDER BY id FOR UPDATE", rs -> {
+                    current.put(rs.getLong(1), new Object[] { rs.getString(2), rs.getInt(3) });
+                }, quantities.keySet().toArray());
+
+        List<String> skus = new ArrayList<>();
+        List<String> details = new ArrayList<>();
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Object[] row = current.get(line.getKey());
+            if (row == null) {
+                throw new ResourceNotFoundException("Product variant not found with id: " + line.getKey());
+            }
+            if ((Integer) row[1] < line.getValue()) {
+                skus.add((String) row[0]);
+                details.add(row[0] + " (requested " + line.getValue() + ", available " + row[1] + ")");
+            }
+        }
+        if (!skus.isEmpty()) {
+            throw new InsufficientStockException("Insufficient stock for " + String.join(", ", details), skus);
+        }
+
+        List<Object[]> batch = new ArrayList<>(quantities.size());
+        quantities.forEach((variantId, qty) -> batch.add(new Object[] { qty, variantId }));
+        jdbcTemplate.batchUpdate(DECREMENT_SQL, batch);
+        lowStockService.stockChanged(quantities.keySet());
+    }
+}
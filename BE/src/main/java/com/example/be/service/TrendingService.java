@@ -0,0 +1,181 @@
+package com.example.be.service;
+
+import com.example.be.entity.OrderItem;
+import com.example.be.entity.OrderOutboxEvent;
+import com.example.be.exception.BadRequestException;
+import com.example.be.repository.OrderItemRepository;
+import com.example.be.util.SpaceSavingSketch;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Trending products over the last hour, day and week.
+ *
+ * Product views and ordered units feed one time-decayed Space-Saving sketch per
+ * window (decay constant = window length), so top-N is answered from at most
+ * {@code capacity} in-memory counters without touching the database. Sketches
+ * are snapshotted to disk periodically and on shutdown, and restored at startup.
+ *
+ * The outbox relay redelivers an event to every subscriber when any one of them
+ * fails, so the ids of recently applied events are remembered and repeats skipped.
+ */
+@Slf4j
+@Service
+public class TrendingService implements OrderEventSubscriber {
+    private static final int SNAPSHOT_MAGIC = 0x54524e44; // "TRND"
+    private static final int SNAPSHOT_VERSION = 1;
+    public static final String DEFAULT_WINDOW = "24h";
+
+    private final OrderItemRepository orderItemRepository;
+    private final int capacity;
+    private final double viewWeight;
+    private final double orderUnitWeight;
+    private final Path snapshotPath;
+    private final Map<String, SpaceSavingSketch> windows = new LinkedHashMap<>();
+    private final Set<Long> appliedEventIds;
+
+    public TrendingService(OrderItemRepository orderItemRepository,
+            @Value("${app.trending.capacity:500}") int capacity,
+            @Value("${app.trending.view-weight:1}") double viewWeight,
+            @Value("${app.trending.order-unit-weight:5}") double orderUnitWeight,
+            @Value("${app.trending.snapshot-path:data/trending.snapshot}") String snapshotPath,
+            @Value("${app.trending.applied-event-ids:10000}") int appliedEventIds) {
+        this.orderItemRepository = orderItemRepository;
+        this.capacity = capacity;
+        this.viewWeight = viewWeight;
+        this.orderUnitWeight = orderUnitWeight;
+        this.snapshotPath = Paths.get(snapshotPath).toAbsolutePath().normalize();
+        this.appliedEventIds = Collections.newSetFromMap(new LinkedHashMap<>(256, 0.75f) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return size() > appliedEventIds;
+            }
+        });
+        long now = System.currentTimeMillis();
+        windows.put("1h", new SpaceSavingSketch(capacity, Duration.ofHours(1).toMillis(), now));
+        windows.put("24h", new SpaceSavingSketch(capacity, Duration.ofHours(24).toMillis(), now));
+        windows.put("7d", new SpaceSavingSketch(capacity, Duration.ofDays(7).toMillis(), now));
+    }
+
+    public List<String> getWindows() {
+        return new ArrayList<>(windows.keySet());
+    }
+
+    public void recordView(Long productId) {
+        if (productId != null) {
+            record(productId, viewWeight);
+        }
+    }
+
+    @Override
+    public void onOrderEvent(OrderOutboxEvent event) {
+        if (!"ORDER_CREATED".equals(event.getEventType())) {
+            return;
+        }
+        synchronized (appliedEventIds) {
+            if (appliedEventIds.contains(event.getId())) {
+                return;
+            }
+        }
+        for (OrderItem item : orderItemRepository.findWithVariantAndProductByOrderIdIn(List.of(event.getOrderId()))) {
+            if (item.getProductVariant() != null && item.getProductVariant().getProduct() != null) {
+                int quantity = item.getQuantity() != null ? item.getQuantity() : 1;
+                record(item.getProductVariant().getProduct().getId(), orderUnitWeight * quantity);
+            }
+        }
+        // Only after recording, so an event whose lines could not be read is applied on retry
+        synchronized (appliedEventIds) {
+            appliedEventIds.add(event.getId());
+        }
+    }
+
+    private void record(long productId, double weight) {
+        long now = System.currentTimeMillis();
+        for (SpaceSavingSketch sketch : windows.values()) {
+            sketch.add(productId, weight, now);
+        }
+    }
+
+    public List<SpaceSavingSketch.Entry> top(String window, int limit) {
+        SpaceSavingSketch sketch = windows.get(window == null ? DEFAULT_WINDOW : window);
+        if (sketch == null) {
+            throw new BadRequestException("Unknown window: " + window + " (expected one of " + windows.keySet() + ")");
+        }
+        return sketch.top(Math.max(1, Math.min(limit, capacity)), System.currentTimeMillis());
+    }
+
+    public List<Long> topProductIds(String window, int limit) {
+        return top(window, limit).stream().map(SpaceSavingSketch.Entry::item).toList();
+    }
+
+    public void reset() {
+        long now = System.currentTimeMillis();
+        windows.values().forEach(sketch -> sketch.clear(now));
+        log.info("Trending sketches reset");
+    }
+
+    @PostConstruct
+    public void restore() {
+        if (!Files.exists(snapshotPath)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                log.warn("Ignoring trending snapshot {} with unknown format", snapshotPath);
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                SpaceSavingSketch sketch = windows.get(name);
+                // Unknown windows still have to be read past
+                (sketch != null ? sketch : new SpaceSavingSketch(capacity, 1, 0)).readFrom(in);
+            }
+            log.info("Restored trending sketches from {}", snapshotPath);
+        } catch (IOException e) {
+            log.warn("Could not restore trending snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${app.trending.snapshot-ms:300000}", initialDelayString = "${app.trending.snapshot-ms:300000}")
+    public void snapshot() {
+        try {
+            Files.createDirectories(snapshotPath.getParent());
+            Path temp = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeInt(windows.size());
+                for (Map.Entry<String, SpaceSavingSketch> entry : windows.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    entry.getValue().writeTo(out);
+                }
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write trending snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+}
@@ -3,6 +3,9 @@ package com.example.be.service;
 import com.example.be.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import java.util.Optional;
 
 public interface UserService {
@@ -17,4 +20,6 @@ public interface UserService {
     void deleteUser(Long id);
 
     Page<User> searchUsers(String keyword, String role, Pageable pageable);
+
+    Window<User> scrollUsers(ScrollPosition position, Sort sort, int limit);
 }
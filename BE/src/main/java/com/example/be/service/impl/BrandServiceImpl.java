@@ -3,6 +3,7 @@ package com.example.be.service.impl;
 import com.example.be.entity.Brand;
 import com.example.be.repository.BrandRepository;
 import com.example.be.service.BrandService;
+import com.example.be.service.ProductSearchService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -16,6 +17,7 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class BrandServiceImpl implements BrandService {
     private final BrandRepository brandRepository;
+    private final ProductSearchService productSearchService;
 
     @Override
     public List<Brand> getAllBrands() {
@@ -39,7 +41,9 @@ public class BrandServiceImpl implements BrandService {
 
     @Override
     public Brand saveBrand(Brand brand) {
-        return brandRepository.save(brand);
+        Brand saved = brandRepository.save(brand);
+        productSearchService.renameBrand(saved.getId(), saved.getName());
+        return saved;
     }
 
     @Override
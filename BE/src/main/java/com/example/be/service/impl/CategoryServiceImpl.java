@@ -3,6 +3,7 @@ package com.example.be.service.impl;
 import com.example.be.entity.Category;
 import com.example.be.repository.CategoryRepository;
 import com.example.be.service.CategoryService;
+import com.example.be.service.ProductSearchService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -16,6 +17,7 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class CategoryServiceImpl implements CategoryService {
     private final CategoryRepository categoryRepository;
+    private final ProductSearchService productSearchService;
 
     @Override
     public List<Category> getAllCategories() {
@@ -39,7 +41,9 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     public Category saveCategory(Category category) {
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        productSearchService.renameCategory(saved.getId(), saved.getName());
+        return saved;
     }
 
     @Override
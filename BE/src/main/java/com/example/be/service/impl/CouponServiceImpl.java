@@ -8,6 +8,10 @@ import com.example.be.util.DtoMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -46,6 +50,13 @@ public class CouponServiceImpl implements CouponService {
         return couponRepository.findAll(pageable).map(dtoMapper::toCouponDTO);
     }
 
+    @Override
+    public Window<CouponDTO> scrollCoupons(ScrollPosition position, Sort sort, int limit) {
+        return couponRepository.findBy(Specification.<Coupon>unrestricted(),
+                q -> q.sortBy(sort).limit(limit).scroll(position))
+                .map(dtoMapper::toCouponDTO);
+    }
+
     @Override
     public Page<CouponDTO> searchCoupons(String keyword, Boolean isActive, Pageable pageable) {
         return couponRepository.searchCoupons(keyword, isActive, pageable).map(dtoMapper::toCouponDTO);
@@ -3,9 +3,14 @@ package com.example.be.service.impl;
 import com.example.be.entity.Discount;
 import com.example.be.repository.DiscountRepository;
 import com.example.be.service.DiscountService;
+import com.example.be.service.ProductCacheService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -15,12 +20,18 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class DiscountServiceImpl implements DiscountService {
     private final DiscountRepository discountRepository;
+    private final ProductCacheService productCacheService;
 
     @Override
     public Page<Discount> getAllDiscounts(Pageable pageable) {
         return discountRepository.findAll(pageable);
     }
 
+    @Override
+    public Window<Discount> scrollDiscounts(ScrollPosition position, Sort sort, int limit) {
+        return discountRepository.findBy(Specification.unrestricted(), q -> q.sortBy(sort).limit(limit).scroll(position));
+    }
+
     @Override
     public List<Discount> getDiscountsByProductId(Long productId) {
         return discountRepository.findByProductId(productId);
@@ -33,11 +44,18 @@ public class DiscountServiceImpl implements DiscountService {
 
     @Override
     public Discount saveDiscount(Discount discount) {
-        return discountRepository.save(discount);
+        Discount saved = discountRepository.save(discount);
+        if (saved.getProduct() != null) {
+            productCacheService.evict(saved.getProduct().getId());
+        }
+        return saved;
     }
 
     @Override
     public void deleteDiscount(Long id) {
+        discountRepository.findById(id)
+                .filter(discount -> discount.getProduct() != null)
+                .ifPresent(discount -> productCacheService.evict(discount.getProduct().getId()));
         discountRepository.deleteById(id);
     }
 
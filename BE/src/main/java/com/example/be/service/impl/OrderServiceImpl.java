@@ -8,9 +8,14 @@ import com.example.be.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,19 +25,32 @@ public class OrderServiceImpl implements OrderService {
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final com.example.be.repository.OrderStatusHistoryRepository orderStatusHistoryRepository;
-    private final com.example.be.repository.ProductVariantRepository productVariantRepository;
     private final com.example.be.service.LoyaltyService loyaltyService;
+    private final com.example.be.service.ProductCacheService productCacheService;
+    private final com.example.be.service.StockReservationService stockReservationService;
+    private final com.example.be.service.OrderOutboxService orderOutboxService;
+    private final com.example.be.service.OrderLookupService orderLookupService;
 
     @Override
     public Page<Order> getAllOrders(Pageable pageable) {
         return orderRepository.findAll(pageable);
     }
 
+    @Override
+    public Window<Order> scrollOrders(ScrollPosition position, Sort sort, int limit) {
+        return orderRepository.findBy(Specification.unrestricted(), q -> q.project("user", "coupon").sortBy(sort).limit(limit).scroll(position));
+    }
+
     @Override
     public List<Order> getOrdersByUserId(Long userId) {
         return orderRepository.findByUserId(userId);
     }
 
+    @Override
+    public Page<Order> getOrdersByUserId(Long userId, Pageable pageable) {
+        return orderRepository.findByUserId(userId, pageable);
+    }
+
     @Override
     public Optional<Order> getOrderById(Long id) {
         return orderRepository.findById(id);
@@ -47,31 +65,24 @@ public class OrderServiceImpl implements OrderService {
         }
         Order savedOrder = orderRepository.save(order);
 
-        // Associate items with the saved order and save them
+        // Reserve stock for all lines at once, then save the items
         if (items != null && !items.isEmpty()) {
+            stockReservationService.reserve(items);
             for (OrderItem item : items) {
-                // Fetch Variant
-                com.example.be.entity.ProductVariant variant = productVariantRepository
-                        .findById(item.getProductVariant().getId())
-                        .orElseThrow(() -> new RuntimeException("Product Variant not found"));
-
-                // Check Stock
-                if (variant.getStockQuantity() < item.getQuantity()) {
-                    throw new RuntimeException("Insufficient stock for product: " + variant.getSku());
-                }
-
-                // Deduct Stock
-                variant.setStockQuantity(variant.getStockQuantity() - item.getQuantity());
-                productVariantRepository.save(variant);
-
                 item.setOrder(savedOrder);
-                orderItemRepository.save(item);
+                // Freeze the cost so later goods receipts do not rewrite historical margins
+                item.setCostPrice(item.getProductVariant().getCostPrice());
+                if (item.getProductVariant().getProduct() != null) {
+                    productCacheService.evict(item.getProductVariant().getProduct().getId());
+                }
             }
+            orderItemRepository.saveAll(items);
         }
         // ...
 
         // Log History
         logStatusChange(savedOrder, "Order Created");
+        orderOutboxService.record(savedOrder, "ORDER_CREATED", null);
 
         // Handle Points Redemption
         if (order.getPointsUsed() != null && order.getPointsUsed() > 0 && order.getUser() != null) {
@@ -83,19 +94,23 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional
     public Order updateOrder(Order order) {
-        Optional<Order> oldOrderOpt = orderRepository.findById(order.getId());
-        String oldStatus = oldOrderOpt.map(Order::getStatus).orElse("UNKNOWN");
+        // Read the stored values, not the (possibly already modified) managed entity
+        Object[] stored = orderRepository.findStoredStateById(order.getId()).stream().findFirst()
+                .orElse(new Object[]{"UNKNOWN", null, null});
+        String oldStatus = (String) stored[0];
+        BigDecimal oldTotal = (BigDecimal) stored[1];
+        String oldPaymentMethod = (String) stored[2];
 
         Order saved = orderRepository.save(order);
 
         if (!saved.getStatus().equals(oldStatus)) {
             logStatusChange(saved, "Status updated from " + oldStatus + " to " + saved.getStatus());
-
-            // Loyalty Trigger
-            if ("DELIVERED".equals(saved.getStatus())) {
-                loyaltyService.processOrderCompletion(saved);
-            }
+            // Loyalty, notifications etc. react to this event after commit
+            orderOutboxService.record(saved, "ORDER_STATUS_CHANGED", oldStatus, oldTotal, oldPaymentMethod);
+        } else {
+            orderOutboxService.record(saved, "ORDER_UPDATED", oldStatus, oldTotal, oldPaymentMethod);
         }
         return saved;
     }
@@ -110,7 +125,9 @@ public class OrderServiceImpl implements OrderService {
     }
 
     @Override
+    @Transactional
     public void deleteOrder(Long id) {
+        orderRepository.findById(id).ifPresent(order -> orderOutboxService.record(order, "ORDER_DELETED", order.getStatus()));
         orderRepository.deleteById(id);
     }
 
@@ -125,6 +142,9 @@ public class OrderServiceImpl implements OrderService {
     }
     @Override
     public Page<Order> searchOrders(String keyword, String status, Pageable pageable) {
-        return orderRepository.searchOrders(keyword, status, pageable);
+        if (keyword != null && !keyword.isBlank() && orderLookupService.isReady()) {
+            return orderLookupService.search(keyword, status, pageable);
+        }
+        return orderRepository.searchOrders(keyword == null || keyword.isBlank() ? null : keyword, status, pageable);
     }
 }
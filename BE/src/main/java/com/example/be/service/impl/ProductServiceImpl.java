@@ -4,26 +4,47 @@ import com.example.be.entity.Product;
 import com.example.be.entity.ProductImage;
 import com.example.be.repository.ProductImageRepository;
 import com.example.be.repository.ProductRepository;
+import com.example.be.service.CatalogFacetService;
+import com.example.be.service.ProductCacheService;
+import com.example.be.service.ProductSearchService;
 import com.example.be.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
     private final ProductRepository productRepository;
     private final ProductImageRepository productImageRepository;
+    private final ProductCacheService productCacheService;
+    private final ProductSearchService productSearchService;
+    private final CatalogFacetService catalogFacetService;
 
     @Override
     public Page<Product> getAllProducts(Pageable pageable) {
         return productRepository.findAll(pageable);
     }
 
+    @Override
+    public Window<Product> scrollProducts(ScrollPosition position, Sort sort, int limit) {
+        return productRepository.findBy(Specification.unrestricted(), q -> q.project("category", "brand").sortBy(sort).limit(limit).scroll(position));
+    }
+
     @Override
     public Optional<Product> getProductById(Long id) {
         return productRepository.findById(id);
@@ -46,12 +67,19 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public Product saveProduct(Product product) {
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        productCacheService.evict(saved.getId());
+        productSearchService.reindex(saved.getId());
+        catalogFacetService.refresh(saved.getId());
+        return saved;
     }
 
     @Override
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        productCacheService.evict(id);
+        productSearchService.remove(id);
+        catalogFacetService.refresh(id);
     }
 
     @Override
@@ -61,17 +89,51 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public ProductImage saveProductImage(ProductImage image) {
-        return productImageRepository.save(image);
+        ProductImage saved = productImageRepository.save(image);
+        if (saved.getProduct() != null) {
+            productCacheService.evict(saved.getProduct().getId());
+        }
+        return saved;
     }
 
     @Override
     public void deleteProductImage(Long imageId) {
+        productImageRepository.findById(imageId)
+                .filter(image -> image.getProduct() != null)
+                .ifPresent(image -> productCacheService.evict(image.getProduct().getId()));
         productImageRepository.deleteById(imageId);
     }
 
     @Override
     public Page<Product> searchProducts(String keyword, Long categoryId, Long brandId, java.math.BigDecimal minPrice,
             java.math.BigDecimal maxPrice, Boolean active, Pageable pageable) {
+        if (keyword != null && !keyword.isBlank() && productSearchService.isReady()
+                && productSearchService.supportsSort(pageable.getSort())) {
+            List<Long> ids = productSearchService.search(keyword, categoryId, brandId, minPrice, maxPrice, active,
+                    pageable.getSort());
+            if (ids != null) {
+                return toPage(ids, pageable);
+            }
+        }
+        // "relevance" only exists in the search index; the SQL fallback orders by id instead
+        if (pageable.getSort().getOrderFor("relevance") != null) {
+            Sort.Direction direction = pageable.getSort().getOrderFor("relevance").getDirection();
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by(direction, "id"));
+        }
         return productRepository.searchProducts(keyword, categoryId, brandId, minPrice, maxPrice, active, pageable);
     }
+
+    // Only the requested page of ids is read from the database
+    private Page<Product> toPage(List<Long> ids, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        List<Long> pageIds = ids.subList(from, to);
+        Map<Long, Product> productsById = productRepository.findWithCategoryAndBrandByIdIn(pageIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<Product> content = pageIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, ids.size());
+    }
 }
@@ -2,6 +2,10 @@ package com.example.be.service.impl;
 
 import com.example.be.entity.ProductVariant;
 import com.example.be.repository.ProductVariantRepository;
+import com.example.be.service.CatalogFacetService;
+import com.example.be.service.LowStockService;
+import com.example.be.service.ProductCacheService;
+import com.example.be.service.ProductSearchService;
 import com.example.be.service.ProductVariantService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -13,6 +17,10 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class ProductVariantServiceImpl implements ProductVariantService {
     private final ProductVariantRepository productVariantRepository;
+    private final ProductCacheService productCacheService;
+    private final ProductSearchService productSearchService;
+    private final CatalogFacetService catalogFacetService;
+    private final LowStockService lowStockService;
 
     @Override
     public List<ProductVariant> getVariantsByProductId(Long productId) {
@@ -26,11 +34,28 @@ public class ProductVariantServiceImpl implements ProductVariantService {
 
     @Override
     public ProductVariant saveVariant(ProductVariant variant) {
-        return productVariantRepository.save(variant);
+        ProductVariant saved = productVariantRepository.save(variant);
+        lowStockService.stockChanged(List.of(saved.getId()));
+        if (saved.getProduct() != null) {
+            productCacheService.evict(saved.getProduct().getId());
+            productSearchService.reindex(saved.getProduct().getId());
+            catalogFacetService.refresh(saved.getProduct().getId());
+        }
+        return saved;
     }
 
     @Override
     public void deleteVariant(Long id) {
+        Long productId = productVariantRepository.findById(id)
+                .filter(variant -> variant.getProduct() != null)
+                .map(variant -> variant.getProduct().getId())
+                .orElse(null);
         productVariantRepository.deleteById(id);
+        lowStockService.stockChanged(List.of(id));
+        if (productId != null) {
+            productCacheService.evict(productId);
+            productSearchService.reindex(productId);
+            catalogFacetService.refresh(productId);
+        }
     }
 }
@@ -1,25 +1,39 @@
 package com.example.be.service.impl;
 
 import com.example.be.entity.User;
+import com.example.be.repository.OrderRepository;
 import com.example.be.repository.UserRepository;
+import com.example.be.service.OrderLookupService;
 import com.example.be.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final OrderRepository orderRepository;
+    private final OrderLookupService orderLookupService;
 
     @Override
     public Page<User> getAllUsers(Pageable pageable) {
         return userRepository.findAll(pageable);
     }
 
+    @Override
+    public Window<User> scrollUsers(ScrollPosition position, Sort sort, int limit) {
+        return userRepository.findBy(Specification.unrestricted(), q -> q.sortBy(sort).limit(limit).scroll(position));
+    }
+
     @Override
     public Optional<User> getUserById(Long id) {
         return userRepository.findById(id);
@@ -32,7 +46,16 @@ public class UserServiceImpl implements UserService {
 
     @Override
     public User saveUser(User user) {
-        return userRepository.save(user);
+        boolean lookupFieldsChanged = user.getId() != null && userRepository.findById(user.getId())
+                .map(old -> !Objects.equals(old.getUsername(), user.getUsername())
+                        || !Objects.equals(old.getFullName(), user.getFullName())
+                        || !Objects.equals(old.getPhoneNumber(), user.getPhoneNumber()))
+                .orElse(false);
+        User saved = userRepository.save(user);
+        if (lookupFieldsChanged) {
+            orderLookupService.reindexAll(orderRepository.findIdsByUserId(saved.getId()));
+        }
+        return saved;
     }
 
     @Override
@@ -0,0 +1,110 @@
+package com.example.be.util;
+
+import com.example.be.dto.CursorPageDTO;
+import com.example.be.exception.BadRequestException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helpers for keyset (cursor) pagination. Only whitelisted sort keys are accepted
+ * and "id" is always appended as a tie-breaker, so every cursor maps to a
+ * "WHERE (key, id) > (?, ?) ORDER BY key, id LIMIT n" query on an index.
+ */
+public class CursorPageUtil {
+    public static final int MAX_SIZE = 100;
+
+    public static Sort keysetSort(String sortBy, String direction, Map<String, Class<?>> allowedKeys) {
+        if (!allowedKeys.containsKey(sortBy)) {
+            throw new BadRequestException("Cursor pagination supports sortBy in " + allowedKeys.keySet());
+        }
+        Sort.Direction dir = direction.equalsIgnoreCase("desc") ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = Sort.by(dir, sortBy);
+        return "id".equals(sortBy) ? sort : sort.and(Sort.by(dir, "id"));
+    }
+
+    public static int limit(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    public static ScrollPosition decodeCursor(String cursor, Sort sort, Map<String, Class<?>> allowedKeys) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String[] lines = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n");
+            if (!lines[0].equals(signature(sort))) {
+                throw new BadRequestException("Cursor does not match the requested sort");
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            for (int i = 1; i < lines.length; i++) {
+                int eq = lines[i].indexOf('=');
+                String key = URLDecoder.decode(lines[i].substring(0, eq), StandardCharsets.UTF_8);
+                Class<?> type = "id".equals(key) ? Long.class : allowedKeys.get(key);
+                if (type == null) {
+                    throw new BadRequestException("Invalid cursor");
+                }
+                keys.put(key, parse(URLDecoder.decode(lines[i].substring(eq + 1), StandardCharsets.UTF_8), type));
+            }
+            return ScrollPosition.forward(keys);
+        } catch (BadRequestException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor", e);
+        }
+    }
+
+    public static <T, R> CursorPageDTO<R> toCursorPage(Window<T> window, Sort sort, List<R> content) {
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            nextCursor = encodeCursor((KeysetScrollPosition) window.positionAt(window.size() - 1), sort);
+        }
+        return CursorPageDTO.<R>builder()
+                .content(content)
+                .size(content.size())
+                .hasNext(window.hasNext())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private static String encodeCursor(KeysetScrollPosition position, Sort sort) {
+        StringBuilder sb = new StringBuilder(signature(sort));
+        // Values are URL-encoded so a name containing '\n' or '=' cannot break the line format
+        position.getKeys().forEach((key, value) -> sb.append('\n')
+                .append(URLEncoder.encode(key, StandardCharsets.UTF_8)).append('=')
+                .append(URLEncoder.encode(String.valueOf(value), StandardCharsets.UTF_8)));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String signature(Sort sort) {
+        StringBuilder sb = new StringBuilder();
+        for (Sort.Order order : sort) {
+            sb.append(order.getProperty()).append(':').append(order.getDirection()).append(';');
+        }
+        return sb.toString();
+    }
+
+    private static Object parse(String value, Class<?> type) {
+        if (type == Long.class) {
+            return Long.valueOf(value);
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.parse(value);
+        }
+        if (type == BigDecimal.class) {
+            return new BigDecimal(value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.be.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Alternating least squares for implicit feedback (Hu, Koren and Volinsky).
+ *
+ * Every observed (user, item) pair has preference 1 and confidence
+ * 1 + alpha * strength; unobserved pairs have preference 0 and confidence 1.
+ * Each half-step solves one small ridge regression per row:
+ *   (YtY + Yt (Cu - I) Y + lambda I) x_u = Yt Cu p_u
+ * which only touches the rows the user interacted with, so an iteration costs
+ * O(nnz * f^2 + (users + items) * f^3). Rows are solved in parallel.
+ */
+public class ImplicitAls {
+
+    private ImplicitAls() {
+    }
+
+    public record Factors(double[][] users, double[][] items) {
+    }
+
+    /**
+     * @param userItems item indexes per user
+     * @param userStrengths interaction strength per entry of userItems
+     */
+    public static Factors train(int itemCount, int[][] userItems, double[][] userStrengths,
+            int factors, double alpha, double lambda, int iterations, long seed) {
+        int userCount = userItems.length;
+        // Transpose to item -> users for the item half-step
+        List<List<int[]>> byItem = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            byItem.add(new ArrayList<>());
+        }
+        for (int u = 0; u < userCount; u++) {
+            for (int k = 0; k < userItems[u].length; k++) {
+                byItem.get(userItems[u][k]).add(new int[]{u, k});
+            }
+        }
+        int[][] itemUsers = new int[itemCount][];
+        double[][] itemStrengths = new double[itemCount][];
+        for (int i = 0; i < itemCount; i++) {
+            List<int[]> entries = byItem.get(i);
+            itemUsers[i] = new int[entries.size()];
+            itemStrengths[i] = new double[entries.size()];
+            for (int k = 0; k < entries.size(); k++) {
+                int[] entry = entries.get(k);
+                itemUsers[i][k] = entry[0];
+                itemStrengths[i][k] = userStrengths[entry[0]][entry[1]];
+            }
+        }
+
+        Random random = new Random(seed);
+        double[][] users = new double[userCount][factors];
+        double[][] items = new double[itemCount][factors];
+        for (double[] row : items) {
+            for (int f = 0; f < factors; f++) {
+                row[f] = random.nextGaussian() * 0.01;
+            }
+        }
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            solve(users, items, userItems, userStrengths, alpha, lambda);
+            solve(items, users, itemUsers, itemStrengths, alpha, lambda);
+        }
+        return new Factors(users, items);
+    }
+
+    private static void solve(double[][] target, double[][] fixed, int[][] indexes, double[][] strengths,
+            double alpha, double lambda) {
+        int f = fixed.length > 0 ? fixed[0].length : target[0].length;
+        double[][] gram = new double[f][f];
+        for (double[] y : fixed) {
+            for (int a = 0; a < f; a++) {
+                for (int b = a; b < f; b++) {
+                    gram[a][b] += y[a] * y[b];
+                }
+            }
+        }
+        for (int a = 0; a < f; a++) {
+            for (int b = 0; b < a; b++) {
+                gram[a][b] = gram[b][a];
+            }
+        }
+
+        IntStream.range(0, target.length).parallel().forEach(row -> {
+            if (indexes[row].length == 0) {
+                Arrays.fill(target[row], 0);
+                return;
+            }
+            double[][] a = new double[f][f];
+            for (int i = 0; i < f; i++) {
+                System.arraycopy(gram[i], 0, a[i], 0, f);
+                a[i][i] += lambda;
+            }
+            double[] rhs = new double[f];
+            for (int k = 0; k < indexes[row].length; k++) {
+                double[] y = fixed[indexes[row][k]];
+                double confidence = 1 + alpha * strengths[row][k];
+                for (int i = 0; i < f; i++) {
+                    rhs[i] += confidence * y[i];
+                    double scaled = (confidence - 1) * y[i];
+                    for (int j = 0; j < f; j++) {
+                        a[i][j] += scaled * y[j];
+                    }
+                }
+            }
+            target[row] = choleskySolve(a, rhs);
+        });
+    }
+
+    // A is symmetric positive definite thanks to the lambda ridge
+    private static double[] choleskySolve(double[][] a, double[] b) {
+        int n = b.length;
+        double[][] l = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                double sum = a[i][j];
+                for (int k = 0; k < j; k++) {
+                    sum -= l[i][k] * l[j][k];
+                }
+                l[i][j] = i == j ? Math.sqrt(Math.max(sum, 1e-12)) : sum / l[j][j];
+            }
+        }
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            double sum = b[i];
+            for (int k = 0; k < i; k++) {
+                sum -= l[i][k] * y[k];
+            }
+            y[i] = sum / l[i][i];
+        }
+        double[] x = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = y[i];
+            for (int k = i + 1; k < n; k++) {
+                sum -= l[k][i] * x[k];
+            }
+            x[i] = sum / l[i][i];
+        }
+        return x;
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.be.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.function.LongPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Inverted-file approximate nearest-neighbour index for inner-product search.
+ *
+ * Vectors are partitioned by k-means into {@code lists} cells. A query scores the
+ * centroids, scans only the {@code nprobe} best cells and keeps a bounded heap of
+ * the best k items, so the cost is O(lists * f + scanned * f) instead of a scan
+ * over every vector. Immutable once built.
+ */
+public class IvfIndex {
+    private static final int KMEANS_ITERATIONS = 10;
+
+    private final long[] ids;
+    private final float[][] vectors;
+    private final float[][] centroids;
+    private final int[][] cells;
+
+    private IvfIndex(long[] ids, float[][] vectors, float[][] centroids, int[][] cells) {
+        this.ids = ids;
+        this.vectors = vectors;
+        this.centroids = centroids;
+        this.cells = cells;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public static IvfIndex build(long[] ids, float[][] vectors, int lists, long seed) {
+        int n = vectors.length;
+        if (n == 0) {
+            return new IvfIndex(ids, vectors, new float[0][], new int[0][]);
+        }
+        int k = Math.max(1, Math.min(lists, n));
+        int dim = vectors[0].length;
+        Random random = new Random(seed);
+        float[][] centroids = new float[k][];
+        int[] order = IntStream.range(0, n).toArray();
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        for (int c = 0; c < k; c++) {
+            centroids[c] = vectors[order[c]].clone();
+        }
+
+        int[] assignment = new int[n];
+        for (int iteration = 0; iteration < KMEANS_ITERATIONS; iteration++) {
+            float[][] current = centroids;
+            IntStream.range(0, n).parallel().forEach(i -> assignment[i] = nearest(current, vectors[i]));
+            float[][] sums = new float[k][dim];
+            int[] counts = new int[k];
+            for (int i = 0; i < n; i++) {
+                counts[assignment[i]]++;
+                for (int d = 0; d < dim; d++) {
+                    sums[assignment[i]][d] += vectors[i][d];
+                }
+            }
+            float[][] next = new float[k][];
+            for (int c = 0; c < k; c++) {
+                if (counts[c] == 0) {
+                    next[c] = centroids[c];
+                } else {
+                    for (int d = 0; d < dim; d++) {
+                        sums[c][d] /= counts[c];
+                    }
+                    next[c] = sums[c];
+                }
+            }
+            centroids = next;
+        }
+
+        float[][] finalCentroids = centroids;
+        IntStream.range(0, n).parallel().forEach(i -> assignment[i] = nearest(finalCentroids, vectors[i]));
+        List<List<Integer>> members = new ArrayList<>(k);
+        for (int c = 0; c < k; c++) {
+            members.add(new ArrayList<>());
+        }
+        for (int i = 0; i < n; i++) {
+            members.get(assignment[i]).add(i);
+        }
+        int[][] cells = new int[k][];
+        for (int c = 0; c < k; c++) {
+            cells[c] = members.get(c).stream().mapToInt(Integer::intValue).toArray();
+        }
+        return new IvfIndex(ids, vectors, centroids, cells);
+    }
+
+    /**
+     * Up to k ids with the highest inner product with the query, best first.
+     */
+    public long[] search(float[] query, int k, int nprobe, LongPredicate exclude) {
+        if (ids.length == 0 || k <= 0) {
+            return new long[0];
+        }
+        Integer[] cellOrder = new Integer[centroids.length];
+        double[] cellScores = new double[centroids.length];
+        for (int c = 0; c < centroids.length; c++) {
+            cellOrder[c] = c;
+            cellScores[c] = dot(centroids[c], query);
+        }
+        Arrays.sort(cellOrder, (a, b) -> Double.compare(cellScores[b], cellScores[a]));
+
+        // Min-heap of (score, index) holding the best k seen so far
+        PriorityQueue<double[]> best = new PriorityQueue<>(k + 1, (a, b) -> Double.compare(a[0], b[0]));
+        for (int p = 0; p < Math.min(nprobe, cellOrder.length); p++) {
+            for (int i : cells[cellOrder[p]]) {
+                if (exclude != null && exclude.test(ids[i])) {
+                    continue;
+                }
+                double score = dot(vectors[i], query);
+                if (best.size() < k) {
+                    best.add(new double[]{score, i});
+                } else if (score > best.peek()[0]) {
+                    best.poll();
+                    best.add(new double[]{score, i});
+                }
+            }
+        }
+        long[] result = new long[best.size()];
+        for (int r = result.length - 1; r >= 0; r--) {
+            result[r] = ids[(int) best.poll()[1]];
+        }
+        return result;
+    }
+
+    private static int nearest(float[][] centroids, float[] vector) {
+        int best = 0;
+        double bestDistance = Double.MAX_VALUE;
+        for (int c = 0; c < centroids.length; c++) {
+            double distance = 0;
+            for (int d = 0; d < vector.length; d++) {
+                double diff = vector[d] - centroids[c][d];
+                distance += diff * diff;
+            }
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int d = 0; d < a.length; d++) {
+            sum += a[d] * b[d];
+        }
+        return sum;
+    }
+}
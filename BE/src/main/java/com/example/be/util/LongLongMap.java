@@ -0,0 +1,97 @@
+package com.example.be.util;
+
+/**
+ * Open-addressing long -> long map without boxing. Keys must be non-zero
+ * (database ids are positive); {@link #get} returns 0 for absent keys.
+ */
+public final class LongLongMap {
+    private long[] keys;
+    private long[] values;
+    private int count;
+
+    public LongLongMap() {
+        this(64);
+    }
+
+    public LongLongMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected * 2, 16) - 1) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+    }
+
+    public long get(long key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return 0;
+    }
+
+    public boolean containsKey(long key) {
+        int mask = keys.length - 1;
+        for (int slot = mix(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void put(long key, long value) {
+        if ((count + 1) * 10L > keys.length * 6L) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == 0) {
+            count++;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    /** Adds {@code delta} to the value of {@code key}, treating an absent key as 0. */
+    public void add(long key, long delta) {
+        put(key, get(key) + delta);
+    }
+
+    public void forEach(EntryConsumer action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new long[oldKeys.length * 2];
+        count = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.be.util;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * One spreadsheet row as produced by {@link XlsxStreamReader}. Cells hold the raw
+ * text of the value: numbers in plain decimal notation, dates as ISO-8601
+ * LocalDateTime, booleans as TRUE/FALSE, missing cells as null.
+ */
+public record SheetRow(int rowNum, String[] cells) {
+
+    public String getString(int col) {
+        if (col >= cells.length) {
+            return null;
+        }
+        String value = cells[col];
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    public Long getLong(int col) {
+        BigDecimal value = getBigDecimal(col);
+        return value != null ? value.longValue() : null;
+    }
+
+    public Integer getInteger(int col) {
+        BigDecimal value = getBigDecimal(col);
+        return value != null ? value.intValue() : null;
+    }
+
+    public BigDecimal getBigDecimal(int col) {
+        String value = getString(col);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public Boolean getBoolean(int col) {
+        String value = getString(col);
+        return value != null ? Boolean.parseBoolean(value.trim()) : null;
+    }
+
+    public LocalDateTime getDateTime(int col) {
+        String value = getString(col);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
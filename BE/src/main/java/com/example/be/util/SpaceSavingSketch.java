@@ -0,0 +1,181 @@
+package com.example.be.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitters sketch with forward exponential decay.
+ *
+ * Keeps at most {@code capacity} counters in a min-heap. An unseen item replaces
+ * the smallest counter and inherits its count as error, so every item whose
+ * decayed weight exceeds total/capacity is guaranteed to be tracked. Weights are
+ * scaled by exp((t - landmark) / tau) when added, which makes an event's
+ * contribution halve every tau * ln 2 without touching the other counters; the
+ * landmark is moved forward before the scale factors overflow.
+ */
+public class SpaceSavingSketch {
+    private static final double MAX_EXPONENT = 30.0;
+
+    private final int capacity;
+    private final double tauMillis;
+    private final long[] items;
+    private final double[] counts;
+    private final double[] errors;
+    private final Map<Long, Integer> positions;
+    private int size;
+    private long landmark;
+
+    public SpaceSavingSketch(int capacity, long tauMillis, long now) {
+        this.capacity = capacity;
+        this.tauMillis = tauMillis;
+        this.items = new long[capacity];
+        this.counts = new double[capacity];
+        this.errors = new double[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+        this.landmark = now;
+    }
+
+    public record Entry(long item, double score, double error) {
+    }
+
+    public synchronized void add(long item, double weight, long now) {
+        double exponent = (now - landmark) / tauMillis;
+        if (exponent > MAX_EXPONENT) {
+            rescale(now);
+            exponent = 0;
+        }
+        double scaled = weight * Math.exp(exponent);
+        Integer position = positions.get(item);
+        if (position != null) {
+            counts[position] += scaled;
+            siftDown(position);
+        } else if (size < capacity) {
+            items[size] = item;
+            counts[size] = scaled;
+            errors[size] = 0;
+            positions.put(item, size);
+            siftUp(size++);
+        } else {
+            // Evict the minimum; the newcomer may have been seen up to that many times before
+            positions.remove(items[0]);
+            double min = counts[0];
+            items[0] = item;
+            counts[0] = min + scaled;
+            errors[0] = min;
+            positions.put(item, 0);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * The {@code n} heaviest items, decayed to {@code now}, heaviest first.
+     */
+    public synchronized List<Entry> top(int n, long now) {
+        double decay = Math.exp(-(now - landmark) / tauMillis);
+        List<Entry> entries = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            entries.add(new Entry(items[i], counts[i] * decay, errors[i] * decay));
+        }
+        entries.sort((a, b) -> Double.compare(b.score(), a.score()));
+        return entries.size() > n ? new ArrayList<>(entries.subList(0, n)) : entries;
+    }
+
+    public synchronized void clear(long now) {
+        positions.clear();
+        size = 0;
+        landmark = now;
+    }
+
+    public synchronized void writeTo(DataOutput out) throws IOException {
+        out.writeLong(landmark);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(items[i]);
+            out.writeDouble(counts[i]);
+            out.writeDouble(errors[i]);
+        }
+    }
+
+    /**
+     * Replace the contents with a snapshot written by {@link #writeTo}. If the
+     * snapshot holds more counters than this sketch, the lightest are dropped.
+     */
+    public synchronized void readFrom(DataInput in) throws IOException {
+        long savedLandmark = in.readLong();
+        int savedSize = in.readInt();
+        clear(savedLandmark);
+        for (int i = 0; i < savedSize; i++) {
+            long item = in.readLong();
+            double count = in.readDouble();
+            double error = in.readDouble();
+            if (size < capacity) {
+                items[size] = item;
+                counts[size] = count;
+                errors[size] = error;
+                positions.put(item, size);
+                siftUp(size++);
+            } else if (count > counts[0]) {
+                positions.remove(items[0]);
+                items[0] = item;
+                counts[0] = count;
+                errors[0] = error;
+                positions.put(item, 0);
+                siftDown(0);
+            }
+        }
+    }
+
+    private void rescale(long now) {
+        double factor = Math.exp(-(now - landmark) / tauMillis);
+        for (int i = 0; i < size; i++) {
+            counts[i] *= factor;
+            errors[i] *= factor;
+        }
+        landmark = now;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (counts[parent] <= counts[i]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int smallest = left + 1 < size && counts[left + 1] < counts[left] ? left + 1 : left;
+            if (counts[i] <= counts[smallest]) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        long item = items[a];
+        double count = counts[a];
+        double error = errors[a];
+        items[a] = items[b];
+        counts[a] = counts[b];
+        errors[a] = errors[b];
+        items[b] = item;
+        counts[b] = count;
+        errors[b] = error;
+        positions.put(items[a], a);
+        positions.put(items[b], b);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.be.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public class VietnameseTextUtil {
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^a-z0-9]+");
+
+    /**
+     * Lowercase and strip Vietnamese diacritics: "Áo thun Đỏ" -> "ao thun do".
+     */
+    public static String fold(String input) {
+        if (input == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(input, Normalizer.Form.NFD);
+        String stripped = COMBINING_MARKS.matcher(normalized).replaceAll("");
+        return stripped.replace('đ', 'd').replace('Đ', 'D').toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Fold and split into syllable tokens on anything that is not a letter or digit.
+     */
+    public static List<String> tokenize(String input) {
+        List<String> tokens = new ArrayList<>();
+        if (input == null || input.isBlank()) {
+            return tokens;
+        }
+        for (String token : NON_ALPHANUMERIC.split(fold(input))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
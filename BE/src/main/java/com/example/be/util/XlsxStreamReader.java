@@ -0,0 +1,174 @@
+package com.example.be.util;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Streams the first sheet of an .xlsx file with the XSSF SAX reader instead of
+ * building the whole workbook in memory.
+ *
+ * A reader thread parses rows into a bounded queue; the calling thread drains it
+ * and hands rows to the {@link ChunkHandler} in fixed-size chunks. The queue blocks
+ * the parser when the consumer falls behind, so heap use depends on the queue and
+ * chunk sizes, not on the file size (the shared strings table is still read whole).
+ * The header row is skipped.
+ */
+public final class XlsxStreamReader {
+    private static final SheetRow END = new SheetRow(-1, new String[0]);
+    private static final AtomicInteger THREAD_SEQ = new AtomicInteger();
+
+    @FunctionalInterface
+    public interface ChunkHandler {
+        void handle(List<SheetRow> chunk) throws Exception;
+    }
+
+    private XlsxStreamReader() {
+    }
+
+    /**
+     * Read all data rows of the first sheet. Returns the number of rows handed to the
+     * handler; an exception from the parser or the handler stops the import.
+     */
+    public static long read(Path file, int queueCapacity, int chunkSize, ChunkHandler handler) throws Exception {
+        BlockingQueue<SheetRow> queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        Throwable[] parseError = new Throwable[1];
+
+        Thread parser = new Thread(() -> {
+            try {
+                parse(file, queue);
+            } catch (Throwable e) {
+                parseError[0] = e;
+            } finally {
+                try {
+                    queue.put(END);
+                } catch (InterruptedException ignored) {
+                    // The consumer gave up and is no longer draining the queue
+                }
+            }
+        }, "xlsx-reader-" + THREAD_SEQ.incrementAndGet());
+        parser.setDaemon(true);
+        parser.start();
+
+        long rows = 0;
+        boolean finished = false;
+        try {
+            List<SheetRow> chunk = new ArrayList<>(chunkSize);
+            while (true) {
+                SheetRow row = queue.take();
+                if (row == END) {
+                    break;
+                }
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) {
+                    handler.handle(chunk);
+                    rows += chunk.size();
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            parser.join();
+            if (parseError[0] != null) {
+                throw new IOException("Could not read spreadsheet: " + parseError[0].getMessage(), parseError[0]);
+            }
+            if (!chunk.isEmpty()) {
+                handler.handle(chunk);
+                rows += chunk.size();
+            }
+            finished = true;
+            return rows;
+        } finally {
+            if (!finished) {
+                parser.interrupt();
+            }
+        }
+    }
+
+    private static void parse(Path file, BlockingQueue<SheetRow> queue) throws Exception {
+        try (OPCPackage pkg = OPCPackage.open(file.toFile(), PackageAccess.READ)) {
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+            Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+            try (InputStream sheet = sheets.next()) {
+                XMLReader xml = XMLHelper.newXMLReader();
+                xml.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), strings,
+                        new RowCollector(queue), new RawValueFormatter(), false));
+                xml.parse(new InputSource(sheet));
+            }
+        }
+    }
+
+    private static final class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final BlockingQueue<SheetRow> queue;
+        private final List<String> cells = new ArrayList<>();
+        private int rowNum;
+
+        RowCollector(BlockingQueue<SheetRow> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            this.rowNum = rowNum;
+            cells.clear();
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int col = cellReference != null ? new CellReference(cellReference).getCol() : cells.size();
+            while (cells.size() <= col) {
+                cells.add(null);
+            }
+            cells.set(col, formattedValue);
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowNum == 0 || cells.isEmpty()) {
+                return; // Header or empty row
+            }
+            try {
+                queue.put(new SheetRow(rowNum, cells.toArray(new String[0])));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Import cancelled");
+            }
+        }
+    }
+
+    /**
+     * Keeps numbers in plain decimal form (no display formatting, no rounding) and
+     * turns date-formatted cells into ISO-8601 so {@link SheetRow} can parse them.
+     */
+    private static final class RawValueFormatter extends DataFormatter {
+        @Override
+        public String formatRawCellContents(double value, int formatIndex, String formatString) {
+            if (DateUtil.isADateFormat(formatIndex, formatString) && DateUtil.isValidExcelDate(value)) {
+                return DateUtil.getLocalDateTime(value).toString();
+            }
+            return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.be.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Small helpers shared by the benchmark tests (run with gradle benchmark).
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    static int intProperty(String name, int defaultValue) {
+        return Integer.getInteger("benchmark." + name, defaultValue);
+    }
+
+    /** Median wall time of {@code runs} calls, in milliseconds, after one warm-up call. */
+    static double medianMillis(int runs, Runnable task) {
+        task.run();
+        long[] nanos = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long started = System.nanoTime();
+            task.run();
+            nanos[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(nanos);
+        return nanos[runs / 2] / 1_000_000.0;
+    }
+
+    /**
+     * SELECT producing the numbers 0 .. below - 1 (rounded up to a power of ten) as
+     * column n, for seeding with INSERT ... SELECT instead of one round trip per row.
+     */
+    static String numbers(long below) {
+        String digits = "(SELECT 0 d UNION ALL SELECT 1 UNION ALL SELECT 2 UNION ALL SELECT 3 UNION ALL SELECT 4 "
+                + "UNION ALL SELECT 5 UNION ALL SELECT 6 UNION ALL SELECT 7 UNION ALL SELECT 8 UNION ALL SELECT 9)";
+        StringBuilder n = new StringBuilder("d0.d");
+        StringBuilder from = new StringBuilder(digits).append(" d0");
+        long scale = 10;
+        for (int i = 1; scale < below; i++, scale *= 10) {
+            n.append(" + ").append(scale).append(" * d").append(i).append(".d");
+            from.append(", ").append(digits).append(" d").append(i);
+        }
+        return "(SELECT " + n + " AS n FROM " + from + ")";
+    }
+
+    static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.be.benchmark;
+
+import com.example.be.dto.ImportDiffDTO;
+import com.example.be.service.CatalogFacetService;
+import com.example.be.service.CatalogUpsertService;
+import com.example.be.service.ImportListener;
+import com.example.be.service.LowStockService;
+import com.example.be.service.ProductCacheService;
+import com.example.be.service.ProductSearchService;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Re-import of a benchmark.rows (default 100000) variant file in which one row in
+ * a hundred has a new stock level, against the same file imported once before.
+ * Unchanged rows should be skipped on their import_hash, so the re-import costs
+ * reading the file plus one write per changed row. Fails when it takes longer
+ * than benchmark.max-ms (default 60000). The seeded rows are deleted afterwards.
+ *
+ * gradle benchmark --tests '*CatalogUpsertBenchmarkTest' -Dbenchmark.rows=500000
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CatalogUpsertService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogUpsertBenchmarkTest {
+    private static final int CHANGED_EVERY = 100;
+
+    @Autowired
+    private CatalogUpsertService catalogUpsertService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private ProductCacheService productCacheService;
+
+    @MockitoBean
+    private ProductSearchService productSearchService;
+
+    @MockitoBean
+    private CatalogFacetService catalogFacetService;
+
+    @MockitoBean
+    private LowStockService lowStockService;
+
+    @TempDir
+    Path dir;
+
+    private Long productId;
+
+    @AfterEach
+    void cleanUp() {
+        if (productId != null) {
+            jdbcTemplate.update("DELETE FROM product_variants WHERE product_id = ?", productId);
+            jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+        }
+    }
+
+    @Test
+    void reimportWithOnePercentChanged() throws Exception {
+        int rows = BenchmarkSupport.intProperty("rows", 100_000);
+        String tag = "bench-upsert-" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO products (name, slug, active) VALUES (?, ?, 1)", tag, tag);
+        productId = jdbcTemplate.queryForObject("SELECT id FROM products WHERE slug = ?", Long.class, tag);
+
+        Path original = write(tag, rows, false);
+        long started = System.nanoTime();
+        ImportDiffDTO first = catalogUpsertService.upsertProductVariants(original, ImportListener.NONE, false);
+        long firstMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        assertThat(first.getInserted()).isEqualTo(rows);
+
+        Path changed = write(tag, rows, true);
+        started = System.nanoTime();
+        ImportDiffDTO second = catalogUpsertService.upsertProductVariants(changed, ImportListener.NONE, false);
+        long secondMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        System.out.printf("%nFirst import of %,d rows: %,d ms%n", rows, firstMs);
+        System.out.printf("Re-import, %,d changed: %,d ms (%,d updated, %,d unchanged)%n",
+                rows / CHANGED_EVERY, secondMs, second.getUpdated(), second.getUnchanged());
+        assertThat(second.getUpdated()).isEqualTo(rows / CHANGED_EVERY);
+        assertThat(second.getUnchanged()).isEqualTo(rows - rows / CHANGED_EVERY);
+        assertThat(secondMs).isLessThanOrEqualTo(BenchmarkSupport.intProperty("max-ms", 60_000));
+    }
+
+    // Product, Size, Color, Price, Stock, SKU with size and color blank; when changed,
+    // every hundredth row has one more in stock
+    private Path write(String tag, int rows, boolean changed) throws Exception {
+        Path file = Files.createTempFile(dir, "variants", ".xlsx");
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet();
+            Row header = sheet.createRow(0);
+            String[] titles = {"Product", "Size", "Color", "Price", "Stock", "SKU"};
+            for (int c = 0; c < titles.length; c++) {
+                header.createCell(c).setCellValue(titles[c]);
+            }
+            for (int n = 0; n < rows; n++) {
+                Row row = sheet.createRow(n + 1);
+                row.createCell(0).setCellValue(tag);
+                row.createCell(3).setCellValue(100_000 + n % 500 * 1_000);
+                row.createCell(4).setCellValue(n % 200 + (changed && n % CHANGED_EVERY == 0 ? 1 : 0));
+                row.createCell(5).setCellValue(tag + "-" + n);
+            }
+            workbook.write(out);
+            workbook.dispose();
+        }
+        return file;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.be.benchmark;
+
+import com.example.be.dto.DashboardDTO;
+import com.example.be.repository.OrderRepository;
+import com.example.be.service.DashboardRollupService;
+import com.example.be.service.DashboardService;
+import com.example.be.service.LowStockService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * getStats() served from the rollups against the GROUP BY fallback as the orders
+ * table grows. Sizes come from benchmark.orders (default 10000,100000,1000000;
+ * add 10000000 for the full curve). Seeded orders are rolled back afterwards.
+ *
+ * gradle benchmark --tests '*DashboardStatsBenchmarkTest' -Dbenchmark.orders=10000,100000,1000000,10000000
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({DashboardService.class, DashboardRollupService.class})
+class DashboardStatsBenchmarkTest {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private DashboardRollupService dashboardRollupService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @MockitoBean
+    private LowStockService lowStockService;
+
+    @Test
+    void rollupStatsStayFlatAsOrdersGrow() {
+        long[] sizes = Arrays.stream(System.getProperty("benchmark.orders", "10000,100000,1000000").split(","))
+                .mapToLong(s -> Long.parseLong(s.trim()))
+                .sorted()
+                .toArray();
+        LocalDateTime from = LocalDate.now().minusDays(6).atStartOfDay();
+
+        System.out.printf("%n%12s %12s %12s %14s%n", "orders", "rebuild ms", "rollup ms", "group by ms");
+        long seeded = 0;
+        for (long size : sizes) {
+            // Spread over a year of hours, four statuses and two payment methods
+            em.createNativeQuery("INSERT INTO orders (created_at, status, payment_method, final_total, subtotal) "
+                    + "SELECT NOW() - INTERVAL (n MOD 8760) HOUR, ELT(1 + n MOD 4, 'PENDING', 'SHIPPING', "
+                    + "'DELIVERED', 'CANCELLED'), ELT(1 + n MOD 2, 'COD', 'VNPAY'), 100 + n MOD 900, 100 + n MOD 900 "
+                    + "FROM " + BenchmarkSupport.numbers(size) + " nums WHERE n >= ?1 AND n < ?2")
+                    .setParameter(1, seeded)
+                    .setParameter(2, size)
+                    .executeUpdate();
+            seeded = size;
+
+            long started = System.nanoTime();
+            dashboardRollupService.rebuild();
+            double rebuildMs = (System.nanoTime() - started) / 1_000_000.0;
+
+            DashboardDTO stats = dashboardService.getStats();
+            long fallbackOrders = orderRepository.countAndSumByStatus().stream()
+                    .mapToLong(row -> ((Number) row[1]).longValue())
+                    .sum();
+            assertThat(stats.getTotalOrders()).isEqualTo(fallbackOrders);
+
+            double rollupMs = BenchmarkSupport.medianMillis(5, () -> {
+                dashboardService.getStats();
+                em.clear();
+            });
+            double groupByMs = BenchmarkSupport.medianMillis(3, () -> {
+                orderRepository.countAndSumByStatus();
+                orderRepository.findCreatedAtAndFinalTotalSince(from);
+                em.clear();
+            });
+            System.out.printf("%12d %12.1f %12.2f %14.2f%n", size, rebuildMs, rollupMs, groupByMs);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.be.benchmark;
+
+import com.example.be.service.ExcelExportService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Peak heap while streaming the users export for benchmark.rows users (default
+ * 1000000). The workbook is written to a byte counter rather than kept, and the
+ * seeded users are rolled back afterwards.
+ *
+ * gradle benchmark --tests '*ExcelExportBenchmarkTest' -Dbenchmark.rows=1000000
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ExcelExportService.class)
+class ExcelExportBenchmarkTest {
+
+    @Autowired
+    private ExcelExportService excelExportService;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void usersExportHeapStaysFlat() throws Exception {
+        int rows = BenchmarkSupport.intProperty("rows", 1_000_000);
+        String prefix = "bench-export-" + System.nanoTime() + "-";
+        em.createNativeQuery("INSERT INTO users (username, email, full_name, phone_number, role, reward_points) "
+                + "SELECT CONCAT(?1, n), CONCAT(?1, n, '@example.com'), CONCAT('User ', n), "
+                + "LPAD(n, 10, '0'), 'USER', n MOD 1000 FROM " + BenchmarkSupport.numbers(rows) + " nums WHERE n < ?2")
+                .setParameter(1, prefix)
+                .setParameter(2, rows)
+                .executeUpdate();
+        em.clear();
+
+        System.gc();
+        long baseline = BenchmarkSupport.usedHeap();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean exporting = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (exporting.get()) {
+                peak.accumulateAndGet(BenchmarkSupport.usedHeap(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+
+        CountingOutputStream out = new CountingOutputStream();
+        long started = System.nanoTime();
+        try {
+            excelExportService.exportUsers(out);
+        } finally {
+            exporting.set(false);
+            sampler.join();
+        }
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        System.out.printf("%nExported %d+ users: %.1f s, %.1f MB written, peak heap %.1f MB above baseline "
+                        + "(max heap %.0f MB)%n", rows, seconds, out.count / 1048576.0,
+                (peak.get() - baseline) / 1048576.0, Runtime.getRuntime().maxMemory() / 1048576.0);
+        assertThat(out.count).isPositive();
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.be.benchmark;
+
+import com.example.be.service.FlashSaleService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Purchase attempts per second against one flash sale, with write-behind flushes
+ * running underneath as the scheduler would. benchmark.threads buyers (default 32)
+ * hammer the sale for benchmark.seconds (default 5); the sale holds
+ * benchmark.units (default 50000) so both the admit and the sold-out path are hit.
+ * Fails below benchmark.min-rate attempts/sec (default 10000).
+ *
+ * gradle benchmark --tests '*FlashSaleBenchmarkTest' -Dbenchmark.threads=64 -Dbenchmark.seconds=10
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(FlashSaleService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FlashSaleBenchmarkTest {
+    private static final int USERS = 1000;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String tag;
+    private long productId;
+    private long flashSaleId;
+    private final List<String> usernames = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        tag = "flash-bench-" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO products (name, slug, active, price) VALUES (?, ?, 1, 200)", tag, tag);
+        productId = jdbcTemplate.queryForObject("SELECT id FROM products WHERE slug = ?", Long.class, tag);
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO flash_sales (product_id, sale_price, start_time, end_time, total_quantity, "
+                + "sold_quantity, is_active) VALUES (?, 100, ?, ?, ?, 0, 1)",
+                productId, now.minusMinutes(1), now.plusHours(1), BenchmarkSupport.intProperty("units", 50_000));
+        flashSaleId = jdbcTemplate.queryForObject("SELECT id FROM flash_sales WHERE product_id = ?", Long.class, productId);
+        jdbcTemplate.update("INSERT INTO users (username, role) SELECT CONCAT(?, '-u', n), 'USER' FROM "
+                + BenchmarkSupport.numbers(USERS) + " nums WHERE n < ?", tag, USERS);
+        for (int i = 0; i < USERS; i++) {
+            usernames.add(tag + "-u" + i);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM flash_sale_purchases WHERE flash_sale_id = ?", flashSaleId);
+        jdbcTemplate.update("DELETE FROM flash_sales WHERE id = ?", flashSaleId);
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE ?", tag + "-%");
+    }
+
+    @Test
+    void purchaseAttemptsPerSecond() throws Exception {
+        int threads = BenchmarkSupport.intProperty("threads", 32);
+        long durationNanos = TimeUnit.SECONDS.toNanos(BenchmarkSupport.intProperty("seconds", 5));
+        AtomicLong attempts = new AtomicLong();
+        AtomicLong admitted = new AtomicLong();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        AtomicBoolean buying = new AtomicBoolean(true);
+
+        // Warm the user id cache and the sale counter outside the timed window
+        usernames.forEach(username -> flashSaleService.purchase(flashSaleId, username, 1));
+        flashSaleService.flush();
+
+        Thread flusher = new Thread(() -> {
+            while (buying.get()) {
+                flashSaleService.flush();
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(500));
+            }
+        });
+        flusher.start();
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        long started;
+        long elapsed;
+        try {
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                        long deadline = System.nanoTime() + durationNanos;
+                        for (int i = offset; System.nanoTime() < deadline; i += threads) {
+                            String status = flashSaleService.purchase(flashSaleId, usernames.get(i % USERS), 1).getStatus();
+                            attempts.incrementAndGet();
+                            if ("ADMITTED".equals(status)) {
+                                admitted.incrementAndGet();
+                            }
+                        }
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                });
+            }
+            started = System.nanoTime();
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertThat(pool.awaitTermination(durationNanos + TimeUnit.SECONDS.toNanos(60), TimeUnit.NANOSECONDS)).isTrue();
+        }
+        elapsed = System.nanoTime() - started;
+        buying.set(false);
+        flusher.join();
+        flashSaleService.flush();
+
+        double perSecond = attempts.get() * 1_000_000_000.0 / elapsed;
+        System.out.printf("%n%d threads, %d attempts (%d admitted) in %.1f s: %.0f attempts/sec%n",
+                threads, attempts.get(), admitted.get(), elapsed / 1_000_000_000.0, perSecond);
+
+        assertThat(unexpected).isEmpty();
+        int journaled = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(quantity), 0) FROM flash_sale_purchases "
+                + "WHERE flash_sale_id = ?", Integer.class, flashSaleId);
+        assertThat(jdbcTemplate.queryForObject("SELECT sold_quantity FROM flash_sales WHERE id = ?",
+                Integer.class, flashSaleId)).isEqualTo(journaled);
+        assertThat(perSecond).isGreaterThanOrEqualTo(BenchmarkSupport.intProperty("min-rate", 10_000));
+    }
+}
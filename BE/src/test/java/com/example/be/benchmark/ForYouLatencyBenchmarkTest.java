@@ -0,0 +1,111 @@
+package com.example.be.benchmark;
+
+import com.example.be.repository.OrderItemRepository;
+import com.example.be.repository.ReviewRepository;
+import com.example.be.repository.WishlistRepository;
+import com.example.be.service.PersonalizedRecommendationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Candidate lookup latency of the "for you" model on a cache miss: the user's
+ * vector against the IVF index, skipping products they already have. The model
+ * is trained on synthetic purchases, benchmark.users (default 20000) users with
+ * eight purchases each in one of 50 taste groups over benchmark.products (default
+ * 10000) products. benchmark.threads (default 4) callers issue
+ * benchmark.requests (default 20000) lookups; fails when p99 exceeds
+ * benchmark.p99-ms (default 20). The primary-key fetch of the picked products
+ * comes on top and is tracked in production by recommendations.foryou.latency.
+ *
+ * gradle benchmark --tests '*ForYouLatencyBenchmarkTest' -Dbenchmark.products=100000 -Dbenchmark.users=200000
+ */
+@Tag("benchmark")
+class ForYouLatencyBenchmarkTest {
+    private static final int PURCHASES_PER_USER = 8;
+    private static final int GROUPS = 50;
+    private static final int LIMIT = 10; // RecommendationService asks for twice the five it shows
+
+    @Test
+    void candidateLookupP99() throws Exception {
+        int users = BenchmarkSupport.intProperty("users", 20_000);
+        int products = BenchmarkSupport.intProperty("products", 10_000);
+        Random random = new Random(42);
+        List<Object[]> purchases = new ArrayList<>(users * PURCHASES_PER_USER);
+        int groupSize = Math.max(1, products / GROUPS);
+        for (long user = 1; user <= users; user++) {
+            int group = (int) (user % GROUPS);
+            for (int p = 0; p < PURCHASES_PER_USER; p++) {
+                // Mostly from the user's own group, sometimes anything
+                long product = random.nextInt(10) < 8
+                        ? (long) group * groupSize + random.nextInt(groupSize) + 1
+                        : random.nextInt(products) + 1;
+                purchases.add(new Object[]{user, product, (long) (random.nextInt(3) + 1)});
+            }
+        }
+        OrderItemRepository orderItems = mock(OrderItemRepository.class);
+        when(orderItems.sumQuantityByUserAndProduct()).thenReturn(purchases);
+        PersonalizedRecommendationService service = new PersonalizedRecommendationService(orderItems,
+                mock(WishlistRepository.class), mock(ReviewRepository.class), new SimpleMeterRegistry(),
+                32, BenchmarkSupport.intProperty("iterations", 5), 10, 0.1, 8, 10_000, 600);
+
+        long started = System.nanoTime();
+        assertThat(service.train()).isTrue();
+        System.out.printf("%nTrained on %,d users, %,d products in %,d ms%n", users, products,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        int threads = BenchmarkSupport.intProperty("threads", 4);
+        int requests = BenchmarkSupport.intProperty("requests", 20_000);
+        for (int i = 0; i < 2_000; i++) {
+            service.recommendProductIds((long) random.nextInt(users) + 1, LIMIT);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<long[]>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                results.add(pool.submit(() -> {
+                    Random callerRandom = new Random(seed);
+                    long[] nanos = new long[requests / threads];
+                    for (int i = 0; i < nanos.length; i++) {
+                        long userId = callerRandom.nextInt(users) + 1;
+                        long begin = System.nanoTime();
+                        List<Long> ids = service.recommendProductIds(userId, LIMIT);
+                        nanos[i] = System.nanoTime() - begin;
+                        assertThat(ids).hasSize(LIMIT);
+                    }
+                    return nanos;
+                }));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        long[] all = new long[0];
+        for (Future<long[]> result : results) {
+            long[] nanos = result.get();
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + nanos.length);
+            System.arraycopy(nanos, 0, all, offset, nanos.length);
+        }
+        Arrays.sort(all);
+        double p50 = all[all.length / 2] / 1_000_000.0;
+        double p99 = all[(int) (all.length * 0.99)] / 1_000_000.0;
+        System.out.printf("%d threads, %,d lookups: p50 %.2f ms, p99 %.2f ms, max %.2f ms%n",
+                threads, all.length, p50, p99, all[all.length - 1] / 1_000_000.0);
+
+        assertThat(p99).isLessThanOrEqualTo(BenchmarkSupport.intProperty("p99-ms", 20));
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.be.benchmark;
+
+import com.example.be.entity.Product;
+import com.example.be.repository.ProductRepository;
+import com.example.be.service.CatalogFacetService;
+import com.example.be.service.ProductCacheService;
+import com.example.be.service.ProductSearchService;
+import com.example.be.service.ProductService;
+import com.example.be.service.impl.ProductServiceImpl;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.*;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Offset (page=N) versus keyset (/scroll) pagination over products at growing
+ * depth. Keyset pages go through ProductService.scrollProducts, the path behind
+ * /api/products/scroll, and must stay flat: the deepest page may take at most
+ * three times the first one (plus a few ms of noise). Seeds benchmark.rows
+ * products (default 200000) inside the test transaction, which is rolled back
+ * afterwards.
+ *
+ * gradle benchmark --tests '*PaginationBenchmarkTest' -Dbenchmark.rows=1000000
+ */
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProductServiceImpl.class)
+class PaginationBenchmarkTest {
+    private static final int PAGE_SIZE = 20;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @MockitoBean
+    private ProductCacheService productCacheService;
+
+    @MockitoBean
+    private ProductSearchService productSearchService;
+
+    @MockitoBean
+    private CatalogFacetService catalogFacetService;
+
+    @Test
+    void keysetStaysFlatWhileOffsetGrowsWithDepth() {
+        int rows = BenchmarkSupport.intProperty("rows", 200_000);
+        String prefix = "bench-page-" + System.nanoTime() + "-";
+        em.createNativeQuery("INSERT INTO products (name, slug, active) SELECT CONCAT(?1, LPAD(n, 7, '0')), "
+                + "CONCAT(?1, n), 1 FROM " + BenchmarkSupport.numbers(rows) + " nums WHERE n < ?2")
+                .setParameter(1, prefix)
+                .setParameter(2, rows)
+                .executeUpdate();
+        long total = productRepository.count();
+        Sort sort = Sort.by("id");
+
+        System.out.printf("%n%d products, page size %d%n", total, PAGE_SIZE);
+        System.out.printf("%12s %12s %12s%n", "depth", "offset ms", "keyset ms");
+        double firstKeysetMs = -1;
+        for (long depth : new long[]{0, total / 4, total / 2, total - PAGE_SIZE}) {
+            int page = (int) (depth / PAGE_SIZE);
+            List<Product> offsetRows = productRepository.findAll(PageRequest.of(page, PAGE_SIZE, sort)).getContent();
+            // The keyset query starts after the last id of the previous page, as a cursor would
+            ScrollPosition position = page == 0 ? ScrollPosition.keyset() : ScrollPosition.forward(Map.of("id",
+                    productRepository.findAll(PageRequest.of(page - 1, PAGE_SIZE, sort)).getContent()
+                            .get(PAGE_SIZE - 1).getId()));
+            Window<Product> window = productService.scrollProducts(position, sort, PAGE_SIZE);
+            assertThat(window.getContent()).extracting(Product::getId)
+                    .containsExactlyElementsOf(offsetRows.stream().map(Product::getId).toList());
+
+            double offsetMs = BenchmarkSupport.medianMillis(5, () -> {
+                productRepository.findAll(PageRequest.of(page, PAGE_SIZE, sort));
+                em.clear();
+            });
+            double keysetMs = BenchmarkSupport.medianMillis(5, () -> {
+                productService.scrollProducts(position, sort, PAGE_SIZE);
+                em.clear();
+            });
+            System.out.printf("%12d %12.2f %12.2f%n", depth, offsetMs, keysetMs);
+            if (firstKeysetMs < 0) {
+                firstKeysetMs = keysetMs;
+            } else {
+                assertThat(keysetMs).as("keyset page at depth %d", depth)
+                        .isLessThanOrEqualTo(firstKeysetMs * 3 + 5);
+            }
+        }
+    }
+}
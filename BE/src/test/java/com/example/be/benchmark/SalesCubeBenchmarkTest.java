@@ -0,0 +1,122 @@
+package com.example.be.benchmark;
+
+import com.example.be.dto.SalesCubeQueryDTO;
+import com.example.be.dto.SalesCubeResultDTO;
+import com.example.be.repository.OrderItemRepository;
+import com.example.be.service.SalesCubeService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Load time, heap and query latency of the sales cube over benchmark.lines order
+ * lines (default 20,000,000, three per order over two years). Rows are generated
+ * by a mocked fact-row query so the numbers measure the cube, not the database.
+ * Fails when a median query takes longer than benchmark.max-query-ms (default 2000).
+ *
+ * gradle benchmark --tests '*SalesCubeBenchmarkTest' -Dbenchmark.lines=50000000 -Dbenchmark.heap=6g
+ *
+ * The default size needs about 1.5 GB; the benchmark task runs with benchmark.heap (default 3g).
+ */
+@Tag("benchmark")
+class SalesCubeBenchmarkTest {
+    private static final int LINES_PER_ORDER = 3;
+    private static final int PRODUCTS = 50_000;
+    private static final int VARIANTS_PER_PRODUCT = 4;
+    private static final int CATEGORIES = 50;
+    private static final int BRANDS = 200;
+    private static final int DAYS = 730;
+    private static final String[] STATUSES = {"DELIVERED", "DELIVERED", "DELIVERED", "SHIPPING", "CANCELLED"};
+    private static final LocalDate FIRST_DAY = LocalDate.of(2024, 1, 1);
+
+    private final LocalDateTime[] days = new LocalDateTime[DAYS];
+    private final BigDecimal[] prices = new BigDecimal[100];
+    private final BigDecimal[] costs = new BigDecimal[100];
+
+    SalesCubeBenchmarkTest() {
+        for (int d = 0; d < DAYS; d++) {
+            days[d] = FIRST_DAY.plusDays(d).atTime(12, 0);
+        }
+        for (int p = 0; p < prices.length; p++) {
+            prices[p] = BigDecimal.valueOf(10_000L + p * 4_990L, 2);
+            costs[p] = BigDecimal.valueOf(6_000L + p * 3_000L, 2);
+        }
+    }
+
+    // Same layout as OrderItemRepository.findFactRowsAfter; line n is item n + 1
+    private List<Object[]> page(long lines, long afterItemId, int pageSize) {
+        long end = Math.min(lines, afterItemId + pageSize);
+        List<Object[]> rows = new ArrayList<>((int) Math.max(0, end - afterItemId));
+        for (long n = afterItemId; n < end; n++) {
+            long orderId = n / LINES_PER_ORDER + 1;
+            long productId = (n * 7919) % PRODUCTS + 1;
+            int orderHash = (int) (orderId * 31 % 1000);
+            rows.add(new Object[]{n + 1, orderId, productId * VARIANTS_PER_PRODUCT + n % VARIANTS_PER_PRODUCT,
+                    productId, productId % CATEGORIES + 1, productId % BRANDS + 1,
+                    days[(int) (n * DAYS / lines)],
+                    STATUSES[orderHash % STATUSES.length], (int) (n % 3) + 1,
+                    prices[(int) (productId % prices.length)], costs[(int) (productId % costs.length)]});
+        }
+        return rows;
+    }
+
+    private static SalesCubeQueryDTO query(List<String> groupBy, Map<String, List<String>> filters, LocalDate from) {
+        SalesCubeQueryDTO query = new SalesCubeQueryDTO();
+        query.setGroupBy(groupBy);
+        query.setFilters(filters);
+        query.setFrom(from);
+        return query;
+    }
+
+    @Test
+    void loadAndQuery() throws Exception {
+        long lines = BenchmarkSupport.intProperty("lines", 20_000_000);
+        OrderItemRepository repository = mock(OrderItemRepository.class);
+        when(repository.findFactRowsAfter(anyLong(), anyLong(), any())).thenAnswer(invocation ->
+                page(lines, invocation.getArgument(1, Long.class), invocation.getArgument(2, Pageable.class).getPageSize()));
+        SalesCubeService cube = new SalesCubeService(repository, true, lines);
+
+        long heapBefore = BenchmarkSupport.usedHeap();
+        long started = System.nanoTime();
+        cube.onApplicationReady();
+        long deadline = started + TimeUnit.MINUTES.toNanos(10);
+        while (!cube.isReady()) {
+            assertThat(System.nanoTime()).as("cube load finished").isLessThan(deadline);
+            Thread.sleep(200);
+        }
+        long loadMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        long heapMb = (BenchmarkSupport.usedHeap() - heapBefore) >> 20;
+        System.out.printf("%nLoaded %,d lines in %,d ms, ~%,d MB heap%n", lines, loadMs, heapMb);
+
+        int runs = BenchmarkSupport.intProperty("runs", 5);
+        Map<String, SalesCubeQueryDTO> queries = Map.of(
+                "total", query(List.of(), null, null),
+                "by category, status", query(List.of("category", "status"), null, null),
+                "by product, last 90 days", query(List.of("product"), null, FIRST_DAY.plusDays(DAYS - 90)),
+                "by day for one brand", query(List.of("day"), Map.of("brand", List.of("7")), null));
+        double worst = 0;
+        for (Map.Entry<String, SalesCubeQueryDTO> entry : queries.entrySet()) {
+            SalesCubeResultDTO[] result = new SalesCubeResultDTO[1];
+            double ms = BenchmarkSupport.medianMillis(runs, () -> result[0] = cube.query(entry.getValue()));
+            worst = Math.max(worst, ms);
+            System.out.printf("%-28s median %8.1f ms, %,d groups%n", entry.getKey(), ms, result[0].getGroups());
+            assertThat(result[0].getScannedLines()).isEqualTo(lines);
+            assertThat(result[0].isTruncated()).isFalse();
+        }
+        assertThat(worst).isLessThanOrEqualTo(BenchmarkSupport.intProperty("max-query-ms", 2000));
+    }
+}
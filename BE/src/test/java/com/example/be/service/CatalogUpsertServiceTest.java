@@ -0,0 +1,201 @@
+package com.example.be.service;
+
+import com.example.be.dto.ImportDiffDTO;
+import com.example.be.entity.OrderItem;
+import com.example.be.entity.ProductVariant;
+import com.example.be.repository.ProductVariantRepository;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Variant upserts against the database: hash skips, blank cells, dry runs and
+ * the other write paths that must clear import_hash. Runs without the test
+ * transaction because the import commits chunk by chunk.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CatalogUpsertService.class, StockReservationService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogUpsertServiceTest {
+
+    @Autowired
+    private CatalogUpsertService catalogUpsertService;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private ProductVariantRepository productVariantRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private ProductCacheService productCacheService;
+
+    @MockitoBean
+    private ProductSearchService productSearchService;
+
+    @MockitoBean
+    private CatalogFacetService catalogFacetService;
+
+    @MockitoBean
+    private LowStockService lowStockService;
+
+    @TempDir
+    Path dir;
+
+    private String tag;
+    private long productId;
+
+    @BeforeEach
+    void seed() throws Exception {
+        tag = "upsert-test-" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO products (name, slug, active) VALUES (?, ?, 1)", tag, tag);
+        productId = jdbcTemplate.queryForObject("SELECT id FROM products WHERE slug = ?", Long.class, tag);
+
+        ImportDiffDTO diff = upsert(false, line(1, "100", "10"), line(2, "200", "20"), line(3, "300", "30"));
+        assertThat(diff.getInserted()).isEqualTo(3);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM product_variants WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+    }
+
+    @Test
+    void unchangedRowsAreSkippedByHash() throws Exception {
+        // A write that did not clear the hash: the hash still matches, so the row is not compared
+        jdbcTemplate.update("UPDATE product_variants SET stock_quantity = 99 WHERE sku = ?", sku(1));
+
+        ImportDiffDTO diff = upsert(false, line(1, "100", "10"), line(2, "200", "20"), line(3, "300", "30"));
+
+        assertThat(diff.getUnchanged()).isEqualTo(3);
+        assertThat(diff.getUpdated()).isZero();
+        assertThat(diff.getSamples()).isEmpty();
+        assertThat(variant(1).get("stock_quantity")).isEqualTo(99);
+    }
+
+    @Test
+    void blankCellKeepsStoredValue() throws Exception {
+        ImportDiffDTO diff = upsert(false, line(1, null, "15"), line(2, "200", "20"), line(3, "300", "30"));
+
+        assertThat(diff.getUpdated()).isEqualTo(1);
+        assertThat(diff.getSamples().get(0).getChanges()).containsOnlyKeys("stock_quantity");
+        Map<String, Object> row = variant(1);
+        assertThat((BigDecimal) row.get("price")).isEqualByComparingTo("100");
+        assertThat(row.get("stock_quantity")).isEqualTo(15);
+    }
+
+    @Test
+    void otherWritesClearTheHash() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            ProductVariant variant = productVariantRepository.findById(id(1)).orElseThrow();
+            variant.setPrice(new BigDecimal("150"));
+        });
+        tx.executeWithoutResult(status -> stockReservationService.reserve(List.of(OrderItem.builder()
+                .productVariant(ProductVariant.builder().id(id(2)).build())
+                .quantity(5)
+                .build())));
+
+        assertThat(variant(1).get("import_hash")).isNull();
+        assertThat(variant(2).get("import_hash")).isNull();
+        assertThat(variant(3).get("import_hash")).isNotNull();
+
+        // Both rows are compared again and put back to the file's values
+        ImportDiffDTO diff = upsert(false, line(1, "100", "10"), line(2, "200", "20"), line(3, "300", "30"));
+
+        assertThat(diff.getUpdated()).isEqualTo(2);
+        assertThat(diff.getUnchanged()).isEqualTo(1);
+        assertThat((BigDecimal) variant(1).get("price")).isEqualByComparingTo("100");
+        assertThat(variant(2).get("stock_quantity")).isEqualTo(20);
+        assertThat(variant(1).get("import_hash")).isNotNull();
+    }
+
+    @Test
+    void dryRunWritesNothing() throws Exception {
+        Map<String, Object> before = variant(2);
+
+        ImportDiffDTO diff = upsert(true, line(1, "100", "10"), line(2, "250", "20"), line(4, "400", "40"));
+
+        assertThat(diff.isDryRun()).isTrue();
+        assertThat(diff.getInserted()).isEqualTo(1);
+        assertThat(diff.getUpdated()).isEqualTo(1);
+        assertThat(diff.getUnchanged()).isEqualTo(1);
+        assertThat(variant(2)).isEqualTo(before);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product_variants WHERE product_id = ?",
+                Integer.class, productId)).isEqualTo(3);
+    }
+
+    private String sku(int n) {
+        return tag + "-" + n;
+    }
+
+    private long id(int n) {
+        return jdbcTemplate.queryForObject("SELECT id FROM product_variants WHERE sku = ?", Long.class, sku(n));
+    }
+
+    private Map<String, Object> variant(int n) {
+        return jdbcTemplate.queryForMap("SELECT price, stock_quantity, import_hash FROM product_variants "
+                + "WHERE sku = ?", sku(n));
+    }
+
+    private String[] line(int n, String price, String stock) {
+        return new String[]{tag, null, null, price, stock, sku(n)};
+    }
+
+    // Product, Size, Color, Price, Stock, SKU; null leaves the cell blank
+    private ImportDiffDTO upsert(boolean dryRun, String[]... lines) throws Exception {
+        Path file = Files.createTempFile(dir, "variants", ".xlsx");
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(); OutputStream out = Files.newOutputStream(file)) {
+            Row header = workbook.createSheet().createRow(0);
+            String[] titles = {"Product", "Size", "Color", "Price", "Stock", "SKU"};
+            for (int c = 0; c < titles.length; c++) {
+                header.createCell(c).setCellValue(titles[c]);
+            }
+            for (int i = 0; i < lines.length; i++) {
+                Row row = workbook.getSheetAt(0).createRow(i + 1);
+                for (int c = 0; c < lines[i].length; c++) {
+                    if (lines[i][c] != null) {
+                        if (c == 3 || c == 4) {
+                            row.createCell(c).setCellValue(Double.parseDouble(lines[i][c]));
+                        } else {
+                            row.createCell(c).setCellValue(lines[i][c]);
+                        }
+                    }
+                }
+            }
+            workbook.write(out);
+            workbook.dispose();
+        }
+        return catalogUpsertService.upsertProductVariants(file, ImportListener.NONE, dryRun);
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.be.service;
+
+import com.example.be.entity.OrderOutboxEvent;
+import com.example.be.entity.OrderStatusTotal;
+import com.example.be.repository.OrderItemRepository;
+import com.example.be.repository.OrderRepository;
+import com.example.be.repository.OrderStatusTotalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rollups maintained event by event must match what a rebuild (the GROUP BY over
+ * orders) produces, including updates that change the total or payment method.
+ * Everything runs in the test transaction and is rolled back.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(DashboardRollupService.class)
+class DashboardRollupServiceTest {
+
+    @Autowired
+    private DashboardRollupService dashboardRollupService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderStatusTotalRepository orderStatusTotalRepository;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long variantId;
+
+    @BeforeEach
+    void seed() {
+        // Start from rollups that agree with whatever is already in the database
+        dashboardRollupService.rebuild();
+        String tag = "rollup-test-" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO products (name, slug, active) VALUES (?, ?, 1)", tag, tag);
+        long productId = jdbcTemplate.queryForObject("SELECT id FROM products WHERE slug = ?", Long.class, tag);
+        jdbcTemplate.update("INSERT INTO product_variants (product_id, sku, stock_quantity, price, cost_price) "
+                + "VALUES (?, ?, 100, 250, 90)", productId, tag);
+        variantId = jdbcTemplate.queryForObject("SELECT id FROM product_variants WHERE sku = ?", Long.class, tag);
+    }
+
+    @Test
+    void incrementalRollupsMatchRebuild() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        long shipped = createOrder(now.minusHours(30), "COD", 2);
+        long cancelled = createOrder(now.minusHours(5), "VNPAY", 1);
+        long pending = createOrder(now.minusMinutes(10), null, 3);
+        long repriced = createOrder(now.minusHours(2), "COD", 1);
+        long switched = createOrder(now.minusHours(3), "COD", 2);
+        // Sold before cost capture: costed at the variant's current cost by both paths
+        long legacy = createOrder(now.minusHours(4), "COD", 3, null);
+
+        changeStatus(shipped, "PENDING", "SHIPPING");
+        changeStatus(shipped, "SHIPPING", "DELIVERED");
+        changeStatus(cancelled, "PENDING", "CANCELLED");
+        // PUT /api/orders/{id} can change the total and payment method with or without a status change
+        update(repriced, "ORDER_UPDATED", "PENDING", "COD", new BigDecimal("180"));
+        update(switched, "ORDER_UPDATED", "PENDING", "VNPAY", new BigDecimal("500"));
+        update(switched, "ORDER_STATUS_CHANGED", "CONFIRMED", "MOMO", new BigDecimal("450"));
+        // Redelivered by the outbox relay after another subscriber failed
+        OrderOutboxEvent event = changeStatus(pending, "PENDING", "CONFIRMED");
+        dashboardRollupService.onOrderEvent(event);
+        em.flush();
+
+        Map<String, String> incremental = snapshot();
+        assertThat(statusTotals()).isEqualTo(fallbackStatusTotals());
+
+        dashboardRollupService.rebuild();
+        em.flush();
+        assertThat(snapshot()).isEqualTo(incremental);
+        Object[] factRow = orderItemRepository.findFactRowsAfter(legacy - 1, 0L, PageRequest.of(0, 1)).get(0);
+        assertThat((BigDecimal) factRow[10]).isEqualByComparingTo("90");
+    }
+
+    private long createOrder(LocalDateTime createdAt, String paymentMethod, int quantity) {
+        return createOrder(createdAt, paymentMethod, quantity, new BigDecimal("90"));
+    }
+
+    private long createOrder(LocalDateTime createdAt, String paymentMethod, int quantity, BigDecimal costPrice) {
+        BigDecimal total = BigDecimal.valueOf(250L * quantity);
+        jdbcTemplate.update("INSERT INTO orders (created_at, status, payment_method, final_total, subtotal) "
+                + "VALUES (?, 'PENDING', ?, ?, ?)", createdAt, paymentMethod, total, total);
+        long orderId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM orders", Long.class);
+        jdbcTemplate.update("INSERT INTO order_items (order_id, product_variant_id, quantity, price, cost_price) "
+                + "VALUES (?, ?, ?, 250, ?)", orderId, variantId, quantity, costPrice);
+        apply(OrderOutboxEvent.builder()
+                .orderId(orderId)
+                .eventType("ORDER_CREATED")
+                .status("PENDING")
+                .finalTotal(total)
+                .paymentMethod(paymentMethod)
+                .orderCreatedAt(createdAt)
+                .build());
+        return orderId;
+    }
+
+    private OrderOutboxEvent changeStatus(long orderId, String from, String to) {
+        Map<String, Object> order = jdbcTemplate.queryForMap(
+                "SELECT payment_method, final_total FROM orders WHERE id = ?", orderId);
+        return update(orderId, "ORDER_STATUS_CHANGED", to, (String) order.get("payment_method"),
+                (BigDecimal) order.get("final_total"));
+    }
+
+    // Same previous values OrderServiceImpl.updateOrder puts on the event
+    private OrderOutboxEvent update(long orderId, String eventType, String status, String paymentMethod,
+            BigDecimal total) {
+        Map<String, Object> before = jdbcTemplate.queryForMap(
+                "SELECT created_at, status, payment_method, final_total FROM orders WHERE id = ?", orderId);
+        jdbcTemplate.update("UPDATE orders SET status = ?, payment_method = ?, final_total = ? WHERE id = ?",
+                status, paymentMethod, total, orderId);
+        return apply(OrderOutboxEvent.builder()
+                .orderId(orderId)
+                .eventType(eventType)
+                .previousStatus((String) before.get("status"))
+                .previousFinalTotal((BigDecimal) before.get("final_total"))
+                .previousPaymentMethod((String) before.get("payment_method"))
+                .status(status)
+                .finalTotal(total)
+                .paymentMethod(paymentMethod)
+                .orderCreatedAt((LocalDateTime) before.get("created_at"))
+                .build());
+    }
+
+    private OrderOutboxEvent apply(OrderOutboxEvent event) {
+        em.persist(event);
+        dashboardRollupService.onOrderEvent(event);
+        return event;
+    }
+
+    /** Non-zero rows of every rollup table; event-applied tables keep rows that went back to zero. */
+    private Map<String, String> snapshot() {
+        Map<String, String> tables = new TreeMap<>();
+        tables.put("order_rollups", rows("SELECT CONCAT_WS('|', bucket_hour, status, payment_method, order_count, "
+                + "revenue) FROM order_rollups WHERE order_count <> 0 OR revenue <> 0"));
+        tables.put("product_rollups", rows("SELECT CONCAT_WS('|', bucket_hour, product_id, status, payment_method, "
+                + "quantity, revenue) FROM product_rollups WHERE quantity <> 0 OR revenue <> 0"));
+        tables.put("order_status_totals", rows("SELECT CONCAT_WS('|', status, order_count, revenue) "
+                + "FROM order_status_totals WHERE order_count <> 0 OR revenue <> 0"));
+        tables.put("margin_daily_rollups", rows("SELECT CONCAT_WS('|', bucket_day, variant_id, product_id, quantity, "
+                + "revenue, cost) FROM margin_daily_rollups WHERE quantity <> 0 OR revenue <> 0 OR cost <> 0"));
+        return tables;
+    }
+
+    private String rows(String sql) {
+        List<String> rows = jdbcTemplate.queryForList(sql + " ORDER BY 1", String.class);
+        return String.join("\n", rows);
+    }
+
+    private Map<String, String> statusTotals() {
+        Map<String, String> totals = new TreeMap<>();
+        for (OrderStatusTotal total : orderStatusTotalRepository.findAll()) {
+            if (total.getOrderCount() != 0) {
+                totals.put(total.getStatus(), total.getOrderCount() + "|" + total.getRevenue().stripTrailingZeros());
+            }
+        }
+        return totals;
+    }
+
+    // What DashboardService.getStats() reads while the rollups are not ready
+    private Map<String, String> fallbackStatusTotals() {
+        Map<String, String> totals = new TreeMap<>();
+        for (Object[] row : orderRepository.countAndSumByStatus()) {
+            String status = row[0] == null ? DashboardRollupService.UNKNOWN : (String) row[0];
+            totals.put(status, row[1] + "|" + ((BigDecimal) row[2]).stripTrailingZeros());
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.be.service;
+
+import com.example.be.dto.FlashSalePurchaseResultDTO;
+import com.example.be.exception.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Load test for the in-memory flash sale counter: many concurrent buyers while
+ * write-behind flushes run, the sale is never oversold and sold_quantity ends up
+ * equal to the journaled purchases. Runs without the test transaction so the
+ * flushes really commit.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(FlashSaleService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FlashSaleServiceTest {
+    private static final int TOTAL = 100;
+    private static final int BUYERS = 1000;
+    private static final int USERS = 20;
+
+    @Autowired
+    private FlashSaleService flashSaleService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String tag;
+    private long productId;
+    private long flashSaleId;
+    private final List<String> usernames = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        tag = "flash-test-" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO products (name, slug, active, price) VALUES (?, ?, 1, 200)", tag, tag);
+        productId = jdbcTemplate.queryForObject("SELECT id FROM products WHERE slug = ?", Long.class, tag);
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO flash_sales (product_id, sale_price, start_time, end_time, total_quantity, "
+                + "sold_quantity, is_active) VALUES (?, 100, ?, ?, ?, 0, 1)",
+                productId, now.minusMinutes(1), now.plusHours(1), TOTAL);
+        flashSaleId = jdbcTemplate.queryForObject("SELECT id FROM flash_sales WHERE product_id = ?", Long.class, productId);
+        for (int i = 0; i < USERS; i++) {
+            String username = tag + "-u" + i;
+            jdbcTemplate.update("INSERT INTO users (username, role) VALUES (?, 'USER')", username);
+            usernames.add(username);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM flash_sale_purchases WHERE flash_sale_id = ?", flashSaleId);
+        jdbcTemplate.update("DELETE FROM flash_sales WHERE id = ?", flashSaleId);
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE ?", tag + "-%");
+    }
+
+    @Test
+    void concurrentBuyersNeverOversellAndCounterMatchesJournal() throws Exception {
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        AtomicBoolean buying = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+
+        // Write-behind keeps running underneath the buyers, as the scheduler would
+        Thread flusher = new Thread(() -> {
+            while (buying.get()) {
+                flashSaleService.flush();
+            }
+        });
+        flusher.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        try {
+            for (int i = 0; i < BUYERS; i++) {
+                String username = usernames.get(i % USERS);
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                        FlashSalePurchaseResultDTO result = flashSaleService.purchase(flashSaleId, username, 1);
+                        if ("ADMITTED".equals(result.getStatus())) {
+                            admitted.incrementAndGet();
+                        } else if ("SOLD_OUT".equals(result.getStatus())) {
+                            soldOut.incrementAndGet();
+                        }
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertThat(pool.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+            buying.set(false);
+            flusher.join();
+        }
+        flashSaleService.flush();
+
+        assertThat(unexpected).isEmpty();
+        assertThat(admitted.get()).isEqualTo(TOTAL);
+        assertThat(soldOut.get()).isEqualTo(BUYERS - TOTAL);
+        assertThat(journaledQuantity()).isEqualTo(TOTAL);
+        assertThat(soldQuantity()).isEqualTo(TOTAL);
+    }
+
+    @Test
+    void unknownBuyerIsRejectedBeforeAdmission() {
+        assertThatThrownBy(() -> flashSaleService.purchase(flashSaleId, tag + "-nobody", 1))
+                .isInstanceOf(ResourceNotFoundException.class);
+        flashSaleService.flush();
+
+        assertThat(flashSaleService.getFlashSale(flashSaleId).getRemainingQuantity()).isEqualTo(TOTAL);
+        assertThat(soldQuantity()).isZero();
+    }
+
+    @Test
+    void droppedPurchaseIsNotWrittenBackToSoldQuantity() {
+        assertThat(flashSaleService.purchase(flashSaleId, usernames.get(0), 3).getStatus()).isEqualTo("ADMITTED");
+        assertThat(flashSaleService.purchase(flashSaleId, usernames.get(1), 2).getStatus()).isEqualTo("ADMITTED");
+        // The second buyer disappears before the purchase is journaled
+        jdbcTemplate.update("DELETE FROM users WHERE username = ?", usernames.get(1));
+        flashSaleService.flush();
+
+        assertThat(journaledQuantity()).isEqualTo(3);
+        assertThat(soldQuantity()).isEqualTo(3);
+        assertThat(flashSaleService.getFlashSale(flashSaleId).getRemainingQuantity()).isEqualTo(TOTAL - 3);
+    }
+
+    private int journaledQuantity() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(quantity), 0) FROM flash_sale_purchases "
+                + "WHERE flash_sale_id = ?", Integer.class, flashSaleId);
+    }
+
+    private int soldQuantity() {
+        return jdbcTemplate.queryForObject("SELECT sold_quantity FROM flash_sales WHERE id = ?", Integer.class, flashSaleId);
+    }
+}
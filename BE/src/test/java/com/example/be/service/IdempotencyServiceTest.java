@@ -0,0 +1,39 @@
+package com.example.be.service;
+
+import com.example.be.service.IdempotencyService.StoredResponse;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyServiceTest {
+
+    private final IdempotencyService service = new IdempotencyService(86400, 1, 3);
+
+    @Test
+    void dropsOldestResponsesPastMaxEntries() throws InterruptedException {
+        for (int i = 1; i <= 4; i++) {
+            store("k" + i, "h" + i);
+        }
+
+        assertThat(service.getResponse("k1")).isNull();
+        assertThat(service.getResponse("k2").requestHash()).isEqualTo("h2");
+        assertThat(service.getResponse("k4").requestHash()).isEqualTo("h4");
+    }
+
+    @Test
+    void expiredResponsesArePurgedFromTheHead() throws InterruptedException {
+        IdempotencyService expiring = new IdempotencyService(0, 1, 3);
+        assertThat(expiring.tryAcquire("k")).isTrue();
+        expiring.complete("k", expiring.newResponse("h", 201, "application/json", new byte[0]));
+        Thread.sleep(5);
+        expiring.purgeExpired();
+
+        assertThat(expiring.getResponse("k")).isNull();
+    }
+
+    private void store(String key, String hash) throws InterruptedException {
+        assertThat(service.tryAcquire(key)).isTrue();
+        StoredResponse response = service.newResponse(hash, 201, "application/json", new byte[0]);
+        service.complete(key, response);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.be.service;
+
+import com.example.be.dto.LowStockItemDTO;
+import com.example.be.dto.NotificationDTO;
+import com.example.be.repository.ProductVariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Threshold crossings and alerts with the repository mocked. Nothing runs inside
+ * a transaction, so stockChanged() refreshes immediately.
+ */
+class LowStockServiceTest {
+    private static final int DEFAULT_THRESHOLD = 10;
+
+    private final ProductVariantRepository repository = mock(ProductVariantRepository.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private LowStockService service;
+
+    // variant id, product id, product name, sku, stock, threshold
+    private static Object[] row(long variantId, int stock, Integer threshold) {
+        return new Object[]{variantId, 100L, "Áo thun", "SKU-" + variantId, stock, threshold};
+    }
+
+    private void stockIs(Object[]... rows) {
+        when(repository.findStockLevelsByIdIn(anyCollection())).thenReturn(List.of(rows));
+    }
+
+    private List<String> alertLevels() {
+        ArgumentCaptor<NotificationDTO> sent = ArgumentCaptor.forClass(NotificationDTO.class);
+        verify(notificationService, atLeast(0)).sendToTopic(eq(LowStockService.TOPIC), sent.capture());
+        List<String> levels = new ArrayList<>();
+        for (NotificationDTO notification : sent.getAllValues()) {
+            levels.add((String) ((Map<?, ?>) notification.getData()).get("level"));
+        }
+        return levels;
+    }
+
+    @BeforeEach
+    void setUp() {
+        service = new LowStockService(repository, notificationService, DEFAULT_THRESHOLD);
+        when(repository.findStockLevelsBelowThreshold(anyInt())).thenReturn(List.of());
+        service.load();
+    }
+
+    @Test
+    void alertsOnceWhenCrossingBelowAndAgainWhenRunningOut() {
+        stockIs(row(1, 12, null));
+        service.stockChanged(List.of(1L));
+        assertThat(service.count()).isZero();
+
+        stockIs(row(1, 9, null));
+        service.stockChanged(List.of(1L));
+        stockIs(row(1, 4, null));
+        service.stockChanged(List.of(1L));
+        assertThat(alertLevels()).containsExactly("LOW_STOCK");
+
+        stockIs(row(1, 0, null));
+        service.stockChanged(List.of(1L));
+        assertThat(alertLevels()).containsExactly("LOW_STOCK", "OUT_OF_STOCK");
+        assertThat(service.getLowStock(PageRequest.of(0, 10)).getContent())
+                .extracting(LowStockItemDTO::getStockQuantity).containsExactly(0);
+
+        // Restocked above the threshold, then low again: a new crossing
+        stockIs(row(1, 10, null));
+        service.stockChanged(List.of(1L));
+        assertThat(service.count()).isZero();
+        stockIs(row(1, 3, null));
+        service.stockChanged(List.of(1L));
+        assertThat(alertLevels()).containsExactly("LOW_STOCK", "OUT_OF_STOCK", "LOW_STOCK");
+    }
+
+    @Test
+    void usesVariantThresholdAndOrdersByUrgency() {
+        // 5 of 50 is more urgent than 4 of 10; 30 of 20 is not low at all
+        stockIs(row(1, 4, null), row(2, 5, 50), row(3, 30, 20));
+        service.stockChanged(List.of(1L, 2L, 3L));
+
+        assertThat(service.getLowStock(PageRequest.of(0, 10)).getContent())
+                .extracting(LowStockItemDTO::getVariantId).containsExactly(2L, 1L);
+        assertThat(alertLevels()).containsExactly("LOW_STOCK", "LOW_STOCK");
+    }
+
+    @Test
+    void deletedVariantsDropOut() {
+        stockIs(row(1, 2, null));
+        service.stockChanged(List.of(1L));
+        stockIs();
+        service.stockChanged(List.of(1L));
+
+        assertThat(service.count()).isZero();
+    }
+
+    @Test
+    void changesDuringStartupLoadAreNotOverwrittenBySnapshot() {
+        LowStockService starting = new LowStockService(repository, notificationService, DEFAULT_THRESHOLD);
+        // The snapshot was read before an order took variant 1 down to zero
+        when(repository.findStockLevelsBelowThreshold(anyInt())).thenAnswer(invocation -> {
+            stockIs(row(1, 0, null));
+            starting.stockChanged(List.of(1L));
+            return List.<Object[]>of(row(1, 6, null));
+        });
+
+        assertThat(starting.isReady()).isFalse();
+        starting.load();
+
+        assertThat(starting.isReady()).isTrue();
+        assertThat(starting.getLowStock(PageRequest.of(0, 10)).getContent())
+                .extracting(LowStockItemDTO::getStockQuantity).containsExactly(0);
+        assertThat(alertLevels()).containsExactly("OUT_OF_STOCK");
+    }
+}
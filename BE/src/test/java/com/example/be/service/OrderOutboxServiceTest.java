@@ -0,0 +1,91 @@
+package com.example.be.service;
+
+import com.example.be.entity.OrderOutboxEvent;
+import com.example.be.repository.OrderOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * Relay retries with the repository mocked: a failing subscriber backs off
+ * and is retried alone, the others are not called again.
+ */
+class OrderOutboxServiceTest {
+
+    private final OrderOutboxRepository repository = mock(OrderOutboxRepository.class);
+    private final RecordingSubscriber healthy = new RecordingSubscriber();
+    private final FlakySubscriber flaky = new FlakySubscriber();
+    private OrderOutboxService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new OrderOutboxService(repository, List.of(healthy, flaky), new SimpleMeterRegistry(),
+                200, 10, 1000, 300_000, 7);
+        when(repository.findOrderIdsWaitingForRetry(anyCollection(), any())).thenReturn(Set.of());
+    }
+
+    @Test
+    void failedSubscriberIsRetriedAloneAfterBackoff() {
+        OrderOutboxEvent event = OrderOutboxEvent.builder()
+                .id(1L).orderId(7L).eventType("ORDER_CREATED").createdAt(LocalDateTime.now()).build();
+        when(repository.findDue(any(), any())).thenReturn(List.of(event));
+        flaky.failuresLeft = 1;
+
+        LocalDateTime before = LocalDateTime.now();
+        service.relay();
+
+        assertThat(healthy.seen).containsExactly(1L);
+        assertThat(event.getAttempts()).isEqualTo(1);
+        assertThat(event.getDeliveredTo()).isEqualTo("RecordingSubscriber");
+        assertThat(event.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(1));
+        verify(repository).save(event);
+        verify(repository, never()).markPublished(anyCollection(), any());
+
+        service.relay();
+
+        assertThat(healthy.seen).containsExactly(1L);
+        assertThat(flaky.seen).containsExactly(1L, 1L);
+        verify(repository).markPublished(eq(List.of(1L)), any());
+    }
+
+    @Test
+    void backoffDoublesUpToTheCap() {
+        assertThat(service.backoff(1)).isEqualTo(Duration.ofSeconds(1));
+        assertThat(service.backoff(4)).isEqualTo(Duration.ofSeconds(8));
+        assertThat(service.backoff(10)).isEqualTo(Duration.ofSeconds(300));
+        assertThat(service.backoff(64)).isEqualTo(Duration.ofSeconds(300));
+    }
+
+    private static class RecordingSubscriber implements OrderEventSubscriber {
+        final List<Long> seen = new ArrayList<>();
+
+        @Override
+        public void onOrderEvent(OrderOutboxEvent event) {
+            seen.add(event.getId());
+        }
+    }
+
+    private static class FlakySubscriber implements OrderEventSubscriber {
+        final List<Long> seen = new ArrayList<>();
+        int failuresLeft;
+
+        @Override
+        public void onOrderEvent(OrderOutboxEvent event) {
+            seen.add(event.getId());
+            if (failuresLeft-- > 0) {
+                throw new IllegalStateException("downstream unavailable");
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.be.service;
+
+import com.example.be.dto.ProductDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCacheServiceTest {
+
+    private final ProductCacheService cache = new ProductCacheService(new SimpleMeterRegistry(), true, 3, 300);
+
+    @Test
+    void evictsLeastRecentlyUsedPastMaxSize() {
+        for (long id = 1; id <= 3; id++) {
+            cache.put(product(id), cache.stamp());
+        }
+        cache.getById(1L); // 2 is now the least recently used
+        cache.put(product(4), cache.stamp());
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.getById(2L)).isNull();
+        assertThat(cache.getBySlug("p-2")).isNull();
+        assertThat(cache.getById(1L)).isNotNull();
+        assertThat(cache.getBySlug("p-4").getId()).isEqualTo(4L);
+    }
+
+    @Test
+    void valueLoadedBeforeAnEvictionIsNotCached() {
+        long stamp = cache.stamp();
+        // A writer commits and evicts while the reader is still loading
+        cache.evict(1L);
+        cache.put(product(1), stamp);
+
+        assertThat(cache.getById(1L)).isNull();
+        cache.put(product(1), cache.stamp());
+        assertThat(cache.getById(1L)).isNotNull();
+    }
+
+    @Test
+    void slugChangeDropsTheOldSlug() {
+        cache.put(product(1), cache.stamp());
+        ProductDTO renamed = product(1);
+        renamed.setSlug("renamed");
+        cache.put(renamed, cache.stamp());
+
+        assertThat(cache.getBySlug("p-1")).isNull();
+        assertThat(cache.getBySlug("renamed").getId()).isEqualTo(1L);
+    }
+
+    private static ProductDTO product(long id) {
+        ProductDTO dto = new ProductDTO();
+        dto.setId(id);
+        dto.setSlug("p-" + id);
+        return dto;
+    }
+}
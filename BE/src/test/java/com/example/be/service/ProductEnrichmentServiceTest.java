@@ -0,0 +1,112 @@
+package com.example.be.service;
+
+import com.example.be.dto.ProductDTO;
+import com.example.be.entity.*;
+import com.example.be.repository.ProductRepository;
+import com.example.be.util.DtoMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Listing N products must cost the same number of statements whatever N is
+ * (products with category and brand, then one IN query each for images and variants).
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductEnrichmentService.class, DtoMapper.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class ProductEnrichmentServiceTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductEnrichmentService productEnrichmentService;
+
+    @Test
+    void statementCountDoesNotGrowWithProductCount() {
+        long few = statementsToList(3);
+        long many = statementsToList(40);
+
+        assertThat(few).isLessThanOrEqualTo(3);
+        assertThat(many).isEqualTo(few);
+    }
+
+    @Test
+    void enrichedProductsCarryTheirImagesAndVariants() {
+        Category category = createCatalog(2);
+        em.clear();
+
+        List<ProductDTO> dtos = productEnrichmentService.enrich(productRepository.findByCategoryId(category.getId()));
+
+        assertThat(dtos).hasSize(2).allSatisfy(dto -> {
+            assertThat(dto.getCategoryName()).isEqualTo(category.getName());
+            assertThat(dto.getBrandName()).isNotNull();
+            assertThat(dto.getImages()).hasSize(2);
+            assertThat(dto.getVariants()).hasSize(2)
+                    .allSatisfy(v -> assertThat(v.getSizeValue()).isNotNull());
+        });
+    }
+
+    private long statementsToList(int productCount) {
+        Category category = createCatalog(productCount);
+        em.clear();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ProductDTO> dtos = productEnrichmentService.enrich(productRepository.findByCategoryId(category.getId()));
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(dtos).hasSize(productCount);
+        assertThat(dtos).allSatisfy(dto -> assertThat(dto.getVariants()).hasSize(2));
+        return statements;
+    }
+
+    private Category createCatalog(int productCount) {
+        Category category = em.persist(Category.builder().name("enrich-test-" + System.nanoTime()).build());
+        Brand brand = em.persist(Brand.builder().name("enrich-test-brand").build());
+        Size size = em.persist(Size.builder().sizeValue("M").build());
+        Color color = em.persist(Color.builder().colorName("Red").hexCode("#ff0000").build());
+        for (int i = 0; i < productCount; i++) {
+            Product product = em.persist(Product.builder()
+                    .name("Product " + i)
+                    .slug("enrich-test-" + i)
+                    .category(category)
+                    .brand(brand)
+                    .active(true)
+                    .build());
+            for (int j = 0; j < 2; j++) {
+                em.persist(ProductImage.builder().product(product).imageUrl("/img/" + i + "-" + j + ".jpg").build());
+                em.persist(ProductVariant.builder()
+                        .product(product)
+                        .size(size)
+                        .color(color)
+                        .price(BigDecimal.valueOf(100000))
+                        .stockQuantity(10)
+                        .sku("ENRICH-" + i + "-" + j + "-" + System.nanoTime())
+                        .build());
+            }
+        }
+        em.flush();
+        return category;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.be.service;
+
+import com.example.be.dto.SalesCubeQueryDTO;
+import com.example.be.dto.SalesCubeResultDTO;
+import com.example.be.dto.SalesCubeRowDTO;
+import com.example.be.entity.OrderOutboxEvent;
+import com.example.be.repository.OrderItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Cube load, grouping and outbox patches with the fact-row query mocked.
+ */
+class SalesCubeServiceTest {
+    private static final LocalDateTime DAY_ONE = LocalDateTime.of(2026, 3, 1, 10, 0);
+
+    private final OrderItemRepository repository = mock(OrderItemRepository.class);
+
+    // itemId, orderId, variantId, productId, categoryId, brandId, createdAt, status, quantity, price, costPrice
+    private static Object[] line(long itemId, long orderId, long productId, String status, int quantity, String price) {
+        return new Object[]{itemId, orderId, productId * 10, productId, 1L, 2L, DAY_ONE.plusDays(orderId % 2),
+                status, quantity, new BigDecimal(price), new BigDecimal("1.00")};
+    }
+
+    private static List<Object[]> lines() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(line(1, 1, 100, "DELIVERED", 2, "10.00"));
+        rows.add(line(2, 1, 200, "DELIVERED", 1, "5.00"));
+        rows.add(line(3, 2, 100, "PENDING", 1, "10.00"));
+        rows.add(line(4, 3, 200, "DELIVERED", 3, "5.00"));
+        return rows;
+    }
+
+    private SalesCubeService loadedCube(long maxLines) {
+        when(repository.findFactRowsAfter(anyLong(), anyLong(), any())).thenReturn(lines());
+        SalesCubeService cube = new SalesCubeService(repository, true, maxLines);
+        cube.load();
+        return cube;
+    }
+
+    private static SalesCubeQueryDTO groupBy(String... dimensions) {
+        SalesCubeQueryDTO query = new SalesCubeQueryDTO();
+        query.setGroupBy(List.of(dimensions));
+        return query;
+    }
+
+    private static OrderOutboxEvent event(long orderId, String type, String status) {
+        return OrderOutboxEvent.builder().orderId(orderId).eventType(type).status(status)
+                .orderCreatedAt(DAY_ONE).createdAt(LocalDateTime.now()).build();
+    }
+
+    @Test
+    void groupsLoadedLinesAndPatchesStatus() {
+        SalesCubeService cube = loadedCube(1000);
+        assertThat(cube.isReady()).isTrue();
+
+        SalesCubeResultDTO byProduct = cube.query(groupBy("product"));
+        assertThat(byProduct.getScannedLines()).isEqualTo(4);
+        assertThat(byProduct.isTruncated()).isFalse();
+        assertThat(byProduct.getRows()).extracting(r -> r.getDimensions().get("product"))
+                .containsExactly(100L, 200L);
+        SalesCubeRowDTO top = byProduct.getRows().get(0);
+        assertThat(top.getLines()).isEqualTo(2);
+        assertThat(top.getRevenue()).isEqualByComparingTo("30.00");
+        assertThat(top.getGrossMargin()).isEqualByComparingTo("27.00");
+
+        cube.onOrderEvent(event(2, "ORDER_STATUS_CHANGED", "DELIVERED"));
+        cube.onOrderEvent(event(3, "ORDER_DELETED", null));
+
+        List<SalesCubeRowDTO> byStatus = cube.query(groupBy("status")).getRows();
+        assertThat(byStatus).hasSize(1);
+        assertThat(byStatus.get(0).getDimensions()).containsEntry("status", "DELIVERED");
+        assertThat(byStatus.get(0).getLines()).isEqualTo(3);
+    }
+
+    @Test
+    void filtersByDayRange() {
+        SalesCubeService cube = loadedCube(1000);
+        SalesCubeQueryDTO query = groupBy("day");
+        query.setFrom(LocalDate.from(DAY_ONE));
+        query.setTo(LocalDate.from(DAY_ONE));
+
+        List<SalesCubeRowDTO> rows = cube.query(query).getRows();
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getDimensions()).containsEntry("day", LocalDate.from(DAY_ONE));
+        assertThat(rows.get(0).getLines()).isEqualTo(1);
+    }
+
+    @Test
+    void reportsTruncationAtMaxLines() {
+        SalesCubeResultDTO result = loadedCube(3).query(groupBy());
+
+        assertThat(result.getScannedLines()).isEqualTo(3);
+        assertThat(result.isTruncated()).isTrue();
+    }
+
+    @Test
+    void retriesFailedPageAndResumes() {
+        when(repository.findFactRowsAfter(anyLong(), anyLong(), any()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(lines());
+        SalesCubeService cube = new SalesCubeService(repository, true, 1000);
+        cube.loadRetryMs = 1;
+
+        cube.load();
+
+        assertThat(cube.isReady()).isTrue();
+        assertThat(cube.query(groupBy()).getScannedLines()).isEqualTo(4);
+        verify(repository, times(2)).findFactRowsAfter(eq(0L), eq(0L), any());
+    }
+
+    @Test
+    void stopsBufferingOnceLoadGivesUp() {
+        when(repository.findFactRowsAfter(anyLong(), anyLong(), any()))
+                .thenThrow(new QueryTimeoutException("timeout"));
+        SalesCubeService cube = new SalesCubeService(repository, true, 1000);
+        cube.loadRetryMs = 1;
+
+        cube.onOrderEvent(event(9, "ORDER_STATUS_CHANGED", "DELIVERED"));
+        cube.load();
+        cube.onOrderEvent(event(9, "ORDER_CREATED", "PENDING"));
+
+        assertThat(cube.isReady()).isFalse();
+        verify(repository, times(5)).findFactRowsAfter(anyLong(), anyLong(), any());
+        // After giving up, events are dropped before they reach the database
+        verify(repository, never()).findWithVariantAndProductByOrderIdIn(any());
+    }
+}
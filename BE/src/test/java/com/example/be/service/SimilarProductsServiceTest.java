@@ -0,0 +1,89 @@
+package com.example.be.service;
+
+import com.example.be.entity.OrderOutboxEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+/**
+ * The per-product refresh must skip the same oversized baskets as the full
+ * rebuild, so both produce the same neighbours. Runs in the test transaction.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(SimilarProductsService.class)
+class SimilarProductsServiceTest {
+    private static final int BULK_ORDER_PRODUCTS = 51;
+
+    @Autowired
+    private SimilarProductsService similarProductsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<Long> variantIds = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        String tag = "similar-test-" + System.nanoTime();
+        for (int i = 0; i < BULK_ORDER_PRODUCTS; i++) {
+            String slug = tag + "-" + i;
+            jdbcTemplate.update("INSERT INTO products (name, slug, active) VALUES (?, ?, 1)", slug, slug);
+            long productId = jdbcTemplate.queryForObject("SELECT id FROM products WHERE slug = ?", Long.class, slug);
+            jdbcTemplate.update("INSERT INTO product_variants (product_id, sku, stock_quantity, price) "
+                    + "VALUES (?, ?, 100, 100)", productId, slug);
+            productIds.add(productId);
+            variantIds.add(jdbcTemplate.queryForObject("SELECT id FROM product_variants WHERE sku = ?", Long.class, slug));
+        }
+    }
+
+    @Test
+    void refreshSkipsBulkOrdersLikeRebuild() {
+        long a = productIds.get(0);
+        long b = productIds.get(1);
+        long bulk = createOrder(variantIds);
+        long basket = createOrder(variantIds.subList(0, 2));
+        createOrder(variantIds.subList(0, 1));
+
+        similarProductsService.rebuild();
+        List<Long> rebuilt = similarProductsService.getNeighbours(a, 100);
+
+        similarProductsService.onOrderEvent(event(bulk));
+        similarProductsService.onOrderEvent(event(basket));
+        similarProductsService.refreshDirty();
+        List<Long> refreshed = similarProductsService.getNeighbours(a, 100);
+
+        assertThat(rebuilt).containsExactly(b);
+        assertThat(refreshed).isEqualTo(rebuilt);
+        assertThat(jdbcTemplate.queryForObject("SELECT score FROM product_similarities "
+                + "WHERE product_id = ? AND neighbour_id = ?", Double.class, a, b))
+                .isCloseTo(1 / Math.sqrt(2), offset(1e-9));
+        assertThat(similarProductsService.getNeighbours(productIds.get(2), 100)).isEmpty();
+    }
+
+    private long createOrder(List<Long> variants) {
+        jdbcTemplate.update("INSERT INTO orders (created_at, status, final_total, subtotal) "
+                + "VALUES (NOW(), 'DELIVERED', 100, 100)");
+        long orderId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM orders", Long.class);
+        for (Long variantId : variants) {
+            jdbcTemplate.update("INSERT INTO order_items (order_id, product_variant_id, quantity, price) "
+                    + "VALUES (?, ?, 1, 100)", orderId, variantId);
+        }
+        return orderId;
+    }
+
+    private static OrderOutboxEvent event(long orderId) {
+        return OrderOutboxEvent.builder().orderId(orderId).eventType("ORDER_CREATED").status("DELIVERED").build();
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.be.service;
+
+import com.example.be.entity.OrderItem;
+import com.example.be.entity.ProductVariant;
+import com.example.be.exception.InsufficientStockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 500 parallel checkouts against 100 units of the same variants: stock never
+ * goes negative, exactly the available quantity is sold, and opposite line
+ * orders do not deadlock. Runs without the test transaction so every checkout
+ * really commits.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StockReservationService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockReservationServiceTest {
+    private static final int STOCK = 100;
+    private static final int BUYERS = 500;
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoBean
+    private LowStockService lowStockService;
+
+    private long productId;
+    private long firstVariantId;
+    private long secondVariantId;
+
+    @BeforeEach
+    void seed() {
+        String tag = "stock-test-" + System.nanoTime();
+        jdbcTemplate.update("INSERT INTO products (name, slug, active) VALUES (?, ?, 1)", tag, tag);
+        productId = jdbcTemplate.queryForObject("SELECT id FROM products WHERE slug = ?", Long.class, tag);
+        firstVariantId = insertVariant(tag + "-a");
+        secondVariantId = insertVariant(tag + "-b");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM product_variants WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+    }
+
+    @Test
+    void parallelCheckoutsNeverOversellOrDeadlock() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        try {
+            for (int i = 0; i < BUYERS; i++) {
+                // Half the carts list the variants the other way round
+                List<OrderItem> items = i % 2 == 0
+                        ? List.of(item(firstVariantId), item(secondVariantId))
+                        : List.of(item(secondVariantId), item(firstVariantId));
+                pool.execute(() -> {
+                    try {
+                        start.await();
+                        tx.executeWithoutResult(status -> stockReservationService.reserve(items));
+                        sold.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        rejected.incrementAndGet();
+                    } catch (Throwable e) {
+                        unexpected.add(e);
+                    }
+                });
+            }
+            start.countDown();
+        } finally {
+            pool.shutdown();
+            assertThat(pool.awaitTermination(60, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(unexpected).isEmpty();
+        assertThat(sold.get()).isEqualTo(STOCK);
+        assertThat(rejected.get()).isEqualTo(BUYERS - STOCK);
+        assertThat(stock(firstVariantId)).isZero();
+        assertThat(stock(secondVariantId)).isZero();
+        // Stock is part of the upsert import hash, so the next import must compare the row again
+        assertThat(jdbcTemplate.queryForList("SELECT import_hash FROM product_variants WHERE product_id = ?",
+                Long.class, productId)).containsOnlyNulls();
+    }
+
+    @Test
+    void failedLineRollsBackTheWholeOrder() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<OrderItem> items = new ArrayList<>();
+        items.add(item(firstVariantId));
+        items.add(OrderItem.builder()
+                .productVariant(ProductVariant.builder().id(secondVariantId).build())
+                .quantity(STOCK + 1)
+                .build());
+
+        assertThatThrownBy(() -> tx.executeWithoutResult(status -> stockReservationService.reserve(items)))
+                .isInstanceOf(InsufficientStockException.class);
+
+        assertThat(stock(firstVariantId)).isEqualTo(STOCK);
+        assertThat(stock(secondVariantId)).isEqualTo(STOCK);
+    }
+
+    private long insertVariant(String sku) {
+        jdbcTemplate.update("INSERT INTO product_variants (product_id, sku, stock_quantity, price, import_hash) "
+                + "VALUES (?, ?, ?, 100, 42)",
+                productId, sku, STOCK);
+        return jdbcTemplate.queryForObject("SELECT id FROM product_variants WHERE sku = ?", Long.class, sku);
+    }
+
+    private int stock(long variantId) {
+        return jdbcTemplate.queryForObject("SELECT stock_quantity FROM product_variants WHERE id = ?",
+                Integer.class, variantId);
+    }
+
+    private static OrderItem item(long variantId) {
+        return OrderItem.builder()
+                .productVariant(ProductVariant.builder().id(variantId).build())
+                .quantity(1)
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.be.util;
+
+import com.example.be.dto.CursorPageDTO;
+import com.example.be.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorPageUtilTest {
+    private static final Map<String, Class<?>> KEYS = Map.of("id", Long.class, "name", String.class);
+
+    @Test
+    void cursorRoundTripsValuesWithSeparators() {
+        Sort sort = CursorPageUtil.keysetSort("name", "asc", KEYS);
+        String name = "Áo thun\nid=7 & 100% cotton+";
+
+        String cursor = nextCursor(sort, name, 42L);
+        ScrollPosition position = CursorPageUtil.decodeCursor(cursor, sort, KEYS);
+
+        assertThat(position).isInstanceOf(KeysetScrollPosition.class);
+        assertThat(((KeysetScrollPosition) position).getKeys())
+                .containsExactly(Map.entry("name", name), Map.entry("id", 42L));
+    }
+
+    @Test
+    void cursorFromAnotherSortIsRejected() {
+        String cursor = nextCursor(CursorPageUtil.keysetSort("name", "asc", KEYS), "a", 1L);
+        Sort other = CursorPageUtil.keysetSort("name", "desc", KEYS);
+
+        assertThatThrownBy(() -> CursorPageUtil.decodeCursor(cursor, other, KEYS))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void unknownSortKeyIsRejected() {
+        assertThatThrownBy(() -> CursorPageUtil.keysetSort("password", "asc", KEYS))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static String nextCursor(Sort sort, String name, long id) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("name", name);
+        keys.put("id", id);
+        Window<String> window = Window.from(List.of("row"), i -> ScrollPosition.forward(keys), true);
+        CursorPageDTO<String> page = CursorPageUtil.toCursorPage(window, sort, List.of("row"));
+        return page.getNextCursor();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.be.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ImplicitAlsTest {
+    private static final int USERS = 20;
+    private static final int ITEMS = 10;
+
+    // Users 0-9 buy items 0-4, users 10-19 buy items 5-9; user 0 has not bought item 4 yet
+    private static int[][] twoGroups() {
+        int[][] userItems = new int[USERS][];
+        for (int u = 0; u < USERS; u++) {
+            int first = u < USERS / 2 ? 0 : ITEMS / 2;
+            int last = u == 0 ? first + 3 : first + 4;
+            userItems[u] = IntStream.rangeClosed(first, last).toArray();
+        }
+        return userItems;
+    }
+
+    private static double[][] strengths(int[][] userItems) {
+        double[][] strengths = new double[userItems.length][];
+        for (int u = 0; u < userItems.length; u++) {
+            strengths[u] = new double[userItems[u].length];
+            Arrays.fill(strengths[u], 1.0);
+        }
+        return strengths;
+    }
+
+    private static double score(ImplicitAls.Factors factors, int user, int item) {
+        double sum = 0;
+        for (int f = 0; f < factors.users()[user].length; f++) {
+            sum += factors.users()[user][f] * factors.items()[item][f];
+        }
+        return sum;
+    }
+
+    @Test
+    void ranksItemsOfTheUsersOwnGroupFirst() {
+        int[][] userItems = twoGroups();
+        ImplicitAls.Factors factors = ImplicitAls.train(ITEMS, userItems, strengths(userItems), 4, 10, 0.1, 10, 42);
+
+        for (int u = 0; u < USERS; u++) {
+            int own = u < USERS / 2 ? 0 : ITEMS / 2;
+            int other = ITEMS / 2 - own;
+            double worstOwn = Double.MAX_VALUE;
+            double bestOther = -Double.MAX_VALUE;
+            for (int i = 0; i < ITEMS / 2; i++) {
+                worstOwn = Math.min(worstOwn, score(factors, u, own + i));
+                bestOther = Math.max(bestOther, score(factors, u, other + i));
+            }
+            // For user 0 this includes item 4, which they have not bought yet
+            assertThat(worstOwn).as("user %d", u).isGreaterThan(bestOther);
+        }
+        assertThat(score(factors, 1, 0)).isCloseTo(1.0, within(0.05));
+    }
+
+    @Test
+    void sameSeedGivesSameFactors() {
+        int[][] userItems = twoGroups();
+        ImplicitAls.Factors first = ImplicitAls.train(ITEMS, userItems, strengths(userItems), 4, 10, 0.1, 3, 7);
+        ImplicitAls.Factors second = ImplicitAls.train(ITEMS, userItems, strengths(userItems), 4, 10, 0.1, 3, 7);
+
+        assertThat(second.users()).isDeepEqualTo(first.users());
+        assertThat(second.items()).isDeepEqualTo(first.items());
+    }
+
+    @Test
+    void usersWithoutInteractionsGetZeroVectors() {
+        int[][] userItems = {{0, 1}, {}};
+        ImplicitAls.Factors factors = ImplicitAls.train(3, userItems, strengths(userItems), 2, 10, 0.1, 2, 1);
+
+        assertThat(factors.users()[1]).containsOnly(0.0);
+        assertThat(factors.items()).hasNumberOfRows(3);
+    }
+}
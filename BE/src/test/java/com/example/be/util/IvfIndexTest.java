@@ -0,0 +1,102 @@
+package com.example.be.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IvfIndexTest {
+    private static final int DIM = 8;
+
+    private static float[][] randomVectors(int n, long seed) {
+        Random random = new Random(seed);
+        float[][] vectors = new float[n][DIM];
+        for (float[] vector : vectors) {
+            for (int d = 0; d < DIM; d++) {
+                vector[d] = (float) random.nextGaussian();
+            }
+        }
+        return vectors;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int d = 0; d < a.length; d++) {
+            sum += a[d] * b[d];
+        }
+        return sum;
+    }
+
+    private static long[] bruteForce(long[] ids, float[][] vectors, float[] query, int k) {
+        return IntStream.range(0, vectors.length).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> dot(vectors[i], query)).reversed())
+                .limit(k)
+                .mapToLong(i -> ids[i])
+                .toArray();
+    }
+
+    @Test
+    void probingEveryCellMatchesExactSearch() {
+        float[][] vectors = randomVectors(500, 1);
+        long[] ids = LongStream.rangeClosed(1001, 1500).toArray();
+        IvfIndex index = IvfIndex.build(ids, vectors, 16, 42);
+        float[] query = randomVectors(1, 2)[0];
+
+        assertThat(index.size()).isEqualTo(500);
+        assertThat(index.search(query, 10, 16, null)).containsExactly(bruteForce(ids, vectors, query, 10));
+    }
+
+    @Test
+    void excludedIdsAreSkipped() {
+        float[][] vectors = randomVectors(200, 3);
+        long[] ids = LongStream.rangeClosed(1, 200).toArray();
+        IvfIndex index = IvfIndex.build(ids, vectors, 8, 42);
+        float[] query = randomVectors(1, 4)[0];
+        long[] exact = bruteForce(ids, vectors, query, 5);
+        long[] excluded = Arrays.copyOf(exact, 2);
+
+        long[] result = index.search(query, 3, 8, id -> Arrays.stream(excluded).anyMatch(e -> e == id));
+
+        assertThat(result).containsExactly(exact[2], exact[3], exact[4]);
+    }
+
+    @Test
+    void fewProbesStillFindTheQuerysOwnCluster() {
+        // Four well separated clusters; a query near one of them only needs that cell
+        float[][] vectors = new float[400][DIM];
+        Random random = new Random(5);
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i][i % 4] = 10;
+            for (int d = 0; d < DIM; d++) {
+                vectors[i][d] += (float) (random.nextGaussian() * 0.1);
+            }
+        }
+        long[] ids = LongStream.range(0, 400).map(i -> i + 1).toArray();
+        IvfIndex index = IvfIndex.build(ids, vectors, 4, 42);
+        float[] query = new float[DIM];
+        query[2] = 1;
+
+        long[] result = index.search(query, 20, 1, null);
+
+        assertThat(result).containsExactly(bruteForce(ids, vectors, query, 20));
+        assertThat(Arrays.stream(result).map(id -> (id - 1) % 4)).containsOnly(2L);
+    }
+
+    @Test
+    void smallAndEmptyIndexes() {
+        IvfIndex empty = IvfIndex.build(new long[0], new float[0][], 8, 42);
+        assertThat(empty.search(new float[DIM], 5, 8, null)).isEmpty();
+
+        float[][] vectors = randomVectors(3, 6);
+        long[] ids = {7, 8, 9};
+        IvfIndex small = IvfIndex.build(ids, vectors, 8, 42);
+        float[] query = randomVectors(1, 7)[0];
+        assertThat(small.search(query, 10, 8, null)).containsExactly(bruteForce(ids, vectors, query, 3));
+        assertThat(small.search(query, 0, 8, null)).isEmpty();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.be.util;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class XlsxStreamReaderTest {
+    private static final int ROWS = 2_500;
+    private static final LocalDateTime RECEIVED = LocalDateTime.of(2026, 3, 1, 8, 30);
+
+    @TempDir
+    Path dir;
+
+    // sku, name, stock, price, received, active; every tenth row leaves the name blank
+    private Path workbook() throws IOException {
+        Path file = dir.resolve("variants.xlsx");
+        try (SXSSFWorkbook workbook = new SXSSFWorkbook(100); OutputStream out = Files.newOutputStream(file)) {
+            Sheet sheet = workbook.createSheet("Variants");
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+            Row header = sheet.createRow(0);
+            String[] titles = {"SKU", "Name", "Stock", "Price", "Received", "Active"};
+            for (int c = 0; c < titles.length; c++) {
+                header.createCell(c).setCellValue(titles[c]);
+            }
+            for (int i = 1; i <= ROWS; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("SKU-" + i);
+                if (i % 10 != 0) {
+                    row.createCell(1).setCellValue("Áo thun cổ tròn " + i);
+                }
+                row.createCell(2).setCellValue(i % 7);
+                row.createCell(3).setCellValue(i + 0.99);
+                row.createCell(4).setCellValue(RECEIVED.plusDays(i));
+                row.getCell(4).setCellStyle(dateStyle);
+                row.createCell(5).setCellValue(i % 2 == 0);
+            }
+            workbook.write(out);
+            workbook.dispose();
+        }
+        return file;
+    }
+
+    @Test
+    void readsEveryRowInChunks() throws Exception {
+        Path file = workbook();
+        List<Integer> chunkSizes = new ArrayList<>();
+        List<SheetRow> rows = new ArrayList<>();
+
+        long read = XlsxStreamReader.read(file, 16, 1_000, chunk -> {
+            chunkSizes.add(chunk.size());
+            rows.addAll(chunk);
+        });
+
+        assertThat(read).isEqualTo(ROWS);
+        assertThat(chunkSizes).containsExactly(1_000, 1_000, 500);
+        for (int i = 1; i <= ROWS; i++) {
+            SheetRow row = rows.get(i - 1);
+            assertThat(row.rowNum()).isEqualTo(i);
+            assertThat(row.getString(0)).isEqualTo("SKU-" + i);
+            assertThat(row.getString(1)).isEqualTo(i % 10 != 0 ? "Áo thun cổ tròn " + i : null);
+            assertThat(row.getInteger(2)).isEqualTo(i % 7);
+            assertThat(row.getBigDecimal(3)).isEqualByComparingTo(BigDecimal.valueOf(i).add(new BigDecimal("0.99")));
+            assertThat(row.getDateTime(4)).isEqualTo(RECEIVED.plusDays(i));
+            assertThat(row.getBoolean(5)).isEqualTo(i % 2 == 0);
+        }
+        // Past the last cell of the row
+        assertThat(rows.get(0).getString(9)).isNull();
+    }
+
+    @Test
+    void handlerFailureStopsTheRead() throws Exception {
+        Path file = workbook();
+        List<Integer> handled = new ArrayList<>();
+
+        assertThatThrownBy(() -> XlsxStreamReader.read(file, 4, 100, chunk -> {
+            handled.add(chunk.size());
+            if (handled.size() == 2) {
+                throw new IllegalStateException("row 150 is invalid");
+            }
+        })).isInstanceOf(IllegalStateException.class).hasMessage("row 150 is invalid");
+        assertThat(handled).containsExactly(100, 100);
+    }
+
+    @Test
+    void unreadableFileIsReported() throws Exception {
+        Path file = Files.writeString(dir.resolve("broken.xlsx"), "not a workbook");
+
+        assertThatThrownBy(() -> XlsxStreamReader.read(file, 4, 100, chunk -> { }))
+                .isInstanceOf(IOException.class)
+                .hasMessageStartingWith("Could not read spreadsheet");
+    }
+}
@@ -1,69 +1,155 @@
 import apiClient from './api';
 
+export interface ImportJob {
+    jobId: string;
+    type: string;
+    mode: string;
+    fileName: string;
+    status: 'QUEUED' | 'RUNNING' | 'COMPLETED' | 'FAILED';
+    rowsRead: number;
+    rowsWritten: number;
+    rowsRejected: number;
+    message?: string;
+    errorReportAvailable: boolean;
+    submittedBy: string;
+    createdAt: string;
+    updatedAt: string;
+}
+
+const sleep = (ms: number) => new Promise(resolve => setTimeout(resolve, ms));
+
+const describeJob = (job: ImportJob) =>
+    `${job.status}: ${job.rowsRead} read, ${job.rowsWritten} written, ${job.rowsRejected} rejected`;
+
+const downloadErrorReport = async (jobId: string) => {
+    try {
+        const response = await apiClient.get(`/import/jobs/${jobId}/errors`, {
+            responseType: 'blob'
+        });
+        const url = window.URL.createObjectURL(new Blob([response.data]));
+        const link = document.createElement('a');
+        link.href = url;
+        link.setAttribute('download', `import_${jobId}_errors.csv`);
+        document.body.appendChild(link);
+        link.click();
+        document.body.removeChild(link);
+        window.URL.revokeObjectURL(url);
+    } catch (error) {
+        console.error(`Error downloading error report for import ${jobId}`, error);
+        alert('Failed to download error report.');
+    }
+};
+
 export default {
     importBrands(file: File) {
         const formData = new FormData();
         formData.append('file', file);
-        return apiClient.post('/import/brands', formData, {
+        return apiClient.post<ImportJob>('/import/brands', formData, {
             headers: { 'Content-Type': 'multipart/form-data' }
         });
     },
     importCategories(file: File) {
         const formData = new FormData();
         formData.append('file', file);
-        return apiClient.post('/import/categories', formData, {
+        return apiClient.post<ImportJob>('/import/categories', formData, {
             headers: { 'Content-Type': 'multipart/form-data' }
         });
     },
     importColors(file: File) {
         const formData = new FormData();
         formData.append('file', file);
-        return apiClient.post('/import/colors', formData, {
+        return apiClient.post<ImportJob>('/import/colors', formData, {
             headers: { 'Content-Type': 'multipart/form-data' }
         });
     },
     importSizes(file: File) {
         const formData = new FormData();
         formData.append('file', file);
-        return apiClient.post('/import/sizes', formData, {
+        return apiClient.post<ImportJob>('/import/sizes', formData, {
             headers: { 'Content-Type': 'multipart/form-data' }
         });
     },
     importUsers(file: File) {
         const formData = new FormData();
         formData.append('file', file);
-        return apiClient.post('/import/users', formData, {
+        return apiClient.post<ImportJob>('/import/users', formData, {
             headers: { 'Content-Type': 'multipart/form-data' }
         });
     },
     importProducts(file: File) {
         const formData = new FormData();
         formData.append('file', file);
-        return apiClient.post('/import/products', formData, {
+        return apiClient.post<ImportJob>('/import/products', formData, {
             headers: { 'Content-Type': 'multipart/form-data' }
         });
     },
     importProductVariants(file: File) {
         const formData = new FormData();
         formData.append('file', file);
-        return apiClient.post('/import/product-variants', formData, {
+        return apiClient.post<ImportJob>('/import/product-variants', formData, {
             headers: { 'Content-Type': 'multipart/form-data' }
         });
     },
     importCoupons(file: File) {
         const formData = new FormData();
         formData.append('file', file);
-        return apiClient.post('/import/coupons', formData, {
+        return apiClient.post<ImportJob>('/import/coupons', formData, {
             headers: { 'Content-Type': 'multipart/form-data' }
         });
     },
     importDiscounts(file: File) {
         const formData = new FormData();
         formData.append('file', file);
-        return apiClient.post('/import/discounts', formData, {
+        return apiClient.post<ImportJob>('/import/discounts', formData, {
+            headers: { 'Content-Type': 'multipart/form-data' }
+        });
+    },
+    // Products and product-variants only: match existing rows by slug / SKU instead of always inserting
+    upsert(type: 'products' | 'product-variants', file: File) {
+        const formData = new FormData();
+        formData.append('file', file);
+        return apiClient.post<ImportJob>(`/import/${type}?mode=upsert`, formData, {
             headers: { 'Content-Type': 'multipart/form-data' }
         });
     },
+    dryRun(type: 'products' | 'product-variants', file: File) {
+        const formData = new FormData();
+        formData.append('file', file);
+        return apiClient.post<ImportJob>(`/import/${type}/dry-run`, formData, {
+            headers: { 'Content-Type': 'multipart/form-data' }
+        });
+    },
+    // Imports run as background jobs; progress is also pushed to /topic/import-jobs/{jobId}
+    getJob(jobId: string) {
+        return apiClient.get<ImportJob>(`/import/jobs/${jobId}`);
+    },
+    getMyJobs() {
+        return apiClient.get<ImportJob[]>('/import/jobs');
+    },
+    // Poll a submitted job until it completes or fails; onProgress gets every snapshot
+    async waitForJob(jobId: string, onProgress?: (progress: string, job: ImportJob) => void, intervalMs = 1000) {
+        for (;;) {
+            const { data: job } = await apiClient.get<ImportJob>(`/import/jobs/${jobId}`);
+            onProgress?.(describeJob(job), job);
+            if (job.status === 'COMPLETED' || job.status === 'FAILED') {
+                return job;
+            }
+            await sleep(intervalMs);
+        }
+    },
+    // Tell the admin how a finished job went and offer the rejected rows as CSV
+    async reportJob(job: ImportJob) {
+        const summary = `Import ${job.status.toLowerCase()}: ${job.rowsRead} rows read, ${job.rowsWritten} written, `
+            + `${job.rowsRejected} rejected.` + (job.message ? `\n${job.message}` : '');
+        if (job.errorReportAvailable) {
+            if (confirm(`${summary}\n\nDownload the rejected rows?`)) {
+                await downloadErrorReport(job.jobId);
+            }
+        } else {
+            alert(summary);
+        }
+    },
+    downloadErrorReport,
     async downloadTemplate(entityType: string) {
         try {
             const response = await apiClient.get(`/templates/${entityType}`, {
@@ -1,4 +1,5 @@
 import apiClient from './api';
+import type { Page } from './productService';
 
 export interface OrderItemDTO {
   id?: number;
@@ -41,8 +42,8 @@ export default {
   searchOrders(params: any) {
     return apiClient.get('/orders/search', { params });
   },
-  getOrdersByUser(userId: number) {
-    return apiClient.get<OrderDTO[]>(`/orders/user/${userId}`);
+  getOrdersByUser(userId: number, params?: { page?: number; size?: number; sortBy?: string; direction?: string }) {
+    return apiClient.get<Page<OrderDTO>>(`/orders/user/${userId}`, { params });
   },
   getOrderById(id: number) {
     return apiClient.get<OrderDTO>(`/orders/${id}`);